@@ -0,0 +1,13 @@
+package de.cotto.bitbook.backend.transaction;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Chain;
+
+import java.util.Set;
+
+/**
+ * Subscribes to changes of addresses, which are reported to {@link AddressUpdateTracker}.
+ */
+public interface AddressSubscriber {
+    void subscribe(Set<Address> addresses, Chain chain);
+}
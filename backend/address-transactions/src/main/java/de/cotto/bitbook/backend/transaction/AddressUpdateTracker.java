@@ -0,0 +1,69 @@
+package de.cotto.bitbook.backend.transaction;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Chain;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of addresses for which changes are reported (for example by a subscription at Electrs), so that the
+ * known transactions of such an address only need to be updated after a change.
+ * An address is only {@link State#UP_TO_DATE} if it was updated completely while being tracked, no change was
+ * reported since the update started, and the transactions were provided by the source of the change notifications.
+ * Other providers may lag behind and miss the reported change.
+ */
+@Component
+public class AddressUpdateTracker {
+    private final Map<AddressAndChain, State> states = new ConcurrentHashMap<>();
+
+    public AddressUpdateTracker() {
+        // default constructor
+    }
+
+    public void trackingStarted(Address address, Chain chain) {
+        states.putIfAbsent(new AddressAndChain(address, chain), State.UNKNOWN);
+    }
+
+    public void trackingStopped(Chain chain) {
+        states.keySet().removeIf(addressAndChain -> addressAndChain.chain() == chain);
+    }
+
+    public void changed(Address address, Chain chain) {
+        states.computeIfPresent(new AddressAndChain(address, chain), (key, state) -> State.CHANGED);
+    }
+
+    public void updateStarted(Address address, Chain chain) {
+        states.computeIfPresent(new AddressAndChain(address, chain), (key, state) -> State.UPDATING);
+    }
+
+    /**
+     * Called by the source of the change notifications once it provided the transactions of the address.
+     */
+    public void updateConfirmed(Address address, Chain chain) {
+        states.computeIfPresent(
+                new AddressAndChain(address, chain),
+                (key, state) -> state == State.UPDATING ? State.UPDATE_CONFIRMED : state
+        );
+    }
+
+    public void updateFinished(Address address, Chain chain) {
+        states.computeIfPresent(new AddressAndChain(address, chain), (key, state) -> switch (state) {
+            case UPDATE_CONFIRMED -> State.UP_TO_DATE;
+            case UPDATING -> State.UNKNOWN;
+            default -> state;
+        });
+    }
+
+    public State getState(Address address, Chain chain) {
+        return states.getOrDefault(new AddressAndChain(address, chain), State.NOT_TRACKED);
+    }
+
+    public enum State {
+        NOT_TRACKED, UNKNOWN, UPDATING, UPDATE_CONFIRMED, UP_TO_DATE, CHANGED
+    }
+
+    private record AddressAndChain(Address address, Chain chain) {
+    }
+}
@@ -29,11 +29,26 @@ public abstract class SimpleAddressTransactionsProvider
         return key.chain() == BTC;
     }
 
-    protected abstract Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey);
+    protected abstract Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey)
+            throws ProviderException;
+
+    /**
+     * Returns the transactions confirmed at or after the given block height, which are then combined with the known
+     * transactions. Providers that are not able to restrict the request to these transactions return the complete
+     * transaction history instead.
+     */
+    protected Optional<AddressTransactions> getUpdatesFromApi(
+            TransactionsRequestKey transactionsRequestKey,
+            int fromBlockHeight
+    ) throws ProviderException {
+        return getFromApi(transactionsRequestKey);
+    }
 
-    private Optional<AddressTransactions> getCombined(TransactionsRequestKey transactionsRequestKey) {
+    private Optional<AddressTransactions> getCombined(
+            TransactionsRequestKey transactionsRequestKey
+    ) throws ProviderException {
         AddressTransactions knownTransactions = transactionsRequestKey.addressTransactions();
-        return getFromApi(transactionsRequestKey)
+        return getUpdatesFromApi(transactionsRequestKey, knownTransactions.lastCheckedAtBlockHeight())
                 .map(knownTransactions::getCombined)
                 .or(() -> Optional.of(knownTransactions));
     }
@@ -0,0 +1,121 @@
+package de.cotto.bitbook.backend.transaction;
+
+import de.cotto.bitbook.backend.transaction.AddressUpdateTracker.State;
+import org.junit.jupiter.api.Test;
+
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_2;
+import static de.cotto.bitbook.backend.model.Chain.BCH;
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AddressUpdateTrackerTest {
+    private final AddressUpdateTracker addressUpdateTracker = new AddressUpdateTracker();
+
+    @Test
+    void not_tracked() {
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.NOT_TRACKED);
+    }
+
+    @Test
+    void unknown_after_tracking_started() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void tracking_is_per_chain() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BCH)).isEqualTo(State.NOT_TRACKED);
+    }
+
+    @Test
+    void tracking_started_again_keeps_state() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.changed(ADDRESS, BTC);
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.CHANGED);
+    }
+
+    @Test
+    void up_to_date_after_confirmed_update() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateStarted(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.UPDATING);
+        addressUpdateTracker.updateConfirmed(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.UPDATE_CONFIRMED);
+        addressUpdateTracker.updateFinished(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.UP_TO_DATE);
+    }
+
+    @Test
+    void unknown_after_update_without_confirmation() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateFinished(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void update_confirmed_without_start() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateConfirmed(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void changed_after_update() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateConfirmed(ADDRESS, BTC);
+        addressUpdateTracker.updateFinished(ADDRESS, BTC);
+        addressUpdateTracker.changed(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.CHANGED);
+    }
+
+    @Test
+    void changed_during_update() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateStarted(ADDRESS, BTC);
+        addressUpdateTracker.changed(ADDRESS, BTC);
+        addressUpdateTracker.updateConfirmed(ADDRESS, BTC);
+        addressUpdateTracker.updateFinished(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.CHANGED);
+    }
+
+    @Test
+    void changed_after_confirmation() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateConfirmed(ADDRESS, BTC);
+        addressUpdateTracker.changed(ADDRESS, BTC);
+        addressUpdateTracker.updateFinished(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.CHANGED);
+    }
+
+    @Test
+    void update_finished_without_start() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.updateFinished(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.UNKNOWN);
+    }
+
+    @Test
+    void update_of_untracked_address() {
+        addressUpdateTracker.updateStarted(ADDRESS, BTC);
+        addressUpdateTracker.changed(ADDRESS, BTC);
+        addressUpdateTracker.updateFinished(ADDRESS, BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.NOT_TRACKED);
+    }
+
+    @Test
+    void tracking_stopped() {
+        addressUpdateTracker.trackingStarted(ADDRESS, BTC);
+        addressUpdateTracker.trackingStarted(ADDRESS_2, BTC);
+        addressUpdateTracker.trackingStarted(ADDRESS, BCH);
+        addressUpdateTracker.trackingStopped(BTC);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BTC)).isEqualTo(State.NOT_TRACKED);
+        assertThat(addressUpdateTracker.getState(ADDRESS_2, BTC)).isEqualTo(State.NOT_TRACKED);
+        assertThat(addressUpdateTracker.getState(ADDRESS, BCH)).isEqualTo(State.UNKNOWN);
+    }
+}
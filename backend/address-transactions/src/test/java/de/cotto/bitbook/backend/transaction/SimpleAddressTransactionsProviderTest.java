@@ -52,6 +52,19 @@ class SimpleAddressTransactionsProviderTest {
         assertThat(addressTransactions).contains(ADDRESS_TRANSACTIONS_UPDATED);
     }
 
+    @Test
+    void updating_requests_transactions_since_last_check() throws Exception {
+        int blockHeight = LAST_CHECKED_AT_BLOCK_HEIGHT + 50;
+        addressTransactionsProvider.get(new TransactionsRequestKey(ADDRESS_TRANSACTIONS, blockHeight));
+        assertThat(addressTransactionsProvider.updatesFromBlockHeight).isEqualTo(LAST_CHECKED_AT_BLOCK_HEIGHT);
+    }
+
+    @Test
+    void get_for_unknown_transactions_does_not_request_updates() throws Exception {
+        addressTransactionsProvider.get(new TransactionsRequestKey(UNKNOWN_BTC, 123));
+        assertThat(addressTransactionsProvider.updatesFromBlockHeight).isNull();
+    }
+
     @Test
     void updating_with_unknown() throws Exception {
         addressTransactionsProvider.apiResponse = UNKNOWN_BTC;
@@ -89,11 +102,23 @@ class SimpleAddressTransactionsProviderTest {
         @Nullable
         public AddressTransactions apiResponse;
 
+        @Nullable
+        public Integer updatesFromBlockHeight;
+
         @Override
         protected Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey) {
             return Optional.ofNullable(apiResponse);
         }
 
+        @Override
+        protected Optional<AddressTransactions> getUpdatesFromApi(
+                TransactionsRequestKey transactionsRequestKey,
+                int fromBlockHeight
+        ) throws ProviderException {
+            updatesFromBlockHeight = fromBlockHeight;
+            return super.getUpdatesFromApi(transactionsRequestKey, fromBlockHeight);
+        }
+
         @Override
         public String getName() {
             return "abc";
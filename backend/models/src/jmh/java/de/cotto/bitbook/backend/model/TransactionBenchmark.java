@@ -0,0 +1,81 @@
+package de.cotto.bitbook.backend.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toCollection;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionBenchmark {
+    private static final int INPUTS_AND_OUTPUTS = 10;
+    private static final Coins VALUE = Coins.ofSatoshis(1_000);
+
+    @Param({"10", "5000"})
+    public int ownedAddresses;
+
+    private Transaction transaction;
+    private Set<Address> addresses;
+
+    public TransactionBenchmark() {
+        // default constructor
+    }
+
+    @Setup
+    public void setUp() {
+        List<Address> allAddresses = IntStream.range(0, Math.max(ownedAddresses, 2 * INPUTS_AND_OUTPUTS))
+                .mapToObj(i -> new HexString(String.format("%040x", i)))
+                .map(hash -> new Address(Base58Address.createP2Pkh(hash)))
+                .toList();
+        List<Input> inputs = new ArrayList<>();
+        List<Output> outputs = new ArrayList<>();
+        for (int i = 0; i < INPUTS_AND_OUTPUTS; i++) {
+            inputs.add(new Input(VALUE, allAddresses.get(2 * i)));
+            outputs.add(new Output(VALUE, allAddresses.get(2 * i + 1)));
+        }
+        transaction = new Transaction(
+                new TransactionHash(String.format("%064x", 1)),
+                700_000,
+                LocalDateTime.of(2021, 9, 1, 12, 0),
+                Coins.NONE,
+                inputs,
+                outputs,
+                Chain.BTC
+        );
+        addresses = allAddresses.stream().limit(ownedAddresses).collect(toCollection(HashSet::new));
+    }
+
+    @Benchmark
+    public Coins getDifferenceForAddresses() {
+        return transaction.getDifferenceForAddresses(addresses);
+    }
+
+    /**
+     * The previous implementation, which looks at all inputs and outputs for each of the given addresses.
+     */
+    @Benchmark
+    public Coins getDifferenceForEachAddress() {
+        return addresses.stream().map(transaction::getDifferenceForAddress).reduce(Coins.NONE, Coins::add);
+    }
+}
@@ -1,10 +1,18 @@
 package de.cotto.bitbook.backend.model;
 
+import java.util.Optional;
+
 public record Address(String address) implements Comparable<Address> {
     public static final Address NONE = new Address("");
 
     public Address(String address) {
-        this.address = new CashAddrAddress(address).getLegacyAddress();
+        this.address = NormalizedAddresses.normalize(address);
+    }
+
+    public static Optional<Address> fromScript(HexString script) {
+        return Base58Address.fromScript(script)
+                .or(() -> Bech32Address.fromScript(script))
+                .map(Address::new);
     }
 
     public boolean isValid() {
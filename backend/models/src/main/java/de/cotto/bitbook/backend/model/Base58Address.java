@@ -1,6 +1,8 @@
 package de.cotto.bitbook.backend.model;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 public class Base58Address {
@@ -10,13 +12,18 @@ public class Base58Address {
     private static final HexString P2PKH_PREFIX = new HexString("00");
     private static final HexString P2SH_PREFIX = new HexString("05");
 
-    private static final HexString ZERO_BYTE_HEX = new HexString("00");
     private static final HexString OP_DUP_HEX = new HexString("76");
     private static final HexString OP_HASH160_HEX = new HexString("a9");
     private static final HexString OP_EQUALVERIFY_HEX = new HexString("88");
     private static final HexString OP_CHECKSIG_HEX = new HexString("ac");
     private static final HexString OP_EQUAL_HEX = new HexString("87");
 
+    private static final byte[] P2PKH_SCRIPT_START = {0x76, (byte) 0xa9, 0x14};
+    private static final byte[] P2PKH_SCRIPT_END = {(byte) 0x88, (byte) 0xac};
+    private static final byte[] P2SH_SCRIPT_START = {(byte) 0xa9, 0x14};
+    private static final byte[] P2SH_SCRIPT_END = {(byte) 0x87};
+    private static final int HASH160_BYTES = 20;
+
     private static final BigInteger FIFTY_EIGHT = BigInteger.valueOf(58);
     private static final int BYTES_FOR_CHECKSUM = 4;
 
@@ -34,6 +41,20 @@ public class Base58Address {
         return createForPrefix(P2SH_PREFIX, hash);
     }
 
+    /**
+     * Returns the P2PKH or P2SH address for the given output script, or nothing for other scripts.
+     */
+    public static Optional<String> fromScript(HexString script) {
+        byte[] bytes = script.getByteArray();
+        if (matches(bytes, P2PKH_SCRIPT_START, P2PKH_SCRIPT_END)) {
+            return Optional.of(createP2Pkh(getHash160(bytes, P2PKH_SCRIPT_START.length)));
+        }
+        if (matches(bytes, P2SH_SCRIPT_START, P2SH_SCRIPT_END)) {
+            return Optional.of(createP2Sh(getHash160(bytes, P2SH_SCRIPT_START.length)));
+        }
+        return Optional.empty();
+    }
+
     public boolean isValid() {
         boolean matches = PATTERN.matcher(addressString).matches();
         if (matches) {
@@ -71,6 +92,19 @@ public class Base58Address {
         return encode(dataToEncode);
     }
 
+    private static boolean matches(byte[] script, byte[] start, byte[] end) {
+        if (script.length != start.length + HASH160_BYTES + end.length) {
+            return false;
+        }
+        int endIndex = start.length + HASH160_BYTES;
+        return Arrays.equals(script, 0, start.length, start, 0, start.length)
+                && Arrays.equals(script, endIndex, script.length, end, 0, end.length);
+    }
+
+    private static HexString getHash160(byte[] script, int startIndex) {
+        return new HexString(Arrays.copyOfRange(script, startIndex, startIndex + HASH160_BYTES));
+    }
+
     private static String encode(HexString input) {
         return new Base58Encoder(input).encode();
     }
@@ -95,12 +129,8 @@ public class Base58Address {
     }
 
     private HexString prependZeros(HexString hex) {
-        HexString result = hex;
-        long numberOfLeadingOnes = countLeadingZeros();
-        for (int i = 0; i < numberOfLeadingOnes; i++) {
-            result = ZERO_BYTE_HEX.append(result);
-        }
-        return result;
+        int numberOfLeadingOnes = (int) countLeadingZeros();
+        return new HexString(new byte[numberOfLeadingOnes]).append(hex);
     }
 
     private HexString getLengthInBytesAsHex(HexString hexString) {
@@ -117,11 +147,12 @@ public class Base58Address {
     }
 
     private HexString convertToHexString(BigInteger bigInteger) {
-        String hex = bigInteger.toString(16);
-        if (hex.length() % 2 != 0) {
-            return new HexString("0" + hex);
+        byte[] bytes = bigInteger.toByteArray();
+        boolean hasSignByte = bytes.length > 1 && bytes[0] == 0;
+        if (hasSignByte) {
+            return new HexString(bytes).getSubstringStartingAtByte(1);
         }
-        return new HexString(hex);
+        return new HexString(bytes);
     }
 
     private boolean checksumIsCorrect() {
@@ -0,0 +1,16 @@
+package de.cotto.bitbook.backend.model;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A provider that is able to answer requests for several keys with a single call.
+ */
+public interface BatchProvider<K, R> extends Provider<K, R> {
+    /**
+     * Keys without a result are not included in the returned map.
+     */
+    Map<K, R> getAll(Set<K> keys) throws ProviderException;
+
+    int getMaximumBatchSize();
+}
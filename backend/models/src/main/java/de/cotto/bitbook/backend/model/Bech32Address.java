@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 public class Bech32Address extends Bech32Base {
@@ -11,7 +12,9 @@ public class Bech32Address extends Bech32Base {
     private static final int WITNESS_VERSION_1 = 1;
     private static final int BECH32M_CONST = 0x2bc830a3;
     private static final Pattern PATTERN = Pattern.compile("bc1[" + CHARSET + "]{1,87}");
+    private static final String HUMAN_READABLE_PART = "bc";
     private static final int HUMAN_READABLE_PART_END_INDEX = 2;
+    private static final int OP_1 = 0x51;
     private static final int[] GENERATOR = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
     private static final byte DATA_LENGTH_P2PKH_WIT = 20;
     private static final byte DATA_LENGTH_P2SH_WIT = 32;
@@ -29,6 +32,25 @@ public class Bech32Address extends Bech32Base {
         payloadWithChecksum = getPayloadWithChecksum();
     }
 
+    /**
+     * Returns the P2WPKH, P2WSH, or P2TR address for the given output script, or nothing for other scripts.
+     */
+    public static Optional<String> fromScript(HexString script) {
+        byte[] bytes = script.getByteArray();
+        if (bytes.length < 2 || bytes[1] != bytes.length - 2) {
+            return Optional.empty();
+        }
+        int programLength = bytes[1];
+        if (bytes[0] == WITNESS_VERSION_0
+                && (programLength == DATA_LENGTH_P2PKH_WIT || programLength == DATA_LENGTH_P2SH_WIT)) {
+            return Optional.of(create(WITNESS_VERSION_0, script.getSubstringStartingAtByte(2)));
+        }
+        if (bytes[0] == OP_1 && programLength == DATA_LENGTH_P2TR_WIT) {
+            return Optional.of(create(WITNESS_VERSION_1, script.getSubstringStartingAtByte(2)));
+        }
+        return Optional.empty();
+    }
+
     public boolean isValid() {
         if (hasInvalidFormat()) {
             return false;
@@ -64,6 +86,38 @@ public class Bech32Address extends Bech32Base {
         throw new IllegalStateException("unsupported address type");
     }
 
+    private static String create(int witnessVersion, HexString program) {
+        List<Byte> data = new ArrayList<>();
+        data.add((byte) witnessVersion);
+        int acc = 0;
+        int bits = 0;
+        for (byte value : program.getByteArray()) {
+            acc = (acc << 8 | value & 0xff) & 4095;
+            bits += 8;
+            while (bits >= BITS_FOR_BECH32_CHAR) {
+                bits -= BITS_FOR_BECH32_CHAR;
+                data.add((byte) (acc >> bits & 31));
+            }
+        }
+        if (bits > 0) {
+            data.add((byte) (acc << BITS_FOR_BECH32_CHAR - bits & 31));
+        }
+        byte[] expandedHumanReadablePart = getExpandedHumanReadablePart(HUMAN_READABLE_PART);
+        byte[] dataToHash = new byte[expandedHumanReadablePart.length + data.size() + CHECKSUM_BYTES];
+        System.arraycopy(expandedHumanReadablePart, 0, dataToHash, 0, expandedHumanReadablePart.length);
+        for (int i = 0; i < data.size(); i++) {
+            dataToHash[expandedHumanReadablePart.length + i] = data.get(i);
+        }
+        int checksumConstant = witnessVersion == WITNESS_VERSION_0 ? 1 : BECH32M_CONST;
+        int checksum = polymod(dataToHash) ^ checksumConstant;
+        StringBuilder result = new StringBuilder(HUMAN_READABLE_PART).append('1');
+        data.forEach(value -> result.append(CHARSET.charAt(value)));
+        for (int i = 0; i < CHECKSUM_BYTES; i++) {
+            result.append(CHARSET.charAt(checksum >> BITS_FOR_BECH32_CHAR * (CHECKSUM_BYTES - 1 - i) & 31));
+        }
+        return result.toString();
+    }
+
     private boolean hasInvalidFormat() {
         String upperCase = addressString.toUpperCase(Locale.US);
         boolean mixedCase = !lowerCase.equals(addressString) && !upperCase.equals(addressString);
@@ -111,7 +165,7 @@ public class Bech32Address extends Bech32Base {
         return payload[0];
     }
 
-    private byte[] getExpandedHumanReadablePart(String humanReadablePart) {
+    private static byte[] getExpandedHumanReadablePart(String humanReadablePart) {
         byte[] expandedHumanReadablePart = new byte[2 * humanReadablePart.length() + 1];
         expandedHumanReadablePart[humanReadablePart.length()] = 0;
         for (int i = 0; i < humanReadablePart.length(); i++) {
@@ -122,7 +176,7 @@ public class Bech32Address extends Bech32Base {
         return expandedHumanReadablePart;
     }
 
-    private int polymod(byte[] values) {
+    private static int polymod(byte[] values) {
         int checksum = 1;
         for (int value : values) {
             int top = checksum >> 25;
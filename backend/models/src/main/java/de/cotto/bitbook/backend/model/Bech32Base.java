@@ -6,7 +6,7 @@ import java.util.Objects;
 public class Bech32Base {
     protected static final int BITS_FOR_BECH32_CHAR = 5;
     protected static final String CHARSET = "qpzry9x8gf2tvdw0s3jn54khce6mua7l";
-    private static final int CHECKSUM_BYTES = 6;
+    protected static final int CHECKSUM_BYTES = 6;
     @CheckForNull
     protected byte[] payloadWithChecksum;
 
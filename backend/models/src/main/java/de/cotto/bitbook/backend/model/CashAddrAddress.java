@@ -13,6 +13,9 @@ public class CashAddrAddress extends Bech32Base {
     private static final int P2PKH_VERSION = 0;
     private static final int P2SH_VERSION = 8;
     private static final int RIPE160_HASH_LENGTH = 20;
+    private static final int MINIMUM_LENGTH_WITH_LEGACY_ADDRESS = 42;
+    private static final int MAXIMUM_LENGTH_WITH_LEGACY_ADDRESS = 43;
+    private static final String FIRST_CHARACTERS_WITH_LEGACY_ADDRESS = "qps3QPS";
 
     private final String addressString;
     private final String lowerCaseWithPrefix;
@@ -24,6 +27,32 @@ public class CashAddrAddress extends Bech32Base {
         payloadWithChecksum = getPayloadWithChecksum();
     }
 
+    /**
+     * Returns the legacy address for a CashAddr address, and the given string otherwise. Strings that cannot be a
+     * CashAddr address with a legacy representation (based on their length and version character) are not decoded.
+     */
+    public static String toLegacyAddress(String addressString) {
+        if (!mightHaveLegacyAddress(addressString)) {
+            return addressString;
+        }
+        return new CashAddrAddress(addressString).getLegacyAddress();
+    }
+
+    /**
+     * A 20 byte hash with the version byte and checksum needs 42 or 43 characters. The version byte (P2PKH or P2SH,
+     * see {@link #getLegacyAddress()}) determines the first character.
+     */
+    static boolean mightHaveLegacyAddress(String addressString) {
+        int prefixLength = BITCOIN_CASH_PREFIX.length();
+        boolean hasPrefix = addressString.regionMatches(true, 0, BITCOIN_CASH_PREFIX, 0, prefixLength);
+        int start = hasPrefix ? prefixLength : 0;
+        int length = addressString.length() - start;
+        if (length < MINIMUM_LENGTH_WITH_LEGACY_ADDRESS || length > MAXIMUM_LENGTH_WITH_LEGACY_ADDRESS) {
+            return false;
+        }
+        return FIRST_CHARACTERS_WITH_LEGACY_ADDRESS.indexOf(addressString.charAt(start)) >= 0;
+    }
+
     public boolean isValid() {
         if (hasInvalidFormat()) {
             return false;
@@ -4,17 +4,31 @@ import org.springframework.boot.ansi.AnsiColor;
 import org.springframework.boot.ansi.AnsiOutput;
 
 import java.math.BigDecimal;
-import java.util.Locale;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
 
 public record Coins(long satoshis) implements Comparable<Coins> {
     private static final int COIN_SCALE = 8;
     public static final BigDecimal SATOSHIS_IN_COIN = BigDecimal.valueOf(1, -COIN_SCALE);
     public static final Coins NONE = Coins.ofSatoshis(0);
+    private static final long SATOSHIS_PER_COIN = 100_000_000;
+    private static final int WHOLE_COINS_WIDTH = 4;
+    private static final int DECIMAL_POINT_FROM_END = 9;
+    private static final int MILLI_COINS_FROM_END = 8;
+    private static final int SATOSHIS_FROM_END = 5;
+    private static final ThreadLocal<StringBuilder> FORMAT_BUFFER = ThreadLocal.withInitial(StringBuilder::new);
 
     public static Coins ofSatoshis(long satoshis) {
         return new Coins(satoshis);
     }
 
+    /**
+     * Sums the satoshis as primitive long, without creating intermediate instances.
+     */
+    public static Collector<Coins, ?, Coins> sum() {
+        return Collectors.collectingAndThen(Collectors.summingLong(Coins::satoshis), Coins::ofSatoshis);
+    }
+
     public Coins add(Coins summand) {
         return Coins.ofSatoshis(satoshis + summand.satoshis);
     }
@@ -48,37 +62,59 @@ public record Coins(long satoshis) implements Comparable<Coins> {
         return !isNegative();
     }
 
+    /**
+     * Formats the value with eight decimal places, where trailing zeros (and the decimal point, if all decimal places
+     * are zero) are replaced by spaces. Whole coins are right-aligned in four characters.
+     */
     @Override
     public String toString() {
-        String formatted = getWithoutColor();
-        String wholeCoin = formatted.substring(0, formatted.length() - 9);
-        char decimalPoint = formatted.charAt(formatted.length() - 9);
-        String milliCoin = formatted.substring(formatted.length() - 8, formatted.length() - 5);
-        String satoshi = formatted.substring(formatted.length() - 5);
+        StringBuilder builder = FORMAT_BUFFER.get();
+        builder.setLength(0);
+        appendWithoutColor(builder);
+        if (AnsiOutput.encode(AnsiColor.DEFAULT).isEmpty()) {
+            return builder.toString();
+        }
+        int length = builder.length();
         return AnsiOutput.toString(
-                AnsiColor.BRIGHT_GREEN, wholeCoin, AnsiColor.DEFAULT,
-                decimalPoint,
-                AnsiColor.RED, milliCoin, AnsiColor.DEFAULT,
-                AnsiColor.YELLOW, satoshi, AnsiColor.DEFAULT
+                AnsiColor.BRIGHT_GREEN, builder.substring(0, length - DECIMAL_POINT_FROM_END), AnsiColor.DEFAULT,
+                builder.charAt(length - DECIMAL_POINT_FROM_END),
+                AnsiColor.RED, builder.substring(length - MILLI_COINS_FROM_END, length - SATOSHIS_FROM_END),
+                AnsiColor.DEFAULT,
+                AnsiColor.YELLOW, builder.substring(length - SATOSHIS_FROM_END), AnsiColor.DEFAULT
         );
     }
 
-    private String getWithoutColor() {
-        double coins = BigDecimal.valueOf(satoshis, COIN_SCALE).doubleValue();
-        String result = String.format(Locale.ENGLISH, "%13.8f", coins);
-        StringBuilder suffix = new StringBuilder();
-        while (result.endsWith("0")) {
-            result = withoutLastCharacter(result);
-            suffix.append(' ');
+    private void appendWithoutColor(StringBuilder builder) {
+        boolean negative = satoshis < 0;
+        long wholeCoins = Math.abs(satoshis / SATOSHIS_PER_COIN);
+        long fraction = Math.abs(satoshis % SATOSHIS_PER_COIN);
+        int signWidth = negative ? 1 : 0;
+        for (int i = signWidth + numberOfDigits(wholeCoins); i < WHOLE_COINS_WIDTH; i++) {
+            builder.append(' ');
+        }
+        if (negative) {
+            builder.append('-');
         }
-        if (result.endsWith(".")) {
-            result = withoutLastCharacter(result);
-            suffix.append(' ');
+        builder.append(wholeCoins).append('.');
+        int decimalPoint = builder.length() - 1;
+        for (long divisor = SATOSHIS_PER_COIN / 10; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + fraction / divisor % 10));
+        }
+        int position = builder.length() - 1;
+        while (position > decimalPoint && builder.charAt(position) == '0') {
+            builder.setCharAt(position, ' ');
+            position--;
+        }
+        if (position == decimalPoint) {
+            builder.setCharAt(decimalPoint, ' ');
         }
-        return result + suffix;
     }
 
-    private String withoutLastCharacter(String string) {
-        return string.substring(0, string.length() - 1);
+    private static int numberOfDigits(long value) {
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        return digits;
     }
 }
@@ -1,29 +1,41 @@
 package de.cotto.bitbook.backend.model;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.HexFormat;
 import java.util.List;
-import java.util.Objects;
 
 import static org.apache.commons.codec.digest.DigestUtils.sha256;
 
+/**
+ * Bytes with a hex representation. The hex string is only created (and then kept) when it is needed, and all
+ * operations work on the bytes.
+ */
 public class HexString {
     public static final HexString EMPTY = new HexString("");
 
     private final byte[] byteArray;
-    private final String string;
+    @Nullable
+    private String string;
 
     public HexString(byte... bytes) {
-        byteArray = Arrays.copyOf(bytes, bytes.length);
-        string = HexFormat.of().formatHex(byteArray);
+        this(bytes, true);
     }
 
     public HexString(String string) {
-        this(stringToByteArray(string));
+        byteArray = stringToByteArray(string);
     }
 
     public HexString(List<Byte> byteList) {
-        this(listToByteArray(byteList));
+        byteArray = listToByteArray(byteList);
+    }
+
+    private HexString(byte[] bytes, boolean copy) {
+        byteArray = copy ? Arrays.copyOf(bytes, bytes.length) : bytes;
+    }
+
+    private static HexString wrap(byte[] bytes) {
+        return new HexString(bytes, false);
     }
 
     public int getNumberOfBytes() {
@@ -35,23 +47,33 @@ public class HexString {
     }
 
     public int getStringLength() {
-        return string.length();
+        return byteArray.length * 2;
     }
 
     public HexString getSubstringStartingAtByte(int index) {
-        return new HexString(string.substring(index * 2));
+        return wrap(Arrays.copyOfRange(byteArray, index, byteArray.length));
     }
 
     public HexString getSubstringUpToByte(int index) {
-        return new HexString(string.substring(0, index * 2));
+        return wrap(Arrays.copyOfRange(byteArray, 0, index));
     }
 
     public HexString getSha256Hash() {
-        return new HexString(sha256(byteArray));
+        return wrap(sha256(byteArray));
+    }
+
+    public HexString getReversed() {
+        byte[] reversed = new byte[byteArray.length];
+        for (int i = 0; i < byteArray.length; i++) {
+            reversed[i] = byteArray[byteArray.length - 1 - i];
+        }
+        return wrap(reversed);
     }
 
     public HexString append(HexString other) {
-        return new HexString(string + other.string);
+        byte[] result = Arrays.copyOf(byteArray, byteArray.length + other.byteArray.length);
+        System.arraycopy(other.byteArray, 0, result, byteArray.length, other.byteArray.length);
+        return wrap(result);
     }
 
     private static byte[] stringToByteArray(String string) {
@@ -75,18 +97,21 @@ public class HexString {
             return false;
         }
         HexString hexString = (HexString) other;
-        return Arrays.equals(byteArray, hexString.byteArray) && Objects.equals(string, hexString.string);
+        return Arrays.equals(byteArray, hexString.byteArray);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(string);
-        result = 31 * result + Arrays.hashCode(byteArray);
-        return result;
+        return Arrays.hashCode(byteArray);
     }
 
     @Override
     public String toString() {
-        return string;
+        String result = string;
+        if (result == null) {
+            result = HexFormat.of().formatHex(byteArray);
+            string = result;
+        }
+        return result;
     }
 }
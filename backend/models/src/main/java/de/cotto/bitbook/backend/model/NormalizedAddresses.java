@@ -0,0 +1,37 @@
+package de.cotto.bitbook.backend.model;
+
+import com.google.common.cache.CacheBuilder;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Normalizes address strings (CashAddr addresses are converted to legacy addresses). Optionally, the normalized
+ * strings are kept in a bounded cache, so that addresses seen several times share a single string instance and are
+ * normalized only once.
+ */
+public final class NormalizedAddresses {
+    @Nullable
+    private static volatile ConcurrentMap<String, String> cache;
+
+    private NormalizedAddresses() {
+        // utility class
+    }
+
+    public static void enableCache(long maximumSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).<String, String>build().asMap();
+    }
+
+    @SuppressWarnings("PMD.NullAssignment")
+    public static void disableCache() {
+        cache = null;
+    }
+
+    static String normalize(String address) {
+        ConcurrentMap<String, String> currentCache = cache;
+        if (currentCache == null) {
+            return CashAddrAddress.toLegacyAddress(address);
+        }
+        return currentCache.computeIfAbsent(address, CashAddrAddress::toLegacyAddress);
+    }
+}
@@ -7,6 +7,13 @@ public interface Provider<K, R> {
 
     Optional<R> get(K key) throws ProviderException;
 
+    /**
+     * The name of the Feign client used by this provider, which is also used for its rate limiter and circuit breaker.
+     */
+    default Optional<String> getClientName() {
+        return Optional.empty();
+    }
+
     default boolean isSupported(K key) {
         return true;
     }
@@ -1,6 +1,5 @@
 package de.cotto.bitbook.backend.model;
 
-import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
 
 import java.time.LocalDateTime;
@@ -11,6 +10,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
@@ -80,23 +80,19 @@ public class Transaction {
     }
 
     public Coins getIncomingCoins(Address address) {
-        return outputs.stream().filter(input -> input.getAddress().equals(address))
-                .map(InputOutput::getValue)
-                .reduce(Coins.NONE, Coins::add);
+        return Coins.ofSatoshis(sumOfValues(outputs, address::equals));
     }
 
     public Coins getOutgoingCoins(Address address) {
-        return inputs.stream().filter(input -> input.getAddress().equals(address))
-                .map(InputOutput::getValue)
-                .reduce(Coins.NONE, Coins::add);
+        return Coins.ofSatoshis(sumOfValues(inputs, address::equals));
     }
 
     public Coins getDifferenceForAddress(Address address) {
-        return getIncomingCoins(address).subtract(getOutgoingCoins(address));
+        return Coins.ofSatoshis(sumOfValues(outputs, address::equals) - sumOfValues(inputs, address::equals));
     }
 
     public Coins getDifferenceForAddresses(Set<Address> addresses) {
-        return addresses.stream().map(this::getDifferenceForAddress).reduce(Coins.NONE, Coins::add);
+        return Coins.ofSatoshis(sumOfValues(outputs, addresses::contains) - sumOfValues(inputs, addresses::contains));
     }
 
     public TransactionHash getHash() {
@@ -223,12 +219,24 @@ public class Transaction {
     }
 
     private void validateCoinsSum(TransactionHash hash, Coins fees, List<Input> inputs, List<Output> outputs) {
-        Coins sumInputs = inputs.stream().map(InputOutput::getValue).reduce(Coins.NONE, Coins::add);
-        Coins sumOutputs = outputs.stream().map(InputOutput::getValue).reduce(Coins.NONE, Coins::add);
-        Coins total = sumInputs.subtract(sumOutputs).subtract(fees);
-        String errorMessage = hash + ": inputs %s - outputs %s - fee %s must be 0 but is %s".formatted(
-                sumInputs, sumOutputs, fees, total
-        );
-        Preconditions.checkArgument(total.equals(Coins.NONE), errorMessage);
+        long sumInputs = sumOfValues(inputs, address -> true);
+        long sumOutputs = sumOfValues(outputs, address -> true);
+        long total = sumInputs - sumOutputs - fees.satoshis();
+        if (total != 0) {
+            String errorMessage = hash + ": inputs %s - outputs %s - fee %s must be 0 but is %s".formatted(
+                    Coins.ofSatoshis(sumInputs), Coins.ofSatoshis(sumOutputs), fees, Coins.ofSatoshis(total)
+            );
+            throw new IllegalArgumentException(errorMessage);
+        }
+    }
+
+    private static long sumOfValues(List<? extends InputOutput> inputsOrOutputs, Predicate<Address> addressFilter) {
+        long satoshis = 0;
+        for (InputOutput inputOutput : inputsOrOutputs) {
+            if (addressFilter.test(inputOutput.getAddress())) {
+                satoshis += inputOutput.getValue().satoshis();
+            }
+        }
+        return satoshis;
     }
 }
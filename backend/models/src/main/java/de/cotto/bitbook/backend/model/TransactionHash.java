@@ -1,10 +1,48 @@
 package de.cotto.bitbook.backend.model;
 
-public record TransactionHash(String hash) implements Comparable<TransactionHash> {
+import javax.annotation.Nullable;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * Transaction hashes given as 64 lower-case hex characters are stored as 32 bytes (in four longs), and rendered as
+ * hex string only when needed. Other strings (for example in tests, or blank hashes) are kept as they are.
+ */
+public final class TransactionHash implements Comparable<TransactionHash> {
     public static final TransactionHash NONE = new TransactionHash("");
 
+    private static final int HEX_LENGTH = 64;
+    private static final int HEX_DIGITS_PER_LONG = 16;
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+
+    private final long bits0;
+    private final long bits1;
+    private final long bits2;
+    private final long bits3;
+    @Nullable
+    private final String otherHash;
+    private final int hashCode;
+
+    public TransactionHash(String hash) {
+        if (isLowerCaseHex(hash)) {
+            bits0 = parse(hash, 0);
+            bits1 = parse(hash, 1);
+            bits2 = parse(hash, 2);
+            bits3 = parse(hash, 3);
+            otherHash = null;
+            hashCode = Objects.hash(bits0, bits1, bits2, bits3);
+        } else {
+            bits0 = 0;
+            bits1 = 0;
+            bits2 = 0;
+            bits3 = 0;
+            otherHash = hash;
+            hashCode = hash.hashCode();
+        }
+    }
+
     public boolean isInvalid() {
-        return hash.isBlank();
+        return otherHash != null && otherHash.isBlank();
     }
 
     public boolean isValid() {
@@ -13,11 +51,72 @@ public record TransactionHash(String hash) implements Comparable<TransactionHash
 
     @Override
     public int compareTo(TransactionHash other) {
-        return hash.compareTo(other.hash);
+        if (otherHash != null || other.otherHash != null) {
+            return toString().compareTo(other.toString());
+        }
+        int result = Long.compareUnsigned(bits0, other.bits0);
+        if (result == 0) {
+            result = Long.compareUnsigned(bits1, other.bits1);
+        }
+        if (result == 0) {
+            result = Long.compareUnsigned(bits2, other.bits2);
+        }
+        if (result == 0) {
+            result = Long.compareUnsigned(bits3, other.bits3);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TransactionHash that) || hashCode != that.hashCode) {
+            return false;
+        }
+        return bits0 == that.bits0
+               && bits1 == that.bits1
+               && bits2 == that.bits2
+               && bits3 == that.bits3
+               && Objects.equals(otherHash, that.otherHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 
     @Override
     public String toString() {
-        return hash;
+        if (otherHash != null) {
+            return otherHash;
+        }
+        return new StringBuilder(HEX_LENGTH)
+                .append(HEX_FORMAT.toHexDigits(bits0))
+                .append(HEX_FORMAT.toHexDigits(bits1))
+                .append(HEX_FORMAT.toHexDigits(bits2))
+                .append(HEX_FORMAT.toHexDigits(bits3))
+                .toString();
+    }
+
+    private static boolean isLowerCaseHex(String hash) {
+        if (hash.length() != HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HEX_LENGTH; i++) {
+            char character = hash.charAt(i);
+            boolean isDigit = character >= '0' && character <= '9';
+            boolean isLowerCaseLetter = character >= 'a' && character <= 'f';
+            if (!isDigit && !isLowerCaseLetter) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parse(String hash, int index) {
+        int start = index * HEX_DIGITS_PER_LONG;
+        return HexFormat.fromHexDigitsToLong(hash, start, start + HEX_DIGITS_PER_LONG);
     }
 }
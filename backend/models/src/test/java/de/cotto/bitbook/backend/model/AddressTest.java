@@ -72,6 +72,31 @@ class AddressTest {
                 .isEqualTo(new HexString("5120a37c3903c8d0db6512e2b40b0dffa05e5a3ab73603ce8c9c4b7771e5412328f9"));
     }
 
+    @Test
+    void fromScript_p2pkh() {
+        assertThat(Address.fromScript(P2PKH.getScript())).contains(P2PKH);
+    }
+
+    @Test
+    void fromScript_p2sh() {
+        assertThat(Address.fromScript(P2SH.getScript())).contains(P2SH);
+    }
+
+    @Test
+    void fromScript_p2wpkh() {
+        assertThat(Address.fromScript(P2WPKH.getScript())).contains(P2WPKH);
+    }
+
+    @Test
+    void fromScript_p2tr() {
+        assertThat(Address.fromScript(P2TR.getScript())).contains(P2TR);
+    }
+
+    @Test
+    void fromScript_unsupported() {
+        assertThat(Address.fromScript(new HexString("6a0401020304"))).isEmpty();
+    }
+
     @Test
     void getScript_unsupported() {
         assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() -> new Address("foo").getScript());
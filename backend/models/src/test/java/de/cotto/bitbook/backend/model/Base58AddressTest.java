@@ -30,6 +30,35 @@ class Base58AddressTest {
                 .isEqualTo(new HexString("a914748284390f9e263a4b766a75d0633c50426eb87587"));
     }
 
+    @Test
+    void fromScript_p2pkh() {
+        assertThat(Base58Address.fromScript(new HexString("76a91462e907b15cbf27d5425399ebf6f0fb50ebb88f1888ac")))
+                .contains(P2PKH);
+    }
+
+    @Test
+    void fromScript_p2sh() {
+        assertThat(Base58Address.fromScript(new HexString("a914748284390f9e263a4b766a75d0633c50426eb87587")))
+                .contains(P2SH_2);
+    }
+
+    @Test
+    void fromScript_segwit() {
+        assertThat(Base58Address.fromScript(new HexString("0014aabf2ef8b9fe76fecf8701e11baa7a3f8792cba6"))).isEmpty();
+    }
+
+    @Test
+    void fromScript_wrong_length() {
+        assertThat(Base58Address.fromScript(new HexString("a914748284390f9e263a4b766a75d0633c50426eb87587")
+                .append(new HexString("00")))).isEmpty();
+    }
+
+    @Test
+    void fromScript_wrong_end() {
+        assertThat(Base58Address.fromScript(new HexString("76a91462e907b15cbf27d5425399ebf6f0fb50ebb88f1888ad")))
+                .isEmpty();
+    }
+
     @Test
     void getScript_not_base58() {
         assertThatIllegalStateException().isThrownBy(
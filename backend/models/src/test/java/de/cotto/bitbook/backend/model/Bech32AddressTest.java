@@ -178,6 +178,42 @@ class Bech32AddressTest {
                 .isEqualTo(new HexString("00201863143c14c5166804bd19203356da136c985678cd4d27a1b8c6329604903262"));
     }
 
+    @Test
+    void fromScript_p2wpkh() {
+        assertThat(Bech32Address.fromScript(P2WPKH.getScript())).contains(P2WPKH.toString());
+    }
+
+    @Test
+    void fromScript_p2wsh() {
+        assertThat(Bech32Address.fromScript(P2WSH.getScript())).contains(P2WSH.toString());
+    }
+
+    @Test
+    void fromScript_p2tr() {
+        assertThat(Bech32Address.fromScript(P2TR.getScript())).contains(P2TR.toString());
+    }
+
+    @Test
+    void fromScript_p2pkh() {
+        assertThat(Bech32Address.fromScript(new HexString("76a91462e907b15cbf27d5425399ebf6f0fb50ebb88f1888ac")))
+                .isEmpty();
+    }
+
+    @Test
+    void fromScript_unsupported_program_length() {
+        assertThat(Bech32Address.fromScript(new HexString("00020102"))).isEmpty();
+    }
+
+    @Test
+    void fromScript_unsupported_witness_version() {
+        assertThat(Bech32Address.fromScript(new HexString("5214751e76e8199196d454941c45d1b3a323f1433bd6"))).isEmpty();
+    }
+
+    @Test
+    void fromScript_too_short() {
+        assertThat(Bech32Address.fromScript(new HexString("00"))).isEmpty();
+    }
+
     @Test
     void getScript_unsupported() {
         assertThatExceptionOfType(IllegalStateException.class).isThrownBy(
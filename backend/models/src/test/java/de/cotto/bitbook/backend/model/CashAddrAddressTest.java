@@ -89,4 +89,86 @@ class CashAddrAddressTest {
         assertThat(new CashAddrAddress("pr95sy3j9xwd2ap32xkykttr4cvcu7as4yc93ky28e").getLegacyAddress())
                 .isEqualTo("3LDsS579y7sruadqu11beEJoTjdFiFCdX4");
     }
-}
\ No newline at end of file
+
+    @Nested
+    @SuppressWarnings("ClassCanBeStatic")
+    class ToLegacyAddress {
+        @Test
+        void p2pkh() {
+            assertThat(CashAddrAddress.toLegacyAddress(CASH_ADDR)).isEqualTo("1BpEi6DfDAUFd7GtittLSdBeYJvcoaVggu");
+        }
+
+        @Test
+        void upper_case_with_prefix() {
+            assertThat(CashAddrAddress.toLegacyAddress(CASH_ADDR_WITH_PREFIX.toUpperCase(Locale.US)))
+                    .isEqualTo("1BpEi6DfDAUFd7GtittLSdBeYJvcoaVggu");
+        }
+
+        @Test
+        void p2sh() {
+            assertThat(CashAddrAddress.toLegacyAddress("pr95sy3j9xwd2ap32xkykttr4cvcu7as4yc93ky28e"))
+                    .isEqualTo("3LDsS579y7sruadqu11beEJoTjdFiFCdX4");
+        }
+
+        @Test
+        void bech32_is_returned_unchanged() {
+            String bech32 = "bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdq";
+            assertThat(CashAddrAddress.toLegacyAddress(bech32)).isSameAs(bech32);
+        }
+    }
+
+    @Nested
+    @SuppressWarnings("ClassCanBeStatic")
+    class MightHaveLegacyAddress {
+        @Test
+        void cashaddr() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress(CASH_ADDR)).isTrue();
+        }
+
+        @Test
+        void cashaddr_with_prefix() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress(CASH_ADDR_WITH_PREFIX)).isTrue();
+        }
+
+        @Test
+        void cashaddr_with_upper_case_prefix() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress(CASH_ADDR_WITH_PREFIX.toUpperCase(Locale.US))).isTrue();
+        }
+
+        @Test
+        void length_43() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress(CASH_ADDR + "q")).isTrue();
+        }
+
+        @Test
+        void too_short() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress(CASH_ADDR.substring(1))).isFalse();
+        }
+
+        @Test
+        void too_long() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress(CASH_ADDR + "qq")).isFalse();
+        }
+
+        @Test
+        void unsupported_version_character() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress("z" + CASH_ADDR.substring(1))).isFalse();
+        }
+
+        @Test
+        void hash_with_24_bytes() {
+            String hash24BytesType0 = "bitcoincash:q9adhakpwzztepkpwp5z0dq62m6u5v5xtyj7j3h2ws4mr9g0";
+            assertThat(CashAddrAddress.mightHaveLegacyAddress(hash24BytesType0)).isFalse();
+        }
+
+        @Test
+        void legacy_address() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress("1BpEi6DfDAUFd7GtittLSdBeYJvcoaVggu")).isFalse();
+        }
+
+        @Test
+        void empty() {
+            assertThat(CashAddrAddress.mightHaveLegacyAddress("")).isFalse();
+        }
+    }
+}
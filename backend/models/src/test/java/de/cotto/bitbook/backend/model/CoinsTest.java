@@ -4,6 +4,7 @@ import nl.jqno.equalsverifier.EqualsVerifier;
 import org.junit.jupiter.api.Test;
 
 import java.util.Locale;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -102,6 +103,38 @@ class CoinsTest {
         EqualsVerifier.forClass(Coins.class).usingGetClass().verify();
     }
 
+    @Test
+    void sum() {
+        Coins sum = Stream.of(Coins.ofSatoshis(1), Coins.ofSatoshis(-20), Coins.ofSatoshis(300)).collect(Coins.sum());
+        assertThat(sum).isEqualTo(Coins.ofSatoshis(281));
+    }
+
+    @Test
+    void sum_empty() {
+        assertThat(Stream.<Coins>empty().collect(Coins.sum())).isEqualTo(Coins.NONE);
+    }
+
+    @Test
+    void zero() {
+        assertThat(Coins.NONE).hasToString("   0         ");
+    }
+
+    @Test
+    void negative_satoshi() {
+        assertThat(Coins.ofSatoshis(-5)).hasToString("  -0.00000005");
+    }
+
+    @Test
+    void tooManyCoinsForPadding() {
+        assertThat(Coins.ofSatoshis(2_100_000_000_000_000L)).hasToString("21000000         ");
+    }
+
+    @Test
+    void formatting_is_repeatable() {
+        Coins coins = Coins.ofSatoshis(12_345_678_123L);
+        assertThat(coins.toString()).isEqualTo(coins.toString());
+    }
+
     @Test
     void justSatoshi() {
         assertThat(Coins.ofSatoshis(12_345)).hasToString("   0.00012345");
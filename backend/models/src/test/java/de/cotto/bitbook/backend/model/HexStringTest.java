@@ -130,8 +130,51 @@ class HexStringTest {
         assertThat(new HexString("C0FFEE").append(new HexString("BABE"))).isEqualTo(new HexString("C0FFEEBABE"));
     }
 
+    @Test
+    void getSubstringUpToByte() {
+        assertThat(new HexString("BABE99").getSubstringUpToByte(2)).isEqualTo(new HexString("BABE"));
+    }
+
+    @Test
+    void getSubstring_toString() {
+        assertThat(new HexString("BABE99").getSubstringStartingAtByte(2)).hasToString("99");
+    }
+
+    @Test
+    void getReversed() {
+        assertThat(new HexString("C0FFEE").getReversed()).isEqualTo(new HexString("EEFFC0"));
+    }
+
+    @Test
+    void getReversed_empty() {
+        assertThat(HexString.EMPTY.getReversed()).isEqualTo(HexString.EMPTY);
+    }
+
+    @Test
+    void append_toString() {
+        assertThat(new HexString("C0FFEE").append(new HexString("BABE"))).hasToString("c0ffeebabe");
+    }
+
+    @Test
+    void append_does_not_modify_original() {
+        HexString original = new HexString("C0FFEE");
+        original.append(new HexString("BABE"));
+        assertThat(original).isEqualTo(new HexString("C0FFEE"));
+    }
+
+    @Test
+    void testToString_lower_case() {
+        assertThat(new HexString("C0FFEE")).hasToString("c0ffee");
+    }
+
+    @Test
+    void testToString_is_kept() {
+        HexString hexString = new HexString("C0FFEE");
+        assertThat(hexString.toString()).isSameAs(hexString.toString());
+    }
+
     @Test
     void testEquals() {
-        EqualsVerifier.forClass(HexString.class).usingGetClass().verify();
+        EqualsVerifier.forClass(HexString.class).usingGetClass().withIgnoredFields("string").verify();
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package de.cotto.bitbook.backend.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NormalizedAddressesTest {
+    private static final String CASH_ADDR = "qpm2qsznhks23z7629mms6s4cwef74vcwvy22gdx6a";
+    private static final String LEGACY_ADDRESS = "1BpEi6DfDAUFd7GtittLSdBeYJvcoaVggu";
+
+    @AfterEach
+    void tearDown() {
+        NormalizedAddresses.disableCache();
+    }
+
+    @Test
+    void normalize_without_cache() {
+        assertThat(NormalizedAddresses.normalize(CASH_ADDR)).isEqualTo(LEGACY_ADDRESS);
+    }
+
+    @Test
+    void normalize_with_cache() {
+        NormalizedAddresses.enableCache(10);
+        assertThat(NormalizedAddresses.normalize(CASH_ADDR)).isEqualTo(LEGACY_ADDRESS);
+    }
+
+    @Test
+    void with_cache_returns_same_instance_for_equal_strings() {
+        NormalizedAddresses.enableCache(10);
+        String first = NormalizedAddresses.normalize(new String(LEGACY_ADDRESS.toCharArray()));
+        String second = NormalizedAddresses.normalize(new String(LEGACY_ADDRESS.toCharArray()));
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void without_cache_returns_given_instance() {
+        String first = NormalizedAddresses.normalize(new String(LEGACY_ADDRESS.toCharArray()));
+        String second = NormalizedAddresses.normalize(new String(LEGACY_ADDRESS.toCharArray()));
+        assertThat(second).isNotSameAs(first).isEqualTo(first);
+    }
+
+    @Test
+    void disableCache() {
+        NormalizedAddresses.enableCache(10);
+        NormalizedAddresses.disableCache();
+        String first = NormalizedAddresses.normalize(new String(LEGACY_ADDRESS.toCharArray()));
+        String second = NormalizedAddresses.normalize(new String(LEGACY_ADDRESS.toCharArray()));
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    void address_uses_cache() {
+        NormalizedAddresses.enableCache(10);
+        Address first = new Address(new String(LEGACY_ADDRESS.toCharArray()));
+        Address second = new Address(new String(LEGACY_ADDRESS.toCharArray()));
+        assertThat(second.address()).isSameAs(first.address());
+    }
+}
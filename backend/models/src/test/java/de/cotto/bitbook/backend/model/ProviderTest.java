@@ -19,6 +19,11 @@ class ProviderTest {
         assertThat(provider.isSupported("unsupported")).isFalse();
     }
 
+    @Test
+    void no_client_name_by_default() {
+        assertThat(provider.getClientName()).isEmpty();
+    }
+
     @Test
     void get() throws Exception {
         assertThat(provider.get("supported")).isNotEmpty();
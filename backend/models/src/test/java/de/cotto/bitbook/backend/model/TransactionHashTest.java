@@ -2,11 +2,15 @@ package de.cotto.bitbook.backend.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Locale;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class TransactionHashTest {
 
     private static final TransactionHash HASH_ABC = new TransactionHash("abc");
+    private static final String HEX = "c56c2a4ec7099879c2c4da74f4e5105a5a5d0ed94aa7d64518fa7e4256d42d9e";
+    private static final String HEX_2 = "aad0e9e8f453da1a207600f856325f10b2e1a03c39c308481855925f15ed4cfe";
 
     @Test
     void testToString() {
@@ -57,4 +61,97 @@ class TransactionHashTest {
     void comparable_larger() {
         assertThat(new TransactionHash("b").compareTo(new TransactionHash("a"))).isPositive();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testToString_hex() {
+        assertThat(new TransactionHash(HEX)).hasToString(HEX);
+    }
+
+    @Test
+    void testToString_upper_case_hex_is_kept() {
+        assertThat(new TransactionHash(HEX.toUpperCase(Locale.US))).hasToString(HEX.toUpperCase(Locale.US));
+    }
+
+    @Test
+    void testToString_leading_zeros() {
+        String hash = "0000000000000000000000000000000000000000000000000000000000000001";
+        assertThat(new TransactionHash(hash)).hasToString(hash);
+    }
+
+    @Test
+    void isValid_hex() {
+        assertThat(new TransactionHash(HEX).isValid()).isTrue();
+    }
+
+    @Test
+    void equals_hex() {
+        assertThat(new TransactionHash(HEX)).isEqualTo(new TransactionHash(copy(HEX)));
+    }
+
+    @Test
+    void hashCode_hex() {
+        assertThat(new TransactionHash(HEX)).hasSameHashCodeAs(new TransactionHash(copy(HEX)));
+    }
+
+    @Test
+    void equals_other_string() {
+        assertThat(HASH_ABC).isEqualTo(new TransactionHash(copy("abc")));
+    }
+
+    @Test
+    void hashCode_other_string() {
+        assertThat(HASH_ABC).hasSameHashCodeAs(new TransactionHash(copy("abc")));
+    }
+
+    @Test
+    void not_equal_hex() {
+        assertThat(new TransactionHash(HEX)).isNotEqualTo(new TransactionHash(HEX_2));
+    }
+
+    @Test
+    void not_equal_upper_case() {
+        assertThat(new TransactionHash(HEX)).isNotEqualTo(new TransactionHash(HEX.toUpperCase(Locale.US)));
+    }
+
+    @Test
+    void not_equal_to_other_type() {
+        assertThat(new TransactionHash(HEX)).isNotEqualTo(HEX);
+    }
+
+    @Test
+    void comparable_hex_smaller() {
+        assertThat(new TransactionHash(HEX_2).compareTo(new TransactionHash(HEX))).isNegative();
+    }
+
+    @Test
+    void comparable_hex_larger() {
+        assertThat(new TransactionHash(HEX).compareTo(new TransactionHash(HEX_2))).isPositive();
+    }
+
+    @Test
+    void comparable_hex_same() {
+        assertThat(new TransactionHash(HEX).compareTo(new TransactionHash(copy(HEX)))).isZero();
+    }
+
+    @Test
+    void comparable_hex_differs_in_last_digit() {
+        String smaller = HEX.substring(0, 63) + "0";
+        assertThat(new TransactionHash(smaller).compareTo(new TransactionHash(HEX))).isNegative();
+    }
+
+    @Test
+    void comparable_uses_unsigned_order() {
+        String large = "f" + HEX.substring(1);
+        String small = "1" + HEX.substring(1);
+        assertThat(new TransactionHash(large).compareTo(new TransactionHash(small))).isPositive();
+    }
+
+    @Test
+    void comparable_hex_and_other_string() {
+        assertThat(new TransactionHash(HEX).compareTo(new TransactionHash("d"))).isNegative();
+    }
+
+    private static String copy(String string) {
+        return new String(string.toCharArray());
+    }
+}
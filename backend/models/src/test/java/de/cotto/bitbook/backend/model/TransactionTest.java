@@ -10,6 +10,7 @@ import java.util.Set;
 
 import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
 import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_2;
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_3;
 import static de.cotto.bitbook.backend.model.Chain.BSV;
 import static de.cotto.bitbook.backend.model.Chain.BTC;
 import static de.cotto.bitbook.backend.model.InputFixtures.INPUT_1;
@@ -132,6 +133,35 @@ class TransactionTest {
         assertThat(transaction.getDifferenceForAddresses(Set.of(ADDRESS, ADDRESS_2))).isEqualTo(expectedDifference);
     }
 
+    @Test
+    void getDifferenceForAddresses_address_used_several_times() {
+        Coins coins1 = Coins.ofSatoshis(1);
+        Coins coins2 = Coins.ofSatoshis(20);
+        Coins coins3 = Coins.ofSatoshis(300);
+        Coins coins4 = Coins.ofSatoshis(4_000);
+        Transaction transaction = new Transaction(
+                TRANSACTION_HASH,
+                BLOCK_HEIGHT,
+                DATE_TIME,
+                Coins.ofSatoshis(279),
+                List.of(new Input(coins3, ADDRESS), new Input(coins4, ADDRESS_2)),
+                List.of(new Output(coins1, ADDRESS), new Output(coins2, ADDRESS), new Output(coins4, ADDRESS_3)),
+                BTC
+        );
+        Coins expectedDifference = coins1.add(coins2).subtract(coins3);
+        assertThat(transaction.getDifferenceForAddresses(Set.of(ADDRESS))).isEqualTo(expectedDifference);
+    }
+
+    @Test
+    void getDifferenceForAddresses_no_matching_address() {
+        assertThat(TRANSACTION.getDifferenceForAddresses(Set.of(ADDRESS))).isEqualTo(Coins.NONE);
+    }
+
+    @Test
+    void getDifferenceForAddresses_empty_set() {
+        assertThat(TRANSACTION.getDifferenceForAddresses(Set.of())).isEqualTo(Coins.NONE);
+    }
+
     @Test
     void getAllAddresses() {
         assertThat(TRANSACTION.getAllAddresses()).containsExactlyInAnyOrder(
@@ -0,0 +1,38 @@
+package de.cotto.bitbook.backend.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TestableBatchProvider extends TestableProvider implements BatchProvider<String, Integer> {
+    public final List<Set<String>> seenBatches = Collections.synchronizedList(new ArrayList<>());
+
+    public TestableBatchProvider() {
+        super();
+    }
+
+    @Override
+    public Map<String, Integer> getAll(Set<String> keys) throws ProviderException {
+        seenBatches.add(keys);
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (String key : keys) {
+            if (!key.isEmpty()) {
+                result.put(key, key.length());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int getMaximumBatchSize() {
+        return 3;
+    }
+
+    @Override
+    public String getName() {
+        return "TestableBatchProvider";
+    }
+}
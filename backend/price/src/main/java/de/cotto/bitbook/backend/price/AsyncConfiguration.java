@@ -1,12 +0,0 @@
-package de.cotto.bitbook.backend.price;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
-
-@Configuration
-@EnableAsync
-public class AsyncConfiguration {
-    public AsyncConfiguration() {
-        // default constructor
-    }
-}
@@ -1,11 +1,13 @@
 package de.cotto.bitbook.backend.price;
 
+import de.cotto.bitbook.backend.AsyncConfiguration;
+import de.cotto.bitbook.backend.BackgroundTaskExecutor;
 import de.cotto.bitbook.backend.model.Chain;
 import de.cotto.bitbook.backend.price.model.Price;
 import de.cotto.bitbook.backend.price.model.PriceContext;
 import de.cotto.bitbook.backend.price.model.PriceWithContext;
 import de.cotto.bitbook.backend.request.ResultFuture;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -21,19 +23,31 @@ import static java.util.stream.Collectors.toMap;
 public class PriceService {
     private final PrioritizingPriceProvider priceProvider;
     private final PriceDao priceDao;
+    private final BackgroundTaskExecutor backgroundTaskExecutor;
 
-    public PriceService(PrioritizingPriceProvider priceProvider, PriceDao priceDao) {
+    public PriceService(
+            PrioritizingPriceProvider priceProvider,
+            PriceDao priceDao,
+            @Qualifier(AsyncConfiguration.PRICE_TASK_EXECUTOR) BackgroundTaskExecutor backgroundTaskExecutor
+    ) {
         this.priceProvider = priceProvider;
         this.priceDao = priceDao;
+        this.backgroundTaskExecutor = backgroundTaskExecutor;
     }
 
     public Price getCurrentPrice(Chain chain) {
         return getPrice(PriceRequest.forCurrentPrice(chain));
     }
 
-    @Async
+    /**
+     * Background requests for a day that is already waiting to be requested are coalesced.
+     */
     public void requestPriceInBackground(LocalDateTime dateTime, Chain chain) {
-        getPrice(PriceRequest.createWithLowestPriority(new PriceContext(dateTime.toLocalDate(), chain)));
+        PriceContext priceContext = new PriceContext(dateTime.toLocalDate(), chain);
+        backgroundTaskExecutor.executeUnique(
+                priceContext,
+                () -> getPrice(PriceRequest.createWithLowestPriority(priceContext))
+        );
     }
 
     public Map<PriceContext, Price> getPrices(Set<LocalDateTime> dates, Chain chain) {
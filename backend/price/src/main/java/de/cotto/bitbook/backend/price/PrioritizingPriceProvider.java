@@ -4,6 +4,7 @@ import de.cotto.bitbook.backend.model.Provider;
 import de.cotto.bitbook.backend.price.model.PriceContext;
 import de.cotto.bitbook.backend.price.model.PriceWithContext;
 import de.cotto.bitbook.backend.request.PrioritizingProvider;
+import de.cotto.bitbook.backend.request.ProviderLimits;
 import de.cotto.bitbook.backend.request.ResultFuture;
 import org.springframework.stereotype.Component;
 
@@ -12,8 +13,11 @@ import java.util.List;
 
 @Component
 public class PrioritizingPriceProvider extends PrioritizingProvider<PriceContext, Collection<PriceWithContext>> {
-    public PrioritizingPriceProvider(List<Provider<PriceContext, Collection<PriceWithContext>>> providers) {
-        super(providers, "Price");
+    public PrioritizingPriceProvider(
+            List<Provider<PriceContext, Collection<PriceWithContext>>> providers,
+            ProviderLimits providerLimits
+    ) {
+        super(providers, providerLimits, "Price");
     }
 
     public ResultFuture<Collection<PriceWithContext>> getPrices(PriceRequest request) {
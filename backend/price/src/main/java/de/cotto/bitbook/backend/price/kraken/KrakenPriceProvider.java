@@ -40,6 +40,11 @@ public class KrakenPriceProvider implements Provider<PriceContext, Collection<Pr
         return "KrakenPriceProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("kraken");
+    }
+
     @Override
     public boolean isSupported(PriceContext key) {
         return key.chain() == BTC;
@@ -1,5 +1,6 @@
 package de.cotto.bitbook.backend.price;
 
+import de.cotto.bitbook.backend.BackgroundTaskExecutor;
 import de.cotto.bitbook.backend.price.model.Price;
 import de.cotto.bitbook.backend.price.model.PriceContext;
 import de.cotto.bitbook.backend.price.model.PriceWithContext;
@@ -23,8 +24,11 @@ import static de.cotto.bitbook.backend.model.Chain.BTC;
 import static java.util.Map.entry;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +46,9 @@ class PriceServiceTest {
     @Mock
     private PrioritizingPriceProvider prioritizingPriceProvider;
 
+    @Mock
+    private BackgroundTaskExecutor backgroundTaskExecutor;
+
     @Test
     void getPrice() {
         Price expectedPrice = mockPrice();
@@ -167,8 +174,16 @@ class PriceServiceTest {
         assertThat(prices).containsExactly(entry(PRICE_CONTEXT, Price.of(1)));
     }
 
+    @Test
+    void requestPriceInBackground_uses_background_executor_with_price_context_as_key() {
+        priceService.requestPriceInBackground(DATE.atTime(23, 12), BTC);
+        verify(backgroundTaskExecutor).executeUnique(eq(PRICE_CONTEXT), any());
+        verifyNoInteractions(prioritizingPriceProvider);
+    }
+
     @Test
     void requestPriceInBackground_with_lowest_priority() {
+        runBackgroundTasks();
         PriceRequest request = PriceRequest.createWithLowestPriority(PRICE_CONTEXT);
         mockResult(request, Set.of());
 
@@ -179,6 +194,7 @@ class PriceServiceTest {
 
     @Test
     void requestPriceInBackground_with_lowest_priority_persists_results() {
+        runBackgroundTasks();
         PriceRequest request = PriceRequest.createWithLowestPriority(PRICE_CONTEXT);
         Set<PriceWithContext> pricesWithContexts = Set.of(new PriceWithContext(Price.of(100), PRICE_CONTEXT));
         mockResult(request, pricesWithContexts);
@@ -188,6 +204,13 @@ class PriceServiceTest {
         verify(priceDao).savePrices(pricesWithContexts);
     }
 
+    private void runBackgroundTasks() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(backgroundTaskExecutor).executeUnique(any(), any());
+    }
+
     private Price mockPrice() {
         Price expectedPrice = Price.of(10);
         mockResult(PriceRequest.createWithStandardPriority(PRICE_CONTEXT), Set.of(
@@ -4,6 +4,7 @@ import de.cotto.bitbook.backend.model.ProviderException;
 import de.cotto.bitbook.backend.price.model.Price;
 import de.cotto.bitbook.backend.price.model.PriceContext;
 import de.cotto.bitbook.backend.price.model.PriceWithContext;
+import de.cotto.bitbook.backend.request.ProviderLimits;
 import de.cotto.bitbook.backend.request.ResultFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +25,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class PrioritizingPriceProviderTest {
+    private static final ProviderLimits PROVIDER_LIMITS = ProviderLimits.ofDefaults();
     private static final LocalDate DATE = LocalDate.of(2021, 1, 2);
     private static final PriceContext PRICE_CONTEXT = new PriceContext(DATE, BTC);
     private final ExecutorService executor = Executors.newFixedThreadPool(5);
@@ -35,7 +37,7 @@ class PrioritizingPriceProviderTest {
     void setUp() {
         priceProvider = mock(PriceProvider.class);
         lenient().when(priceProvider.isSupported(any())).thenReturn(true);
-        prioritizingPriceProvider = new PrioritizingPriceProvider(List.of(priceProvider));
+        prioritizingPriceProvider = new PrioritizingPriceProvider(List.of(priceProvider), PROVIDER_LIMITS);
     }
 
     @Test
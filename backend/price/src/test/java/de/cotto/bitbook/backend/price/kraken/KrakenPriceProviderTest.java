@@ -46,6 +46,11 @@ class KrakenPriceProviderTest {
         assertThat(krakenPriceProvider.getName()).isEqualTo("KrakenPriceProvider");
     }
 
+    @Test
+    void getClientName() {
+        assertThat(krakenPriceProvider.getClientName()).contains("kraken");
+    }
+
     @Test
     void isSupported_btc() {
         assertThat(krakenPriceProvider.isSupported(new PriceContext(today(), BTC))).isTrue();
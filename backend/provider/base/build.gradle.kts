@@ -4,6 +4,7 @@ plugins {
 
 dependencies {
     implementation(project(":backend:models"))
+    implementation(project(":backend:address-transactions"))
     api("com.fasterxml.jackson.core:jackson-databind")
     testImplementation(testFixtures(project(":backend:models")))
     testFixturesImplementation(testFixtures(project(":backend:models")))
@@ -75,7 +75,7 @@ public abstract class TransactionDtoDeserializer<T extends TransactionDto>
             List<OutputDto> outputs
     );
 
-    private T getTransactionDto(JsonNode transactionNode) {
+    protected T getTransactionDto(JsonNode transactionNode) {
         JsonNode transactionDetailsNode = getTransactionDetailsNode(transactionNode);
         TransactionHash hash = new TransactionHash(transactionDetailsNode.get(hashProperty).textValue());
         int blockHeight = transactionDetailsNode.get(blockHeightProperty).asInt();
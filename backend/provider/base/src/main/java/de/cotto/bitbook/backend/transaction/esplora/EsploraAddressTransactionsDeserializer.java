@@ -0,0 +1,39 @@
+package de.cotto.bitbook.backend.transaction.esplora;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.transaction.AddressTransactionsDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public abstract class EsploraAddressTransactionsDeserializer<T extends EsploraAddressTransactionsDto>
+        extends AddressTransactionsDeserializer<T> {
+    private static final int PAGE_SIZE = 25;
+
+    protected EsploraAddressTransactionsDeserializer() {
+        super();
+    }
+
+    @Override
+    public T deserialize(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException {
+        JsonNode rootNode = jsonParser.getCodec().readTree(jsonParser);
+        List<TransactionHash> transactionHashes = new ArrayList<>(getTransactionHashes(rootNode));
+        int oldestBlockHeight = 0;
+        if (!rootNode.isEmpty()) {
+            oldestBlockHeight = rootNode.get(rootNode.size() - 1).path("status").path("block_height").intValue();
+        }
+        return createDto(transactionHashes, oldestBlockHeight, rootNode.size() < PAGE_SIZE);
+    }
+
+    @Override
+    protected Optional<TransactionHash> getHash(JsonNode transactionReferenceNode) {
+        return Optional.of(transactionReferenceNode.get("txid").textValue()).map(TransactionHash::new);
+    }
+
+    protected abstract T createDto(List<TransactionHash> transactionHashes, int oldestBlockHeight, boolean lastPage);
+}
@@ -0,0 +1,52 @@
+package de.cotto.bitbook.backend.transaction.esplora;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.transaction.deserialization.AddressTransactionsDto;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of (at most 25) confirmed transactions, newest first, as returned by Esplora based APIs.
+ */
+public class EsploraAddressTransactionsDto extends AddressTransactionsDto {
+    private final int oldestBlockHeight;
+    private final boolean lastPage;
+    @Nullable
+    private final TransactionHash lastTransactionHash;
+
+    protected EsploraAddressTransactionsDto(
+            List<TransactionHash> transactionHashes,
+            int oldestBlockHeight,
+            boolean lastPage
+    ) {
+        super(Address.NONE, new LinkedHashSet<>(transactionHashes));
+        this.oldestBlockHeight = oldestBlockHeight;
+        this.lastPage = lastPage;
+        lastTransactionHash = transactionHashes.isEmpty() ? null : transactionHashes.get(transactionHashes.size() - 1);
+    }
+
+    public boolean isLastPage() {
+        return lastPage;
+    }
+
+    /**
+     * Returns true if this page, together with the pages before it, contains all transactions confirmed at or after
+     * the given block height.
+     */
+    public boolean containsTransactionsSince(int blockHeight) {
+        return lastPage || oldestBlockHeight < blockHeight;
+    }
+
+    public Optional<TransactionHash> getLastTransactionHash() {
+        return Optional.ofNullable(lastTransactionHash);
+    }
+
+    @Override
+    protected void validateAddress(Address expectedAddress) {
+        // the Esplora response does not contain any address, so we cannot validate the DTO
+    }
+}
@@ -0,0 +1,77 @@
+package de.cotto.bitbook.backend.transaction.esplora;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.AddressTransactions;
+import de.cotto.bitbook.backend.model.Chain;
+import de.cotto.bitbook.backend.model.ProviderException;
+import de.cotto.bitbook.backend.model.TransactionHash;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Requests the pages of confirmed transactions of an address from an Esplora based API.
+ */
+public class EsploraAddressTransactionsPaging<T extends EsploraAddressTransactionsDto> {
+    private static final int MAXIMUM_PAGES_FOR_UPDATE = 10;
+
+    private final Function<Address, Optional<T>> firstPage;
+    private final BiFunction<Address, TransactionHash, Optional<T>> pageAfter;
+
+    public EsploraAddressTransactionsPaging(
+            Function<Address, Optional<T>> firstPage,
+            BiFunction<Address, TransactionHash, Optional<T>> pageAfter
+    ) {
+        this.firstPage = firstPage;
+        this.pageAfter = pageAfter;
+    }
+
+    /**
+     * Only the first page is requested, addresses with more transactions are not supported.
+     */
+    public Optional<AddressTransactions> getAll(
+            Address address,
+            int blockHeight,
+            Chain chain
+    ) throws ProviderException {
+        T dto = firstPage.apply(address).orElse(null);
+        if (dto == null) {
+            return Optional.empty();
+        }
+        if (!dto.isLastPage()) {
+            // the complete history would have to be requested page by page
+            throw new ProviderException();
+        }
+        return Optional.of(dto.toModel(blockHeight, address, chain));
+    }
+
+    /**
+     * Requests the pages (newest first) until the given block height is reached, which usually only takes a single
+     * request.
+     */
+    public Optional<AddressTransactions> getUpdates(
+            Address address,
+            int fromBlockHeight,
+            int blockHeight,
+            Chain chain
+    ) throws ProviderException {
+        Set<TransactionHash> transactionHashes = new LinkedHashSet<>();
+        Optional<T> page = firstPage.apply(address);
+        for (int pages = 1; page.isPresent(); pages++) {
+            T dto = page.get();
+            transactionHashes.addAll(dto.getTransactionHashes());
+            TransactionHash lastSeenTransactionHash = dto.getLastTransactionHash().orElse(null);
+            if (dto.containsTransactionsSince(fromBlockHeight) || lastSeenTransactionHash == null) {
+                return Optional.of(new AddressTransactions(address, transactionHashes, blockHeight, chain));
+            }
+            if (pages == MAXIMUM_PAGES_FOR_UPDATE) {
+                throw new ProviderException();
+            }
+            page = pageAfter.apply(address, lastSeenTransactionHash);
+        }
+        return Optional.empty();
+    }
+}
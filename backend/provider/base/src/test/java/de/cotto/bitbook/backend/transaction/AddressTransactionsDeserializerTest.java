@@ -14,7 +14,6 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 class AddressTransactionsDeserializerTest {
 
@@ -32,16 +31,6 @@ class AddressTransactionsDeserializerTest {
         }
     }
 
-    @Test
-    void limit_reached() throws IOException {
-        try (JsonParser parser = getParserForJsonString("[\"x\", \"y\"]")) {
-            addressTransactionsDeserializer.limit = 2;
-            assertThatExceptionOfType(IllegalStateException.class).isThrownBy(() ->
-                    addressTransactionsDeserializer.deserialize(parser, null)
-            );
-        }
-    }
-
     @Test
     void ok() throws IOException {
         try (JsonParser parser = getParserForJsonString("[\"x\", \"y\"]")) {
@@ -55,8 +44,6 @@ class AddressTransactionsDeserializerTest {
 
     private static class TestableAddressTransactionsDeserializer
             extends AddressTransactionsDeserializer<Set<TransactionHash>> {
-        private int limit = 3;
-
         @Override
         protected Optional<TransactionHash> getHash(JsonNode transactionReferenceNode) {
             if (transactionReferenceNode.isTextual()) {
@@ -71,7 +58,7 @@ class AddressTransactionsDeserializerTest {
                 @Nullable DeserializationContext deserializationContext
         )
                 throws IOException {
-            return super.parseHashesWithLimit(jsonParser, limit);
+            return getTransactionHashes(jsonParser.getCodec().readTree(jsonParser));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package de.cotto.bitbook.backend.transaction.esplora;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EsploraAddressTransactionsDeserializerTest {
+    private final TestableEsploraAddressTransactionsDeserializer deserializer =
+            new TestableEsploraAddressTransactionsDeserializer();
+
+    @Test
+    void empty_page() throws IOException {
+        EsploraAddressTransactionsDto dto = deserialize("[]");
+        assertThat(dto.getTransactionHashes()).isEmpty();
+        assertThat(dto.isLastPage()).isTrue();
+        assertThat(dto.getLastTransactionHash()).isEmpty();
+    }
+
+    @Test
+    void transaction_hashes_in_order() throws IOException {
+        EsploraAddressTransactionsDto dto = deserialize(page(3));
+        assertThat(dto.getTransactionHashes()).containsExactly(
+                new TransactionHash("1"),
+                new TransactionHash("2"),
+                new TransactionHash("3")
+        );
+        assertThat(dto.getLastTransactionHash()).contains(new TransactionHash("3"));
+    }
+
+    @Test
+    void partial_page_is_last_page() throws IOException {
+        assertThat(deserialize(page(24)).isLastPage()).isTrue();
+    }
+
+    @Test
+    void full_page_is_not_last_page() throws IOException {
+        assertThat(deserialize(page(25)).isLastPage()).isFalse();
+    }
+
+    @Test
+    void full_page_uses_block_height_of_oldest_transaction() throws IOException {
+        EsploraAddressTransactionsDto dto = deserialize(page(25));
+        assertThat(dto.containsTransactionsSince(700_001)).isTrue();
+        assertThat(dto.containsTransactionsSince(700_000)).isFalse();
+    }
+
+    private EsploraAddressTransactionsDto deserialize(String json) throws IOException {
+        try (JsonParser parser = new ObjectMapper().createParser(json)) {
+            return deserializer.deserialize(parser, null);
+        }
+    }
+
+    private String page(int size) {
+        return IntStream.rangeClosed(1, size)
+                .mapToObj(i -> "{\"txid\": \"%d\", \"status\": {\"block_height\": %d}}".formatted(i, 700_025 - i))
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static class TestableEsploraAddressTransactionsDeserializer
+            extends EsploraAddressTransactionsDeserializer<EsploraAddressTransactionsDto> {
+        @Override
+        protected EsploraAddressTransactionsDto createDto(
+                List<TransactionHash> transactionHashes,
+                int oldestBlockHeight,
+                boolean lastPage
+        ) {
+            return new EsploraAddressTransactionsDto(transactionHashes, oldestBlockHeight, lastPage);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.cotto.bitbook.backend.transaction.esplora;
+
+import de.cotto.bitbook.backend.model.TransactionHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
+import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.ADDRESS_TRANSACTIONS;
+import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.LAST_CHECKED_AT_BLOCK_HEIGHT;
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EsploraAddressTransactionsDtoTest {
+    private static final int OLDEST_BLOCK_HEIGHT = 700_000;
+
+    @Test
+    void toModel() {
+        assertThat(page(true, TRANSACTION_HASH, TRANSACTION_HASH_2).toModel(LAST_CHECKED_AT_BLOCK_HEIGHT, ADDRESS, BTC))
+                .isEqualTo(ADDRESS_TRANSACTIONS);
+    }
+
+    @Test
+    void isLastPage() {
+        assertThat(page(true).isLastPage()).isTrue();
+    }
+
+    @Test
+    void isLastPage_false() {
+        assertThat(page(false, TRANSACTION_HASH).isLastPage()).isFalse();
+    }
+
+    @Test
+    void getLastTransactionHash() {
+        assertThat(page(false, TRANSACTION_HASH, TRANSACTION_HASH_2).getLastTransactionHash())
+                .contains(TRANSACTION_HASH_2);
+    }
+
+    @Test
+    void getLastTransactionHash_empty_page() {
+        assertThat(page(true).getLastTransactionHash()).isEmpty();
+    }
+
+    @Test
+    void last_page_contains_all_transactions() {
+        assertThat(page(true, TRANSACTION_HASH).containsTransactionsSince(0)).isTrue();
+    }
+
+    @Test
+    void contains_transactions_since_block_height_after_oldest_transaction() {
+        assertThat(page(false, TRANSACTION_HASH).containsTransactionsSince(OLDEST_BLOCK_HEIGHT + 1)).isTrue();
+    }
+
+    @Test
+    void does_not_contain_all_transactions_since_block_height_of_oldest_transaction() {
+        assertThat(page(false, TRANSACTION_HASH).containsTransactionsSince(OLDEST_BLOCK_HEIGHT)).isFalse();
+    }
+
+    private EsploraAddressTransactionsDto page(boolean lastPage, TransactionHash... transactionHashes) {
+        return new EsploraAddressTransactionsDto(List.of(transactionHashes), OLDEST_BLOCK_HEIGHT, lastPage);
+    }
+}
@@ -0,0 +1,137 @@
+package de.cotto.bitbook.backend.transaction.esplora;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.AddressTransactions;
+import de.cotto.bitbook.backend.model.ProviderException;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
+import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.ADDRESS_TRANSACTIONS;
+import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.LAST_CHECKED_AT_BLOCK_HEIGHT;
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_3;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_4;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EsploraAddressTransactionsPagingTest {
+    private static final int BLOCK_HEIGHT = LAST_CHECKED_AT_BLOCK_HEIGHT + 50;
+
+    @Mock
+    private Function<Address, Optional<EsploraAddressTransactionsDto>> firstPage;
+
+    @Mock
+    private BiFunction<Address, TransactionHash, Optional<EsploraAddressTransactionsDto>> pageAfter;
+
+    private EsploraAddressTransactionsPaging<EsploraAddressTransactionsDto> paging;
+
+    @BeforeEach
+    void setUp() {
+        paging = new EsploraAddressTransactionsPaging<>(firstPage, pageAfter);
+    }
+
+    @Test
+    void getAll() throws Exception {
+        mockFirstPage(page(LAST_CHECKED_AT_BLOCK_HEIGHT - 1, true, TRANSACTION_HASH, TRANSACTION_HASH_2));
+        assertThat(paging.getAll(ADDRESS, LAST_CHECKED_AT_BLOCK_HEIGHT, BTC)).contains(ADDRESS_TRANSACTIONS);
+    }
+
+    @Test
+    void getAll_empty() throws Exception {
+        when(firstPage.apply(ADDRESS)).thenReturn(Optional.empty());
+        assertThat(paging.getAll(ADDRESS, LAST_CHECKED_AT_BLOCK_HEIGHT, BTC)).isEmpty();
+    }
+
+    @Test
+    void getAll_fails_if_there_is_more_than_one_page() {
+        mockFirstPage(page(LAST_CHECKED_AT_BLOCK_HEIGHT + 1, false, TRANSACTION_HASH));
+        assertThatExceptionOfType(ProviderException.class).isThrownBy(
+                () -> paging.getAll(ADDRESS, LAST_CHECKED_AT_BLOCK_HEIGHT, BTC)
+        );
+    }
+
+    @Test
+    void getUpdates_requests_single_page_if_it_contains_all_new_transactions() throws Exception {
+        mockFirstPage(page(LAST_CHECKED_AT_BLOCK_HEIGHT - 1, false, TRANSACTION_HASH_4, TRANSACTION_HASH_3));
+        assertThat(getUpdates()).contains(updates(TRANSACTION_HASH_4, TRANSACTION_HASH_3));
+        verify(pageAfter, never()).apply(any(), any());
+    }
+
+    @Test
+    void getUpdates_requests_pages_until_block_height_is_reached() throws Exception {
+        mockFirstPage(page(LAST_CHECKED_AT_BLOCK_HEIGHT + 10, false, TRANSACTION_HASH_4));
+        mockPageAfter(TRANSACTION_HASH_4, page(LAST_CHECKED_AT_BLOCK_HEIGHT - 1, false, TRANSACTION_HASH_3));
+        assertThat(getUpdates()).contains(updates(TRANSACTION_HASH_4, TRANSACTION_HASH_3));
+    }
+
+    @Test
+    void getUpdates_stops_at_last_page() throws Exception {
+        mockFirstPage(page(LAST_CHECKED_AT_BLOCK_HEIGHT + 10, false, TRANSACTION_HASH_4));
+        mockPageAfter(TRANSACTION_HASH_4, page(LAST_CHECKED_AT_BLOCK_HEIGHT + 5, true, TRANSACTION_HASH_3));
+        assertThat(getUpdates()).contains(updates(TRANSACTION_HASH_4, TRANSACTION_HASH_3));
+    }
+
+    @Test
+    void getUpdates_stops_at_empty_page() throws Exception {
+        mockFirstPage(page(LAST_CHECKED_AT_BLOCK_HEIGHT + 10, false));
+        assertThat(getUpdates()).contains(updates());
+    }
+
+    @Test
+    void getUpdates_fails_if_too_many_pages_are_needed() {
+        EsploraAddressTransactionsDto page = page(LAST_CHECKED_AT_BLOCK_HEIGHT + 10, false, TRANSACTION_HASH_4);
+        mockFirstPage(page);
+        mockPageAfter(TRANSACTION_HASH_4, page);
+        assertThatExceptionOfType(ProviderException.class).isThrownBy(this::getUpdates);
+        verify(pageAfter, times(9)).apply(ADDRESS, TRANSACTION_HASH_4);
+    }
+
+    @Test
+    void getUpdates_empty() throws Exception {
+        when(firstPage.apply(ADDRESS)).thenReturn(Optional.empty());
+        assertThat(getUpdates()).isEmpty();
+    }
+
+    private Optional<AddressTransactions> getUpdates() throws ProviderException {
+        return paging.getUpdates(ADDRESS, LAST_CHECKED_AT_BLOCK_HEIGHT, BLOCK_HEIGHT, BTC);
+    }
+
+    private AddressTransactions updates(TransactionHash... transactionHashes) {
+        return new AddressTransactions(ADDRESS, Set.of(transactionHashes), BLOCK_HEIGHT, BTC);
+    }
+
+    private void mockFirstPage(EsploraAddressTransactionsDto page) {
+        when(firstPage.apply(ADDRESS)).thenReturn(Optional.of(page));
+    }
+
+    private void mockPageAfter(TransactionHash lastSeenTransactionHash, EsploraAddressTransactionsDto page) {
+        when(pageAfter.apply(ADDRESS, lastSeenTransactionHash)).thenReturn(Optional.of(page));
+    }
+
+    private EsploraAddressTransactionsDto page(
+            int oldestBlockHeight,
+            boolean lastPage,
+            TransactionHash... transactionHashes
+    ) {
+        return new EsploraAddressTransactionsDto(List.of(transactionHashes), oldestBlockHeight, lastPage);
+    }
+}
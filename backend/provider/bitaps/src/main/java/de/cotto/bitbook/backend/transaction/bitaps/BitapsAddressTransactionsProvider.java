@@ -27,6 +27,11 @@ public class BitapsAddressTransactionsProvider extends SimpleAddressTransactions
         return "BitapsAddressTransactionsProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("bitaps");
+    }
+
     @Override
     protected Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey) {
         Address address = transactionsRequestKey.address();
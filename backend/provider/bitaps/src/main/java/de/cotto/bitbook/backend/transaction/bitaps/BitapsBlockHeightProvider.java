@@ -22,6 +22,11 @@ public class BitapsBlockHeightProvider implements BlockHeightProvider {
         return "BitapsBlockHeightProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("bitaps");
+    }
+
     @Override
     public Optional<Integer> get(Chain chain) throws ProviderException {
         throwIfUnsupported(chain);
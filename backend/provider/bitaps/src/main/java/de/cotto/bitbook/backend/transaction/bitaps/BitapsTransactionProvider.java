@@ -28,6 +28,11 @@ public class BitapsTransactionProvider implements Provider<HashAndChain, Transac
         return "BitapsTransactionProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("bitaps");
+    }
+
     @Override
     public boolean isSupported(HashAndChain key) {
         return key.chain() == BTC;
@@ -80,4 +80,9 @@ class BitapsAddressTransactionsProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BitapsAddressTransactionsProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("bitaps");
+    }
 }
\ No newline at end of file
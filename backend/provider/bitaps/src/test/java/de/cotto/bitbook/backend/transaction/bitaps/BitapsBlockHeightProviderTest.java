@@ -58,4 +58,9 @@ class BitapsBlockHeightProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BitapsBlockHeightProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("bitaps");
+    }
 }
\ No newline at end of file
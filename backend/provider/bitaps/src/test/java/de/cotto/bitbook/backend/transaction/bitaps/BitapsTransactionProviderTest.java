@@ -59,4 +59,9 @@ class BitapsTransactionProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BitapsTransactionProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("bitaps");
+    }
 }
\ No newline at end of file
@@ -22,6 +22,11 @@ public class BlockchainInfoBlockHeightProvider implements BlockHeightProvider {
         return "BlockchainInfoBlockHeightProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("blockchainInfo");
+    }
+
     @Override
     public Optional<Integer> get(Chain chain) throws ProviderException {
         throwIfUnsupported(chain);
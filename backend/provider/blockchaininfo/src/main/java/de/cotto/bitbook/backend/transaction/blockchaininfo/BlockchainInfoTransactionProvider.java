@@ -41,4 +41,9 @@ public class BlockchainInfoTransactionProvider implements Provider<HashAndChain,
     public String getName() {
         return "BlockchainInfoTransactionProvider";
     }
+
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("blockchainInfo");
+    }
 }
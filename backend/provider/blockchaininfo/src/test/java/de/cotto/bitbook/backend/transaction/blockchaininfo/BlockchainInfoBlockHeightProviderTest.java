@@ -63,4 +63,9 @@ class BlockchainInfoBlockHeightProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BlockchainInfoBlockHeightProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("blockchainInfo");
+    }
 }
\ No newline at end of file
@@ -63,4 +63,9 @@ class BlockchainInfoTransactionProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BlockchainInfoTransactionProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("blockchainInfo");
+    }
 }
\ No newline at end of file
@@ -36,6 +36,11 @@ public class BlockchairAddressTransactionsProvider extends SimpleAddressTransact
         return "BlockchairAddressTransactionsProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("blockchair");
+    }
+
     @Override
     protected Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey) {
         Address address = transactionsRequestKey.address();
@@ -25,6 +25,11 @@ public class BlockchairBlockHeightProvider implements BlockHeightProvider {
         return "BlockchairBlockHeightProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("blockchair");
+    }
+
     @Override
     public Optional<Integer> get(Chain chain) throws ProviderException {
         throwIfUnsupported(chain);
@@ -20,6 +20,12 @@ public interface BlockchairClient {
             @PathVariable TransactionHash transactionHash
     );
 
+    @GetMapping("/{chainName}/dashboards/transactions/{transactionHashes}")
+    Optional<BlockchairTransactionsDto> getTransactions(
+            @PathVariable String chainName,
+            @PathVariable String transactionHashes
+    );
+
     @GetMapping("/{chainName}/dashboards/address/{address}")
     Optional<BlockchairAddressTransactionsDto> getAddressDetails(
             @PathVariable String chainName,
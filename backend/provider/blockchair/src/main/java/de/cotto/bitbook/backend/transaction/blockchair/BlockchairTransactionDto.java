@@ -56,6 +56,13 @@ public class BlockchairTransactionDto extends TransactionDto {
             return StreamSupport.stream(rootNode.get("data").spliterator(), false).collect(toSet());
         }
 
+        List<BlockchairTransactionDto> deserializeAll(JsonNode rootNode) {
+            return getTransactionNodes(rootNode).stream()
+                    .filter(transactionNode -> transactionNode.hasNonNull("transaction"))
+                    .map(this::getTransactionDto)
+                    .toList();
+        }
+
         @Override
         protected JsonNode getTransactionDetailsNode(JsonNode transactionNode) {
             return transactionNode.get("transaction");
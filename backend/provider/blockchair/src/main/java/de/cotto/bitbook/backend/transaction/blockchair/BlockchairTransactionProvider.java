@@ -1,8 +1,8 @@
 package de.cotto.bitbook.backend.transaction.blockchair;
 
+import de.cotto.bitbook.backend.model.BatchProvider;
 import de.cotto.bitbook.backend.model.Chain;
 import de.cotto.bitbook.backend.model.HashAndChain;
-import de.cotto.bitbook.backend.model.Provider;
 import de.cotto.bitbook.backend.model.ProviderException;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
@@ -10,14 +10,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static de.cotto.bitbook.backend.model.Chain.BCH;
 import static de.cotto.bitbook.backend.model.Chain.BSV;
 import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
 
 @Component
-public class BlockchairTransactionProvider implements Provider<HashAndChain, Transaction> {
+public class BlockchairTransactionProvider implements BatchProvider<HashAndChain, Transaction> {
+    private static final int MAXIMUM_BATCH_SIZE = 10;
+
     private final BlockchairClient blockchairClient;
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -30,6 +40,11 @@ public class BlockchairTransactionProvider implements Provider<HashAndChain, Tra
         return "BlockchairTransactionProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("blockchair");
+    }
+
     @Override
     public boolean isSupported(HashAndChain key) {
         Chain chain = key.chain();
@@ -43,6 +58,35 @@ public class BlockchairTransactionProvider implements Provider<HashAndChain, Tra
                 .map(dto -> dto.toModel(hashAndChain.chain()));
     }
 
+    @Override
+    public Map<HashAndChain, Transaction> getAll(Set<HashAndChain> keys) throws ProviderException {
+        for (HashAndChain key : keys) {
+            throwIfUnsupported(key);
+        }
+        Map<HashAndChain, Transaction> result = new LinkedHashMap<>();
+        Map<Chain, Set<TransactionHash>> hashesByChain = keys.stream()
+                .collect(groupingBy(HashAndChain::chain, mapping(HashAndChain::hash, toSet())));
+        hashesByChain.forEach((chain, hashes) -> getTransactionsFromApi(chain, hashes).forEach(
+                transaction -> result.put(new HashAndChain(transaction.getHash(), chain), transaction)
+        ));
+        result.keySet().retainAll(keys);
+        return result;
+    }
+
+    @Override
+    public int getMaximumBatchSize() {
+        return MAXIMUM_BATCH_SIZE;
+    }
+
+    private List<Transaction> getTransactionsFromApi(Chain chain, Set<TransactionHash> transactionHashes) {
+        String chainName = BlockchairChainName.get(chain);
+        String joinedHashes = transactionHashes.stream().map(TransactionHash::toString).collect(joining(","));
+        logger.debug("Contacting Blockchair API for {} hashes in chain {}", transactionHashes.size(), chain);
+        return blockchairClient.getTransactions(chainName, joinedHashes)
+                .map(dto -> dto.toModels(chain))
+                .orElse(List.of());
+    }
+
     private Optional<BlockchairTransactionDto> getTransactionFromApi(HashAndChain hashAndChain) {
         TransactionHash transactionHash = hashAndChain.hash();
         Chain chain = hashAndChain.chain();
@@ -50,5 +94,4 @@ public class BlockchairTransactionProvider implements Provider<HashAndChain, Tra
         logger.debug("Contacting Blockchair API for hash {} in chain {}", transactionHash, chain);
         return blockchairClient.getTransaction(chainName, transactionHash);
     }
-
 }
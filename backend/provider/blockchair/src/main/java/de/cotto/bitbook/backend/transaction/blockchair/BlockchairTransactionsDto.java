@@ -0,0 +1,39 @@
+package de.cotto.bitbook.backend.transaction.blockchair;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import de.cotto.bitbook.backend.model.Chain;
+import de.cotto.bitbook.backend.model.Transaction;
+
+import java.io.IOException;
+import java.util.List;
+
+@JsonDeserialize(using = BlockchairTransactionsDto.Deserializer.class)
+public class BlockchairTransactionsDto {
+    private final List<BlockchairTransactionDto> transactions;
+
+    public BlockchairTransactionsDto(List<BlockchairTransactionDto> transactions) {
+        this.transactions = transactions;
+    }
+
+    public List<Transaction> toModels(Chain chain) {
+        return transactions.stream().map(transaction -> transaction.toModel(chain)).toList();
+    }
+
+    static class Deserializer extends JsonDeserializer<BlockchairTransactionsDto> {
+        private final BlockchairTransactionDto.Deserializer transactionDeserializer =
+                new BlockchairTransactionDto.Deserializer();
+
+        @Override
+        public BlockchairTransactionsDto deserialize(
+                JsonParser jsonParser,
+                DeserializationContext deserializationContext
+        ) throws IOException {
+            JsonNode rootNode = jsonParser.getCodec().readTree(jsonParser);
+            return new BlockchairTransactionsDto(transactionDeserializer.deserializeAll(rootNode));
+        }
+    }
+}
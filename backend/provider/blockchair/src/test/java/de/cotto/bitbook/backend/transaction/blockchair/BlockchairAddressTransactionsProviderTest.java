@@ -122,4 +122,9 @@ class BlockchairAddressTransactionsProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BlockchairAddressTransactionsProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("blockchair");
+    }
 }
\ No newline at end of file
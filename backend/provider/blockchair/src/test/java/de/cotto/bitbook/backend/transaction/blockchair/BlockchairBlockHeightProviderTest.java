@@ -87,4 +87,9 @@ class BlockchairBlockHeightProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BlockchairBlockHeightProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("blockchair");
+    }
 }
\ No newline at end of file
@@ -9,7 +9,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static de.cotto.bitbook.backend.model.Chain.BCH;
 import static de.cotto.bitbook.backend.model.Chain.BSV;
@@ -19,6 +22,7 @@ import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION;
 import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION_BCH;
 import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION_BSV;
 import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
 import static de.cotto.bitbook.backend.transaction.blockchair.BlockchairTransactionDtoFixtures.BLOCKCHAIR_TRANSACTION;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
@@ -84,8 +88,60 @@ class BlockchairTransactionProviderTest {
         );
     }
 
+    @Test
+    void getAll() throws Exception {
+        when(blockchairClient.getTransactions("bitcoin", TRANSACTION_HASH.toString()))
+                .thenReturn(Optional.of(new BlockchairTransactionsDto(List.of(BLOCKCHAIR_TRANSACTION))));
+        when(blockchairClient.getTransactions("bitcoin-cash", TRANSACTION_HASH.toString()))
+                .thenReturn(Optional.of(new BlockchairTransactionsDto(List.of(BLOCKCHAIR_TRANSACTION))));
+
+        Map<HashAndChain, Transaction> transactions = provider.getAll(Set.of(
+                new HashAndChain(TRANSACTION_HASH, BTC),
+                new HashAndChain(TRANSACTION_HASH, BCH)
+        ));
+
+        assertThat(transactions).containsOnly(
+                Map.entry(new HashAndChain(TRANSACTION_HASH, BTC), TRANSACTION),
+                Map.entry(new HashAndChain(TRANSACTION_HASH, BCH), TRANSACTION_BCH)
+        );
+    }
+
+    @Test
+    void getAll_ignores_unrequested_transaction() throws Exception {
+        when(blockchairClient.getTransactions("bitcoin", TRANSACTION_HASH_2.toString()))
+                .thenReturn(Optional.of(new BlockchairTransactionsDto(List.of(BLOCKCHAIR_TRANSACTION))));
+        Map<HashAndChain, Transaction> transactions =
+                provider.getAll(Set.of(new HashAndChain(TRANSACTION_HASH_2, BTC)));
+        assertThat(transactions).isEmpty();
+    }
+
+    @Test
+    void getAll_no_response() throws Exception {
+        when(blockchairClient.getTransactions("bitcoin", TRANSACTION_HASH.toString())).thenReturn(Optional.empty());
+        Map<HashAndChain, Transaction> transactions =
+                provider.getAll(Set.of(new HashAndChain(TRANSACTION_HASH, BTC)));
+        assertThat(transactions).isEmpty();
+    }
+
+    @Test
+    void getAll_unsupported() {
+        assertThatExceptionOfType(ProviderException.class).isThrownBy(
+                () -> provider.getAll(Set.of(new HashAndChain(TRANSACTION_HASH, BTG)))
+        );
+    }
+
+    @Test
+    void getMaximumBatchSize() {
+        assertThat(provider.getMaximumBatchSize()).isEqualTo(10);
+    }
+
     @Test
     void getName() {
         assertThat(provider.getName()).isEqualTo("BlockchairTransactionProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("blockchair");
+    }
 }
\ No newline at end of file
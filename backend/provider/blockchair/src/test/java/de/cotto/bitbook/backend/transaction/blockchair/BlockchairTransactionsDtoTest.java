@@ -0,0 +1,72 @@
+package de.cotto.bitbook.backend.transaction.blockchair;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.cotto.bitbook.backend.model.Transaction;
+import de.cotto.bitbook.backend.transaction.deserialization.TestObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_3;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockchairTransactionsDtoTest {
+    private final ObjectMapper objectMapper = new TestObjectMapper();
+
+    @Test
+    void deserialization() throws Exception {
+        String json = """
+                {
+                  "data": {
+                    "%s": %s,
+                    "%s": %s
+                  }
+                }""".formatted(
+                TRANSACTION_HASH, transactionJson(TRANSACTION_HASH.toString()),
+                TRANSACTION_HASH_2, transactionJson(TRANSACTION_HASH_2.toString())
+        );
+        BlockchairTransactionsDto dto = objectMapper.readValue(json, BlockchairTransactionsDto.class);
+        assertThat(dto.toModels(BTC)).map(Transaction::getHash)
+                .containsExactlyInAnyOrder(TRANSACTION_HASH, TRANSACTION_HASH_2);
+    }
+
+    @Test
+    void deserialization_ignores_unknown_transaction() throws Exception {
+        String json = """
+                {
+                  "data": {
+                    "%s": %s,
+                    "%s": null
+                  }
+                }""".formatted(TRANSACTION_HASH, transactionJson(TRANSACTION_HASH.toString()), TRANSACTION_HASH_3);
+        BlockchairTransactionsDto dto = objectMapper.readValue(json, BlockchairTransactionsDto.class);
+        assertThat(dto.toModels(BTC)).map(Transaction::getHash).containsExactly(TRANSACTION_HASH);
+    }
+
+    @Test
+    void toModels_empty() {
+        assertThat(new BlockchairTransactionsDto(List.of()).toModels(BTC)).isEmpty();
+    }
+
+    private String transactionJson(String hash) {
+        return """
+                {
+                  "transaction": {
+                    "block_id": 123,
+                    "hash": "%s",
+                    "time": "2016-02-19 13:17:17",
+                    "fee": 0
+                  },
+                  "inputs": [],
+                  "outputs": [
+                    {
+                      "value": 0,
+                      "recipient": "d-db016c612be15c26723a4ff98244fab6"
+                    }
+                  ]
+                }""".formatted(hash);
+    }
+}
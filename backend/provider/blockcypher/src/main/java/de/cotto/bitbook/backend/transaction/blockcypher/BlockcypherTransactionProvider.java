@@ -40,6 +40,11 @@ public class BlockcypherTransactionProvider implements Provider<HashAndChain, Tr
         return "BlockcypherTransactionProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("blockcypher");
+    }
+
     private Optional<BlockcypherTransactionDto> getTransactionFromApi(TransactionHash transactionHash) {
         logger.debug("Contacting Blockcypher API for hash {}", transactionHash);
         return blockcypherClient.getTransaction(transactionHash);
@@ -59,4 +59,9 @@ class BlockcypherTransactionProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BlockcypherTransactionProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("blockcypher");
+    }
 }
\ No newline at end of file
@@ -1,45 +1,38 @@
 package de.cotto.bitbook.backend.transaction.blockstream;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.model.TransactionHash;
-import de.cotto.bitbook.backend.transaction.AddressTransactionsDeserializer;
-import de.cotto.bitbook.backend.transaction.deserialization.AddressTransactionsDto;
+import de.cotto.bitbook.backend.transaction.esplora.EsploraAddressTransactionsDeserializer;
+import de.cotto.bitbook.backend.transaction.esplora.EsploraAddressTransactionsDto;
 
-import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @JsonDeserialize(using = BlockstreamAddressTransactionsDto.Deserializer.class)
-public class BlockstreamAddressTransactionsDto extends AddressTransactionsDto {
-    protected BlockstreamAddressTransactionsDto(Set<TransactionHash> transactionHashes) {
-        super(Address.NONE, transactionHashes);
+public class BlockstreamAddressTransactionsDto extends EsploraAddressTransactionsDto {
+    protected BlockstreamAddressTransactionsDto(
+            List<TransactionHash> transactionHashes,
+            int oldestBlockHeight,
+            boolean lastPage
+    ) {
+        super(transactionHashes, oldestBlockHeight, lastPage);
     }
 
-    @Override
-    protected void validateAddress(Address expectedAddress) {
-        // the blockstream.info response does not contain any address, so we cannot validate the DTO
-    }
-
-    static class Deserializer extends AddressTransactionsDeserializer<BlockstreamAddressTransactionsDto> {
-        private static final int MAXIMUM_WITHOUT_PAGINATION = 25;
-
+    static class Deserializer extends EsploraAddressTransactionsDeserializer<BlockstreamAddressTransactionsDto> {
         @Override
-        public BlockstreamAddressTransactionsDto deserialize(
-                JsonParser jsonParser,
-                DeserializationContext deserializationContext
-        ) throws IOException {
-            Set<TransactionHash> transactionHashes = parseHashesWithLimit(jsonParser, MAXIMUM_WITHOUT_PAGINATION);
-            return new BlockstreamAddressTransactionsDto(transactionHashes);
+        protected BlockstreamAddressTransactionsDto createDto(
+                List<TransactionHash> transactionHashes,
+                int oldestBlockHeight,
+                boolean lastPage
+        ) {
+            return new BlockstreamAddressTransactionsDto(transactionHashes, oldestBlockHeight, lastPage);
         }
 
         @Override
         protected Optional<TransactionHash> getHash(JsonNode transactionReferenceNode) {
             if (transactionReferenceNode.get("status").get("confirmed").booleanValue()) {
-                return Optional.of(transactionReferenceNode.get("txid").textValue()).map(TransactionHash::new);
+                return super.getHash(transactionReferenceNode);
             }
             return Optional.empty();
         }
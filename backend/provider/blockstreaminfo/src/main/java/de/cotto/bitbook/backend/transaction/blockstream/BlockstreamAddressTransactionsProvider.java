@@ -2,8 +2,10 @@ package de.cotto.bitbook.backend.transaction.blockstream;
 
 import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.model.AddressTransactions;
+import de.cotto.bitbook.backend.model.ProviderException;
 import de.cotto.bitbook.backend.transaction.SimpleAddressTransactionsProvider;
 import de.cotto.bitbook.backend.transaction.TransactionsRequestKey;
+import de.cotto.bitbook.backend.transaction.esplora.EsploraAddressTransactionsPaging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -14,12 +16,15 @@ import static de.cotto.bitbook.backend.model.Chain.BTC;
 
 @Component
 public class BlockstreamAddressTransactionsProvider extends SimpleAddressTransactionsProvider {
-    private final BlockstreamInfoClient blockstreamInfoClient;
+    private final EsploraAddressTransactionsPaging<BlockstreamAddressTransactionsDto> paging;
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     public BlockstreamAddressTransactionsProvider(BlockstreamInfoClient blockstreamInfoClient) {
         super();
-        this.blockstreamInfoClient = blockstreamInfoClient;
+        paging = new EsploraAddressTransactionsPaging<>(
+                blockstreamInfoClient::getAddressDetails,
+                blockstreamInfoClient::getAddressDetailsAfter
+        );
     }
 
     @Override
@@ -28,10 +33,27 @@ public class BlockstreamAddressTransactionsProvider extends SimpleAddressTransac
     }
 
     @Override
-    protected Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey) {
+    public Optional<String> getClientName() {
+        return Optional.of("blockstreaminfo");
+    }
+
+    @Override
+    protected Optional<AddressTransactions> getFromApi(
+            TransactionsRequestKey transactionsRequestKey
+    ) throws ProviderException {
         Address address = transactionsRequestKey.address();
         logger.debug("Contacting blockstream.info API for transactions for address {}", address);
-        return blockstreamInfoClient.getAddressDetails(address)
-                .map(dto -> dto.toModel(transactionsRequestKey.blockHeight(), address, BTC));
+        return paging.getAll(address, transactionsRequestKey.blockHeight(), BTC);
+    }
+
+    @Override
+    protected Optional<AddressTransactions> getUpdatesFromApi(
+            TransactionsRequestKey transactionsRequestKey,
+            int fromBlockHeight
+    ) throws ProviderException {
+        Address address = transactionsRequestKey.address();
+        logger.debug("Contacting blockstream.info API for transactions since block {} for address {}",
+                fromBlockHeight, address);
+        return paging.getUpdates(address, fromBlockHeight, transactionsRequestKey.blockHeight(), BTC);
     }
 }
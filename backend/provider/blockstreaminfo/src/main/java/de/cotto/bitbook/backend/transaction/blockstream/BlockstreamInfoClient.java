@@ -1,6 +1,7 @@
 package de.cotto.bitbook.backend.transaction.blockstream;
 
 import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.TransactionHash;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -13,6 +14,12 @@ import java.util.Optional;
 @RateLimiter(name = "blockstreaminfo")
 @CircuitBreaker(name = "blockstreaminfo")
 public interface BlockstreamInfoClient {
-    @GetMapping("/address/{address}/txs")
+    @GetMapping("/address/{address}/txs/chain")
     Optional<BlockstreamAddressTransactionsDto> getAddressDetails(@PathVariable Address address);
+
+    @GetMapping("/address/{address}/txs/chain/{lastSeenTransactionHash}")
+    Optional<BlockstreamAddressTransactionsDto> getAddressDetailsAfter(
+            @PathVariable Address address,
+            @PathVariable TransactionHash lastSeenTransactionHash
+    );
 }
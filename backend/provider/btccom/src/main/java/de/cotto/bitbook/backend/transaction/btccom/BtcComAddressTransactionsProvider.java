@@ -27,6 +27,11 @@ public class BtcComAddressTransactionsProvider extends SimpleAddressTransactions
         return "BtcComAddressTransactionsProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("btccom");
+    }
+
     @Override
     protected Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey) {
         Address address = transactionsRequestKey.address();
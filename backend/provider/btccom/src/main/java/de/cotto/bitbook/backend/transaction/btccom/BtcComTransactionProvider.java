@@ -27,6 +27,11 @@ public class BtcComTransactionProvider implements Provider<HashAndChain, Transac
         return "BtcComTransactionProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("btccom");
+    }
+
     @Override
     public boolean isSupported(HashAndChain key) {
         return key.chain() == BTC;
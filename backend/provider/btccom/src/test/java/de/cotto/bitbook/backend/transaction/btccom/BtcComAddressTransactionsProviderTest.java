@@ -77,4 +77,9 @@ class BtcComAddressTransactionsProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BtcComAddressTransactionsProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("btccom");
+    }
 }
\ No newline at end of file
@@ -59,4 +59,9 @@ class BtcComTransactionProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("BtcComTransactionProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("btccom");
+    }
 }
\ No newline at end of file
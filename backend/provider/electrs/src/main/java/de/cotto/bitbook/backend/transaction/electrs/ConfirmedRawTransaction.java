@@ -0,0 +1,6 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import java.time.LocalDateTime;
+
+public record ConfirmedRawTransaction(RawTransaction transaction, int blockHeight, LocalDateTime time) {
+}
@@ -0,0 +1,77 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Chain;
+import de.cotto.bitbook.backend.transaction.AddressSubscriber;
+import de.cotto.bitbook.backend.transaction.AddressUpdateTracker;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static java.util.stream.Collectors.toSet;
+
+@Component
+public class ElectrsAddressSubscriber implements AddressSubscriber, ScriptHashStatusListener {
+    private final ElectrsClient electrsClient;
+    private final AddressUpdateTracker addressUpdateTracker;
+    private final Map<Address, String> statuses = new ConcurrentHashMap<>();
+    private final Set<Address> pendingSubscriptions = ConcurrentHashMap.newKeySet();
+
+    public ElectrsAddressSubscriber(ElectrsClient electrsClient, AddressUpdateTracker addressUpdateTracker) {
+        this.electrsClient = electrsClient;
+        this.addressUpdateTracker = addressUpdateTracker;
+    }
+
+    @PostConstruct
+    public void registerStatusListener() {
+        electrsClient.setStatusListener(this);
+    }
+
+    /**
+     * Addresses that are subscribed already, or for which the first status is still pending, are skipped.
+     */
+    @Override
+    public void subscribe(Set<Address> addresses, Chain chain) {
+        if (chain != BTC) {
+            return;
+        }
+        Set<Address> newAddresses = addresses.stream()
+                .filter(address -> !statuses.containsKey(address))
+                .filter(pendingSubscriptions::add)
+                .collect(toSet());
+        if (newAddresses.isEmpty()) {
+            return;
+        }
+        electrsClient.subscribe(newAddresses);
+    }
+
+    @Override
+    public void statusReceived(Address address, String status) {
+        String previousStatus = statuses.put(address, status);
+        pendingSubscriptions.remove(address);
+        if (previousStatus == null) {
+            addressUpdateTracker.trackingStarted(address, BTC);
+        } else if (!previousStatus.equals(status)) {
+            addressUpdateTracker.changed(address, BTC);
+        }
+    }
+
+    /**
+     * The address is subscribed again with the next call to {@link #subscribe(Set, Chain)}.
+     */
+    @Override
+    public void subscriptionFailed(Address address) {
+        pendingSubscriptions.remove(address);
+    }
+
+    @Override
+    public void subscriptionsLost() {
+        statuses.clear();
+        pendingSubscriptions.clear();
+        addressUpdateTracker.trackingStopped(BTC);
+    }
+}
@@ -2,26 +2,36 @@ package de.cotto.bitbook.backend.transaction.electrs;
 
 import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.model.AddressTransactions;
+import de.cotto.bitbook.backend.model.BatchProvider;
+import de.cotto.bitbook.backend.model.ProviderException;
 import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.transaction.AddressUpdateTracker;
 import de.cotto.bitbook.backend.transaction.SimpleAddressTransactionsProvider;
 import de.cotto.bitbook.backend.transaction.TransactionsRequestKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static de.cotto.bitbook.backend.model.Chain.BTC;
 
 @Component
-public class ElectrsAddressTransactionsProvider extends SimpleAddressTransactionsProvider {
+public class ElectrsAddressTransactionsProvider extends SimpleAddressTransactionsProvider
+        implements BatchProvider<TransactionsRequestKey, AddressTransactions> {
+    private static final int MAXIMUM_BATCH_SIZE = 1_000;
+
     private final ElectrsClient electrsClient;
+    private final AddressUpdateTracker addressUpdateTracker;
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    public ElectrsAddressTransactionsProvider(ElectrsClient electrsClient) {
+    public ElectrsAddressTransactionsProvider(ElectrsClient electrsClient, AddressUpdateTracker addressUpdateTracker) {
         super();
         this.electrsClient = electrsClient;
+        this.addressUpdateTracker = addressUpdateTracker;
     }
 
     @Override
@@ -34,6 +44,41 @@ public class ElectrsAddressTransactionsProvider extends SimpleAddressTransaction
         return key.chain() == BTC;
     }
 
+    @Override
+    public Map<TransactionsRequestKey, AddressTransactions> getAll(
+            Set<TransactionsRequestKey> keys
+    ) throws ProviderException {
+        for (TransactionsRequestKey key : keys) {
+            throwIfUnsupported(key);
+        }
+        Map<Address, Integer> fromBlockHeights = new LinkedHashMap<>();
+        for (TransactionsRequestKey key : keys) {
+            fromBlockHeights.merge(key.address(), getFromBlockHeight(key), Math::min);
+        }
+        logger.debug("Contacting Electrs for transactions for {} addresses", fromBlockHeights.size());
+        Map<Address, Set<TransactionHash>> hashesByAddress = electrsClient.getTransactionHashes(fromBlockHeights);
+        Map<TransactionsRequestKey, AddressTransactions> result = new LinkedHashMap<>();
+        for (TransactionsRequestKey key : keys) {
+            Set<TransactionHash> hashes = hashesByAddress.get(key.address());
+            if (hashes == null) {
+                continue;
+            }
+            addressUpdateTracker.updateConfirmed(key.address(), BTC);
+            AddressTransactions addressTransactions =
+                    new AddressTransactions(key.address(), hashes, key.blockHeight(), BTC);
+            if (key.hasKnownAddressTransactions()) {
+                addressTransactions = key.addressTransactions().getCombined(addressTransactions);
+            }
+            result.put(key, addressTransactions);
+        }
+        return result;
+    }
+
+    @Override
+    public int getMaximumBatchSize() {
+        return MAXIMUM_BATCH_SIZE;
+    }
+
     @Override
     protected Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey) {
         Address address = transactionsRequestKey.address();
@@ -42,6 +87,29 @@ public class ElectrsAddressTransactionsProvider extends SimpleAddressTransaction
         if (hashes == null) {
             return Optional.empty();
         }
+        addressUpdateTracker.updateConfirmed(address, BTC);
         return Optional.of(new AddressTransactions(address, hashes, transactionsRequestKey.blockHeight(), BTC));
     }
+
+    @Override
+    protected Optional<AddressTransactions> getUpdatesFromApi(
+            TransactionsRequestKey transactionsRequestKey,
+            int fromBlockHeight
+    ) {
+        Address address = transactionsRequestKey.address();
+        logger.debug("Contacting Electrs for transactions since block {} for address {}", fromBlockHeight, address);
+        Set<TransactionHash> hashes = electrsClient.getTransactionHashes(address, fromBlockHeight).orElse(null);
+        if (hashes == null) {
+            return Optional.empty();
+        }
+        addressUpdateTracker.updateConfirmed(address, BTC);
+        return Optional.of(new AddressTransactions(address, hashes, transactionsRequestKey.blockHeight(), BTC));
+    }
+
+    private int getFromBlockHeight(TransactionsRequestKey key) {
+        if (key.hasKnownAddressTransactions()) {
+            return key.addressTransactions().lastCheckedAtBlockHeight();
+        }
+        return 0;
+    }
 }
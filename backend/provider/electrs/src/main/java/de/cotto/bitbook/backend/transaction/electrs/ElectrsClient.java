@@ -2,22 +2,39 @@ package de.cotto.bitbook.backend.transaction.electrs;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
 import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.model.HexString;
 import de.cotto.bitbook.backend.model.TransactionHash;
 import de.cotto.bitbook.backend.transaction.electrs.jsonrpc.JsonRpcClient;
+import de.cotto.bitbook.backend.transaction.electrs.jsonrpc.JsonRpcListener;
 import de.cotto.bitbook.backend.transaction.electrs.jsonrpc.JsonRpcMessage;
-import org.apache.commons.lang3.ArrayUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Component
 public class ElectrsClient {
@@ -26,8 +43,18 @@ public class ElectrsClient {
 
     private static final String SUBSCRIBE_METHOD = "blockchain.scripthash.subscribe";
     private static final String GET_HISTORY_METHOD = "blockchain.scripthash.get_history";
+    private static final String GET_TRANSACTION_METHOD = "blockchain.transaction.get";
+    private static final String HEADERS_SUBSCRIBE_METHOD = "blockchain.headers.subscribe";
+    private static final String BLOCK_HEADER_METHOD = "blockchain.block.header";
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int BATCH_SIZE = 100;
 
+    private final Logger logger = LoggerFactory.getLogger(getClass());
     private final JsonRpcClient jsonRpcClient;
+    private final int batchSize;
+    private final Map<String, Address> subscribedAddresses = new ConcurrentHashMap<>();
+    @CheckForNull
+    private volatile ScriptHashStatusListener statusListener;
 
     public ElectrsClient() {
         this(new JsonRpcClient(HOST, PORT));
@@ -35,46 +62,261 @@ public class ElectrsClient {
 
     @VisibleForTesting
     ElectrsClient(JsonRpcClient jsonRpcClient) {
+        this(jsonRpcClient, BATCH_SIZE);
+    }
+
+    @VisibleForTesting
+    ElectrsClient(JsonRpcClient jsonRpcClient, int batchSize) {
         this.jsonRpcClient = jsonRpcClient;
+        this.batchSize = batchSize;
+        jsonRpcClient.setListener(new SubscriptionNotificationListener());
+    }
+
+    public void setStatusListener(ScriptHashStatusListener statusListener) {
+        this.statusListener = statusListener;
     }
 
     public Optional<Set<TransactionHash>> getTransactionHashes(Address address) {
+        return getTransactionHashes(address, 0);
+    }
+
+    /**
+     * Returns the hashes of the transactions confirmed at or after the given block height. The Electrum protocol does
+     * not allow restricting the history to these transactions, so the history is filtered while it is parsed.
+     */
+    public Optional<Set<TransactionHash>> getTransactionHashes(Address address, int fromBlockHeight) {
         HexString scriptHash = getReversedScriptHash(address);
-        JsonRpcMessage subscribeMessage = new JsonRpcMessage(SUBSCRIBE_METHOD, scriptHash);
+        JsonRpcMessage subscribeMessage = createSubscribeMessage(address, scriptHash);
         JsonRpcMessage getHistoryMessage = new JsonRpcMessage(GET_HISTORY_METHOD, scriptHash);
         jsonRpcClient.sendMessages(subscribeMessage, getHistoryMessage);
 
-        return getFutureResult(getHistoryMessage.getFuture());
+        return getFutureResult(
+                getHistoryMessage.getFuture(),
+                response -> parseHistory(response, fromBlockHeight),
+                TIMEOUT_NANOS
+        );
+    }
+
+    /**
+     * Requests the history of all addresses using JSON-RPC batches of up to 100 requests each. All batches
+     * are sent before waiting for the responses. For each address only the transactions confirmed at or after the
+     * given block height are returned. Addresses without a response (or without a script, for example because the
+     * address is invalid) are not included in the returned map.
+     */
+    public Map<Address, Set<TransactionHash>> getTransactionHashes(Map<Address, Integer> fromBlockHeights) {
+        Map<Address, JsonRpcMessage> messages = new LinkedHashMap<>();
+        for (Address address : fromBlockHeights.keySet()) {
+            try {
+                messages.put(address, new JsonRpcMessage(GET_HISTORY_METHOD, getReversedScriptHash(address)));
+            } catch (IllegalStateException exception) {
+                logger.debug("Unable to compute script hash for address {}", address);
+            }
+        }
+        List<List<JsonRpcMessage>> batches = Lists.partition(List.copyOf(messages.values()), batchSize);
+        batches.forEach(jsonRpcClient::sendBatch);
+
+        return getResultsForKeys(
+                messages,
+                (address, response) -> parseHistory(response, fromBlockHeights.get(address)),
+                batches.size()
+        );
+    }
+
+    /**
+     * Returns the confirmed transaction with its block height and block time. The block height is computed from
+     * the number of confirmations, and then verified using the hash of the block header at that height.
+     */
+    public Optional<ConfirmedRawTransaction> getConfirmedTransaction(TransactionHash transactionHash) {
+        JsonRpcMessage headersMessage = new JsonRpcMessage(HEADERS_SUBSCRIBE_METHOD);
+        JsonRpcMessage transactionMessage = new JsonRpcMessage(GET_TRANSACTION_METHOD, transactionHash, true);
+        jsonRpcClient.sendBatch(List.of(headersMessage, transactionMessage));
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        Optional<Integer> chainHeight = getFutureResult(
+                headersMessage.getFuture(),
+                response -> response.get("result").get("height").intValue(),
+                deadline - System.nanoTime()
+        );
+        Optional<JsonNode> transaction = getFutureResult(
+                transactionMessage.getFuture(),
+                response -> response.get("result"),
+                deadline - System.nanoTime()
+        );
+        if (chainHeight.isEmpty() || transaction.isEmpty()) {
+            return Optional.empty();
+        }
+        JsonNode transactionNode = transaction.get();
+        int confirmations = transactionNode.path("confirmations").asInt();
+        if (confirmations <= 0) {
+            return Optional.empty();
+        }
+        int blockHeight = chainHeight.get() - confirmations + 1;
+        if (!hasBlockHash(blockHeight, transactionNode.path("blockhash").asText())) {
+            logger.debug("Unable to verify block height {} for transaction {}", blockHeight, transactionHash);
+            return Optional.empty();
+        }
+        LocalDateTime time = LocalDateTime.ofEpochSecond(transactionNode.path("blocktime").asLong(), 0, ZoneOffset.UTC);
+        return parseRawTransaction(transactionNode.get("hex"))
+                .map(rawTransaction -> new ConfirmedRawTransaction(rawTransaction, blockHeight, time));
+    }
+
+    /**
+     * Requests the given transactions (without further details) using JSON-RPC batches. Transactions without a
+     * (valid) response are not included in the returned map.
+     */
+    public Map<TransactionHash, RawTransaction> getRawTransactions(Collection<TransactionHash> transactionHashes) {
+        Map<TransactionHash, JsonRpcMessage> messages = new LinkedHashMap<>();
+        for (TransactionHash transactionHash : transactionHashes) {
+            messages.put(transactionHash, new JsonRpcMessage(GET_TRANSACTION_METHOD, transactionHash));
+        }
+        List<List<JsonRpcMessage>> batches = Lists.partition(List.copyOf(messages.values()), batchSize);
+        batches.forEach(jsonRpcClient::sendBatch);
+        return getResults(messages, response -> RawTransaction.parse(getHexResult(response)), batches.size());
+    }
+
+    /**
+     * Subscribes to changes of the addresses, without waiting for the responses. The status of each address is
+     * reported to the {@link ScriptHashStatusListener}.
+     */
+    public void subscribe(Collection<Address> addresses) {
+        List<JsonRpcMessage> messages = new ArrayList<>();
+        for (Address address : addresses) {
+            try {
+                messages.add(createSubscribeMessage(address, getReversedScriptHash(address)));
+            } catch (IllegalStateException exception) {
+                logger.debug("Unable to compute script hash for address {}", address);
+            }
+        }
+        Lists.partition(messages, batchSize).forEach(jsonRpcClient::sendBatch);
+    }
+
+    @PreDestroy
+    public void close() {
+        jsonRpcClient.close();
+    }
+
+    private JsonRpcMessage createSubscribeMessage(Address address, HexString scriptHash) {
+        subscribedAddresses.put(scriptHash.toString(), address);
+        JsonRpcMessage message = new JsonRpcMessage(SUBSCRIBE_METHOD, scriptHash);
+        message.getFuture().whenComplete((response, throwable) -> {
+            JsonNode status = throwable == null ? response.get("result") : null;
+            statusReceived(address, status);
+        });
+        return message;
+    }
+
+    private void statusReceived(Address address, @Nullable JsonNode status) {
+        ScriptHashStatusListener listener = statusListener;
+        if (listener == null) {
+            return;
+        }
+        if (status == null || !status.isTextual() && !status.isNull()) {
+            listener.subscriptionFailed(address);
+            return;
+        }
+        listener.statusReceived(address, Objects.requireNonNullElse(status.textValue(), ""));
     }
 
     private HexString getReversedScriptHash(Address address) {
-        HexString script = address.getScript();
-        HexString scriptHash = script.getSha256Hash();
-        byte[] byteArray = scriptHash.getByteArray();
-        ArrayUtils.reverse(byteArray);
-        return new HexString(byteArray);
+        return address.getScript().getSha256Hash().getReversed();
+    }
+
+    private boolean hasBlockHash(int blockHeight, String expectedBlockHash) {
+        JsonRpcMessage blockHeaderMessage = new JsonRpcMessage(BLOCK_HEADER_METHOD, blockHeight);
+        jsonRpcClient.sendMessages(blockHeaderMessage);
+        return getFutureResult(
+                blockHeaderMessage.getFuture(),
+                response -> getHexResult(response).getSha256Hash().getSha256Hash().getReversed().toString(),
+                TIMEOUT_NANOS
+        ).map(expectedBlockHash::equals).orElse(false);
+    }
+
+    private Optional<RawTransaction> parseRawTransaction(@Nullable JsonNode hex) {
+        if (hex == null || !hex.isTextual()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(RawTransaction.parse(new HexString(hex.textValue())));
+        } catch (IllegalArgumentException exception) {
+            logger.warn("Unable to parse transaction {}", hex.textValue(), exception);
+            return Optional.empty();
+        }
+    }
+
+    private HexString getHexResult(JsonNode response) {
+        return new HexString(response.get("result").textValue());
     }
 
-    private Optional<Set<TransactionHash>> getFutureResult(CompletableFuture<JsonNode> future) {
+    private <K, V> Map<K, V> getResults(
+            Map<K, JsonRpcMessage> messages,
+            Function<JsonNode, V> parser,
+            int numberOfBatches
+    ) {
+        return getResultsForKeys(messages, (key, response) -> parser.apply(response), numberOfBatches);
+    }
+
+    private <K, V> Map<K, V> getResultsForKeys(
+            Map<K, JsonRpcMessage> messages,
+            BiFunction<K, JsonNode, V> parser,
+            int numberOfBatches
+    ) {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS * numberOfBatches;
+        Map<K, V> result = new LinkedHashMap<>();
+        messages.forEach((key, message) -> {
+            Function<JsonNode, V> parserForKey = response -> parser.apply(key, response);
+            getFutureResult(message.getFuture(), parserForKey, deadline - System.nanoTime())
+                    .ifPresent(value -> result.put(key, value));
+        });
+        return result;
+    }
+
+    private <T> Optional<T> getFutureResult(
+            CompletableFuture<JsonNode> future,
+            Function<JsonNode, T> parser,
+            long timeoutNanos
+    ) {
         try {
-            Set<TransactionHash> hashes = future
-                    .thenApply(this::parse)
-                    .get(1, TimeUnit.SECONDS);
-            return Optional.of(hashes);
+            return Optional.ofNullable(future.thenApply(parser).get(timeoutNanos, TimeUnit.NANOSECONDS));
         } catch (CompletionException | InterruptedException | ExecutionException | TimeoutException exception) {
             return Optional.empty();
         }
     }
 
-    private Set<TransactionHash> parse(JsonNode jsonNode) {
+    private Set<TransactionHash> parseHistory(JsonNode jsonNode, int fromBlockHeight) {
         Set<TransactionHash> result = new LinkedHashSet<>();
         JsonNode transactions = jsonNode.get("result");
         for (JsonNode tx : transactions) {
-            if (tx.get("height").intValue() <= 0) {
+            int height = tx.get("height").intValue();
+            if (height <= 0 || height < fromBlockHeight) {
                 continue;
             }
             result.add(new TransactionHash(tx.get("tx_hash").textValue()));
         }
         return result;
     }
+
+    private class SubscriptionNotificationListener implements JsonRpcListener {
+        public SubscriptionNotificationListener() {
+            // default constructor
+        }
+
+        @Override
+        public void notificationReceived(String method, JsonNode parameters) {
+            if (!SUBSCRIBE_METHOD.equals(method)) {
+                return;
+            }
+            Address address = subscribedAddresses.get(parameters.path(0).asText());
+            if (address != null) {
+                statusReceived(address, parameters.get(1));
+            }
+        }
+
+        @Override
+        public void connectionClosed() {
+            subscribedAddresses.clear();
+            ScriptHashStatusListener listener = statusListener;
+            if (listener != null) {
+                listener.subscriptionsLost();
+            }
+        }
+    }
 }
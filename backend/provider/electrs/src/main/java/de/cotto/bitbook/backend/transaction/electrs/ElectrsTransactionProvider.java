@@ -0,0 +1,157 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Coins;
+import de.cotto.bitbook.backend.model.HashAndChain;
+import de.cotto.bitbook.backend.model.Input;
+import de.cotto.bitbook.backend.model.InputOutput;
+import de.cotto.bitbook.backend.model.Output;
+import de.cotto.bitbook.backend.model.Provider;
+import de.cotto.bitbook.backend.model.ProviderException;
+import de.cotto.bitbook.backend.model.Transaction;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.transaction.electrs.RawTransaction.RawInput;
+import de.cotto.bitbook.backend.transaction.electrs.RawTransaction.RawOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Decodes the raw transaction returned by Electrs. The values and addresses of the inputs are taken from the
+ * outputs of the previous transactions, which are requested in a single batch (unless cached).
+ */
+@Component
+public class ElectrsTransactionProvider implements Provider<HashAndChain, Transaction> {
+    private static final int PREVIOUS_OUTPUTS_CACHE_SIZE = 100_000;
+
+    private final ElectrsClient electrsClient;
+    private final Cache<RawInput, Input> previousOutputs;
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public ElectrsTransactionProvider(ElectrsClient electrsClient) {
+        this(electrsClient, PREVIOUS_OUTPUTS_CACHE_SIZE);
+    }
+
+    @VisibleForTesting
+    ElectrsTransactionProvider(ElectrsClient electrsClient, long previousOutputsCacheSize) {
+        this.electrsClient = electrsClient;
+        previousOutputs = CacheBuilder.newBuilder().maximumSize(previousOutputsCacheSize).build();
+    }
+
+    @Override
+    public String getName() {
+        return "ElectrsTransactionProvider";
+    }
+
+    @Override
+    public boolean isSupported(HashAndChain key) {
+        return key.chain() == BTC;
+    }
+
+    @Override
+    public Optional<Transaction> get(HashAndChain hashAndChain) throws ProviderException {
+        throwIfUnsupported(hashAndChain);
+        TransactionHash hash = hashAndChain.hash();
+        logger.debug("Contacting Electrs for transaction {}", hash);
+        return electrsClient.getConfirmedTransaction(hash).flatMap(transaction -> toModel(hash, transaction));
+    }
+
+    private Optional<Transaction> toModel(TransactionHash hash, ConfirmedRawTransaction confirmedTransaction) {
+        RawTransaction rawTransaction = confirmedTransaction.transaction();
+        int blockHeight = confirmedTransaction.blockHeight();
+        Optional<List<Output>> outputs = getOutputs(rawTransaction);
+        if (outputs.isEmpty()) {
+            logger.debug("Unsupported output script in transaction {}", hash);
+            return Optional.empty();
+        }
+        if (rawTransaction.isCoinbase()) {
+            return Optional.of(Transaction.forCoinbase(
+                    hash, blockHeight, confirmedTransaction.time(), Coins.NONE, outputs.get(), BTC
+            ));
+        }
+        Optional<List<Input>> inputs = getInputs(rawTransaction.inputs());
+        if (inputs.isEmpty()) {
+            logger.debug("Unable to resolve inputs of transaction {}", hash);
+            return Optional.empty();
+        }
+        Coins fees = sumOfValues(inputs.get()).subtract(sumOfValues(outputs.get()));
+        return Optional.of(new Transaction(
+                hash, blockHeight, confirmedTransaction.time(), fees, inputs.get(), outputs.get(), BTC
+        ));
+    }
+
+    private Optional<List<Output>> getOutputs(RawTransaction rawTransaction) {
+        List<Output> outputs = new ArrayList<>();
+        for (RawOutput rawOutput : rawTransaction.outputs()) {
+            Optional<Address> address = getAddress(rawOutput);
+            if (address.isEmpty()) {
+                return Optional.empty();
+            }
+            outputs.add(new Output(Coins.ofSatoshis(rawOutput.value()), address.get()));
+        }
+        return Optional.of(outputs);
+    }
+
+    private Optional<List<Input>> getInputs(List<RawInput> rawInputs) {
+        Map<RawInput, Input> resolved = new HashMap<>(previousOutputs.getAllPresent(rawInputs));
+        Set<TransactionHash> missingTransactions = rawInputs.stream()
+                .filter(rawInput -> !resolved.containsKey(rawInput))
+                .map(RawInput::previousTransactionHash)
+                .collect(toSet());
+        if (!missingTransactions.isEmpty()) {
+            electrsClient.getRawTransactions(missingTransactions).forEach((previousHash, previousTransaction) -> {
+                Map<RawInput, Input> inputs = getInputsForOutputs(previousHash, previousTransaction);
+                resolved.putAll(inputs);
+                previousOutputs.putAll(inputs);
+            });
+        }
+        List<Input> inputs = new ArrayList<>();
+        for (RawInput rawInput : rawInputs) {
+            Input input = resolved.get(rawInput);
+            if (input == null) {
+                return Optional.empty();
+            }
+            inputs.add(input);
+        }
+        return Optional.of(inputs);
+    }
+
+    private Map<RawInput, Input> getInputsForOutputs(TransactionHash hash, RawTransaction transaction) {
+        Map<RawInput, Input> result = new HashMap<>();
+        List<RawOutput> outputs = transaction.outputs();
+        for (int index = 0; index < outputs.size(); index++) {
+            RawOutput rawOutput = outputs.get(index);
+            Coins value = Coins.ofSatoshis(rawOutput.value());
+            int outputIndex = index;
+            getAddress(rawOutput).ifPresent(
+                    address -> result.put(new RawInput(hash, outputIndex), new Input(value, address))
+            );
+        }
+        return result;
+    }
+
+    private Optional<Address> getAddress(RawOutput rawOutput) {
+        Optional<Address> address = Address.fromScript(rawOutput.script());
+        if (address.isEmpty() && rawOutput.value() == 0) {
+            return Optional.of(Address.NONE);
+        }
+        return address;
+    }
+
+    private Coins sumOfValues(List<? extends InputOutput> inputsOrOutputs) {
+        return inputsOrOutputs.stream().map(InputOutput::getValue).collect(Coins.sum());
+    }
+}
@@ -0,0 +1,100 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import de.cotto.bitbook.backend.model.HexString;
+import de.cotto.bitbook.backend.model.TransactionHash;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The inputs (references to previous outputs) and outputs (values and scripts) of a serialized transaction, with or
+ * without witness data. Witnesses and lock time are not needed and therefore not parsed.
+ */
+public record RawTransaction(List<RawInput> inputs, List<RawOutput> outputs) {
+    private static final int HASH_BYTES = 32;
+    private static final int SEGWIT_MARKER = 0;
+    private static final int UINT16_FOLLOWS = 0xfd;
+    private static final int UINT32_FOLLOWS = 0xfe;
+    private static final int UINT64_FOLLOWS = 0xff;
+    private static final long COINBASE_OUTPUT_INDEX = 0xffff_ffffL;
+
+    public RawTransaction(List<RawInput> inputs, List<RawOutput> outputs) {
+        this.inputs = List.copyOf(inputs);
+        this.outputs = List.copyOf(outputs);
+    }
+
+    public static RawTransaction parse(HexString serialized) {
+        ByteBuffer buffer = ByteBuffer.wrap(serialized.getByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            buffer.getInt();
+            boolean hasWitness = buffer.get(buffer.position()) == SEGWIT_MARKER;
+            if (hasWitness) {
+                buffer.position(buffer.position() + 2);
+            }
+            int numberOfInputs = readCount(buffer);
+            List<RawInput> inputs = new ArrayList<>(numberOfInputs);
+            for (int i = 0; i < numberOfInputs; i++) {
+                inputs.add(readInput(buffer));
+            }
+            int numberOfOutputs = readCount(buffer);
+            List<RawOutput> outputs = new ArrayList<>(numberOfOutputs);
+            for (int i = 0; i < numberOfOutputs; i++) {
+                long value = buffer.getLong();
+                outputs.add(new RawOutput(value, readBytes(buffer, readCount(buffer))));
+            }
+            return new RawTransaction(inputs, outputs);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException exception) {
+            throw new IllegalArgumentException("incomplete transaction", exception);
+        }
+    }
+
+    public boolean isCoinbase() {
+        return inputs.size() == 1 && inputs.get(0).isCoinbase();
+    }
+
+    private static RawInput readInput(ByteBuffer buffer) {
+        HexString previousHash = readBytes(buffer, HASH_BYTES).getReversed();
+        long outputIndex = Integer.toUnsignedLong(buffer.getInt());
+        int scriptLength = readCount(buffer);
+        buffer.position(buffer.position() + scriptLength);
+        buffer.getInt();
+        if (outputIndex == COINBASE_OUTPUT_INDEX) {
+            return RawInput.COINBASE;
+        }
+        return new RawInput(new TransactionHash(previousHash.toString()), (int) outputIndex);
+    }
+
+    private static HexString readBytes(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new HexString(bytes);
+    }
+
+    private static int readCount(ByteBuffer buffer) {
+        int first = Byte.toUnsignedInt(buffer.get());
+        long count = switch (first) {
+            case UINT16_FOLLOWS -> Short.toUnsignedInt(buffer.getShort());
+            case UINT32_FOLLOWS -> Integer.toUnsignedLong(buffer.getInt());
+            case UINT64_FOLLOWS -> buffer.getLong();
+            default -> first;
+        };
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid count " + count);
+        }
+        return (int) count;
+    }
+
+    public record RawInput(TransactionHash previousTransactionHash, int previousOutputIndex) {
+        public static final RawInput COINBASE = new RawInput(TransactionHash.NONE, -1);
+
+        public boolean isCoinbase() {
+            return COINBASE.equals(this);
+        }
+    }
+
+    public record RawOutput(long value, HexString script) {
+    }
+}
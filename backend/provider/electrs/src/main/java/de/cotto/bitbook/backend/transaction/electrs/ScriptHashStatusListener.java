@@ -0,0 +1,24 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import de.cotto.bitbook.backend.model.Address;
+
+/**
+ * Is informed about the Electrs status of subscribed addresses. The status changes whenever the history of the
+ * address changes, it is empty for addresses without any history.
+ */
+public interface ScriptHashStatusListener {
+    /**
+     * Called with the status returned for the subscription, and again for each reported change.
+     */
+    void statusReceived(Address address, String status);
+
+    /**
+     * Called if no status was returned for the subscription (for example because the request failed or timed out).
+     */
+    void subscriptionFailed(Address address);
+
+    /**
+     * Called when the connection to Electrs is closed, which ends all subscriptions.
+     */
+    void subscriptionsLost();
+}
@@ -1,50 +1,67 @@
 package de.cotto.bitbook.backend.transaction.electrs.jsonrpc;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.mina.core.service.IoHandlerAdapter;
 import org.apache.mina.core.session.IoSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.CheckForNull;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ClientSessionHandler extends IoHandlerAdapter {
-    private final List<JsonRpcMessage> messages;
+    private static final String PENDING_MESSAGES_KEY = ClientSessionHandler.class.getName() + ".PENDING_MESSAGES";
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @CheckForNull
+    private volatile JsonRpcListener listener;
 
-    public ClientSessionHandler(List<JsonRpcMessage> messages) {
+    public ClientSessionHandler() {
         super();
-        this.messages = messages;
     }
 
-    @Override
-    public void sessionOpened(IoSession session) {
-        messages.forEach(session::write);
+    public void setListener(JsonRpcListener listener) {
+        this.listener = listener;
+    }
+
+    public void send(IoSession session, List<JsonRpcMessage> messages) {
+        for (JsonRpcMessage message : messages) {
+            addPendingMessage(session, message);
+            session.write(message);
+        }
+    }
+
+    public void sendBatch(IoSession session, List<JsonRpcMessage> messages) {
+        messages.forEach(message -> addPendingMessage(session, message));
+        session.write(new JsonRpcBatch(messages));
     }
 
     @Override
     public void sessionClosed(IoSession session) {
-        messages.forEach(JsonRpcMessage::cancel);
+        getPendingMessages(session).values().forEach(JsonRpcMessage::cancel);
+        JsonRpcListener currentListener = listener;
+        if (currentListener != null) {
+            currentListener.connectionClosed();
+        }
     }
 
+    /**
+     * Handles a response (or notification) as decoded by {@link Decoder}. A JSON array contains the responses for
+     * a batch.
+     */
     @Override
-    public void messageReceived(IoSession session, Object response) {
-        response.toString().lines().forEach(line -> {
-            try {
-                JsonNode jsonNode = objectMapper.readTree(line);
-                for (JsonNode subNode : jsonNode) {
-                    messages.forEach(message -> message.responseReceived(subNode));
-                }
-            } catch (JsonProcessingException exception) {
-                logger.warn("received non-JSON message: {}", response);
-                session.closeNow();
-            }
-        });
-        if (messages.stream().allMatch(JsonRpcMessage::isDone)) {
-            session.closeNow();
+    public void messageReceived(IoSession session, Object message) {
+        if (!(message instanceof JsonNode jsonNode)) {
+            logger.warn("received unexpected message: {}", message);
+            return;
+        }
+        Map<Integer, JsonRpcMessage> pendingMessages = getPendingMessages(session);
+        if (jsonNode.isArray()) {
+            jsonNode.forEach(subNode -> responseReceived(pendingMessages, subNode));
+        } else {
+            responseReceived(pendingMessages, jsonNode);
         }
     }
 
@@ -53,4 +70,42 @@ public class ClientSessionHandler extends IoHandlerAdapter {
         logger.error("Caught exception, closing session", cause);
         session.closeNow();
     }
+
+    private void responseReceived(Map<Integer, JsonRpcMessage> pendingMessages, JsonNode response) {
+        JsonNode id = response.get("id");
+        if (id == null || !id.canConvertToInt()) {
+            notificationReceived(response);
+            return;
+        }
+        JsonRpcMessage message = pendingMessages.remove(id.intValue());
+        if (message != null) {
+            message.responseReceived(response);
+        }
+    }
+
+    private void notificationReceived(JsonNode notification) {
+        JsonRpcListener currentListener = listener;
+        JsonNode method = notification.get("method");
+        if (currentListener == null || method == null || !method.isTextual()) {
+            return;
+        }
+        currentListener.notificationReceived(method.textValue(), notification.path("params"));
+    }
+
+    private void addPendingMessage(IoSession session, JsonRpcMessage message) {
+        Map<Integer, JsonRpcMessage> pendingMessages = getPendingMessages(session);
+        int messageId = message.getMessageId();
+        pendingMessages.put(messageId, message);
+        message.getFuture().whenComplete((response, throwable) -> pendingMessages.remove(messageId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, JsonRpcMessage> getPendingMessages(IoSession session) {
+        Map<Integer, JsonRpcMessage> pendingMessages = new ConcurrentHashMap<>();
+        Object existing = session.setAttributeIfAbsent(PENDING_MESSAGES_KEY, pendingMessages);
+        if (existing != null) {
+            return (Map<Integer, JsonRpcMessage>) existing;
+        }
+        return pendingMessages;
+    }
 }
@@ -1,67 +1,61 @@
 package de.cotto.bitbook.backend.transaction.electrs.jsonrpc;
 
-import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Charsets;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.filter.codec.CumulativeProtocolDecoder;
 import org.apache.mina.filter.codec.ProtocolDecoderOutput;
 
-import java.nio.charset.CharacterCodingException;
+import java.io.IOException;
 
+/**
+ * Splits the received bytes into newline-terminated frames and parses each frame as JSON, directly from the buffer.
+ * Incomplete frames are kept in the (cumulative) buffer, and the number of bytes already known to contain no newline
+ * is remembered so that each byte is scanned only once.
+ */
 class Decoder extends CumulativeProtocolDecoder {
-    private static final String DECODER_STATE_KEY = Decoder.class.getName() + ".STATE";
-    private static final String NEWLINE = "\n";
+    private static final String SCANNED_BYTES_KEY = Decoder.class.getName() + ".SCANNED_BYTES";
+    private static final byte NEWLINE = '\n';
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     public Decoder() {
         super();
     }
 
     @Override
-    protected boolean doDecode(
-            IoSession session,
-            IoBuffer ioBuffer,
-            ProtocolDecoderOutput out
-    ) throws CharacterCodingException {
-        if (ioBuffer.remaining() <= 0) {
+    protected boolean doDecode(IoSession session, IoBuffer ioBuffer, ProtocolDecoderOutput out) throws IOException {
+        int start = ioBuffer.position();
+        int scannedBytes = (Integer) session.getAttribute(SCANNED_BYTES_KEY, 0);
+        int newlineIndex = indexOfNewline(ioBuffer, start + scannedBytes);
+        if (newlineIndex < 0) {
+            session.setAttribute(SCANNED_BYTES_KEY, ioBuffer.remaining());
             return false;
         }
-        String string = ioBuffer.getString(Charsets.UTF_8.newDecoder());
-        DecoderState decoderState = addDecoderState(session);
-        decoderState.append(string);
-        if (string.endsWith(NEWLINE)) {
-            out.write(decoderState.toString());
-            decoderState.reset();
-            return true;
+        session.removeAttribute(SCANNED_BYTES_KEY);
+        ioBuffer.position(newlineIndex + 1);
+        JsonNode frame = parse(ioBuffer, start, newlineIndex - start);
+        if (frame != null && !frame.isMissingNode()) {
+            out.write(frame);
         }
-        return false;
+        return true;
     }
 
-    private DecoderState addDecoderState(IoSession session) {
-        DecoderState decoderState = (DecoderState) session.getAttribute(DECODER_STATE_KEY);
-        if (decoderState == null) {
-            decoderState = new DecoderState();
-            session.setAttribute(DECODER_STATE_KEY, decoderState);
+    private int indexOfNewline(IoBuffer ioBuffer, int fromIndex) {
+        int limit = ioBuffer.limit();
+        for (int index = fromIndex; index < limit; index++) {
+            if (ioBuffer.get(index) == NEWLINE) {
+                return index;
+            }
         }
-        return decoderState;
+        return -1;
     }
 
-    @VisibleForTesting
-    static class DecoderState {
-        @SuppressWarnings("PMD.AvoidStringBufferField")
-        private final StringBuilder stringBuilder = new StringBuilder();
-
-        public void append(String string) {
-            stringBuilder.append(string);
-        }
-
-        @Override
-        public String toString() {
-            return stringBuilder.toString();
-        }
-
-        public void reset() {
-            stringBuilder.delete(0, stringBuilder.length());
+    private JsonNode parse(IoBuffer ioBuffer, int start, int length) throws IOException {
+        if (ioBuffer.hasArray()) {
+            return objectMapper.readTree(ioBuffer.array(), ioBuffer.arrayOffset() + start, length);
         }
+        return objectMapper.readTree(ioBuffer.getSlice(start, length).asInputStream());
     }
-}
\ No newline at end of file
+}
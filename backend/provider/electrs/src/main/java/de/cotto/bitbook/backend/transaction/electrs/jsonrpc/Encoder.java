@@ -24,8 +24,7 @@ public class Encoder implements ProtocolEncoder {
 
     @Nonnull
     private byte[] getPayload(Object message) {
-        JsonRpcMessage request = (JsonRpcMessage) message;
-        String stringToSend = request.toString() + "\n";
+        String stringToSend = message.toString() + "\n";
         return stringToSend.getBytes(Charsets.UTF_8);
     }
 
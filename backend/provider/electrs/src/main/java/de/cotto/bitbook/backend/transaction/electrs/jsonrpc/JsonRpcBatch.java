@@ -0,0 +1,30 @@
+package de.cotto.bitbook.backend.transaction.electrs.jsonrpc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.util.List;
+
+/**
+ * Several messages which are sent as a single JSON-RPC batch (one JSON array).
+ */
+class JsonRpcBatch {
+    private final List<JsonRpcMessage> messages;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    JsonRpcBatch(List<JsonRpcMessage> messages) {
+        this.messages = messages;
+    }
+
+    @Override
+    public String toString() {
+        ArrayNode arrayNode = objectMapper.createArrayNode();
+        messages.forEach(message -> arrayNode.add(message.toObjectNode()));
+        try {
+            return objectMapper.writeValueAsString(arrayNode);
+        } catch (JsonProcessingException exception) {
+            return "";
+        }
+    }
+}
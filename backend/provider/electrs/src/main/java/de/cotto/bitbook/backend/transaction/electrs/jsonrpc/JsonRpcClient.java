@@ -8,20 +8,40 @@ import org.apache.mina.transport.socket.nio.NioSocketConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.CheckForNull;
 import java.net.InetSocketAddress;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Sends requests over a single, long-lived connection which is (re-)established on demand. Several requests may be
+ * in flight at the same time, responses are matched to the requests by their ID (see {@link ClientSessionHandler}).
+ */
 public class JsonRpcClient {
     private static final long CONNECT_TIMEOUT = 500;
+    private static final long RESPONSE_TIMEOUT = 5_000;
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final String host;
     private final int port;
+    private final ClientSessionHandler clientSessionHandler;
+    @CheckForNull
+    private NioSocketConnector connector;
+    @CheckForNull
+    private IoSession session;
 
     public JsonRpcClient(String host, int port) {
         this.host = host;
         this.port = port;
+        clientSessionHandler = new ClientSessionHandler();
+    }
+
+    public void setListener(JsonRpcListener listener) {
+        clientSessionHandler.setListener(listener);
     }
 
     public void sendMessages(JsonRpcMessage... messages) {
@@ -29,22 +49,63 @@ public class JsonRpcClient {
     }
 
     public void sendMessages(List<JsonRpcMessage> messages) {
-        NioSocketConnector connector = new NioSocketConnector();
-        connector.getFilterChain().addLast("protocol", new ProtocolCodecFilter(new CodecFactory()));
-        connector.setConnectTimeoutMillis(CONNECT_TIMEOUT);
+        send(messages, clientSessionHandler::send);
+    }
+
+    /**
+     * Sends the messages as a single JSON-RPC batch, the responses are matched to the messages individually.
+     */
+    public void sendBatch(List<JsonRpcMessage> messages) {
+        send(messages, clientSessionHandler::sendBatch);
+    }
+
+    @SuppressWarnings("PMD.NullAssignment")
+    public synchronized void close() {
+        if (session != null) {
+            session.closeNow().awaitUninterruptibly();
+            session = null;
+        }
+        if (connector != null) {
+            connector.dispose();
+            connector = null;
+        }
+    }
+
+    private void send(List<JsonRpcMessage> messages, BiConsumer<IoSession, List<JsonRpcMessage>> sender) {
         if (messages.isEmpty()) {
             return;
         }
-        connector.setHandler(new ClientSessionHandler(messages));
+        messages.forEach(message -> message.getFuture().orTimeout(RESPONSE_TIMEOUT, MILLISECONDS));
+        IoSession connectedSession = getConnectedSession().orElse(null);
+        if (connectedSession == null) {
+            messages.forEach(JsonRpcMessage::cancel);
+            return;
+        }
+        sender.accept(connectedSession, messages);
+    }
+
+    private synchronized Optional<IoSession> getConnectedSession() {
+        if (session != null && session.isConnected() && !session.isClosing()) {
+            return Optional.of(session);
+        }
         try {
-            ConnectFuture future = connector.connect(new InetSocketAddress(host, port));
+            ConnectFuture future = getConnector().connect(new InetSocketAddress(host, port));
             future.awaitUninterruptibly();
-            IoSession session = future.getSession();
-            session.getCloseFuture().awaitUninterruptibly();
+            session = future.getSession();
+            return Optional.of(session);
         } catch (RuntimeIoException exception) {
             logger.debug("Failed to connect: ", exception);
+            return Optional.empty();
         }
-        connector.dispose();
     }
 
+    private NioSocketConnector getConnector() {
+        if (connector == null) {
+            connector = new NioSocketConnector();
+            connector.getFilterChain().addLast("protocol", new ProtocolCodecFilter(new CodecFactory()));
+            connector.setConnectTimeoutMillis(CONNECT_TIMEOUT);
+            connector.setHandler(clientSessionHandler);
+        }
+        return connector;
+    }
 }
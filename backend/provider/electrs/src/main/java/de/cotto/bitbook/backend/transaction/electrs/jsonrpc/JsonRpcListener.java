@@ -0,0 +1,13 @@
+package de.cotto.bitbook.backend.transaction.electrs.jsonrpc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Is informed about messages sent by the server which are not a response to a request (notifications), and about
+ * the connection being closed.
+ */
+public interface JsonRpcListener {
+    void notificationReceived(String method, JsonNode parameters);
+
+    void connectionClosed();
+}
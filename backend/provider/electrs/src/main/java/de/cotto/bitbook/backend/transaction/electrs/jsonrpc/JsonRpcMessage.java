@@ -5,7 +5,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.IntNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 
 import java.util.Arrays;
 import java.util.List;
@@ -16,7 +19,7 @@ public class JsonRpcMessage {
     private static final AtomicInteger ID_COUNTER = new AtomicInteger();
     private final int messageId;
     private final String method;
-    private final List<String> parameters;
+    private final List<JsonNode> parameters;
     private final CompletableFuture<JsonNode> future;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -24,7 +27,7 @@ public class JsonRpcMessage {
         future = new CompletableFuture<>();
         messageId = ID_COUNTER.incrementAndGet();
         this.method = method;
-        this.parameters = Arrays.stream(parameters).map(Object::toString).toList();
+        this.parameters = Arrays.stream(parameters).map(JsonRpcMessage::toJsonNode).toList();
     }
 
     public void responseReceived(JsonNode response) {
@@ -36,6 +39,15 @@ public class JsonRpcMessage {
     @Override
     public String toString() {
         ArrayNode arrayNode = objectMapper.createArrayNode();
+        arrayNode.add(toObjectNode());
+        try {
+            return objectMapper.writeValueAsString(arrayNode);
+        } catch (JsonProcessingException exception) {
+            return "";
+        }
+    }
+
+    ObjectNode toObjectNode() {
         ObjectNode objectNode = objectMapper.createObjectNode();
         objectNode.put("method", method);
         ArrayNode parametersNode = objectMapper.createArrayNode();
@@ -43,12 +55,7 @@ public class JsonRpcMessage {
         objectNode.set("params", parametersNode);
         objectNode.put("id", messageId);
         objectNode.put("jsonrpc", "2.0");
-        arrayNode.add(objectNode);
-        try {
-            return objectMapper.writeValueAsString(arrayNode);
-        } catch (JsonProcessingException exception) {
-            return "";
-        }
+        return objectNode;
     }
 
     public void cancel() {
@@ -67,4 +74,14 @@ public class JsonRpcMessage {
     public boolean isDone() {
         return future.isDone();
     }
+
+    private static JsonNode toJsonNode(Object parameter) {
+        if (parameter instanceof Boolean booleanParameter) {
+            return BooleanNode.valueOf(booleanParameter);
+        }
+        if (parameter instanceof Integer intParameter) {
+            return IntNode.valueOf(intParameter);
+        }
+        return TextNode.valueOf(parameter.toString());
+    }
 }
@@ -0,0 +1,123 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import de.cotto.bitbook.backend.transaction.AddressUpdateTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Set;
+
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_2;
+import static de.cotto.bitbook.backend.model.Chain.BCH;
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ElectrsAddressSubscriberTest {
+    @InjectMocks
+    private ElectrsAddressSubscriber electrsAddressSubscriber;
+
+    @Mock
+    private ElectrsClient electrsClient;
+
+    @Mock
+    private AddressUpdateTracker addressUpdateTracker;
+
+    @Test
+    void registerStatusListener() {
+        electrsAddressSubscriber.registerStatusListener();
+        verify(electrsClient).setStatusListener(electrsAddressSubscriber);
+    }
+
+    @Test
+    void subscribe() {
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS, ADDRESS_2), BTC);
+        verify(electrsClient).subscribe(Set.of(ADDRESS, ADDRESS_2));
+    }
+
+    @Test
+    void subscribe_ignores_other_chain() {
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS), BCH);
+        verifyNoInteractions(electrsClient);
+    }
+
+    @Test
+    void subscribe_skips_addresses_with_known_status() {
+        electrsAddressSubscriber.statusReceived(ADDRESS, "status");
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS, ADDRESS_2), BTC);
+        verify(electrsClient).subscribe(Set.of(ADDRESS_2));
+    }
+
+    @Test
+    void subscribe_does_nothing_if_all_addresses_have_known_status() {
+        electrsAddressSubscriber.statusReceived(ADDRESS, "status");
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS), BTC);
+        verify(electrsClient, never()).subscribe(any());
+    }
+
+    @Test
+    void subscribe_skips_addresses_with_pending_subscription() {
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS), BTC);
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS, ADDRESS_2), BTC);
+        verify(electrsClient).subscribe(Set.of(ADDRESS));
+        verify(electrsClient).subscribe(Set.of(ADDRESS_2));
+    }
+
+    @Test
+    void subscribe_again_after_pending_subscriptions_were_lost() {
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS), BTC);
+        electrsAddressSubscriber.subscriptionsLost();
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS), BTC);
+        verify(electrsClient, times(2)).subscribe(Set.of(ADDRESS));
+    }
+
+    @Test
+    void subscribe_again_after_subscription_failed() {
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS), BTC);
+        electrsAddressSubscriber.subscriptionFailed(ADDRESS);
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS), BTC);
+        verify(electrsClient, times(2)).subscribe(Set.of(ADDRESS));
+    }
+
+    @Test
+    void subscribe_again_after_subscriptions_were_lost() {
+        electrsAddressSubscriber.statusReceived(ADDRESS, "status");
+        electrsAddressSubscriber.subscriptionsLost();
+        electrsAddressSubscriber.subscribe(Set.of(ADDRESS), BTC);
+        verify(electrsClient).subscribe(Set.of(ADDRESS));
+    }
+
+    @Test
+    void statusReceived_first_status_starts_tracking() {
+        electrsAddressSubscriber.statusReceived(ADDRESS, "status");
+        verify(addressUpdateTracker).trackingStarted(ADDRESS, BTC);
+        verify(addressUpdateTracker, never()).changed(any(), any());
+    }
+
+    @Test
+    void statusReceived_same_status_again() {
+        electrsAddressSubscriber.statusReceived(ADDRESS, "status");
+        electrsAddressSubscriber.statusReceived(ADDRESS, "status");
+        verify(addressUpdateTracker, never()).changed(any(), any());
+    }
+
+    @Test
+    void statusReceived_different_status_reports_change() {
+        electrsAddressSubscriber.statusReceived(ADDRESS, "");
+        electrsAddressSubscriber.statusReceived(ADDRESS, "status");
+        verify(addressUpdateTracker).changed(ADDRESS, BTC);
+    }
+
+    @Test
+    void subscriptionsLost_stops_tracking() {
+        electrsAddressSubscriber.subscriptionsLost();
+        verify(addressUpdateTracker).trackingStopped(BTC);
+    }
+}
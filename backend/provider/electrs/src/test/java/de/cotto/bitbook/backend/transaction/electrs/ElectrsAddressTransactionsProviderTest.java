@@ -1,7 +1,9 @@
 package de.cotto.bitbook.backend.transaction.electrs;
 
 import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.AddressTransactions;
 import de.cotto.bitbook.backend.model.ProviderException;
+import de.cotto.bitbook.backend.transaction.AddressUpdateTracker;
 import de.cotto.bitbook.backend.transaction.TransactionsRequestKey;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,10 +11,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_2;
 import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.ADDRESS_TRANSACTIONS;
 import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.ADDRESS_TRANSACTIONS_UPDATED;
 import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.LAST_CHECKED_AT_BLOCK_HEIGHT;
@@ -25,6 +29,9 @@ import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION
 import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_4;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +43,9 @@ class ElectrsAddressTransactionsProviderTest {
     @Mock
     private ElectrsClient electrsClient;
 
+    @Mock
+    private AddressUpdateTracker addressUpdateTracker;
+
     @Test
     void isSupported_btc() {
         TransactionsRequestKey key = new TransactionsRequestKey(new Address("abc)"), BTC, 123);
@@ -63,29 +73,100 @@ class ElectrsAddressTransactionsProviderTest {
                 .contains(ADDRESS_TRANSACTIONS);
     }
 
+    @Test
+    void getAddressDetails_confirms_update() throws Exception {
+        when(electrsClient.getTransactionHashes(ADDRESS)).thenReturn(Optional.of(Set.of(TRANSACTION_HASH)));
+        provider.get(new TransactionsRequestKey(ADDRESS, BTC, LAST_CHECKED_AT_BLOCK_HEIGHT));
+        verify(addressUpdateTracker).updateConfirmed(ADDRESS, BTC);
+    }
+
+    @Test
+    void getAddressDetails_without_result_does_not_confirm_update() throws Exception {
+        when(electrsClient.getTransactionHashes(ADDRESS)).thenReturn(Optional.empty());
+        provider.get(new TransactionsRequestKey(ADDRESS, BTC, LAST_CHECKED_AT_BLOCK_HEIGHT));
+        verifyNoInteractions(addressUpdateTracker);
+    }
+
     @Test
     void getUpdates() throws Exception {
-        when(electrsClient.getTransactionHashes(ADDRESS)).thenReturn(Optional.of(Set.of(
-                TRANSACTION_HASH,
-                TRANSACTION_HASH_2,
-                TRANSACTION_HASH_3,
-                TRANSACTION_HASH_4
-        )));
+        when(electrsClient.getTransactionHashes(ADDRESS, LAST_CHECKED_AT_BLOCK_HEIGHT))
+                .thenReturn(Optional.of(Set.of(TRANSACTION_HASH_3, TRANSACTION_HASH_4)));
         TransactionsRequestKey transactionsRequestKey = new TransactionsRequestKey(
                 ADDRESS_TRANSACTIONS,
                 ADDRESS_TRANSACTIONS_UPDATED.lastCheckedAtBlockHeight()
         );
         assertThat(provider.get(transactionsRequestKey)).contains(ADDRESS_TRANSACTIONS_UPDATED);
+        verify(addressUpdateTracker).updateConfirmed(ADDRESS, BTC);
     }
 
     @Test
     void getUpdates_no_update_returned() throws Exception {
-        when(electrsClient.getTransactionHashes(ADDRESS)).thenReturn(Optional.empty());
+        when(electrsClient.getTransactionHashes(ADDRESS, LAST_CHECKED_AT_BLOCK_HEIGHT)).thenReturn(Optional.empty());
 
         assertThat(provider.get(new TransactionsRequestKey(ADDRESS_TRANSACTIONS, LAST_CHECKED_AT_BLOCK_HEIGHT)))
                 .contains(ADDRESS_TRANSACTIONS);
     }
 
+    @Test
+    void getAll() throws Exception {
+        when(electrsClient.getTransactionHashes(Map.of(ADDRESS, 0, ADDRESS_2, 0))).thenReturn(Map.of(
+                ADDRESS, Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2),
+                ADDRESS_2, Set.of(TRANSACTION_HASH_3)
+        ));
+        TransactionsRequestKey key1 = new TransactionsRequestKey(ADDRESS, BTC, LAST_CHECKED_AT_BLOCK_HEIGHT);
+        TransactionsRequestKey key2 = new TransactionsRequestKey(ADDRESS_2, BTC, LAST_CHECKED_AT_BLOCK_HEIGHT);
+        assertThat(provider.getAll(Set.of(key1, key2))).isEqualTo(Map.of(
+                key1, ADDRESS_TRANSACTIONS,
+                key2, new AddressTransactions(ADDRESS_2, Set.of(TRANSACTION_HASH_3), LAST_CHECKED_AT_BLOCK_HEIGHT, BTC)
+        ));
+    }
+
+    @Test
+    void getAll_updates() throws Exception {
+        when(electrsClient.getTransactionHashes(Map.of(ADDRESS, LAST_CHECKED_AT_BLOCK_HEIGHT)))
+                .thenReturn(Map.of(ADDRESS, Set.of(TRANSACTION_HASH_3, TRANSACTION_HASH_4)));
+        TransactionsRequestKey key = new TransactionsRequestKey(
+                ADDRESS_TRANSACTIONS,
+                ADDRESS_TRANSACTIONS_UPDATED.lastCheckedAtBlockHeight()
+        );
+        assertThat(provider.getAll(Set.of(key))).isEqualTo(Map.of(key, ADDRESS_TRANSACTIONS_UPDATED));
+    }
+
+    @Test
+    void getAll_requests_complete_history_if_address_is_also_requested_without_known_transactions() throws Exception {
+        when(electrsClient.getTransactionHashes(Map.of(ADDRESS, 0)))
+                .thenReturn(Map.of(ADDRESS, Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2)));
+        TransactionsRequestKey update = new TransactionsRequestKey(ADDRESS_TRANSACTIONS, LAST_CHECKED_AT_BLOCK_HEIGHT);
+        TransactionsRequestKey unknown = new TransactionsRequestKey(ADDRESS, BTC, LAST_CHECKED_AT_BLOCK_HEIGHT);
+        assertThat(provider.getAll(Set.of(update, unknown))).isEqualTo(Map.of(
+                update, ADDRESS_TRANSACTIONS,
+                unknown, ADDRESS_TRANSACTIONS
+        ));
+    }
+
+    @Test
+    void getAll_omits_address_without_result() throws Exception {
+        when(electrsClient.getTransactionHashes(Map.of(ADDRESS, 0, ADDRESS_2, 0)))
+                .thenReturn(Map.of(ADDRESS, Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2)));
+        TransactionsRequestKey key1 = new TransactionsRequestKey(ADDRESS, BTC, LAST_CHECKED_AT_BLOCK_HEIGHT);
+        TransactionsRequestKey key2 = new TransactionsRequestKey(ADDRESS_2, BTC, LAST_CHECKED_AT_BLOCK_HEIGHT);
+        assertThat(provider.getAll(Set.of(key1, key2))).containsOnlyKeys(key1);
+        verify(addressUpdateTracker).updateConfirmed(ADDRESS, BTC);
+        verify(addressUpdateTracker, never()).updateConfirmed(ADDRESS_2, BTC);
+    }
+
+    @Test
+    void getAll_unsupported_chain() {
+        TransactionsRequestKey key1 = new TransactionsRequestKey(ADDRESS, BTC, LAST_CHECKED_AT_BLOCK_HEIGHT);
+        TransactionsRequestKey key2 = new TransactionsRequestKey(ADDRESS_2, BCH, LAST_CHECKED_AT_BLOCK_HEIGHT);
+        assertThatExceptionOfType(ProviderException.class).isThrownBy(() -> provider.getAll(Set.of(key1, key2)));
+    }
+
+    @Test
+    void getMaximumBatchSize() {
+        assertThat(provider.getMaximumBatchSize()).isEqualTo(1_000);
+    }
+
     @Test
     void getName() {
         assertThat(provider.getName()).isEqualTo("ElectrsAddressTransactionsProvider");
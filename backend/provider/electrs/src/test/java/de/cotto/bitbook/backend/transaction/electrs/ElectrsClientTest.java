@@ -1,23 +1,58 @@
 package de.cotto.bitbook.backend.transaction.electrs;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.HexString;
 import de.cotto.bitbook.backend.model.TransactionHash;
 import de.cotto.bitbook.backend.transaction.electrs.jsonrpc.JsonRpcClient;
+import de.cotto.bitbook.backend.transaction.electrs.jsonrpc.JsonRpcListener;
 import de.cotto.bitbook.backend.transaction.electrs.jsonrpc.JsonRpcMessage;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.annotation.Nullable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
 import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_2;
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_3;
+import static de.cotto.bitbook.backend.model.AddressFixtures.P2TR;
+import static de.cotto.bitbook.backend.model.AddressFixtures.P2WPKH;
 import static de.cotto.bitbook.backend.model.TransactionFixtures.BLOCK_HEIGHT;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.PREVIOUS_RAW_TRANSACTION;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.PREVIOUS_TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.PREVIOUS_TRANSACTION_HEX;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.RAW_TRANSACTION;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.TRANSACTION_HEX;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
+@ExtendWith(MockitoExtension.class)
 class ElectrsClientTest {
+    private static final String SCRIPT_HASH = "2bffa1631b6d8daac73ea21a55749b3f979f0054172bc4620307fd2992b9ea5c";
+    private static final String BLOCK_HEADER = "00".repeat(80);
+    private static final int CHAIN_HEIGHT = 700_000;
     private static final String SUBSCRIBE_PATTERN = "\\[\\{" +
             "\"method\":\"blockchain.scripthash.subscribe\"," +
             "\"params\":\\[\".*\"]," +
@@ -33,6 +68,14 @@ class ElectrsClientTest {
     private final TestableJsonRpcClient jsonRpcClient = new TestableJsonRpcClient();
     private final ElectrsClient electrsClient = new ElectrsClient(jsonRpcClient);
 
+    @Mock
+    private ScriptHashStatusListener statusListener;
+
+    @BeforeEach
+    void setUp() {
+        electrsClient.setStatusListener(statusListener);
+    }
+
     @Test
     void subscribes_and_requests_history() {
         electrsClient.getTransactionHashes(ADDRESS);
@@ -43,8 +86,7 @@ class ElectrsClientTest {
     @Test
     void uses_reversed_sha256_param_for_script() {
         electrsClient.getTransactionHashes(ADDRESS);
-        String expectedParameter = "2bffa1631b6d8daac73ea21a55749b3f979f0054172bc4620307fd2992b9ea5c";
-        String patternWithScriptParameter = ".*\\[\"%s\"].*".formatted(expectedParameter);
+        String patternWithScriptParameter = ".*\\[\"%s\"].*".formatted(SCRIPT_HASH);
         assertThat(jsonRpcClient.messages.get(0).toString()).matches(patternWithScriptParameter);
         assertThat(jsonRpcClient.messages.get(1).toString()).matches(patternWithScriptParameter);
     }
@@ -55,6 +97,12 @@ class ElectrsClientTest {
         assertThat(result.orElseThrow()).containsExactlyInAnyOrder(new TransactionHash("a"), new TransactionHash("b"));
     }
 
+    @Test
+    void returns_confirmed_hashes_since_block_height() {
+        Optional<Set<TransactionHash>> result = electrsClient.getTransactionHashes(ADDRESS, BLOCK_HEIGHT);
+        assertThat(result.orElseThrow()).containsExactly(new TransactionHash("a"));
+    }
+
     @Test
     void empty_on_failure() {
         jsonRpcClient.fail = true;
@@ -62,36 +110,390 @@ class ElectrsClientTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void batch_requests_history_only() {
+        electrsClient.getTransactionHashes(completeHistory(ADDRESS, ADDRESS_2));
+        assertThat(jsonRpcClient.batches).hasSize(1);
+        assertThat(jsonRpcClient.batches.get(0)).hasSize(2).allSatisfy(
+                message -> assertThat(message.toString()).matches(GET_HISTORY_PATTERN)
+        );
+    }
+
+    @Test
+    void batch_uses_reversed_sha256_param_for_script() {
+        electrsClient.getTransactionHashes(completeHistory(ADDRESS));
+        String patternWithScriptParameter = ".*\\[\"%s\"].*".formatted(SCRIPT_HASH);
+        assertThat(jsonRpcClient.batches.get(0).get(0).toString()).matches(patternWithScriptParameter);
+    }
+
+    @Test
+    void batch_split_into_chunks() {
+        ElectrsClient electrsClientWithSmallBatches = new ElectrsClient(jsonRpcClient, 2);
+        Map<Address, Integer> fromBlockHeights = completeHistory(ADDRESS, ADDRESS_2, ADDRESS_3, P2WPKH, P2TR);
+        electrsClientWithSmallBatches.getTransactionHashes(fromBlockHeights);
+        assertThat(jsonRpcClient.batches).map(List::size).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void batch_returns_confirmed_hashes_for_each_address() {
+        Map<Address, Set<TransactionHash>> result =
+                electrsClient.getTransactionHashes(completeHistory(ADDRESS, ADDRESS_2));
+        Set<TransactionHash> expected = Set.of(new TransactionHash("a"), new TransactionHash("b"));
+        assertThat(result).containsOnlyKeys(ADDRESS, ADDRESS_2)
+                .containsEntry(ADDRESS, expected)
+                .containsEntry(ADDRESS_2, expected);
+    }
+
+    @Test
+    void batch_returns_confirmed_hashes_since_block_height_of_each_address() {
+        Map<Address, Set<TransactionHash>> result =
+                electrsClient.getTransactionHashes(Map.of(ADDRESS, BLOCK_HEIGHT, ADDRESS_2, BLOCK_HEIGHT - 1));
+        assertThat(result)
+                .containsEntry(ADDRESS, Set.of(new TransactionHash("a")))
+                .containsEntry(ADDRESS_2, Set.of(new TransactionHash("a"), new TransactionHash("b")));
+    }
+
+    @Test
+    void batch_skips_address_without_script() {
+        Map<Address, Set<TransactionHash>> result =
+                electrsClient.getTransactionHashes(completeHistory(new Address("x"), ADDRESS));
+        assertThat(result).containsOnlyKeys(ADDRESS);
+        assertThat(jsonRpcClient.batches.get(0)).hasSize(1);
+    }
+
+    @Test
+    void batch_empty_on_failure() {
+        jsonRpcClient.fail = true;
+        assertThat(electrsClient.getTransactionHashes(completeHistory(ADDRESS, ADDRESS_2))).isEmpty();
+    }
+
+    @Test
+    void batch_without_addresses() {
+        assertThat(electrsClient.getTransactionHashes(completeHistory())).isEmpty();
+        assertThat(jsonRpcClient.batches).isEmpty();
+    }
+
+    @Test
+    void reports_status_of_subscription() {
+        electrsClient.getTransactionHashes(ADDRESS);
+        verify(statusListener).statusReceived(ADDRESS, "status");
+    }
+
+    @Test
+    void subscribe_sends_batch_of_subscribe_messages() {
+        electrsClient.subscribe(List.of(ADDRESS, ADDRESS_2));
+        assertThat(jsonRpcClient.batches).hasSize(1);
+        assertThat(jsonRpcClient.batches.get(0)).hasSize(2).allSatisfy(
+                message -> assertThat(message.toString()).matches(SUBSCRIBE_PATTERN)
+        );
+    }
+
+    @Test
+    void subscribe_split_into_chunks() {
+        ElectrsClient electrsClientWithSmallBatches = new ElectrsClient(jsonRpcClient, 2);
+        electrsClientWithSmallBatches.subscribe(List.of(ADDRESS, ADDRESS_2, ADDRESS_3));
+        assertThat(jsonRpcClient.batches).map(List::size).containsExactly(2, 1);
+    }
+
+    @Test
+    void subscribe_skips_address_without_script() {
+        electrsClient.subscribe(List.of(new Address("x"), ADDRESS));
+        assertThat(jsonRpcClient.batches.get(0)).hasSize(1);
+    }
+
+    @Test
+    void subscribe_reports_status() {
+        electrsClient.subscribe(List.of(ADDRESS, ADDRESS_2));
+        verify(statusListener).statusReceived(ADDRESS, "status");
+        verify(statusListener).statusReceived(ADDRESS_2, "status");
+    }
+
+    @Test
+    void subscribe_reports_empty_status_for_address_without_history() {
+        jsonRpcClient.status = null;
+        electrsClient.subscribe(List.of(ADDRESS));
+        verify(statusListener).statusReceived(ADDRESS, "");
+    }
+
+    @Test
+    void subscribe_does_not_report_status_on_failure() {
+        jsonRpcClient.fail = true;
+        electrsClient.subscribe(List.of(ADDRESS));
+        verify(statusListener, never()).statusReceived(any(), any());
+    }
+
+    @Test
+    void subscribe_reports_failure_if_request_is_cancelled() {
+        jsonRpcClient.fail = true;
+        electrsClient.subscribe(List.of(ADDRESS));
+        verify(statusListener).subscriptionFailed(ADDRESS);
+    }
+
+    @Test
+    void subscribe_reports_failure_for_invalid_status() {
+        jsonRpcClient.results.put("blockchain.scripthash.subscribe", params -> JsonNodeFactory.instance.numberNode(1));
+        electrsClient.subscribe(List.of(ADDRESS));
+        verify(statusListener).subscriptionFailed(ADDRESS);
+    }
+
+    @Test
+    void subscribe_does_not_report_failure_on_success() {
+        electrsClient.subscribe(List.of(ADDRESS));
+        verify(statusListener, never()).subscriptionFailed(any());
+    }
+
+    @Test
+    void notification_reports_status_of_subscribed_address() {
+        electrsClient.subscribe(List.of(ADDRESS));
+        jsonRpcClient.listener.notificationReceived("blockchain.scripthash.subscribe", params(SCRIPT_HASH, "new"));
+        verify(statusListener).statusReceived(ADDRESS, "new");
+    }
+
+    @Test
+    void notification_ignored_for_unknown_script_hash() {
+        jsonRpcClient.listener.notificationReceived("blockchain.scripthash.subscribe", params(SCRIPT_HASH, "new"));
+        verify(statusListener, never()).statusReceived(any(), any());
+    }
+
+    @Test
+    void notification_ignored_for_other_method() {
+        electrsClient.subscribe(List.of(ADDRESS));
+        jsonRpcClient.listener.notificationReceived("blockchain.headers.subscribe", params(SCRIPT_HASH, "new"));
+        verify(statusListener, never()).statusReceived(ADDRESS, "new");
+    }
+
+    @Test
+    void connection_closed_reports_lost_subscriptions() {
+        jsonRpcClient.listener.connectionClosed();
+        verify(statusListener).subscriptionsLost();
+    }
+
+    @Test
+    void connection_closed_forgets_subscribed_addresses() {
+        electrsClient.subscribe(List.of(ADDRESS));
+        jsonRpcClient.listener.connectionClosed();
+        jsonRpcClient.listener.notificationReceived("blockchain.scripthash.subscribe", params(SCRIPT_HASH, "new"));
+        verify(statusListener, never()).statusReceived(ADDRESS, "new");
+    }
+
+    @Test
+    void getConfirmedTransaction() {
+        mockConfirmedTransaction();
+        assertThat(electrsClient.getConfirmedTransaction(TRANSACTION_HASH)).contains(
+                new ConfirmedRawTransaction(RAW_TRANSACTION, CHAIN_HEIGHT - 2, LocalDateTime.of(2021, 9, 11, 4, 14, 32))
+        );
+    }
+
+    @Test
+    void getConfirmedTransaction_requests_chain_height_and_transaction_in_one_batch() {
+        mockConfirmedTransaction();
+        electrsClient.getConfirmedTransaction(TRANSACTION_HASH);
+        assertThat(jsonRpcClient.batches.get(0)).map(JsonRpcMessage::toString).satisfiesExactly(
+                message -> assertThat(message).contains("\"method\":\"blockchain.headers.subscribe\""),
+                message -> assertThat(message).contains(
+                        "\"method\":\"blockchain.transaction.get\",\"params\":[\"%s\",true]"
+                                .formatted(TRANSACTION_HASH)
+                )
+        );
+    }
+
+    @Test
+    void getConfirmedTransaction_requests_block_header_at_computed_height() {
+        mockConfirmedTransaction();
+        electrsClient.getConfirmedTransaction(TRANSACTION_HASH);
+        assertThat(jsonRpcClient.messages.get(0).toString())
+                .contains("\"method\":\"blockchain.block.header\",\"params\":[%d]".formatted(CHAIN_HEIGHT - 2));
+    }
+
+    @Test
+    void getConfirmedTransaction_empty_if_block_hash_does_not_match() {
+        mockConfirmedTransaction();
+        jsonRpcClient.results.put("blockchain.block.header", params -> TextNode.valueOf("11".repeat(80)));
+        assertThat(electrsClient.getConfirmedTransaction(TRANSACTION_HASH)).isEmpty();
+    }
+
+    @Test
+    void getConfirmedTransaction_empty_if_unconfirmed() {
+        mockConfirmedTransaction();
+        jsonRpcClient.results.put("blockchain.transaction.get", params -> verboseTransaction(TRANSACTION_HEX, 0));
+        assertThat(electrsClient.getConfirmedTransaction(TRANSACTION_HASH)).isEmpty();
+        assertThat(jsonRpcClient.messages).hasSize(2);
+    }
+
+    @Test
+    void getConfirmedTransaction_empty_if_transaction_is_unknown() {
+        mockConfirmedTransaction();
+        jsonRpcClient.results.put("blockchain.transaction.get", params -> NullNode.getInstance());
+        assertThat(electrsClient.getConfirmedTransaction(TRANSACTION_HASH)).isEmpty();
+    }
+
+    @Test
+    void getConfirmedTransaction_empty_if_transaction_cannot_be_parsed() {
+        mockConfirmedTransaction();
+        jsonRpcClient.results.put("blockchain.transaction.get", params -> verboseTransaction("0100", 3));
+        assertThat(electrsClient.getConfirmedTransaction(TRANSACTION_HASH)).isEmpty();
+    }
+
+    @Test
+    void getConfirmedTransaction_empty_on_failure() {
+        mockConfirmedTransaction();
+        jsonRpcClient.fail = true;
+        assertThat(electrsClient.getConfirmedTransaction(TRANSACTION_HASH)).isEmpty();
+    }
+
+    @Test
+    void getRawTransactions() {
+        mockRawTransactions();
+        assertThat(electrsClient.getRawTransactions(List.of(TRANSACTION_HASH, PREVIOUS_TRANSACTION_HASH))).isEqualTo(
+                Map.of(TRANSACTION_HASH, RAW_TRANSACTION, PREVIOUS_TRANSACTION_HASH, PREVIOUS_RAW_TRANSACTION)
+        );
+    }
+
+    @Test
+    void getRawTransactions_requests_transactions_without_details() {
+        mockRawTransactions();
+        electrsClient.getRawTransactions(List.of(TRANSACTION_HASH));
+        assertThat(jsonRpcClient.batches.get(0).get(0).toString()).contains(
+                "\"method\":\"blockchain.transaction.get\",\"params\":[\"%s\"]".formatted(TRANSACTION_HASH)
+        );
+    }
+
+    @Test
+    void getRawTransactions_split_into_chunks() {
+        mockRawTransactions();
+        ElectrsClient electrsClientWithSmallBatches = new ElectrsClient(jsonRpcClient, 1);
+        electrsClientWithSmallBatches.getRawTransactions(List.of(TRANSACTION_HASH, PREVIOUS_TRANSACTION_HASH));
+        assertThat(jsonRpcClient.batches).map(List::size).containsExactly(1, 1);
+    }
+
+    @Test
+    void getRawTransactions_skips_invalid_transaction() {
+        jsonRpcClient.results.put("blockchain.transaction.get", params -> TextNode.valueOf(
+                params.get(0).textValue().equals(TRANSACTION_HASH.toString()) ? "0100" : PREVIOUS_TRANSACTION_HEX
+        ));
+        assertThat(electrsClient.getRawTransactions(List.of(TRANSACTION_HASH, PREVIOUS_TRANSACTION_HASH)))
+                .containsOnlyKeys(PREVIOUS_TRANSACTION_HASH);
+    }
+
+    @Test
+    void getRawTransactions_empty_on_failure() {
+        mockRawTransactions();
+        jsonRpcClient.fail = true;
+        assertThat(electrsClient.getRawTransactions(List.of(TRANSACTION_HASH))).isEmpty();
+    }
+
+    @Test
+    void close_closes_json_rpc_client() {
+        electrsClient.close();
+        assertThat(jsonRpcClient.closed).isTrue();
+    }
+
+    private void mockConfirmedTransaction() {
+        ObjectNode header = JsonNodeFactory.instance.objectNode().put("height", CHAIN_HEIGHT).put("hex", BLOCK_HEADER);
+        jsonRpcClient.results.put("blockchain.headers.subscribe", params -> header);
+        jsonRpcClient.results.put("blockchain.transaction.get", params -> verboseTransaction(TRANSACTION_HEX, 3));
+        jsonRpcClient.results.put("blockchain.block.header", params -> TextNode.valueOf(BLOCK_HEADER));
+    }
+
+    private void mockRawTransactions() {
+        jsonRpcClient.results.put("blockchain.transaction.get", params -> TextNode.valueOf(
+                params.get(0).textValue().equals(TRANSACTION_HASH.toString())
+                        ? TRANSACTION_HEX
+                        : PREVIOUS_TRANSACTION_HEX
+        ));
+    }
+
+    private ObjectNode verboseTransaction(String hex, int confirmations) {
+        String blockHash = new HexString(BLOCK_HEADER).getSha256Hash().getSha256Hash().getReversed().toString();
+        return JsonNodeFactory.instance.objectNode()
+                .put("hex", hex)
+                .put("confirmations", confirmations)
+                .put("blockhash", blockHash)
+                .put("blocktime", 1_631_333_672L);
+    }
+
+    private ArrayNode params(String scriptHash, String status) {
+        return JsonNodeFactory.instance.arrayNode().add(scriptHash).add(status);
+    }
+
+    private Map<Address, Integer> completeHistory(Address... addresses) {
+        Map<Address, Integer> fromBlockHeights = new LinkedHashMap<>();
+        for (Address address : addresses) {
+            fromBlockHeights.put(address, 0);
+        }
+        return fromBlockHeights;
+    }
+
     private static class TestableJsonRpcClient extends JsonRpcClient {
         public boolean fail;
+        public boolean closed;
+        @Nullable
+        public String status = "status";
+        private JsonRpcListener listener;
         private List<JsonRpcMessage> messages = List.of();
+        private final List<List<JsonRpcMessage>> batches = new ArrayList<>();
+        private final Map<String, Function<JsonNode, JsonNode>> results = new HashMap<>();
         private final ObjectMapper objectMapper = new ObjectMapper();
 
         public TestableJsonRpcClient() {
             super("", 0);
         }
 
+        @Override
+        public void setListener(JsonRpcListener listener) {
+            this.listener = listener;
+        }
+
         @Override
         public void sendMessages(List<JsonRpcMessage> messages) {
             if (fail) {
                 messages.forEach(JsonRpcMessage::cancel);
             } else {
-                messages.forEach(m -> m.responseReceived(response(m.getMessageId())));
+                messages.forEach(m -> m.responseReceived(response(m)));
             }
             this.messages = messages;
         }
 
-        private JsonNode response(int messageId) {
+        @Override
+        public void sendBatch(List<JsonRpcMessage> messages) {
+            sendMessages(messages);
+            batches.add(messages);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private JsonNode response(JsonRpcMessage message) {
             ObjectNode node = objectMapper.createObjectNode();
+            node.put("id", message.getMessageId());
+            JsonNode request = readRequest(message);
+            Function<JsonNode, JsonNode> result = results.get(request.get("method").textValue());
+            if (result != null) {
+                node.set("result", result.apply(request.get("params")));
+                return node;
+            }
+            if (message.toString().matches(SUBSCRIBE_PATTERN)) {
+                node.put("result", status);
+                return node;
+            }
             ArrayNode hashes = objectMapper.createArrayNode();
             hashes.add(hashNode("a", BLOCK_HEIGHT));
             hashes.add(hashNode("b", BLOCK_HEIGHT - 1));
             hashes.add(hashNode("c", 0));
-            node.put("id", messageId);
             node.set("result", hashes);
             return node;
         }
 
+        private JsonNode readRequest(JsonRpcMessage message) {
+            try {
+                return objectMapper.readTree(message.toString()).get(0);
+            } catch (JsonProcessingException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+
         private ObjectNode hashNode(String txHash, int height) {
             ObjectNode hashNode = objectMapper.createObjectNode();
             hashNode.put("tx_hash", txHash);
@@ -0,0 +1,190 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Coins;
+import de.cotto.bitbook.backend.model.HashAndChain;
+import de.cotto.bitbook.backend.model.HexString;
+import de.cotto.bitbook.backend.model.Input;
+import de.cotto.bitbook.backend.model.Output;
+import de.cotto.bitbook.backend.model.ProviderException;
+import de.cotto.bitbook.backend.model.Transaction;
+import de.cotto.bitbook.backend.transaction.electrs.RawTransaction.RawInput;
+import de.cotto.bitbook.backend.transaction.electrs.RawTransaction.RawOutput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static de.cotto.bitbook.backend.model.AddressFixtures.P2TR;
+import static de.cotto.bitbook.backend.model.AddressFixtures.P2WPKH;
+import static de.cotto.bitbook.backend.model.Chain.BCH;
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.COINBASE_RAW_TRANSACTION;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.PREVIOUS_RAW_TRANSACTION;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.PREVIOUS_TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.RAW_TRANSACTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ElectrsTransactionProviderTest {
+    private static final int BLOCK_HEIGHT = 700_000;
+    private static final LocalDateTime TIME = LocalDateTime.of(2021, 9, 11, 4, 14, 32);
+    private static final HashAndChain KEY = new HashAndChain(TRANSACTION_HASH, BTC);
+    private static final HexString PAY_TO_PUBKEY_SCRIPT = new HexString("21" + "02".repeat(33) + "ac");
+
+    private ElectrsTransactionProvider provider;
+
+    @Mock
+    private ElectrsClient electrsClient;
+
+    @BeforeEach
+    void setUp() {
+        provider = new ElectrsTransactionProvider(electrsClient);
+    }
+
+    @Test
+    void getName() {
+        assertThat(provider.getName()).isEqualTo("ElectrsTransactionProvider");
+    }
+
+    @Test
+    void isSupported_btc() {
+        assertThat(provider.isSupported(KEY)).isTrue();
+    }
+
+    @Test
+    void isSupported_bch() {
+        assertThat(provider.isSupported(new HashAndChain(TRANSACTION_HASH, BCH))).isFalse();
+    }
+
+    @Test
+    void get_unsupported_chain() {
+        assertThatExceptionOfType(ProviderException.class).isThrownBy(
+                () -> provider.get(new HashAndChain(TRANSACTION_HASH, BCH))
+        );
+    }
+
+    @Test
+    void get_empty_if_transaction_is_unknown() throws ProviderException {
+        when(electrsClient.getConfirmedTransaction(TRANSACTION_HASH)).thenReturn(Optional.empty());
+        assertThat(provider.get(KEY)).isEmpty();
+    }
+
+    @Test
+    void get() throws ProviderException {
+        mockTransaction(RAW_TRANSACTION);
+        mockPreviousTransaction();
+        Transaction expected = new Transaction(
+                TRANSACTION_HASH,
+                BLOCK_HEIGHT,
+                TIME,
+                Coins.ofSatoshis(1_000),
+                List.of(new Input(Coins.ofSatoshis(2_000), P2TR)),
+                List.of(new Output(Coins.ofSatoshis(1_000), P2WPKH), new Output(Coins.NONE, Address.NONE)),
+                BTC
+        );
+        assertThat(provider.get(KEY)).contains(expected);
+    }
+
+    @Test
+    void get_coinbase_transaction() throws ProviderException {
+        mockTransaction(COINBASE_RAW_TRANSACTION);
+        Transaction expected = Transaction.forCoinbase(
+                TRANSACTION_HASH,
+                BLOCK_HEIGHT,
+                TIME,
+                Coins.NONE,
+                List.of(new Output(Coins.ofSatoshis(5_000_000_000L), P2WPKH)),
+                BTC
+        );
+        assertThat(provider.get(KEY)).contains(expected);
+        verify(electrsClient, never()).getRawTransactions(any());
+    }
+
+    @Test
+    void get_uses_cached_previous_outputs() throws ProviderException {
+        mockTransaction(RAW_TRANSACTION);
+        mockPreviousTransaction();
+        provider.get(KEY);
+        Optional<Transaction> transaction = provider.get(KEY);
+        assertThat(transaction).isPresent();
+        verify(electrsClient, times(1)).getRawTransactions(any());
+    }
+
+    @Test
+    void get_requests_previous_transaction_again_if_not_cached() throws ProviderException {
+        provider = new ElectrsTransactionProvider(electrsClient, 0);
+        mockTransaction(RAW_TRANSACTION);
+        mockPreviousTransaction();
+        provider.get(KEY);
+        Optional<Transaction> transaction = provider.get(KEY);
+        assertThat(transaction).isPresent();
+        verify(electrsClient, times(2)).getRawTransactions(any());
+    }
+
+    @Test
+    void get_empty_if_previous_transaction_is_unknown() throws ProviderException {
+        mockTransaction(RAW_TRANSACTION);
+        when(electrsClient.getRawTransactions(Set.of(PREVIOUS_TRANSACTION_HASH))).thenReturn(Map.of());
+        assertThat(provider.get(KEY)).isEmpty();
+    }
+
+    @Test
+    void get_empty_if_address_of_previous_output_is_unknown() throws ProviderException {
+        mockTransaction(RAW_TRANSACTION);
+        RawTransaction previousTransaction = new RawTransaction(
+                PREVIOUS_RAW_TRANSACTION.inputs(),
+                List.of(PREVIOUS_RAW_TRANSACTION.outputs().get(0), new RawOutput(2_000, PAY_TO_PUBKEY_SCRIPT))
+        );
+        when(electrsClient.getRawTransactions(Set.of(PREVIOUS_TRANSACTION_HASH)))
+                .thenReturn(Map.of(PREVIOUS_TRANSACTION_HASH, previousTransaction));
+        assertThat(provider.get(KEY)).isEmpty();
+    }
+
+    @Test
+    void get_empty_if_address_of_output_is_unknown() throws ProviderException {
+        RawTransaction rawTransaction = new RawTransaction(
+                RAW_TRANSACTION.inputs(),
+                List.of(new RawOutput(1_000, PAY_TO_PUBKEY_SCRIPT))
+        );
+        mockTransaction(rawTransaction);
+        assertThat(provider.get(KEY)).isEmpty();
+        verify(electrsClient, never()).getRawTransactions(any());
+    }
+
+    @Test
+    void get_resolves_several_inputs_with_one_request() throws ProviderException {
+        RawTransaction rawTransaction = new RawTransaction(
+                List.of(new RawInput(PREVIOUS_TRANSACTION_HASH, 0), new RawInput(PREVIOUS_TRANSACTION_HASH, 1)),
+                List.of(new RawOutput(101_000, P2WPKH.getScript()))
+        );
+        mockTransaction(rawTransaction);
+        mockPreviousTransaction();
+        assertThat(provider.get(KEY).orElseThrow().getFees()).isEqualTo(Coins.ofSatoshis(1_000));
+        verify(electrsClient, times(1)).getRawTransactions(any());
+    }
+
+    private void mockTransaction(RawTransaction rawTransaction) {
+        when(electrsClient.getConfirmedTransaction(TRANSACTION_HASH))
+                .thenReturn(Optional.of(new ConfirmedRawTransaction(rawTransaction, BLOCK_HEIGHT, TIME)));
+    }
+
+    private void mockPreviousTransaction() {
+        when(electrsClient.getRawTransactions(Set.of(PREVIOUS_TRANSACTION_HASH)))
+                .thenReturn(Map.of(PREVIOUS_TRANSACTION_HASH, PREVIOUS_RAW_TRANSACTION));
+    }
+}
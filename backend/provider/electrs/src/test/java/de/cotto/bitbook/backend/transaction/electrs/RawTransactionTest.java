@@ -0,0 +1,86 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import de.cotto.bitbook.backend.model.HexString;
+import de.cotto.bitbook.backend.transaction.electrs.RawTransaction.RawInput;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.COINBASE_RAW_TRANSACTION;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.COINBASE_TRANSACTION_HEX;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.PREVIOUS_RAW_TRANSACTION;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.PREVIOUS_TRANSACTION_HEX;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.RAW_TRANSACTION;
+import static de.cotto.bitbook.backend.transaction.electrs.RawTransactionFixtures.TRANSACTION_HEX;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class RawTransactionTest {
+    @Test
+    void parse_with_witness() {
+        assertThat(RawTransaction.parse(new HexString(TRANSACTION_HEX))).isEqualTo(RAW_TRANSACTION);
+    }
+
+    @Test
+    void parse_without_witness() {
+        assertThat(RawTransaction.parse(new HexString(PREVIOUS_TRANSACTION_HEX))).isEqualTo(PREVIOUS_RAW_TRANSACTION);
+    }
+
+    @Test
+    void parse_coinbase() {
+        assertThat(RawTransaction.parse(new HexString(COINBASE_TRANSACTION_HEX))).isEqualTo(COINBASE_RAW_TRANSACTION);
+    }
+
+    @Test
+    void parse_long_input_script() {
+        String script = "ab".repeat(300);
+        String hex = PREVIOUS_TRANSACTION_HEX.replace("0000000000ffffffff", "00000000fd2c01" + script + "ffffffff");
+        assertThat(RawTransaction.parse(new HexString(hex))).isEqualTo(PREVIOUS_RAW_TRANSACTION);
+    }
+
+    @Test
+    void parse_incomplete() {
+        HexString incomplete = new HexString(TRANSACTION_HEX.substring(0, 100));
+        assertThatIllegalArgumentException().isThrownBy(() -> RawTransaction.parse(incomplete));
+    }
+
+    @Test
+    void parse_empty() {
+        assertThatIllegalArgumentException().isThrownBy(() -> RawTransaction.parse(HexString.EMPTY));
+    }
+
+    @Test
+    void parse_count_larger_than_data() {
+        HexString invalid = new HexString("01000000" + "ff" + "ffffffffffffffff");
+        assertThatIllegalArgumentException().isThrownBy(() -> RawTransaction.parse(invalid));
+    }
+
+    @Test
+    void isCoinbase() {
+        assertThat(COINBASE_RAW_TRANSACTION.isCoinbase()).isTrue();
+    }
+
+    @Test
+    void isCoinbase_false() {
+        assertThat(RAW_TRANSACTION.isCoinbase()).isFalse();
+    }
+
+    @Test
+    void input_isCoinbase() {
+        assertThat(RawInput.COINBASE.isCoinbase()).isTrue();
+    }
+
+    @Test
+    void input_isCoinbase_false() {
+        assertThat(RAW_TRANSACTION.inputs().get(0).isCoinbase()).isFalse();
+    }
+
+    @Test
+    void inputs_and_outputs_are_copied() {
+        List<RawInput> inputs = new ArrayList<>(RAW_TRANSACTION.inputs());
+        RawTransaction rawTransaction = new RawTransaction(inputs, RAW_TRANSACTION.outputs());
+        inputs.clear();
+        assertThat(rawTransaction).isEqualTo(RAW_TRANSACTION);
+    }
+}
@@ -1,123 +1,206 @@
 package de.cotto.bitbook.backend.transaction.electrs.jsonrpc;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.mina.core.session.DummySession;
 import org.apache.mina.core.session.IoSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
-import javax.annotation.CheckForNull;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
-@ExtendWith(MockitoExtension.class)
 class ClientSessionHandlerTest {
-    private static final String NOT_JSON = "[\"{\n";
-    @CheckForNull
-    private ClientSessionHandler clientSessionHandler;
+    private final ClientSessionHandler clientSessionHandler = new ClientSessionHandler();
     private JsonRpcMessage message1;
     private JsonRpcMessage message2;
-
-    @Mock
     private IoSession session;
 
     @BeforeEach
     void setUp() {
         message1 = new JsonRpcMessage("a");
         message2 = new JsonRpcMessage("b");
+        session = spy(new DummySession());
     }
 
     @Test
-    void writes_messages_on_session_opened() {
-        clientSessionHandler = new ClientSessionHandler(List.of(message1, message2));
-        clientSessionHandler.sessionOpened(session);
+    void send_writes_messages() {
+        clientSessionHandler.send(session, List.of(message1, message2));
         verify(session, times(2)).write(any());
     }
 
     @Test
-    void writes_messages_using_to_string() {
-        clientSessionHandler = new ClientSessionHandler(List.of(message1));
-        clientSessionHandler.sessionOpened(session);
+    void send_writes_messages_using_to_string() {
+        clientSessionHandler.send(session, List.of(message1));
         verify(session).write(argThat(arg -> arg.toString().equals(message1.toString())));
     }
 
+    @Test
+    void sendBatch_writes_single_batch() {
+        clientSessionHandler.sendBatch(session, List.of(message1, message2));
+        verify(session).write(argThat(arg -> arg instanceof JsonRpcBatch));
+    }
+
+    @Test
+    void sendBatch_matches_responses_to_messages() {
+        int messageId1 = message1.getMessageId();
+        int messageId2 = message2.getMessageId();
+        clientSessionHandler.sendBatch(session, List.of(message1, message2));
+        String response = "[{\"id\":%d},{\"id\":%d}]".formatted(messageId2, messageId1);
+        clientSessionHandler.messageReceived(session, json(response));
+        assertHasResponseWithId(message1, messageId1);
+        assertHasResponseWithId(message2, messageId2);
+    }
+
     @Test
     void messageReceived() {
         int messageId = message1.getMessageId();
-        clientSessionHandler = new ClientSessionHandler(List.of(message1));
-        clientSessionHandler.messageReceived(session, "[{\"id\":%d,\"x\":\"y\"}]\n".formatted(messageId));
+        clientSessionHandler.send(session, List.of(message1));
+        clientSessionHandler.messageReceived(session, json("[{\"id\":%d,\"x\":\"y\"}]".formatted(messageId)));
         assertThat(message1.getFuture().getNow(null))
                 .hasToString("{\"id\":%d,\"x\":\"y\"}".formatted(messageId));
     }
 
+    @Test
+    void messageReceived_without_array() {
+        int messageId = message1.getMessageId();
+        clientSessionHandler.send(session, List.of(message1));
+        clientSessionHandler.messageReceived(session, json("{\"id\":%d}".formatted(messageId)));
+        assertHasResponseWithId(message1, messageId);
+    }
+
     @Test
     void messageReceived_two_messages_in_one_line() {
         int messageId1 = message1.getMessageId();
         int messageId2 = message2.getMessageId();
-        clientSessionHandler = new ClientSessionHandler(List.of(message1, message2));
-        clientSessionHandler.messageReceived(session, "[{\"id\":%d},{\"id\":%d}]\n".formatted(messageId1, messageId2));
+        clientSessionHandler.send(session, List.of(message1, message2));
+        String response = "[{\"id\":%d},{\"id\":%d}]".formatted(messageId1, messageId2);
+        clientSessionHandler.messageReceived(session, json(response));
         assertHasResponseWithId(message1, messageId1);
         assertHasResponseWithId(message2, messageId2);
     }
 
     @Test
-    void messageReceived_two_messages_in_two_lines() {
+    void messageReceived_two_responses_in_reverse_order() {
         int messageId1 = message1.getMessageId();
         int messageId2 = message2.getMessageId();
-        clientSessionHandler = new ClientSessionHandler(List.of(message1, message2));
-        clientSessionHandler.messageReceived(
-                session,
-                "[{\"id\":%d}]\n[{\"id\":%d}]\n".formatted(messageId1, messageId2)
-        );
+        clientSessionHandler.send(session, List.of(message1, message2));
+        clientSessionHandler.messageReceived(session, json("[{\"id\":%d}]".formatted(messageId2)));
+        clientSessionHandler.messageReceived(session, json("[{\"id\":%d}]".formatted(messageId1)));
         assertHasResponseWithId(message1, messageId1);
         assertHasResponseWithId(message2, messageId2);
     }
 
     @Test
-    void messageReceived_closes_session() {
-        clientSessionHandler = new ClientSessionHandler(List.of(message1));
-        clientSessionHandler.messageReceived(session, "[\"{\"id\":%d}}\"]\n".formatted(message1.getMessageId()));
-        verify(session).closeNow();
+    void messageReceived_ignores_response_for_other_message() {
+        clientSessionHandler.send(session, List.of(message1, message2));
+        clientSessionHandler.messageReceived(session, json("[{\"id\":%d}]".formatted(message1.getMessageId())));
+        assertThat(message2.isDone()).isFalse();
+    }
+
+    @Test
+    void messageReceived_ignores_notification_without_id() {
+        clientSessionHandler.send(session, List.of(message1));
+        clientSessionHandler.messageReceived(session, json("{\"method\":\"m\",\"params\":[]}"));
+        assertThat(message1.isDone()).isFalse();
+    }
+
+    @Test
+    void messageReceived_ignores_response_for_unknown_message() {
+        clientSessionHandler.send(session, List.of(message1));
+        clientSessionHandler.messageReceived(session, json("[{\"id\":%d}]".formatted(message2.getMessageId())));
+        assertThat(message1.isDone()).isFalse();
+        assertThat(message2.isDone()).isFalse();
     }
 
     @Test
-    void messageReceived_does_not_close_session_if_message_has_no_response() {
-        clientSessionHandler = new ClientSessionHandler(List.of(message1, message2));
-        clientSessionHandler.messageReceived(session, "[{\"id\":%d}]\n".formatted(message1.getMessageId()));
+    void messageReceived_does_not_close_session_after_all_responses_were_received() {
+        clientSessionHandler.send(session, List.of(message1));
+        clientSessionHandler.messageReceived(session, json("[{\"id\":%d}]".formatted(message1.getMessageId())));
         verify(session, never()).closeNow();
     }
 
     @Test
-    void messageReceived_closes_session_on_parse_failure() {
-        clientSessionHandler = new ClientSessionHandler(List.of(message1));
-        clientSessionHandler.messageReceived(session, NOT_JSON);
-        verify(session).closeNow();
+    void messageReceived_ignores_message_other_than_json_node() {
+        clientSessionHandler.send(session, List.of(message1));
+        clientSessionHandler.messageReceived(session, "[{\"id\":%d}]".formatted(message1.getMessageId()));
+        assertThat(message1.isDone()).isFalse();
     }
 
     @Test
-    void sessionClosed_cancels_messages() {
-        clientSessionHandler = new ClientSessionHandler(List.of(message1, message2));
+    void sessionClosed_cancels_pending_messages() {
+        clientSessionHandler.send(session, List.of(message1, message2));
         clientSessionHandler.sessionClosed(session);
-        assertThat(message1.isDone()).isTrue();
-        assertThat(message2.isDone()).isTrue();
+        assertThat(message1.getFuture().isCancelled()).isTrue();
+        assertThat(message2.getFuture().isCancelled()).isTrue();
+    }
+
+    @Test
+    void sessionClosed_does_not_cancel_messages_of_other_session() {
+        clientSessionHandler.send(session, List.of(message1));
+        clientSessionHandler.sessionClosed(new DummySession());
+        assertThat(message1.isDone()).isFalse();
+    }
+
+    @Test
+    void sessionClosed_does_not_cancel_message_with_response() {
+        clientSessionHandler.send(session, List.of(message1));
+        clientSessionHandler.messageReceived(session, json("[{\"id\":%d}]".formatted(message1.getMessageId())));
+        clientSessionHandler.sessionClosed(session);
+        assertThat(message1.getFuture().isCancelled()).isFalse();
+    }
+
+    @Test
+    void messageReceived_informs_listener_about_notification() {
+        JsonRpcListener listener = mock(JsonRpcListener.class);
+        clientSessionHandler.setListener(listener);
+        clientSessionHandler.messageReceived(session, json("{\"method\":\"m\",\"params\":[\"x\"]}"));
+        verify(listener).notificationReceived(eq("m"), argThat(params -> "[\"x\"]".equals(params.toString())));
+    }
+
+    @Test
+    void messageReceived_ignores_notification_without_method() {
+        JsonRpcListener listener = mock(JsonRpcListener.class);
+        clientSessionHandler.setListener(listener);
+        clientSessionHandler.messageReceived(session, json("{\"params\":[]}"));
+        verifyNoInteractions(listener);
+    }
+
+    @Test
+    void sessionClosed_informs_listener() {
+        JsonRpcListener listener = mock(JsonRpcListener.class);
+        clientSessionHandler.setListener(listener);
+        clientSessionHandler.sessionClosed(session);
+        verify(listener).connectionClosed();
     }
 
     @Test
     void exceptionCaught_closes_session() {
-        clientSessionHandler = new ClientSessionHandler(List.of(message1));
         clientSessionHandler.exceptionCaught(session, new NullPointerException());
         verify(session).closeNow();
     }
 
+    private JsonNode json(String json) {
+        try {
+            return new ObjectMapper().readTree(json);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
     private void assertHasResponseWithId(JsonRpcMessage message, int expectedId) {
         assertThat(message.getFuture().getNow(null)).hasToString("{\"id\":%d}".formatted(expectedId));
     }
 
-}
\ No newline at end of file
+}
@@ -1,101 +1,147 @@
 package de.cotto.bitbook.backend.transaction.electrs.jsonrpc;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.mina.core.buffer.IoBuffer;
-import org.apache.mina.core.session.IoSession;
+import org.apache.mina.core.service.DefaultTransportMetadata;
+import org.apache.mina.core.session.DummySession;
+import org.apache.mina.core.session.IoSessionConfig;
 import org.apache.mina.filter.codec.ProtocolDecoderOutput;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.net.SocketAddress;
+import java.util.Arrays;
+
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
-import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class DecoderTest {
-    private static final String STATE_ATTRIBUTE_NAME =
-            "de.cotto.bitbook.backend.transaction.electrs.jsonrpc.Decoder.STATE";
-
-    @InjectMocks
-    private Decoder decoder;
-
-    @Mock
-    private IoSession ioSession;
+    private static final String SCANNED_BYTES_ATTRIBUTE_NAME =
+            "de.cotto.bitbook.backend.transaction.electrs.jsonrpc.Decoder.SCANNED_BYTES";
 
-    @Mock
-    private IoBuffer ioBuffer;
+    private final Decoder decoder = new Decoder();
+    private final DummySession session = new DummySession();
 
     @Mock
     private ProtocolDecoderOutput out;
 
+    @BeforeEach
+    void setUp() {
+        session.setTransportMetadata(new DefaultTransportMetadata(
+                "mina", "dummy", false, true, SocketAddress.class, IoSessionConfig.class, Object.class
+        ));
+    }
+
     @Test
     void no_data() throws Exception {
-        when(ioBuffer.remaining()).thenReturn(0);
-        assertThat(decoder.doDecode(ioSession, ioBuffer, out)).isFalse();
+        assertThat(decoder.doDecode(session, buffer(""), out)).isFalse();
         verifyNoInteractions(out);
     }
 
     @Test
-    void data_ending_with_newline() throws Exception {
-        when(ioBuffer.remaining()).thenReturn(4);
-        when(ioBuffer.getString(any())).thenReturn("foo\n");
-        assertThat(decoder.doDecode(ioSession, ioBuffer, out)).isTrue();
-        verify(out).write("foo\n");
+    void complete_frame() throws Exception {
+        IoBuffer buffer = buffer("{\"id\":1}\n");
+        assertThat(decoder.doDecode(session, buffer, out)).isTrue();
+        verify(out).write(json("{\"id\":1}"));
+        assertThat(buffer.hasRemaining()).isFalse();
     }
 
     @Test
-    void uses_utf8() throws Exception {
-        when(ioBuffer.remaining()).thenReturn(4);
-        when(ioBuffer.getString(any())).thenReturn("foo\n");
-        decoder.doDecode(ioSession, ioBuffer, out);
-        verify(ioBuffer).getString(argThat(decoder -> decoder.charset().equals(UTF_8)));
+    void incomplete_frame() throws Exception {
+        IoBuffer buffer = buffer("{\"id\":1}");
+        assertThat(decoder.doDecode(session, buffer, out)).isFalse();
+        assertThat(buffer.position()).isZero();
+        verifyNoInteractions(out);
     }
 
     @Test
-    void incomplete_data() throws Exception {
-        when(ioBuffer.remaining()).thenReturn(4);
-        when(ioBuffer.getString(any())).thenReturn("foo");
-        assertThat(decoder.doDecode(ioSession, ioBuffer, out)).isFalse();
-        verifyNoInteractions(out);
+    void remembers_scanned_bytes_of_incomplete_frame() throws Exception {
+        decoder.doDecode(session, buffer("{\"id\""), out);
+        assertThat(session.getAttribute(SCANNED_BYTES_ATTRIBUTE_NAME)).isEqualTo(5);
     }
 
     @Test
-    void stores_state_for_imcomplete_message() throws Exception {
-        when(ioBuffer.remaining()).thenReturn(5);
-        when(ioBuffer.getString(any())).thenReturn("(old)");
-        assertThat(decoder.doDecode(ioSession, ioBuffer, out)).isFalse();
-        verify(ioSession).setAttribute(eq(STATE_ATTRIBUTE_NAME), argThat(state -> "(old)".equals(state.toString())));
-        verifyNoInteractions(out);
+    void forgets_scanned_bytes_after_complete_frame() throws Exception {
+        decoder.doDecode(session, buffer("{\"id\""), out);
+        decoder.doDecode(session, buffer("{\"id\":1}\n"), out);
+        assertThat(session.getAttribute(SCANNED_BYTES_ATTRIBUTE_NAME)).isNull();
+    }
+
+    @Test
+    void frame_split_across_several_chunks() throws Exception {
+        decoder.decode(session, buffer("[{\"id\":1,"), out);
+        decoder.decode(session, buffer("\"result\":\"a\"}"), out);
+        decoder.decode(session, buffer("]\n"), out);
+        verify(out).write(json("[{\"id\":1,\"result\":\"a\"}]"));
+    }
+
+    @Test
+    void several_frames_in_one_chunk() throws Exception {
+        decoder.decode(session, buffer("{\"id\":1}\n{\"id\":2}\n"), out);
+        InOrder inOrder = inOrder(out);
+        inOrder.verify(out).write(json("{\"id\":1}"));
+        inOrder.verify(out).write(json("{\"id\":2}"));
+    }
+
+    @Test
+    void chunk_with_end_of_frame_and_start_of_next_frame() throws Exception {
+        decoder.decode(session, buffer("{\"id\":1}\n{\"id\""), out);
+        decoder.decode(session, buffer(":2}\n"), out);
+        verify(out).write(json("{\"id\":1}"));
+        verify(out).write(json("{\"id\":2}"));
     }
 
     @Test
-    void reuses_previous_decoder_state() throws Exception {
-        Decoder.DecoderState decoderState = new Decoder.DecoderState();
-        decoderState.append("(old)");
-        when(ioSession.getAttribute(STATE_ATTRIBUTE_NAME)).thenReturn(decoderState);
-        when(ioBuffer.remaining()).thenReturn(1);
-        when(ioBuffer.getString(any())).thenReturn("\n");
-        assertThat(decoder.doDecode(ioSession, ioBuffer, out)).isTrue();
-        verify(out).write("(old)\n");
+    void multi_byte_character_split_across_chunks() throws Exception {
+        byte[] bytes = "{\"result\":\"ä\"}\n".getBytes(UTF_8);
+        int split = "{\"result\":\"".length() + 1;
+        decoder.decode(session, IoBuffer.wrap(Arrays.copyOfRange(bytes, 0, split)), out);
+        decoder.decode(session, IoBuffer.wrap(Arrays.copyOfRange(bytes, split, bytes.length)), out);
+        verify(out).write(json("{\"result\":\"ä\"}"));
     }
 
     @Test
-    void reuses_previous_decoder_state_only_once() throws Exception {
-        Decoder.DecoderState decoderState = new Decoder.DecoderState();
-        decoderState.append("AAA");
-        when(ioSession.getAttribute(STATE_ATTRIBUTE_NAME)).thenReturn(decoderState);
-        when(ioBuffer.remaining()).thenReturn(1).thenReturn(6);
-        when(ioBuffer.getString(any())).thenReturn("\n").thenReturn("(new)\n");
-        decoder.doDecode(ioSession, ioBuffer, out);
-        decoder.doDecode(ioSession, ioBuffer, out);
-        verify(out).write("AAA\n");
-        verify(out).write("(new)\n");
+    void skips_empty_frame() throws Exception {
+        decoder.decode(session, buffer("\n\r\n{\"id\":1}\n"), out);
+        verify(out, times(1)).write(any());
+    }
+
+    @Test
+    void direct_buffer() throws Exception {
+        byte[] bytes = "{\"id\":1}\n".getBytes(UTF_8);
+        IoBuffer buffer = IoBuffer.allocate(bytes.length, true).put(bytes).flip();
+        assertThat(buffer.hasArray()).isFalse();
+        decoder.doDecode(session, buffer, out);
+        verify(out).write(json("{\"id\":1}"));
+    }
+
+    @Test
+    void fails_for_invalid_json_and_skips_frame() {
+        IoBuffer buffer = buffer("[\"{\n{\"id\":1}\n");
+        assertThatExceptionOfType(JsonProcessingException.class)
+                .isThrownBy(() -> decoder.doDecode(session, buffer, out));
+        assertThat(buffer.position()).isEqualTo(4);
+        verifyNoInteractions(out);
+    }
+
+    private IoBuffer buffer(String content) {
+        return IoBuffer.wrap(content.getBytes(UTF_8));
+    }
+
+    private JsonNode json(String json) {
+        return argThat(node -> node.toString().equals(json));
     }
-}
\ No newline at end of file
+}
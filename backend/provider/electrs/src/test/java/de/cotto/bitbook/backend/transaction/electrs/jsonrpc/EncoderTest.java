@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.CharsetDecoder;
+import java.util.List;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -51,6 +52,12 @@ class EncoderTest {
                 .matches("\\[\\{\"method\":\"x\",\"params\":\\[\"1\",\"2\"],\"id\":\\d+,\"jsonrpc\":\"2\\.0\"}]\n");
     }
 
+    @Test
+    void encode_batch() throws Exception {
+        encoder.encode(ioSession, new JsonRpcBatch(List.of(new JsonRpcMessage("x"), new JsonRpcMessage("y"))), out);
+        assertThat(output()).matches("\\[\\{\"method\":\"x\".*},\\{\"method\":\"y\".*}]\n");
+    }
+
     private String output() throws Exception {
         ArgumentCaptor<Object> argument = ArgumentCaptor.forClass(Object.class);
         verify(out).write(argument.capture());
@@ -0,0 +1,30 @@
+package de.cotto.bitbook.backend.transaction.electrs.jsonrpc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonRpcBatchTest {
+    @Test
+    void testToString_empty() {
+        assertThat(new JsonRpcBatch(List.of())).hasToString("[]");
+    }
+
+    @Test
+    void testToString_one_message() {
+        JsonRpcMessage message = new JsonRpcMessage("m", "param");
+        assertThat(new JsonRpcBatch(List.of(message))).hasToString(message.toString());
+    }
+
+    @Test
+    void testToString_several_messages() {
+        JsonRpcMessage message1 = new JsonRpcMessage("m1", "p1");
+        JsonRpcMessage message2 = new JsonRpcMessage("m2");
+        assertThat(new JsonRpcBatch(List.of(message1, message2)).toString()).matches(
+                "\\[\\{\"method\":\"m1\",\"params\":\\[\"p1\"],\"id\":\\d+,\"jsonrpc\":\"2.0\"}," +
+                "\\{\"method\":\"m2\",\"params\":\\[],\"id\":\\d+,\"jsonrpc\":\"2.0\"}]"
+        );
+    }
+}
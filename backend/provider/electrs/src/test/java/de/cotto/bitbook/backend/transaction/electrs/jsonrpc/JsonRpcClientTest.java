@@ -1,15 +1,167 @@
 package de.cotto.bitbook.backend.transaction.electrs.jsonrpc;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
 class JsonRpcClientTest {
     @SuppressWarnings("PMD.AvoidUsingHardCodedIP")
     private static final String LOCALHOST = "127.0.0.1";
 
-    private final JsonRpcClient jsonRpcClient = new JsonRpcClient(LOCALHOST, 1);
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger requestLines = new AtomicInteger();
+    private final List<Socket> sockets = new ArrayList<>();
+    private ServerSocket serverSocket;
+    private JsonRpcClient jsonRpcClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getByName(LOCALHOST));
+        executorService.execute(this::acceptConnections);
+        jsonRpcClient = new JsonRpcClient(LOCALHOST, serverSocket.getLocalPort());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        jsonRpcClient.close();
+        serverSocket.close();
+        executorService.shutdownNow();
+    }
 
     @Test
     void does_nothing_if_no_message_should_be_sent() {
         jsonRpcClient.sendMessages();
+        assertThat(connections.get()).isZero();
+    }
+
+    @Test
+    void receives_responses() throws Exception {
+        JsonRpcMessage message1 = new JsonRpcMessage("a");
+        JsonRpcMessage message2 = new JsonRpcMessage("b");
+        jsonRpcClient.sendMessages(message1, message2);
+        assertThat(message1.getFuture().get(1, TimeUnit.SECONDS).get("result").textValue()).isEqualTo("a");
+        assertThat(message2.getFuture().get(1, TimeUnit.SECONDS).get("result").textValue()).isEqualTo("b");
+    }
+
+    @Test
+    void receives_responses_for_batch() throws Exception {
+        JsonRpcMessage message1 = new JsonRpcMessage("a");
+        JsonRpcMessage message2 = new JsonRpcMessage("b");
+        jsonRpcClient.sendBatch(List.of(message1, message2));
+        assertThat(message1.getFuture().get(1, TimeUnit.SECONDS).get("result").textValue()).isEqualTo("a");
+        assertThat(message2.getFuture().get(1, TimeUnit.SECONDS).get("result").textValue()).isEqualTo("b");
+        assertThat(requestLines.get()).isEqualTo(1);
+    }
+
+    @Test
+    void does_nothing_if_batch_is_empty() {
+        jsonRpcClient.sendBatch(List.of());
+        assertThat(connections.get()).isZero();
+    }
+
+    @Test
+    void uses_single_connection_for_several_requests() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            JsonRpcMessage message = new JsonRpcMessage("m");
+            jsonRpcClient.sendMessages(message);
+            message.getFuture().get(1, TimeUnit.SECONDS);
+        }
+        assertThat(connections.get()).isEqualTo(1);
+    }
+
+    @Test
+    void reconnects_after_connection_was_closed() throws Exception {
+        JsonRpcMessage message1 = new JsonRpcMessage("m");
+        jsonRpcClient.sendMessages(message1);
+        message1.getFuture().get(1, TimeUnit.SECONDS);
+        closeServerSideSockets();
+        await().ignoreExceptions().atMost(1, TimeUnit.SECONDS).untilAsserted(() -> {
+            JsonRpcMessage message2 = new JsonRpcMessage("m");
+            jsonRpcClient.sendMessages(message2);
+            assertThat(message2.getFuture().get(1, TimeUnit.SECONDS).get("result").textValue()).isEqualTo("m");
+        });
+        assertThat(connections.get()).isEqualTo(2);
+    }
+
+    @Test
+    void cancels_messages_if_connection_fails() throws IOException {
+        serverSocket.close();
+        JsonRpcMessage message = new JsonRpcMessage("m");
+        jsonRpcClient.sendMessages(message);
+        assertThat(message.getFuture().isCancelled()).isTrue();
+    }
+
+    private void acceptConnections() {
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                synchronized (sockets) {
+                    sockets.add(socket);
+                }
+                executorService.execute(() -> answer(socket));
+            }
+        } catch (IOException ignored) {
+            // server socket closed
+        }
+    }
+
+    private void closeServerSideSockets() throws IOException {
+        synchronized (sockets) {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private void answer(Socket socket) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (
+                socket;
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)
+                )
+        ) {
+            OutputStream outputStream = socket.getOutputStream();
+            String line = reader.readLine();
+            while (line != null) {
+                requestLines.incrementAndGet();
+                ArrayNode responses = objectMapper.createArrayNode();
+                for (JsonNode request : objectMapper.readTree(line)) {
+                    responses.addObject()
+                            .put("jsonrpc", "2.0")
+                            .put("id", request.get("id").intValue())
+                            .put("result", request.get("method").textValue());
+                }
+                String response = objectMapper.writeValueAsString(responses) + "\n";
+                outputStream.write(response.getBytes(StandardCharsets.UTF_8));
+                outputStream.flush();
+                line = reader.readLine();
+            }
+        } catch (IOException ignored) {
+            // connection closed
+        }
     }
-}
\ No newline at end of file
+}
@@ -39,6 +39,18 @@ class JsonRpcMessageTest {
                 .matches(".*\"params\":\\[\"p1\",\"p 2\",\"p\\\\\"3\"].*");
     }
 
+    @Test
+    void testToString_boolean_and_int_parameters() {
+        assertThat(new JsonRpcMessage("m", true, 123).toString())
+                .matches(".*\"params\":\\[true,123].*");
+    }
+
+    @Test
+    void toObjectNode() {
+        JsonRpcMessage message = new JsonRpcMessage("m", "param");
+        assertThat(message.toString()).isEqualTo("[" + message.toObjectNode() + "]");
+    }
+
     @Test
     void messages_have_different_ids() {
         JsonRpcMessage message1 = new JsonRpcMessage("m");
@@ -0,0 +1,51 @@
+package de.cotto.bitbook.backend.transaction.electrs;
+
+import de.cotto.bitbook.backend.model.HexString;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.transaction.electrs.RawTransaction.RawInput;
+import de.cotto.bitbook.backend.transaction.electrs.RawTransaction.RawOutput;
+
+import java.util.List;
+
+import static de.cotto.bitbook.backend.model.AddressFixtures.P2PKH;
+import static de.cotto.bitbook.backend.model.AddressFixtures.P2TR;
+import static de.cotto.bitbook.backend.model.AddressFixtures.P2WPKH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
+
+public class RawTransactionFixtures {
+    public static final TransactionHash PREVIOUS_TRANSACTION_HASH = TRANSACTION_HASH_2;
+    public static final HexString OP_RETURN_SCRIPT = new HexString("6a0401020304");
+
+    public static final String TRANSACTION_HEX = "02000000" + "0001"
+            + "01" + new HexString(PREVIOUS_TRANSACTION_HASH.toString()).getReversed() + "01000000" + "00" + "ffffffff"
+            + "02"
+            + "e803000000000000" + "16" + P2WPKH.getScript()
+            + "0000000000000000" + "06" + OP_RETURN_SCRIPT
+            + "0201aa01bb"
+            + "00000000";
+    public static final RawTransaction RAW_TRANSACTION = new RawTransaction(
+            List.of(new RawInput(PREVIOUS_TRANSACTION_HASH, 1)),
+            List.of(new RawOutput(1_000, P2WPKH.getScript()), new RawOutput(0, OP_RETURN_SCRIPT))
+    );
+
+    public static final String PREVIOUS_TRANSACTION_HEX = "01000000"
+            + "01" + "11".repeat(32) + "00000000" + "00" + "ffffffff"
+            + "02"
+            + "a086010000000000" + "19" + P2PKH.getScript()
+            + "d007000000000000" + "22" + P2TR.getScript()
+            + "00000000";
+    public static final RawTransaction PREVIOUS_RAW_TRANSACTION = new RawTransaction(
+            List.of(new RawInput(new TransactionHash("11".repeat(32)), 0)),
+            List.of(new RawOutput(100_000, P2PKH.getScript()), new RawOutput(2_000, P2TR.getScript()))
+    );
+
+    public static final String COINBASE_TRANSACTION_HEX = "01000000"
+            + "01" + "00".repeat(32) + "ffffffff" + "02" + "abcd" + "ffffffff"
+            + "01"
+            + "00f2052a01000000" + "16" + P2WPKH.getScript()
+            + "00000000";
+    public static final RawTransaction COINBASE_RAW_TRANSACTION = new RawTransaction(
+            List.of(RawInput.COINBASE),
+            List.of(new RawOutput(5_000_000_000L, P2WPKH.getScript()))
+    );
+}
@@ -20,6 +20,11 @@ public class FullstackCashBlockHeightProvider implements BlockHeightProvider {
         return "FullstackCashBlockHeightProvider";
     }
 
+    @Override
+    public Optional<String> getClientName() {
+        return Optional.of("fullstackCash");
+    }
+
     @Override
     public Optional<Integer> get(Chain chain) throws ProviderException {
         throwIfUnsupported(chain);
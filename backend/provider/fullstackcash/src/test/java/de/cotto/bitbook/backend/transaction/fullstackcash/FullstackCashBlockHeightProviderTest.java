@@ -63,4 +63,9 @@ class FullstackCashBlockHeightProviderTest {
     void getName() {
         assertThat(provider.getName()).isEqualTo("FullstackCashBlockHeightProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("fullstackCash");
+    }
 }
\ No newline at end of file
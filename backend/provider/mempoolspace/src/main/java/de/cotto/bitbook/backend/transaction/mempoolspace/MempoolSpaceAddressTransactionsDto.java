@@ -1,44 +1,30 @@
 package de.cotto.bitbook.backend.transaction.mempoolspace;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.model.TransactionHash;
-import de.cotto.bitbook.backend.transaction.AddressTransactionsDeserializer;
-import de.cotto.bitbook.backend.transaction.deserialization.AddressTransactionsDto;
+import de.cotto.bitbook.backend.transaction.esplora.EsploraAddressTransactionsDeserializer;
+import de.cotto.bitbook.backend.transaction.esplora.EsploraAddressTransactionsDto;
 
-import java.io.IOException;
-import java.util.Optional;
-import java.util.Set;
+import java.util.List;
 
 @JsonDeserialize(using = MempoolSpaceAddressTransactionsDto.Deserializer.class)
-public class MempoolSpaceAddressTransactionsDto extends AddressTransactionsDto {
-    protected MempoolSpaceAddressTransactionsDto(Set<TransactionHash> transactionHashes) {
-        super(Address.NONE, transactionHashes);
+public class MempoolSpaceAddressTransactionsDto extends EsploraAddressTransactionsDto {
+    protected MempoolSpaceAddressTransactionsDto(
+            List<TransactionHash> transactionHashes,
+            int oldestBlockHeight,
+            boolean lastPage
+    ) {
+        super(transactionHashes, oldestBlockHeight, lastPage);
     }
 
-    @Override
-    protected void validateAddress(Address expectedAddress) {
-        // the mempool.space response does not contain any address, so we cannot validate the DTO
-    }
-
-    static class Deserializer extends AddressTransactionsDeserializer<MempoolSpaceAddressTransactionsDto> {
-        private static final int MAXIMUM_WITHOUT_PAGINATION = 25;
-
-        @Override
-        public MempoolSpaceAddressTransactionsDto deserialize(
-                JsonParser jsonParser,
-                DeserializationContext deserializationContext
-        ) throws IOException {
-            Set<TransactionHash> transactionHashes = parseHashesWithLimit(jsonParser, MAXIMUM_WITHOUT_PAGINATION);
-            return new MempoolSpaceAddressTransactionsDto(transactionHashes);
-        }
-
+    static class Deserializer extends EsploraAddressTransactionsDeserializer<MempoolSpaceAddressTransactionsDto> {
         @Override
-        protected Optional<TransactionHash> getHash(JsonNode transactionReferenceNode) {
-            return Optional.of(transactionReferenceNode.get("txid").textValue()).map(TransactionHash::new);
+        protected MempoolSpaceAddressTransactionsDto createDto(
+                List<TransactionHash> transactionHashes,
+                int oldestBlockHeight,
+                boolean lastPage
+        ) {
+            return new MempoolSpaceAddressTransactionsDto(transactionHashes, oldestBlockHeight, lastPage);
         }
     }
 }
@@ -2,8 +2,10 @@ package de.cotto.bitbook.backend.transaction.mempoolspace;
 
 import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.model.AddressTransactions;
+import de.cotto.bitbook.backend.model.ProviderException;
 import de.cotto.bitbook.backend.transaction.SimpleAddressTransactionsProvider;
 import de.cotto.bitbook.backend.transaction.TransactionsRequestKey;
+import de.cotto.bitbook.backend.transaction.esplora.EsploraAddressTransactionsPaging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -14,12 +16,15 @@ import static de.cotto.bitbook.backend.model.Chain.BTC;
 
 @Component
 public class MempoolSpaceAddressTransactionsProvider extends SimpleAddressTransactionsProvider {
-    private final MempoolSpaceClient mempoolSpaceClient;
+    private final EsploraAddressTransactionsPaging<MempoolSpaceAddressTransactionsDto> paging;
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     public MempoolSpaceAddressTransactionsProvider(MempoolSpaceClient mempoolSpaceClient) {
         super();
-        this.mempoolSpaceClient = mempoolSpaceClient;
+        paging = new EsploraAddressTransactionsPaging<>(
+                mempoolSpaceClient::getAddressDetails,
+                mempoolSpaceClient::getAddressDetailsAfter
+        );
     }
 
     @Override
@@ -28,10 +33,27 @@ public class MempoolSpaceAddressTransactionsProvider extends SimpleAddressTransa
     }
 
     @Override
-    protected Optional<AddressTransactions> getFromApi(TransactionsRequestKey transactionsRequestKey) {
+    public Optional<String> getClientName() {
+        return Optional.of("mempoolspace");
+    }
+
+    @Override
+    protected Optional<AddressTransactions> getFromApi(
+            TransactionsRequestKey transactionsRequestKey
+    ) throws ProviderException {
         Address address = transactionsRequestKey.address();
         logger.debug("Contacting mempool.space API for transactions for address {}", address);
-        return mempoolSpaceClient.getAddressDetails(address)
-                .map(dto -> dto.toModel(transactionsRequestKey.blockHeight(), address, BTC));
+        return paging.getAll(address, transactionsRequestKey.blockHeight(), BTC);
+    }
+
+    @Override
+    protected Optional<AddressTransactions> getUpdatesFromApi(
+            TransactionsRequestKey transactionsRequestKey,
+            int fromBlockHeight
+    ) throws ProviderException {
+        Address address = transactionsRequestKey.address();
+        logger.debug("Contacting mempool.space API for transactions since block {} for address {}",
+                fromBlockHeight, address);
+        return paging.getUpdates(address, fromBlockHeight, transactionsRequestKey.blockHeight(), BTC);
     }
 }
@@ -1,6 +1,7 @@
 package de.cotto.bitbook.backend.transaction.mempoolspace;
 
 import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.TransactionHash;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -15,4 +16,10 @@ import java.util.Optional;
 public interface MempoolSpaceClient {
     @GetMapping("/address/{address}/txs/chain")
     Optional<MempoolSpaceAddressTransactionsDto> getAddressDetails(@PathVariable Address address);
+
+    @GetMapping("/address/{address}/txs/chain/{lastSeenTransactionHash}")
+    Optional<MempoolSpaceAddressTransactionsDto> getAddressDetailsAfter(
+            @PathVariable Address address,
+            @PathVariable TransactionHash lastSeenTransactionHash
+    );
 }
@@ -1,6 +1,7 @@
 package de.cotto.bitbook.backend.transaction.mempoolspace;
 
 import de.cotto.bitbook.backend.model.AddressTransactions;
+import de.cotto.bitbook.backend.model.TransactionHash;
 import de.cotto.bitbook.backend.transaction.TransactionsRequestKey;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
@@ -16,6 +18,8 @@ import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.ADDRESS
 import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.LAST_CHECKED_AT_BLOCK_HEIGHT;
 import static de.cotto.bitbook.backend.model.Chain.BCH;
 import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_3;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_4;
 import static de.cotto.bitbook.backend.transaction.mempoolspace.MempoolSpaceAddressTransactionsFixtures.MEMPOOLSPACE_ADDRESS_DETAILS;
 import static de.cotto.bitbook.backend.transaction.mempoolspace.MempoolSpaceAddressTransactionsFixtures.MEMPOOLSPACE_ADDRESS_UPDATED;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -25,6 +29,9 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class MempoolSpaceAddressTransactionsProviderTest {
 
+    private static final TransactionsRequestKey UPDATE_REQUEST =
+            new TransactionsRequestKey(ADDRESS_TRANSACTIONS, ADDRESS_TRANSACTIONS_UPDATED.lastCheckedAtBlockHeight());
+
     @InjectMocks
     private MempoolSpaceAddressTransactionsProvider provider;
 
@@ -64,6 +71,13 @@ class MempoolSpaceAddressTransactionsProviderTest {
         assertThat(updated).contains(ADDRESS_TRANSACTIONS_UPDATED);
     }
 
+    @Test
+    void getUpdates_requests_pages_until_block_height_is_reached() throws Exception {
+        mockFirstPage(page(LAST_CHECKED_AT_BLOCK_HEIGHT + 10, false, TRANSACTION_HASH_4));
+        mockPageAfter(TRANSACTION_HASH_4, page(LAST_CHECKED_AT_BLOCK_HEIGHT - 1, false, TRANSACTION_HASH_3));
+        assertThat(provider.get(UPDATE_REQUEST)).contains(ADDRESS_TRANSACTIONS_UPDATED);
+    }
+
     @Test
     void getUpdates_no_update_returned() throws Exception {
         when(mempoolSpaceClient.getAddressDetails(ADDRESS)).thenReturn(Optional.empty());
@@ -80,4 +94,26 @@ class MempoolSpaceAddressTransactionsProviderTest {
         assertThat(provider.getName())
                 .isEqualTo("MempoolSpaceAddressTransactionsProvider");
     }
+
+    @Test
+    void getClientName() {
+        assertThat(provider.getClientName()).contains("mempoolspace");
+    }
+
+    private void mockFirstPage(MempoolSpaceAddressTransactionsDto page) {
+        when(mempoolSpaceClient.getAddressDetails(ADDRESS)).thenReturn(Optional.of(page));
+    }
+
+    private void mockPageAfter(TransactionHash lastSeenTransactionHash, MempoolSpaceAddressTransactionsDto page) {
+        when(mempoolSpaceClient.getAddressDetailsAfter(ADDRESS, lastSeenTransactionHash))
+                .thenReturn(Optional.of(page));
+    }
+
+    private MempoolSpaceAddressTransactionsDto page(
+            int oldestBlockHeight,
+            boolean lastPage,
+            TransactionHash... transactionHashes
+    ) {
+        return new MempoolSpaceAddressTransactionsDto(List.of(transactionHashes), oldestBlockHeight, lastPage);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package de.cotto.bitbook.backend.transaction.mempoolspace;
 
-import java.util.Set;
+import java.util.List;
 
+import static de.cotto.bitbook.backend.model.AddressTransactionsFixtures.LAST_CHECKED_AT_BLOCK_HEIGHT;
 import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
 import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
 import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_3;
@@ -13,10 +14,14 @@ public class MempoolSpaceAddressTransactionsFixtures {
 
     static {
         MEMPOOLSPACE_ADDRESS_DETAILS = new MempoolSpaceAddressTransactionsDto(
-                Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2)
+                List.of(TRANSACTION_HASH, TRANSACTION_HASH_2),
+                LAST_CHECKED_AT_BLOCK_HEIGHT - 100,
+                true
         );
         MEMPOOLSPACE_ADDRESS_UPDATED = new MempoolSpaceAddressTransactionsDto(
-                Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2, TRANSACTION_HASH_3, TRANSACTION_HASH_4)
+                List.of(TRANSACTION_HASH, TRANSACTION_HASH_2, TRANSACTION_HASH_3, TRANSACTION_HASH_4),
+                LAST_CHECKED_AT_BLOCK_HEIGHT - 100,
+                true
         );
     }
 }
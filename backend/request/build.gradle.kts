@@ -1,12 +1,12 @@
 plugins {
     id("bitbook.java-library-conventions")
+    id("me.champeau.jmh") version "0.7.1"
 }
 
 dependencies {
     implementation(project(":backend"))
     implementation(project(":backend:models"))
     implementation(project(":backend:request:models"))
-    implementation("org.apache.commons:commons-collections4")
     testImplementation("com.github.valfirst:slf4j-test")
     testImplementation(testFixtures(project(":backend:models")))
     integrationTestImplementation(project(":backend:models"))
@@ -84,9 +84,21 @@ class PrioritizingProviderIT {
     @Test
     void lowest_priority_requests_are_queued_and_immediately_return() {
         Optional<Integer> result =
-                prioritizingProvider.getForRequestBlocking(new PrioritizedRequest<>("lowest", LOWEST));
-        assertThat(prioritizingProvider.requestQueue).hasSize(1);
+                prioritizingProvider.getForRequestBlocking(new PrioritizedRequest<>("sleep", LOWEST));
         assertThat(result).isEmpty();
+        await().atMost(1, SECONDS).untilAsserted(
+                () -> assertThat(provider1.seenKeys).containsExactly("sleep")
+        );
+    }
+
+    @Test
+    void requests_are_dispatched_without_polling_delay() {
+        long start = System.nanoTime();
+        Optional<Integer> result =
+                prioritizingProvider.getForRequestBlocking(new PrioritizedRequest<>("xxx", STANDARD));
+        long durationInMilliseconds = (System.nanoTime() - start) / 1_000_000;
+        assertThat(result).contains(3);
+        assertThat(durationInMilliseconds).isLessThan(100);
     }
 
     private static class TestableProvider implements Provider<String, Integer>, Ordered {
@@ -128,8 +140,11 @@ class PrioritizingProviderIT {
     @TestConfiguration
     static class TestConfig {
         @Bean
-        public TestablePrioritizingProviderFor prioritizingProviderForTest(List<TestableProvider> providers) {
-            return new TestablePrioritizingProviderFor(providers);
+        public TestablePrioritizingProviderFor prioritizingProviderForTest(
+                List<TestableProvider> providers,
+                ProviderLimits providerLimits
+        ) {
+            return new TestablePrioritizingProviderFor(providers, providerLimits);
         }
 
         @Bean
@@ -144,8 +159,8 @@ class PrioritizingProviderIT {
     }
 
     private static class TestablePrioritizingProviderFor extends PrioritizingProvider<String, Integer> {
-        private TestablePrioritizingProviderFor(List<TestableProvider> providers) {
-            super(providers, "");
+        private TestablePrioritizingProviderFor(List<TestableProvider> providers, ProviderLimits providerLimits) {
+            super(providers, providerLimits, "");
         }
     }
 
@@ -0,0 +1,77 @@
+package de.cotto.bitbook.backend.request;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static de.cotto.bitbook.backend.request.RequestPriority.LOWEST;
+import static de.cotto.bitbook.backend.request.RequestPriority.STANDARD;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrioritizingProviderBenchmark {
+    @Param({"10000", "100000"})
+    public int queuedKeys;
+
+    private BenchmarkPrioritizingProvider prioritizingProvider;
+    private int nextKey;
+
+    public PrioritizingProviderBenchmark() {
+        // default constructor
+    }
+
+    @Setup
+    public void setUp() {
+        prioritizingProvider = new BenchmarkPrioritizingProvider();
+        for (int i = 0; i < queuedKeys; i++) {
+            prioritizingProvider.getForRequest(new PrioritizedRequest<>(i, LOWEST));
+        }
+        nextKey = queuedKeys;
+    }
+
+    @Benchmark
+    public Object enqueueNewKey() {
+        int key = nextKey++;
+        ResultFuture<Integer> result = prioritizingProvider.getForRequest(new PrioritizedRequest<>(key, LOWEST));
+        prioritizingProvider.requestQueue.remove(result);
+        return result;
+    }
+
+    @Benchmark
+    public Object mergeWithQueuedKey() {
+        return prioritizingProvider.getForRequest(new PrioritizedRequest<>(queuedKeys / 2, LOWEST));
+    }
+
+    @Benchmark
+    public Object upgradeQueuedKey() {
+        int key = nextKey++ % queuedKeys;
+        ResultFuture<Integer> result = prioritizingProvider.getForRequest(new PrioritizedRequest<>(key, STANDARD));
+        prioritizingProvider.requestQueue.replace(new PrioritizedRequestWithResult<>(key, LOWEST));
+        return result;
+    }
+
+    private static class BenchmarkPrioritizingProvider extends PrioritizingProvider<Integer, Integer> {
+        private BenchmarkPrioritizingProvider() {
+            super(
+                    List.of(),
+                    ProviderLimits.ofDefaults(),
+                    "Benchmark"
+            );
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.cotto.bitbook.backend.request;
+
+import de.cotto.bitbook.backend.model.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestWorkerBenchmark {
+    private static final int NUMBER_OF_PROVIDERS = 5;
+
+    private RequestWorker<Integer, Integer> requestWorker;
+    private Score score;
+
+    public RequestWorkerBenchmark() {
+        // default constructor
+    }
+
+    @Setup
+    public void setUp() {
+        List<BenchmarkProvider> providers = IntStream.range(0, NUMBER_OF_PROVIDERS)
+                .mapToObj(BenchmarkProvider::new)
+                .toList();
+        ProviderLimits providerLimits = ProviderLimits.ofDefaults();
+        requestWorker = new RequestWorker<>(providers, providerLimits);
+        score = new Score();
+    }
+
+    @Benchmark
+    public Optional<Integer> getNow() throws Exception {
+        return requestWorker.getNow(1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Integer> getNowConcurrently() throws Exception {
+        return requestWorker.getNow(1);
+    }
+
+    @Benchmark
+    public boolean addSuccess() {
+        return score.addSuccess(100);
+    }
+
+    @Benchmark
+    public boolean addFailure() {
+        return score.addFailure(ScoreUpdate.RATE_LIMITED);
+    }
+
+    private static class BenchmarkProvider implements Provider<Integer, Integer> {
+        private final String name;
+        private final Optional<Integer> result;
+
+        private BenchmarkProvider(int number) {
+            name = "BenchmarkProvider" + number;
+            result = Optional.of(number);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Optional<Integer> get(Integer key) {
+            return result;
+        }
+    }
+}
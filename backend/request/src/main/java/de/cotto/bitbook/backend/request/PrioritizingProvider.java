@@ -1,40 +1,105 @@
 package de.cotto.bitbook.backend.request;
 
 import de.cotto.bitbook.backend.model.Provider;
-import org.apache.commons.collections4.QueueUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toSet;
 
 public class PrioritizingProvider<K, R> {
-    protected final Queue<PrioritizedRequestWithResult<K, R>> requestQueue;
-    protected final List<PrioritizedRequestWithResult<K, R>> runningRequests;
+    /**
+     * Requests added via {@link #getForRequest(PrioritizedRequest)} and finished requests wake up the dispatcher
+     * immediately.
+     * This timeout only serves as a fallback for requests that were added to the queue in some other way.
+     */
+    private static final long IDLE_TIMEOUT_MILLISECONDS = 1_000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+    /**
+     * If a provider is able to answer several requests at once, the dispatcher waits for this long after being woken
+     * up, so that requests added in quick succession can be worked on in a single batch.
+     */
+    private static final long COALESCING_WINDOW_MILLISECONDS = 50;
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(1);
+
+    protected final RequestQueue<K, R> requestQueue;
+    protected final Map<K, PrioritizedRequestWithResult<K, R>> runningRequests;
+    protected final RetryQueue<K, R> retryQueue;
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final String providedResultName;
     private final RequestWorker<K, R> requestWorker;
+    private final Semaphore dispatchSignal;
+    private final ExecutorService dispatcher;
+    private final ExecutorService workers;
+    private final Semaphore workerSlots;
+    private final int numberOfWorkers;
+    private final int maximumBatchSize;
+    private final AtomicInteger consecutiveFailures;
+    private volatile long backgroundPausedUntil;
 
-    protected PrioritizingProvider(List<? extends Provider<K, R>> providers, String providedResultName) {
-        requestQueue = QueueUtils.synchronizedQueue(new PriorityQueue<>());
-        runningRequests = Collections.synchronizedList(new ArrayList<>());
+    protected PrioritizingProvider(
+            List<? extends Provider<K, R>> providers,
+            ProviderLimits providerLimits,
+            String providedResultName
+    ) {
+        requestQueue = new RequestQueue<>();
+        runningRequests = new ConcurrentHashMap<>();
+        retryQueue = new RetryQueue<>(INITIAL_BACKOFF, providerLimits.getMaximumBackoff());
         this.providedResultName = providedResultName;
-        this.requestWorker = new RequestWorker<>(providers);
+        this.requestWorker = new RequestWorker<>(providers, providerLimits);
+        dispatchSignal = new Semaphore(0);
+        numberOfWorkers = requestWorker.getConcurrencyLimit();
+        workerSlots = new Semaphore(numberOfWorkers);
+        maximumBatchSize = requestWorker.getMaximumBatchSize();
+        consecutiveFailures = new AtomicInteger();
+        backgroundPausedUntil = System.nanoTime();
+        dispatcher = Executors.newSingleThreadExecutor(createThreadFactory("-"));
+        workers = Executors.newCachedThreadPool(createThreadFactory("-worker-"));
     }
 
     public String getProvidedResultName() {
         return providedResultName;
     }
 
+    @PostConstruct
+    public void startDispatcher() {
+        dispatcher.execute(this::dispatchUntilInterrupted);
+    }
+
+    @PreDestroy
+    public void stopDispatcher() {
+        dispatcher.shutdownNow();
+        workers.shutdownNow();
+        requestWorker.close();
+        try {
+            if (!dispatcher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, SECONDS)) {
+                logger.warn("Dispatcher for '{}' did not stop in time", providedResultName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     protected ResultFuture<R> getForRequest(PrioritizedRequest<K, R> request) {
         logger.debug("Queuing {}", request);
         return enqueue(request);
@@ -48,65 +113,272 @@ public class PrioritizingProvider<K, R> {
         return getForRequest(request).getResult();
     }
 
-    @Scheduled(fixedDelay = 100)
     public void workOnRequests() {
+        do {
+            dispatchQueuedRequests();
+            workerSlots.acquireUninterruptibly(numberOfWorkers);
+            workerSlots.release(numberOfWorkers);
+        } while (hasDispatchableRequest());
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void dispatchUntilInterrupted() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                dispatchQueuedRequests();
+            } catch (RuntimeException exception) {
+                logger.error("Unexpected exception while working on '{}' requests: ", providedResultName, exception);
+            }
+            awaitDispatchSignal();
+        }
+    }
+
+    private void awaitDispatchSignal() {
+        try {
+            if (dispatchSignal.tryAcquire(IDLE_TIMEOUT_MILLISECONDS, MILLISECONDS)) {
+                if (maximumBatchSize > 1) {
+                    MILLISECONDS.sleep(COALESCING_WINDOW_MILLISECONDS);
+                }
+                dispatchSignal.drainPermits();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatchQueuedRequests() {
+        requeueDueRetries();
         if (logger.isDebugEnabled() && !requestQueue.isEmpty()) {
             logger.debug("Queue size: {}", requestQueue.size());
         }
-        PrioritizedRequestWithResult<K, R> prioritizedRequestWithResult;
-        do {
-            prioritizedRequestWithResult = requestQueue.poll();
-            if (prioritizedRequestWithResult != null) {
-                workOnRequest(prioritizedRequestWithResult);
+        while (acquireWorkerSlot()) {
+            List<PrioritizedRequestWithResult<K, R>> requests = pollDispatchableRequests();
+            if (requests.isEmpty()) {
+                workerSlots.release();
+                return;
+            }
+            startWorkingOn(requests);
+        }
+    }
+
+    /**
+     * Lowest priority requests are only dispatched while no request with a higher priority is running, so that
+     * background work does not compete with requests somebody is waiting for. After all providers failed, lowest
+     * priority requests are paused for a while.
+     * If the head of the queue can be answered by a batch provider, following requests with the same priority are
+     * added to the batch.
+     */
+    private List<PrioritizedRequestWithResult<K, R>> pollDispatchableRequests() {
+        synchronized (requestQueue) {
+            PrioritizedRequestWithResult<K, R> request = requestQueue.peek();
+            if (request == null || isBackgroundRequest(request) && (isWorkingOnForegroundRequest() || isPaused())) {
+                return List.of();
+            }
+            List<PrioritizedRequestWithResult<K, R>> requests = new ArrayList<>();
+            pollRunningRequest(requests);
+            if (maximumBatchSize > 1 && requestWorker.isBatchSupported(request.getKey())) {
+                while (requests.size() < maximumBatchSize && canBeAddedToBatch(requestQueue.peek(), request)) {
+                    pollRunningRequest(requests);
+                }
+            }
+            return requests;
+        }
+    }
+
+    private void pollRunningRequest(List<PrioritizedRequestWithResult<K, R>> requests) {
+        PrioritizedRequestWithResult<K, R> request = requestQueue.remove();
+        runningRequests.put(request.getKey(), request);
+        requests.add(request);
+    }
+
+    private boolean canBeAddedToBatch(
+            @Nullable PrioritizedRequestWithResult<K, R> candidate,
+            PrioritizedRequestWithResult<K, R> firstRequest
+    ) {
+        return candidate != null
+               && candidate.getPriority() == firstRequest.getPriority()
+               && requestWorker.isBatchSupported(candidate.getKey());
+    }
+
+    private boolean hasDispatchableRequest() {
+        PrioritizedRequestWithResult<K, R> request = requestQueue.peek();
+        return request != null && !(isBackgroundRequest(request) && isPaused());
+    }
+
+    private boolean isPaused() {
+        return System.nanoTime() - backgroundPausedUntil < 0;
+    }
+
+    /**
+     * A retried request is merged with a request for the same key that was added in the meantime.
+     */
+    private void requeueDueRetries() {
+        for (PrioritizedRequestWithResult<K, R> request : retryQueue.pollDueRequests()) {
+            logger.debug("Retrying {}", request);
+            synchronized (requestQueue) {
+                PrioritizedRequestWithResult<K, R> existingRequest = runningRequests.get(request.getKey());
+                if (existingRequest == null) {
+                    existingRequest = requestQueue.get(request.getKey()).orElse(null);
+                }
+                if (existingRequest == null) {
+                    requestQueue.add(request);
+                } else {
+                    existingRequest.addResultListener(request);
+                }
             }
-        } while (prioritizedRequestWithResult != null);
+        }
+    }
+
+    private boolean isWorkingOnForegroundRequest() {
+        return runningRequests.values().stream().anyMatch(request -> !isBackgroundRequest(request));
     }
 
-    private void workOnRequest(PrioritizedRequestWithResult<K, R> request) {
-        runningRequests.add(request);
+    private boolean acquireWorkerSlot() {
+        try {
+            workerSlots.acquire();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean isBackgroundRequest(PrioritizedRequestWithResult<K, R> request) {
+        return request.getPriority() == RequestPriority.LOWEST;
+    }
+
+    /**
+     * Waits until the worker holds a provider permit, so that the next requests see this provider as busy. If the
+     * worker has to wait for a provider, it signals this before waiting and the next requests are dispatched anyway.
+     */
+    private void startWorkingOn(List<PrioritizedRequestWithResult<K, R>> requests) {
+        CountDownLatch started = new CountDownLatch(1);
+        workers.execute(() -> workOn(requests, started::countDown));
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void workOn(List<PrioritizedRequestWithResult<K, R>> requests, Runnable startedCallback) {
+        try {
+            List<PrioritizedRequestWithResult<K, R>> remainingRequests = requests;
+            if (requests.size() > 1) {
+                remainingRequests = workOnBatch(requests, startedCallback);
+            }
+            for (PrioritizedRequestWithResult<K, R> request : remainingRequests) {
+                workOnRequest(request, startedCallback);
+            }
+        } finally {
+            startedCallback.run();
+            workerSlots.release();
+            dispatchSignal.release();
+        }
+    }
+
+    /**
+     * Returns the requests that could not be answered by a batch provider, these are worked on individually.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private List<PrioritizedRequestWithResult<K, R>> workOnBatch(
+            List<PrioritizedRequestWithResult<K, R>> requests,
+            Runnable startedCallback
+    ) {
+        logger.debug("Working on batch of {} requests", requests.size());
+        Set<K> keys = requests.stream().map(PrioritizedRequestWithResult::getKey).collect(toSet());
+        Map<K, R> results;
+        try {
+            results = requestWorker.getAllNow(keys, startedCallback);
+        } catch (RuntimeException exception) {
+            logger.error("Unexpected exception while working on batch {}: ", requests, exception);
+            return requests;
+        }
+        List<PrioritizedRequestWithResult<K, R>> remainingRequests = new ArrayList<>();
+        for (PrioritizedRequestWithResult<K, R> request : requests) {
+            R result = results.get(request.getKey());
+            if (result == null) {
+                remainingRequests.add(request);
+                continue;
+            }
+            request.provideResult(result);
+            onSuccess(request);
+            runningRequests.remove(request.getKey(), request);
+        }
+        return remainingRequests;
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void workOnRequest(PrioritizedRequestWithResult<K, R> request, Runnable startedCallback) {
         logger.debug("Working on {}", request);
         try {
-            requestWorker.getNow(request.getKey()).ifPresentOrElse(
+            requestWorker.getNow(request.getKey(), request.getPriority(), startedCallback).ifPresentOrElse(
                     request::provideResult,
                     request::stopWithoutResult
             );
+            onSuccess(request);
         } catch (NotSupportedByAnyProviderException e) {
             logger.debug("There is no provider that supports the request " + request);
             request.stopWithoutResult();
         } catch (AllProvidersFailedException e) {
-            logger.warn("All providers failed, removing lowest priority requests from queue");
-            requestQueue.removeIf(queuedRequest -> queuedRequest.getPriority() == RequestPriority.LOWEST);
+            onAllProvidersFailed(request);
+        } catch (RuntimeException exception) {
+            logger.error("Unexpected exception while working on {}: ", request, exception);
             request.stopWithoutResult();
+        } finally {
+            runningRequests.remove(request.getKey(), request);
         }
-        runningRequests.remove(request);
     }
 
-    private PrioritizedRequestWithResult<K, R> enqueue(PrioritizedRequest<K, R> request) {
-        PrioritizedRequestWithResult<K, R> result = getResultFromRunningRequest(request).orElse(null);
-        if (result != null) {
-            return result;
+    private void onSuccess(PrioritizedRequestWithResult<K, R> request) {
+        retryQueue.resetAttempts(request.getKey());
+        if (consecutiveFailures.getAndSet(0) > 0) {
+            backgroundPausedUntil = System.nanoTime();
         }
+    }
 
+    /**
+     * Lowest priority requests are paused with an exponential backoff, and the failed request is retried later if it
+     * has the lowest priority. Other requests are stopped, as somebody is waiting for them.
+     */
+    private void onAllProvidersFailed(PrioritizedRequestWithResult<K, R> request) {
+        Duration pause = retryQueue.getBackoff(consecutiveFailures.incrementAndGet());
+        backgroundPausedUntil = System.nanoTime() + pause.toNanos();
+        if (isBackgroundRequest(request) && retryQueue.add(request)) {
+            logger.warn("All providers failed, retrying {} later and pausing lowest priority requests for {}",
+                    request.getKey(), pause);
+            return;
+        }
+        logger.warn("All providers failed, pausing lowest priority requests for {}", pause);
+        request.stopWithoutResult();
+    }
+
+    private CustomizableThreadFactory createThreadFactory(String suffix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(getClass().getSimpleName() + suffix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private PrioritizedRequestWithResult<K, R> enqueue(PrioritizedRequest<K, R> request) {
         synchronized (requestQueue) {
+            PrioritizedRequestWithResult<K, R> result = getResultFromRunningRequest(request).orElse(null);
+            if (result != null) {
+                return result;
+            }
             Optional<PrioritizedRequestWithResult<K, R>> replacedRequest = replaceExistingRequest(request);
             if (replacedRequest.isPresent()) {
                 return replacedRequest.get();
             }
             PrioritizedRequestWithResult<K, R> prioritizedRequestWithResult = request.getWithResultFuture();
             requestQueue.add(prioritizedRequestWithResult);
+            dispatchSignal.release();
             return prioritizedRequestWithResult;
         }
     }
 
     @SuppressWarnings("FutureReturnValueIgnored")
     private Optional<PrioritizedRequestWithResult<K, R>> getResultFromRunningRequest(PrioritizedRequest<K, R> request) {
-        PrioritizedRequestWithResult<K, R> matchingRequest;
-        synchronized (runningRequests) {
-            matchingRequest = runningRequests.stream()
-                    .filter(runningRequest -> request.getKey().equals(runningRequest.getKey()))
-                    .findFirst()
-                    .orElse(null);
-        }
+        PrioritizedRequestWithResult<K, R> matchingRequest = runningRequests.get(request.getKey());
         if (matchingRequest == null) {
             return Optional.empty();
         }
@@ -116,15 +388,12 @@ public class PrioritizingProvider<K, R> {
     }
 
     private Optional<PrioritizedRequestWithResult<K, R>> replaceExistingRequest(PrioritizedRequest<K, R> request) {
-        return requestQueue.stream()
-                .filter(queuedRequest -> queuedRequest.getKey().equals(request.getKey()))
-                .findFirst()
+        return requestQueue.get(request.getKey())
                 .map(replacedRequest -> {
                     logger.debug("Merged {} and existing request {}", request, replacedRequest);
-                    requestQueue.remove(replacedRequest);
                     PrioritizedRequestWithResult<K, R> replacingRequest =
                             replacedRequest.createMergedReplacement(request);
-                    requestQueue.add(replacingRequest);
+                    requestQueue.replace(replacingRequest);
                     return replacingRequest;
                 });
     }
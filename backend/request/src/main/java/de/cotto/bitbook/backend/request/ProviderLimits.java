@@ -0,0 +1,115 @@
+package de.cotto.bitbook.backend.request;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.cotto.bitbook.backend.model.Provider;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class ProviderLimits {
+    private static final int DEFAULT_CONCURRENCY_LIMIT = 1;
+    private static final int MAXIMUM_CONCURRENCY_LIMIT = 5;
+    private static final Duration DEFAULT_MAXIMUM_BACKOFF = Duration.ofMinutes(10);
+
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final boolean hedgingEnabled;
+    private final Duration maximumBackoff;
+
+    public ProviderLimits(
+            RateLimiterRegistry rateLimiterRegistry,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            @Value("${bitbook.requests.hedging:false}") boolean hedgingEnabled,
+            @Value("${bitbook.requests.retry.maximum-backoff:10m}") Duration maximumBackoff
+    ) {
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.hedgingEnabled = hedgingEnabled;
+        this.maximumBackoff = maximumBackoff;
+    }
+
+    @VisibleForTesting
+    public static ProviderLimits ofDefaults() {
+        return new ProviderLimits(
+                RateLimiterRegistry.ofDefaults(),
+                CircuitBreakerRegistry.ofDefaults(),
+                false,
+                DEFAULT_MAXIMUM_BACKOFF
+        );
+    }
+
+    public int getConcurrencyLimit(Provider<?, ?> provider) {
+        return provider.getClientName()
+                .map(rateLimiterRegistry::rateLimiter)
+                .map(rateLimiter -> rateLimiter.getRateLimiterConfig().getLimitForPeriod())
+                .map(limitForPeriod -> Math.min(limitForPeriod, MAXIMUM_CONCURRENCY_LIMIT))
+                .orElse(DEFAULT_CONCURRENCY_LIMIT);
+    }
+
+    /**
+     * Returns how long it takes until the provider can be used without being rejected by its rate limiter or circuit
+     * breaker. This is zero if the provider can be used right away.
+     */
+    public Duration getWaitTime(Provider<?, ?> provider) {
+        Optional<String> clientName = provider.getClientName();
+        if (clientName.isEmpty()) {
+            return Duration.ZERO;
+        }
+        Duration rateLimiterWaitTime = getRateLimiterWaitTime(clientName.get());
+        Duration circuitBreakerWaitTime = getCircuitBreakerWaitTime(clientName.get());
+        if (rateLimiterWaitTime.compareTo(circuitBreakerWaitTime) > 0) {
+            return rateLimiterWaitTime;
+        }
+        return circuitBreakerWaitTime;
+    }
+
+    /**
+     * If enabled, a request that is not answered by the best provider within its usual (90th percentile) latency is
+     * also sent to the next provider. This only applies to requests with a priority higher than LOWEST.
+     */
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    /**
+     * Lowest priority requests that failed with all providers are retried later, waiting at most this long.
+     */
+    public Duration getMaximumBackoff() {
+        return maximumBackoff;
+    }
+
+    private Duration getRateLimiterWaitTime(String clientName) {
+        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter(clientName);
+        if (rateLimiter.getMetrics().getAvailablePermissions() > 0) {
+            return Duration.ZERO;
+        }
+        if (rateLimiter instanceof AtomicRateLimiter atomicRateLimiter) {
+            long nanosToWait = atomicRateLimiter.getDetailedMetrics().getNanosToWait();
+            return Duration.ofNanos(Math.max(0, nanosToWait));
+        }
+        return rateLimiter.getRateLimiterConfig().getLimitRefreshPeriod();
+    }
+
+    /**
+     * Acquiring (and releasing) a permission lets an open circuit breaker switch to the half-open state once the
+     * configured wait duration passed.
+     */
+    private Duration getCircuitBreakerWaitTime(String clientName) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(clientName);
+        if (circuitBreaker.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            return Duration.ZERO;
+        }
+        IntervalFunction waitInterval = circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState();
+        return Duration.ofMillis(waitInterval.apply(1));
+    }
+}
@@ -0,0 +1,142 @@
+package de.cotto.bitbook.backend.request;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractQueue;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * A thread-safe priority queue holding at most one request per key. Requests with the same priority are returned in
+ * the order they were added. Iterating (and streaming) requires the caller to synchronize on the queue.
+ */
+public class RequestQueue<K, R> extends AbstractQueue<PrioritizedRequestWithResult<K, R>> {
+    private final NavigableSet<Entry<K, R>> entries;
+    private final Map<K, Entry<K, R>> entriesByKey;
+    private long nextSequenceNumber;
+
+    public RequestQueue() {
+        super();
+        entries = new TreeSet<>(
+                Comparator.<Entry<K, R>>comparingInt(entry -> entry.request().getPriority().getIntegerForComparison())
+                        .thenComparingLong(Entry::sequenceNumber)
+        );
+        entriesByKey = new HashMap<>();
+    }
+
+    public synchronized Optional<PrioritizedRequestWithResult<K, R>> get(K key) {
+        return Optional.ofNullable(entriesByKey.get(key)).map(Entry::request);
+    }
+
+    /**
+     * Replaces the queued request with the same key, keeping its position among requests with the same priority.
+     */
+    public synchronized void replace(PrioritizedRequestWithResult<K, R> replacingRequest) {
+        Entry<K, R> replacedEntry = entriesByKey.get(replacingRequest.getKey());
+        if (replacedEntry == null) {
+            throw new IllegalStateException("No queued request for " + replacingRequest.getKey());
+        }
+        entries.remove(replacedEntry);
+        add(new Entry<>(replacingRequest, replacedEntry.sequenceNumber()));
+    }
+
+    @Override
+    public synchronized boolean offer(PrioritizedRequestWithResult<K, R> request) {
+        if (entriesByKey.containsKey(request.getKey())) {
+            return false;
+        }
+        add(new Entry<>(request, nextSequenceNumber++));
+        return true;
+    }
+
+    @Override
+    public synchronized PrioritizedRequestWithResult<K, R> poll() {
+        Entry<K, R> entry = entries.pollFirst();
+        if (entry == null) {
+            return null;
+        }
+        entriesByKey.remove(entry.request().getKey());
+        return entry.request();
+    }
+
+    @Override
+    public synchronized PrioritizedRequestWithResult<K, R> peek() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        return entries.first().request();
+    }
+
+    @Override
+    public synchronized boolean remove(Object object) {
+        if (!(object instanceof PrioritizedRequestWithResult<?, ?> request)) {
+            return false;
+        }
+        Entry<K, R> entry = entriesByKey.get(request.getKey());
+        if (entry == null || !entry.request().equals(request)) {
+            return false;
+        }
+        removeEntry(entry);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeIf(Predicate<? super PrioritizedRequestWithResult<K, R>> filter) {
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        entriesByKey.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<PrioritizedRequestWithResult<K, R>> iterator() {
+        Iterator<Entry<K, R>> iterator = entries.iterator();
+        return new Iterator<>() {
+            private Entry<K, R> current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public PrioritizedRequestWithResult<K, R> next() {
+                current = iterator.next();
+                return current.request();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                entriesByKey.remove(current.request().getKey());
+            }
+        };
+    }
+
+    private void add(Entry<K, R> entry) {
+        entries.add(entry);
+        entriesByKey.put(entry.request().getKey(), entry);
+    }
+
+    private void removeEntry(Entry<K, R> entry) {
+        entries.remove(entry);
+        entriesByKey.remove(entry.request().getKey());
+    }
+
+    private record Entry<K, R>(PrioritizedRequestWithResult<K, R> request, long sequenceNumber) {
+    }
+}
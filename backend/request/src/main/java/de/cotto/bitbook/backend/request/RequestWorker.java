@@ -1,6 +1,7 @@
 package de.cotto.bitbook.backend.request;
 
 import com.google.common.annotations.VisibleForTesting;
+import de.cotto.bitbook.backend.model.BatchProvider;
 import de.cotto.bitbook.backend.model.Provider;
 import de.cotto.bitbook.backend.model.ProviderException;
 import feign.FeignException;
@@ -8,36 +9,141 @@ import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
-import java.util.Collection;
-import java.util.Collections;
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Map.Entry.comparingByValue;
-import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 @Component
 public class RequestWorker<K, R> {
+    /**
+     * If all providers are rate limited or disabled by their circuit breaker, a request waits for at most this long
+     * until one of them is expected to be available again.
+     */
+    private static final Duration MAXIMUM_PARKING_TIME = Duration.ofMinutes(1);
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final ProviderLimits providerLimits;
     private final Map<Provider<K, R>, Score> providerScores;
+    private final Map<Provider<K, R>, Semaphore> providerPermits;
+    private final int concurrencyLimit;
+    private final int maximumBatchSize;
+    private final AtomicBoolean scoresChanged;
+    private final boolean hedgingEnabled;
+    private final ExecutorService hedgingExecutor;
+    private volatile List<Provider<K, R>> providersByScore;
+
+    public RequestWorker(List<? extends Provider<K, R>> providers, ProviderLimits providerLimits) {
+        this.providerLimits = providerLimits;
+        providerScores = new LinkedHashMap<>();
+        providerPermits = new LinkedHashMap<>();
+        int limitSum = 0;
+        for (Provider<K, R> provider : providers) {
+            int limit = providerLimits.getConcurrencyLimit(provider);
+            providerScores.put(provider, new Score());
+            providerPermits.put(provider, new Semaphore(limit));
+            limitSum += limit;
+        }
+        concurrencyLimit = Math.max(1, limitSum);
+        maximumBatchSize = providers.stream()
+                .filter(provider -> provider instanceof BatchProvider)
+                .mapToInt(provider -> ((BatchProvider<K, R>) provider).getMaximumBatchSize())
+                .max()
+                .orElse(1);
+        scoresChanged = new AtomicBoolean(false);
+        providersByScore = List.copyOf(providerScores.keySet());
+        hedgingEnabled = providerLimits.isHedgingEnabled();
+        String threadNamePrefix = getClass().getSimpleName() + "-hedging-";
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        hedgingExecutor = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Interrupts hedged requests that are still running, the results of these requests are not needed anymore.
+     */
+    @PreDestroy
+    public void close() {
+        hedgingExecutor.shutdownNow();
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public int getMaximumBatchSize() {
+        return maximumBatchSize;
+    }
 
-    public RequestWorker(List<? extends Provider<K, R>> providers) {
-        providerScores = Collections.synchronizedMap(new LinkedHashMap<>());
-        providers.forEach(provider -> providerScores.put(provider, Score.DEFAULT));
+    public boolean isBatchSupported(K key) {
+        return providerScores.keySet().stream()
+                .anyMatch(provider -> provider instanceof BatchProvider && provider.isSupported(key));
     }
 
     public Optional<R> getNow(K key) throws NotSupportedByAnyProviderException, AllProvidersFailedException {
-        Collection<? extends Provider<K, R>> providers = getSortedProviders(key);
-        if (providers.isEmpty()) {
+        return getNow(key, RequestPriority.LOWEST, () -> {
+        });
+    }
+
+    /**
+     * Providers that are rate limited or disabled by their circuit breaker are skipped. If this applies to all
+     * providers, the request is parked until the first of them is expected to be available again.
+     * Providers that are busy with other requests are only tried (and waited for) after all idle providers failed.
+     * The callback is run as soon as a provider starts working on the request, or before the request is parked or
+     * waits for a busy provider, so that the caller is not blocked while this request waits.
+     * If hedging is enabled and the request has a priority higher than LOWEST, the next idle provider is asked as
+     * well if the first provider does not answer within its 90th percentile latency. The first successful result is
+     * returned, the other one is ignored.
+     */
+    public Optional<R> getNow(K key, RequestPriority priority, Runnable startedCallback)
+            throws NotSupportedByAnyProviderException, AllProvidersFailedException {
+        List<Provider<K, R>> supportedProviders = getSortedProviders(key);
+        if (supportedProviders.isEmpty()) {
             throw new NotSupportedByAnyProviderException();
         }
-        for (Provider<K, R> provider : providers) {
-
-            ResultFromProvider<R> resultFromProvider = getWithProvider(key, provider);
+        List<Provider<K, R>> providers = awaitAvailableProviders(supportedProviders, startedCallback);
+        boolean hedge = hedgingEnabled && priority != RequestPriority.LOWEST;
+        List<Provider<K, R>> busyProviders = new ArrayList<>();
+        Iterator<Provider<K, R>> iterator = providers.iterator();
+        while (iterator.hasNext()) {
+            Provider<K, R> provider = iterator.next();
+            Semaphore permits = providerPermits.get(provider);
+            if (!permits.tryAcquire()) {
+                busyProviders.add(provider);
+                continue;
+            }
+            ResultFromProvider<R> resultFromProvider = hedge
+                    ? getWithHedging(key, provider, iterator, busyProviders, startedCallback)
+                    : getWithPermit(key, provider, startedCallback);
+            if (resultFromProvider.isSuccessful()) {
+                return resultFromProvider.getAsOptional();
+            }
+        }
+        for (Provider<K, R> provider : busyProviders) {
+            startedCallback.run();
+            providerPermits.get(provider).acquireUninterruptibly();
+            ResultFromProvider<R> resultFromProvider = getWithPermit(key, provider, startedCallback);
             if (resultFromProvider.isSuccessful()) {
                 return resultFromProvider.getAsOptional();
             }
@@ -45,16 +151,159 @@ public class RequestWorker<K, R> {
         throw new AllProvidersFailedException();
     }
 
-    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    /**
+     * Asks the best batch provider supporting all keys, falling back to the other batch providers if this fails.
+     * The returned map is empty if no batch provider supports the keys, or if all of them failed.
+     */
+    public Map<K, R> getAllNow(Set<K> keys, Runnable startedCallback) {
+        List<BatchProvider<K, R>> batchProviders = getProvidersByScore().stream()
+                .filter(provider -> provider instanceof BatchProvider)
+                .map(provider -> (BatchProvider<K, R>) provider)
+                .filter(provider -> provider.getMaximumBatchSize() >= keys.size())
+                .filter(provider -> keys.stream().allMatch(provider::isSupported))
+                .filter(this::isAvailable)
+                .toList();
+        List<BatchProvider<K, R>> busyProviders = new ArrayList<>();
+        for (BatchProvider<K, R> provider : batchProviders) {
+            if (!providerPermits.get(provider).tryAcquire()) {
+                busyProviders.add(provider);
+                continue;
+            }
+            ResultFromProvider<Map<K, R>> resultFromProvider = getAllWithPermit(keys, provider, startedCallback);
+            if (resultFromProvider.isSuccessful()) {
+                return resultFromProvider.getAsOptional().orElse(Map.of());
+            }
+        }
+        for (BatchProvider<K, R> provider : busyProviders) {
+            startedCallback.run();
+            providerPermits.get(provider).acquireUninterruptibly();
+            ResultFromProvider<Map<K, R>> resultFromProvider = getAllWithPermit(keys, provider, startedCallback);
+            if (resultFromProvider.isSuccessful()) {
+                return resultFromProvider.getAsOptional().orElse(Map.of());
+            }
+        }
+        return Map.of();
+    }
+
+    private ResultFromProvider<Map<K, R>> getAllWithPermit(
+            Set<K> keys,
+            BatchProvider<K, R> provider,
+            Runnable startedCallback
+    ) {
+        try {
+            startedCallback.run();
+            return callProvider(provider, () -> Optional.of(provider.getAll(keys)));
+        } finally {
+            providerPermits.get(provider).release();
+        }
+    }
+
+    private ResultFromProvider<R> getWithPermit(K key, Provider<K, R> provider, Runnable startedCallback) {
+        try {
+            startedCallback.run();
+            return getWithProvider(key, provider);
+        } finally {
+            providerPermits.get(provider).release();
+        }
+    }
+
+    private ResultFromProvider<R> getWithHedging(
+            K key,
+            Provider<K, R> provider,
+            Iterator<? extends Provider<K, R>> remainingProviders,
+            List<Provider<K, R>> busyProviders,
+            Runnable startedCallback
+    ) {
+        OptionalDouble hedgingDelay = providerScores.get(provider).getLatencyPercentile90();
+        if (hedgingDelay.isEmpty()) {
+            return getWithPermit(key, provider, startedCallback);
+        }
+        CompletableFuture<ResultFromProvider<R>> first = getAsync(key, provider, startedCallback);
+        ResultFromProvider<R> result = await(first, (long) Math.ceil(hedgingDelay.getAsDouble()));
+        if (result != null) {
+            return result;
+        }
+        Provider<K, R> hedgingProvider = acquireNextIdleProvider(remainingProviders, busyProviders);
+        if (hedgingProvider == null) {
+            return first.join();
+        }
+        logger.debug("{} is slow, also asking {}", provider.getName(), hedgingProvider.getName());
+        CompletableFuture<ResultFromProvider<R>> second = getAsync(key, hedgingProvider, () -> {
+        });
+        return firstSuccessful(first, second).join();
+    }
+
+    private CompletableFuture<ResultFromProvider<R>> getAsync(
+            K key,
+            Provider<K, R> provider,
+            Runnable startedCallback
+    ) {
+        return CompletableFuture.supplyAsync(() -> getWithPermit(key, provider, startedCallback), hedgingExecutor);
+    }
+
+    @Nullable
+    private ResultFromProvider<R> await(CompletableFuture<ResultFromProvider<R>> future, long timeoutMilliseconds) {
+        try {
+            return future.get(timeoutMilliseconds, MILLISECONDS);
+        } catch (TimeoutException exception) {
+            return null;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return future.join();
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    @Nullable
+    private Provider<K, R> acquireNextIdleProvider(
+            Iterator<? extends Provider<K, R>> remainingProviders,
+            List<Provider<K, R>> busyProviders
+    ) {
+        while (remainingProviders.hasNext()) {
+            Provider<K, R> provider = remainingProviders.next();
+            if (providerPermits.get(provider).tryAcquire()) {
+                return provider;
+            }
+            busyProviders.add(provider);
+        }
+        return null;
+    }
+
+    private CompletableFuture<ResultFromProvider<R>> firstSuccessful(
+            CompletableFuture<ResultFromProvider<R>> first,
+            CompletableFuture<ResultFromProvider<R>> second
+    ) {
+        CompletableFuture<ResultFromProvider<R>> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        for (CompletableFuture<ResultFromProvider<R>> future : List.of(first, second)) {
+            future.thenAccept(resultFromProvider -> {
+                if (resultFromProvider.isSuccessful()) {
+                    result.complete(resultFromProvider);
+                } else if (pending.decrementAndGet() == 0) {
+                    result.complete(ResultFromProvider.failure());
+                }
+            });
+        }
+        return result;
+    }
+
     private ResultFromProvider<R> getWithProvider(K key, Provider<K, R> provider) {
+        return callProvider(provider, () -> provider.get(key));
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private <T> ResultFromProvider<T> callProvider(Provider<K, R> provider, ProviderCall<T> providerCall) {
         String providerName = provider.getName();
         try {
             long start = System.nanoTime();
-            ResultFromProvider<R> result = provider.get(key)
+            ResultFromProvider<T> result = providerCall.call()
                     .map(ResultFromProvider::of)
                     .orElse(ResultFromProvider.empty());
             long end = System.nanoTime();
-            updateScore(provider, ScoreUpdate.forSuccess((end - start) / 1_000_000));
+            if (providerScores.get(provider).addSuccess((end - start) / 1_000_000)) {
+                scoresChanged.set(true);
+            }
             return result;
         } catch (RequestNotPermitted exception) {
             logger.warn("{} is rate limited, skipping.", providerName);
@@ -79,30 +328,86 @@ public class RequestWorker<K, R> {
         return ResultFromProvider.failure();
     }
 
-    private void updateScore(Provider<K, R> provider, ScoreUpdate update) {
-        providerScores.compute(provider, (key, currentValue) -> requireNonNull(currentValue).add(update));
+    private void updateScore(Provider<K, R> provider, ScoreUpdate failure) {
+        if (providerScores.get(provider).addFailure(failure)) {
+            scoresChanged.set(true);
+        }
+    }
+
+    private List<Provider<K, R>> getSortedProviders(K key) {
+        return getProvidersByScore().stream()
+                .filter(provider -> provider.isSupported(key))
+                .toList();
+    }
+
+    private boolean isAvailable(Provider<K, R> provider) {
+        return providerLimits.getWaitTime(provider).isZero();
+    }
+
+    private List<Provider<K, R>> awaitAvailableProviders(
+            List<Provider<K, R>> providers,
+            Runnable startedCallback
+    ) throws AllProvidersFailedException {
+        long deadline = System.nanoTime() + MAXIMUM_PARKING_TIME.toNanos();
+        while (true) {
+            List<Provider<K, R>> availableProviders = new ArrayList<>();
+            Duration shortestWaitTime = MAXIMUM_PARKING_TIME;
+            for (Provider<K, R> provider : providers) {
+                Duration waitTime = providerLimits.getWaitTime(provider);
+                if (waitTime.isZero()) {
+                    availableProviders.add(provider);
+                } else if (waitTime.compareTo(shortestWaitTime) < 0) {
+                    shortestWaitTime = waitTime;
+                }
+            }
+            if (!availableProviders.isEmpty()) {
+                return availableProviders;
+            }
+            if (System.nanoTime() + shortestWaitTime.toNanos() > deadline) {
+                throw new AllProvidersFailedException();
+            }
+            logger.debug("All providers are rate limited or disabled, waiting for {}", shortestWaitTime);
+            startedCallback.run();
+            park(shortestWaitTime);
+        }
+    }
+
+    private void park(Duration duration) throws AllProvidersFailedException {
+        try {
+            Thread.sleep(duration.toMillis(), duration.toNanosPart() % 1_000_000);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new AllProvidersFailedException();
+        }
     }
 
-    private Collection<? extends Provider<K, R>> getSortedProviders(K key) {
-        synchronized (providerScores) {
-            return providerScores.entrySet().stream()
+    /**
+     * The order is only computed again if a score changed materially since the last computation.
+     */
+    private List<Provider<K, R>> getProvidersByScore() {
+        if (scoresChanged.compareAndSet(true, false)) {
+            Map<Provider<K, R>, Double> costs = new LinkedHashMap<>();
+            providerScores.forEach((provider, score) -> costs.put(provider, score.snapshotCost()));
+            providersByScore = costs.entrySet().stream()
                     .sorted(comparingByValue())
                     .map(Map.Entry::getKey)
-                    .filter(provider -> provider.isSupported(key))
                     .toList();
         }
+        return providersByScore;
     }
 
     @VisibleForTesting
     public void resetScores() {
-        synchronized (providerScores) {
-            for (Map.Entry<Provider<K, R>, Score> entry : providerScores.entrySet()) {
-                entry.setValue(Score.DEFAULT);
-            }
-        }
+        providerScores.values().forEach(Score::reset);
+        scoresChanged.set(true);
     }
 
     private void logReasonAsDebugMessage(Exception exception) {
         logger.debug("Reason: ", exception);
     }
+
+    @FunctionalInterface
+    private interface ProviderCall<T> {
+        Optional<T> call() throws ProviderException;
+    }
 }
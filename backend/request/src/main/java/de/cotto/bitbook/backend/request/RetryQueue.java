@@ -0,0 +1,89 @@
+package de.cotto.bitbook.backend.request;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Holds failed requests until they are due to be retried. The backoff grows exponentially with the number of failed
+ * attempts for the key, up to the given maximum. Requests for keys that failed too often are not retried.
+ */
+public class RetryQueue<K, R> {
+    private static final int MAXIMUM_ATTEMPTS = 10;
+    private static final int MAXIMUM_EXPONENT = 30;
+
+    private final Duration initialBackoff;
+    private final Duration maximumBackoff;
+    private final Map<K, Integer> failedAttempts;
+    private final DelayQueue<DelayedRequest<K, R>> delayedRequests;
+
+    public RetryQueue(Duration initialBackoff, Duration maximumBackoff) {
+        this.initialBackoff = initialBackoff;
+        this.maximumBackoff = maximumBackoff;
+        failedAttempts = new ConcurrentHashMap<>();
+        delayedRequests = new DelayQueue<>();
+    }
+
+    /**
+     * @return false if the request failed too often and is not going to be retried
+     */
+    public boolean add(PrioritizedRequestWithResult<K, R> request) {
+        K key = request.getKey();
+        int attempts = failedAttempts.merge(key, 1, Integer::sum);
+        if (attempts > MAXIMUM_ATTEMPTS) {
+            failedAttempts.remove(key);
+            return false;
+        }
+        long dueTime = System.nanoTime() + getBackoff(attempts).toNanos();
+        delayedRequests.add(new DelayedRequest<>(request, dueTime));
+        return true;
+    }
+
+    public void resetAttempts(K key) {
+        failedAttempts.remove(key);
+    }
+
+    public List<PrioritizedRequestWithResult<K, R>> pollDueRequests() {
+        List<DelayedRequest<K, R>> dueRequests = new ArrayList<>();
+        delayedRequests.drainTo(dueRequests);
+        return dueRequests.stream().map(DelayedRequest::request).toList();
+    }
+
+    public Duration getBackoff(int failedAttempts) {
+        int exponent = Math.min(Math.max(failedAttempts - 1, 0), MAXIMUM_EXPONENT);
+        Duration backoff = initialBackoff.multipliedBy(1L << exponent);
+        if (backoff.compareTo(maximumBackoff) > 0) {
+            return maximumBackoff;
+        }
+        return backoff;
+    }
+
+    public int size() {
+        return delayedRequests.size();
+    }
+
+    public void clear() {
+        delayedRequests.clear();
+        failedAttempts.clear();
+    }
+
+    private record DelayedRequest<K, R>(PrioritizedRequestWithResult<K, R> request, long dueTime) implements Delayed {
+        @Override
+        public long getDelay(@Nonnull TimeUnit unit) {
+            return unit.convert(dueTime - System.nanoTime(), NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(@Nonnull Delayed other) {
+            return Long.compare(getDelay(NANOSECONDS), other.getDelay(NANOSECONDS));
+        }
+    }
+}
@@ -1,63 +1,136 @@
 package de.cotto.bitbook.backend.request;
 
-import javax.annotation.Nonnull;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class Score implements Comparable<Score> {
-    public static final Score DEFAULT = new Score(0);
-    private static final int MAX_SIZE = 5;
+/**
+ * Exponentially weighted moving averages of the cost (duration of successful requests, penalty for failed requests),
+ * the latency (and its variance) of successful requests, and the success rate of a provider. Lower costs are better.
+ */
+public class Score {
+    private static final double WEIGHT_OF_NEW_VALUE = 0.3;
+    private static final double MATERIAL_CHANGE_FACTOR = 0.1;
+    private static final double MATERIAL_CHANGE_MINIMUM = 1.0;
+    private static final double INITIAL_SUCCESS_RATE = 1.0;
+    private static final double Z_SCORE_90TH_PERCENTILE = 1.2816;
+    private static final long MINIMUM_LATENCY_SAMPLES = 5;
 
-    private final List<Long> list = new ArrayList<>();
+    private final AtomicLong cost = new AtomicLong();
+    private final AtomicLong latency = new AtomicLong();
+    private final AtomicLong latencyVariance = new AtomicLong();
+    private final AtomicLong latencySamples = new AtomicLong();
+    private final AtomicLong successRate = new AtomicLong(toBits(INITIAL_SUCCESS_RATE));
+    private volatile double costInSnapshot;
 
-    public Score(long value) {
-        list.add(value);
+    public Score() {
+        // default constructor
     }
 
-    private Score(List<Long> list) {
-        this.list.addAll(list);
+    /**
+     * @return true if the cost changed materially since the last call to {@link #snapshotCost()}
+     */
+    public boolean addSuccess(long durationInMilliseconds) {
+        double previousLatency = getLatency();
+        updateAverage(latency, durationInMilliseconds);
+        updateVariance(durationInMilliseconds - previousLatency);
+        latencySamples.incrementAndGet();
+        updateAverage(successRate, 1.0);
+        return updateCost(durationInMilliseconds);
     }
 
-    @Override
-    public int compareTo(@Nonnull Score other) {
-        return Long.compare(sum(), other.sum());
+    /**
+     * @return true if the cost changed materially since the last call to {@link #snapshotCost()}
+     */
+    public boolean addFailure(ScoreUpdate failure) {
+        updateAverage(successRate, 0.0);
+        return updateCost(failure.getValue());
     }
 
-    public Score add(ScoreUpdate addend) {
-        Score result = new Score(list);
-        result.list.add(addend.getValue());
-        while (result.list.size() > MAX_SIZE) {
-            result.list.remove(0);
-        }
-        return result;
+    public double getCost() {
+        return fromBits(cost.get());
     }
 
-    private long sum() {
-        return list.stream().mapToLong(i -> i).sum();
+    public double getLatency() {
+        return fromBits(latency.get());
     }
 
-    @Override
-    public boolean equals(Object other) {
-        if (this == other) {
-            return true;
+    /**
+     * Estimates the 90th percentile of the latency, assuming normally distributed latencies. The estimate is only
+     * available once a few successful requests were observed.
+     */
+    public OptionalDouble getLatencyPercentile90() {
+        if (latencySamples.get() < MINIMUM_LATENCY_SAMPLES) {
+            return OptionalDouble.empty();
         }
-        if (other == null || getClass() != other.getClass()) {
-            return false;
-        }
-        Score score = (Score) other;
-        return Objects.equals(list, score.list);
+        double standardDeviation = Math.sqrt(fromBits(latencyVariance.get()));
+        return OptionalDouble.of(getLatency() + Z_SCORE_90TH_PERCENTILE * standardDeviation);
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(list);
+    public double getSuccessRate() {
+        return fromBits(successRate.get());
+    }
+
+    public double getFailureRate() {
+        return 1.0 - getSuccessRate();
+    }
+
+    public double snapshotCost() {
+        double currentCost = getCost();
+        costInSnapshot = currentCost;
+        return currentCost;
+    }
+
+    public void reset() {
+        cost.set(toBits(0.0));
+        latency.set(toBits(0.0));
+        latencyVariance.set(toBits(0.0));
+        latencySamples.set(0);
+        successRate.set(toBits(INITIAL_SUCCESS_RATE));
+        costInSnapshot = 0.0;
+    }
+
+    private boolean updateCost(long value) {
+        double updatedCost = updateAverage(cost, value);
+        double reference = costInSnapshot;
+        double materialChange = Math.max(MATERIAL_CHANGE_MINIMUM, MATERIAL_CHANGE_FACTOR * reference);
+        return Math.abs(updatedCost - reference) >= materialChange;
+    }
+
+    private void updateVariance(double difference) {
+        long previousBits;
+        double updated;
+        do {
+            previousBits = latencyVariance.get();
+            double previous = fromBits(previousBits);
+            updated = (1 - WEIGHT_OF_NEW_VALUE) * (previous + WEIGHT_OF_NEW_VALUE * difference * difference);
+        } while (!latencyVariance.compareAndSet(previousBits, toBits(updated)));
+    }
+
+    private static double updateAverage(AtomicLong average, double value) {
+        long previousBits;
+        double updated;
+        do {
+            previousBits = average.get();
+            double previous = fromBits(previousBits);
+            updated = previous + WEIGHT_OF_NEW_VALUE * (value - previous);
+        } while (!average.compareAndSet(previousBits, toBits(updated)));
+        return updated;
+    }
+
+    private static long toBits(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    private static double fromBits(long bits) {
+        return Double.longBitsToDouble(bits);
     }
 
     @Override
     public String toString() {
         return "Score{" +
-                "list=" + list +
+                "cost=" + getCost() +
+                ", latency=" + getLatency() +
+                ", successRate=" + getSuccessRate() +
                 '}';
     }
 }
@@ -7,6 +7,8 @@ public class ScoreUpdate {
     public static final ScoreUpdate CIRCUIT_BREAKER = new ScoreUpdate(2_000);
     public static final ScoreUpdate PROVIDER_EXCEPTION = new ScoreUpdate(4_500);
     public static final ScoreUpdate UNKNOWN_EXCEPTION = new ScoreUpdate(5_000);
+    private static final ScoreUpdate HTTP_FAILURE = new ScoreUpdate(3_000);
+    private static final ScoreUpdate TOO_MANY_REQUESTS = new ScoreUpdate(4_000);
 
     private final long value;
 
@@ -16,13 +18,9 @@ public class ScoreUpdate {
 
     public static ScoreUpdate forHttpStatus(int status) {
         if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
-            return new ScoreUpdate(4_000);
+            return TOO_MANY_REQUESTS;
         }
-        return new ScoreUpdate(3_000);
-    }
-
-    public static ScoreUpdate forSuccess(long durationInMilliSeconds) {
-        return new ScoreUpdate(durationInMilliSeconds);
+        return HTTP_FAILURE;
     }
 
     public long getValue() {
@@ -1,14 +1,18 @@
 package de.cotto.bitbook.backend.request;
 
 import de.cotto.bitbook.backend.model.Provider;
+import de.cotto.bitbook.backend.model.TestableBatchProvider;
 import de.cotto.bitbook.backend.model.TestableProvider;
 import feign.FeignException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
@@ -21,7 +25,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,7 +41,8 @@ class PrioritizingProviderTest {
     @BeforeEach
     void setUp() {
         provider = spy(new TestableProvider());
-        prioritizingProvider = new TestablePrioritizingProvider(List.of(provider));
+        ProviderLimits providerLimits = ProviderLimits.ofDefaults();
+        prioritizingProvider = new TestablePrioritizingProvider(List.of(provider), providerLimits);
     }
 
     @Test
@@ -62,7 +69,7 @@ class PrioritizingProviderTest {
     }
 
     @Test
-    void all_providers_fail_removes_low_priority_requests_from_queue() throws Exception {
+    void all_providers_fail_pauses_low_priority_requests() throws Exception {
         workOnExpectedRequests(2);
         when(provider.get(any())).thenThrow(mock(FeignException.class));
         prioritizingProvider.getForRequestBlocking(request("yyy", LOWEST));
@@ -70,7 +77,49 @@ class PrioritizingProviderTest {
         Optional<Integer> result = prioritizingProvider.getForRequestBlocking(request("...", STANDARD));
 
         assertThat(result).isEmpty();
+        assertThat(prioritizingProvider.requestQueue).hasSize(1);
+        verify(provider, never()).get("yyy");
+    }
+
+    @Test
+    void all_providers_fail_keeps_low_priority_request_for_retry() throws Exception {
+        when(provider.get(any())).thenThrow(mock(FeignException.class));
+        ResultFuture<Integer> result = prioritizingProvider.getForRequest(request("yyy", LOWEST));
+
+        prioritizingProvider.workOnRequests();
+
+        assertThat(prioritizingProvider.retryQueue.size()).isEqualTo(1);
         assertThat(prioritizingProvider.requestQueue).isEmpty();
+        assertThat(result.getFuture()).isNotDone();
+    }
+
+    @Test
+    @Timeout(5)
+    void retries_low_priority_request_after_backoff() throws Exception {
+        when(provider.get("yyy")).thenThrow(mock(FeignException.class)).thenReturn(Optional.of(42));
+        prioritizingProvider.startDispatcher();
+        try {
+            ResultFuture<Integer> result = prioritizingProvider.getForRequest(request("yyy", LOWEST));
+            assertThat(result.getResult()).contains(42);
+        } finally {
+            prioritizingProvider.stopDispatcher();
+        }
+    }
+
+    @Test
+    @Timeout(5)
+    void retried_request_is_merged_with_new_request_for_same_key() throws Exception {
+        when(provider.get("yyy")).thenThrow(mock(FeignException.class)).thenReturn(Optional.of(42));
+        ResultFuture<Integer> retriedResult = prioritizingProvider.getForRequest(request("yyy", LOWEST));
+        prioritizingProvider.workOnRequests();
+        ResultFuture<Integer> newResult = prioritizingProvider.getForRequest(request("yyy", STANDARD));
+        await().pollDelay(1_100, MILLISECONDS).atMost(2, SECONDS).until(() -> true);
+
+        prioritizingProvider.workOnRequests();
+
+        assertThat(newResult.getResult()).contains(42);
+        assertThat(retriedResult.getResult()).contains(42);
+        verify(provider, times(2)).get("yyy");
     }
 
     @Test
@@ -207,6 +256,152 @@ class PrioritizingProviderTest {
         );
     }
 
+    @Test
+    void dispatcher_works_on_new_requests_without_delay() {
+        prioritizingProvider.startDispatcher();
+        try {
+            Optional<Integer> result = prioritizingProvider.getForRequestBlocking(request("xxx", STANDARD));
+            assertThat(result).contains(3);
+        } finally {
+            prioritizingProvider.stopDispatcher();
+        }
+    }
+
+    @Test
+    void dispatcher_works_on_requests_added_while_idle() {
+        prioritizingProvider.startDispatcher();
+        try {
+            prioritizingProvider.getForRequestBlocking(request("first", STANDARD));
+            Optional<Integer> result = prioritizingProvider.getForRequestBlocking(request("second", STANDARD));
+            assertThat(result).contains(6);
+        } finally {
+            prioritizingProvider.stopDispatcher();
+        }
+    }
+
+    @Test
+    void stopped_dispatcher_does_not_work_on_requests() {
+        prioritizingProvider.startDispatcher();
+        prioritizingProvider.stopDispatcher();
+        prioritizingProvider.getForRequestBlocking(request("lowest", LOWEST));
+        await().pollDelay(200, MILLISECONDS).atMost(1, SECONDS).untilAsserted(
+                () -> assertThat(prioritizingProvider.requestQueue).hasSize(1)
+        );
+        assertThat(provider.seenKeys).isEmpty();
+    }
+
+    @Test
+    void works_on_requests_in_parallel() throws Exception {
+        useConcurrencyLimit(2);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(provider.get(any())).then(invocation -> {
+            bothStarted.countDown();
+            return Optional.of(bothStarted.await(1, SECONDS) ? 1 : 0);
+        });
+        ResultFuture<Integer> result1 = prioritizingProvider.getForRequest(request("a", STANDARD));
+        ResultFuture<Integer> result2 = prioritizingProvider.getForRequest(request("b", STANDARD));
+
+        prioritizingProvider.workOnRequests();
+
+        assertThat(result1.getResult()).contains(1);
+        assertThat(result2.getResult()).contains(1);
+    }
+
+    @Test
+    void rate_limited_request_does_not_delay_other_requests() {
+        TestableProvider rateLimitedProvider = spy(new TestableProvider());
+        when(rateLimitedProvider.isSupported(any())).thenReturn(false);
+        when(rateLimitedProvider.isSupported("limited")).thenReturn(true);
+        when(provider.isSupported("limited")).thenReturn(false);
+        ProviderLimits providerLimits = mock(ProviderLimits.class);
+        when(providerLimits.getConcurrencyLimit(any())).thenReturn(1);
+        when(providerLimits.getWaitTime(provider)).thenReturn(Duration.ZERO);
+        when(providerLimits.getWaitTime(rateLimitedProvider)).thenReturn(Duration.ofSeconds(30));
+        prioritizingProvider =
+                new TestablePrioritizingProvider(List.of(rateLimitedProvider, provider), providerLimits);
+        prioritizingProvider.getForRequest(request("limited", STANDARD));
+        ResultFuture<Integer> result = prioritizingProvider.getForRequest(request("free", STANDARD));
+
+        prioritizingProvider.startDispatcher();
+        try {
+            assertThat(result.getResult()).contains(4);
+            assertThat(rateLimitedProvider.seenKeys).isEmpty();
+        } finally {
+            prioritizingProvider.stopDispatcher();
+        }
+    }
+
+    @Test
+    void does_not_work_on_lowest_priority_request_while_other_request_is_running() {
+        useConcurrencyLimit(2);
+        prioritizingProvider.getForRequest(request("wait", STANDARD));
+        prioritizingProvider.getForRequest(request("lowest", LOWEST));
+
+        executor.execute(prioritizingProvider::workOnRequests);
+
+        await().atMost(1, SECONDS).until(() -> provider.seenKeys.contains("wait"));
+        await().during(100, MILLISECONDS).atMost(1, SECONDS).until(() -> !provider.seenKeys.contains("lowest"));
+        await().atMost(1, SECONDS).untilAsserted(
+                () -> assertThat(provider.seenKeys).containsExactly("wait", "lowest")
+        );
+    }
+
+    @Test
+    void works_on_requests_with_same_priority_in_one_batch() {
+        TestableBatchProvider batchProvider = useBatchProvider();
+        ResultFuture<Integer> result1 = prioritizingProvider.getForRequest(request("a", STANDARD));
+        ResultFuture<Integer> result2 = prioritizingProvider.getForRequest(request("bb", STANDARD));
+        ResultFuture<Integer> result3 = prioritizingProvider.getForRequest(request("ccc", STANDARD));
+
+        prioritizingProvider.workOnRequests();
+
+        assertThat(result1.getResult()).contains(1);
+        assertThat(result2.getResult()).contains(2);
+        assertThat(result3.getResult()).contains(3);
+        assertThat(batchProvider.seenBatches).containsExactly(Set.of("a", "bb", "ccc"));
+        assertThat(batchProvider.seenKeys).isEmpty();
+    }
+
+    @Test
+    void batch_size_is_limited() {
+        TestableBatchProvider batchProvider = useBatchProvider();
+        prioritizingProvider.getForRequest(request("a", STANDARD));
+        prioritizingProvider.getForRequest(request("b", STANDARD));
+        prioritizingProvider.getForRequest(request("c", STANDARD));
+        ResultFuture<Integer> result = prioritizingProvider.getForRequest(request("dddd", STANDARD));
+
+        prioritizingProvider.workOnRequests();
+
+        assertThat(result.getResult()).contains(4);
+        assertThat(batchProvider.seenBatches).containsExactly(Set.of("a", "b", "c"));
+        assertThat(batchProvider.seenKeys).containsExactly("dddd");
+    }
+
+    @Test
+    void does_not_batch_requests_with_different_priority() {
+        TestableBatchProvider batchProvider = useBatchProvider();
+        prioritizingProvider.getForRequest(request("a", STANDARD));
+        prioritizingProvider.getForRequest(request("b", LOWEST));
+
+        prioritizingProvider.workOnRequests();
+
+        assertThat(batchProvider.seenBatches).isEmpty();
+        assertThat(batchProvider.seenKeys).containsExactly("a", "b");
+    }
+
+    @Test
+    void works_on_requests_without_batch_result_individually() {
+        TestableBatchProvider batchProvider = useBatchProvider();
+        ResultFuture<Integer> result1 = prioritizingProvider.getForRequest(request("a", STANDARD));
+        ResultFuture<Integer> result2 = prioritizingProvider.getForRequest(request("", STANDARD));
+
+        prioritizingProvider.workOnRequests();
+
+        assertThat(result1.getResult()).contains(1);
+        assertThat(result2.getResult()).isEmpty();
+        assertThat(batchProvider.seenKeys).containsExactly("");
+    }
+
     @Test
     void getQueueByPriority_values() {
         executor.execute(() -> prioritizingProvider.getForRequestBlocking(new PrioritizedRequest<>("x", STANDARD)));
@@ -229,6 +424,20 @@ class PrioritizingProviderTest {
         return new PrioritizedRequest<>(key, priority);
     }
 
+    private void useConcurrencyLimit(int concurrencyLimit) {
+        ProviderLimits providerLimits = mock(ProviderLimits.class);
+        when(providerLimits.getConcurrencyLimit(provider)).thenReturn(concurrencyLimit);
+        when(providerLimits.getWaitTime(provider)).thenReturn(Duration.ZERO);
+        prioritizingProvider = new TestablePrioritizingProvider(List.of(provider), providerLimits);
+    }
+
+    private TestableBatchProvider useBatchProvider() {
+        TestableBatchProvider batchProvider = new TestableBatchProvider();
+        ProviderLimits providerLimits = ProviderLimits.ofDefaults();
+        prioritizingProvider = new TestablePrioritizingProvider(List.of(batchProvider), providerLimits);
+        return batchProvider;
+    }
+
     private void workOnExpectedRequests(int expectedRequests) {
         executor.execute(() -> {
             await().until(() -> prioritizingProvider.requestQueue.size() == expectedRequests);
@@ -242,8 +451,8 @@ class PrioritizingProviderTest {
     }
 
     private static class TestablePrioritizingProvider extends PrioritizingProvider<String, Integer> {
-        private TestablePrioritizingProvider(List<Provider<String, Integer>> providers) {
-            super(providers, "xxx");
+        private TestablePrioritizingProvider(List<Provider<String, Integer>> providers, ProviderLimits providerLimits) {
+            super(providers, providerLimits, "xxx");
         }
     }
 
@@ -0,0 +1,127 @@
+package de.cotto.bitbook.backend.request;
+
+import de.cotto.bitbook.backend.model.TestableProvider;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProviderLimitsTest {
+    private static final Duration MAXIMUM_BACKOFF = Duration.ofMinutes(3);
+
+    private RateLimiterRegistry rateLimiterRegistry;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private ProviderLimits providerLimits;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiterRegistry = RateLimiterRegistry.ofDefaults();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        providerLimits = new ProviderLimits(rateLimiterRegistry, circuitBreakerRegistry, false, MAXIMUM_BACKOFF);
+    }
+
+    @Test
+    void provider_without_client() {
+        assertThat(providerLimits.getConcurrencyLimit(new TestableProvider())).isEqualTo(1);
+    }
+
+    @Test
+    void uses_limit_for_period_of_rate_limiter() {
+        addRateLimiter("client", 3);
+        assertThat(providerLimits.getConcurrencyLimit(new ProviderWithClient("client"))).isEqualTo(3);
+    }
+
+    @Test
+    void limit_is_capped() {
+        addRateLimiter("client", 300);
+        assertThat(providerLimits.getConcurrencyLimit(new ProviderWithClient("client"))).isEqualTo(5);
+    }
+
+    @Test
+    void unconfigured_rate_limiter_is_capped() {
+        assertThat(providerLimits.getConcurrencyLimit(new ProviderWithClient("unknown"))).isEqualTo(5);
+    }
+
+    @Test
+    void getWaitTime_provider_without_client() {
+        assertThat(providerLimits.getWaitTime(new TestableProvider())).isZero();
+    }
+
+    @Test
+    void getWaitTime_available() {
+        assertThat(providerLimits.getWaitTime(new ProviderWithClient("client"))).isZero();
+    }
+
+    @Test
+    void getWaitTime_rate_limited() {
+        rateLimiterRegistry.rateLimiter("client", RateLimiterConfig.custom()
+                .limitForPeriod(1)
+                .limitRefreshPeriod(Duration.ofHours(1))
+                .build()
+        ).acquirePermission();
+        assertThat(providerLimits.getWaitTime(new ProviderWithClient("client")))
+                .isPositive()
+                .isLessThanOrEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void getWaitTime_circuit_breaker_open() {
+        circuitBreakerRegistry.circuitBreaker("client").transitionToOpenState();
+        assertThat(providerLimits.getWaitTime(new ProviderWithClient("client"))).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void getWaitTime_circuit_breaker_half_open() {
+        circuitBreakerRegistry.circuitBreaker("client").transitionToOpenState();
+        circuitBreakerRegistry.circuitBreaker("client").transitionToHalfOpenState();
+        assertThat(providerLimits.getWaitTime(new ProviderWithClient("client"))).isZero();
+    }
+
+    @Test
+    void hedging_disabled() {
+        assertThat(providerLimits.isHedgingEnabled()).isFalse();
+    }
+
+    @Test
+    void hedging_enabled() {
+        ProviderLimits hedgingProviderLimits =
+                new ProviderLimits(rateLimiterRegistry, circuitBreakerRegistry, true, MAXIMUM_BACKOFF);
+        assertThat(hedgingProviderLimits.isHedgingEnabled()).isTrue();
+    }
+
+    @Test
+    void getMaximumBackoff() {
+        assertThat(providerLimits.getMaximumBackoff()).isEqualTo(MAXIMUM_BACKOFF);
+    }
+
+    @Test
+    void ofDefaults() {
+        ProviderLimits defaults = ProviderLimits.ofDefaults();
+        assertThat(defaults.isHedgingEnabled()).isFalse();
+        assertThat(defaults.getMaximumBackoff()).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    private void addRateLimiter(String name, int limitForPeriod) {
+        rateLimiterRegistry.rateLimiter(name, RateLimiterConfig.custom().limitForPeriod(limitForPeriod).build());
+    }
+
+    private static class ProviderWithClient extends TestableProvider {
+        private final String clientName;
+
+        private ProviderWithClient(String clientName) {
+            super();
+            this.clientName = clientName;
+        }
+
+        @Override
+        public Optional<String> getClientName() {
+            return Optional.of(clientName);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package de.cotto.bitbook.backend.request;
+
+import org.junit.jupiter.api.Test;
+
+import static de.cotto.bitbook.backend.request.RequestPriority.LOWEST;
+import static de.cotto.bitbook.backend.request.RequestPriority.MEDIUM;
+import static de.cotto.bitbook.backend.request.RequestPriority.STANDARD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class RequestQueueTest {
+    private final RequestQueue<String, Integer> requestQueue = new RequestQueue<>();
+
+    @Test
+    void empty() {
+        assertThat(requestQueue).isEmpty();
+        assertThat(requestQueue.poll()).isNull();
+        assertThat(requestQueue.peek()).isNull();
+    }
+
+    @Test
+    void polls_by_priority() {
+        PrioritizedRequestWithResult<String, Integer> lowest = request("a", LOWEST);
+        PrioritizedRequestWithResult<String, Integer> standard = request("b", STANDARD);
+        PrioritizedRequestWithResult<String, Integer> medium = request("c", MEDIUM);
+        requestQueue.add(lowest);
+        requestQueue.add(standard);
+        requestQueue.add(medium);
+
+        assertThat(requestQueue.poll()).isSameAs(standard);
+        assertThat(requestQueue.poll()).isSameAs(medium);
+        assertThat(requestQueue.poll()).isSameAs(lowest);
+    }
+
+    @Test
+    void polls_requests_with_same_priority_in_insertion_order() {
+        PrioritizedRequestWithResult<String, Integer> first = request("z", STANDARD);
+        PrioritizedRequestWithResult<String, Integer> second = request("a", STANDARD);
+        requestQueue.add(first);
+        requestQueue.add(second);
+
+        assertThat(requestQueue.poll()).isSameAs(first);
+        assertThat(requestQueue.poll()).isSameAs(second);
+    }
+
+    @Test
+    void peek() {
+        PrioritizedRequestWithResult<String, Integer> request = request("a", STANDARD);
+        requestQueue.add(request);
+        assertThat(requestQueue.peek()).isSameAs(request);
+        assertThat(requestQueue).hasSize(1);
+    }
+
+    @Test
+    void get() {
+        PrioritizedRequestWithResult<String, Integer> request = request("a", STANDARD);
+        requestQueue.add(request);
+        assertThat(requestQueue.get("a")).containsSame(request);
+    }
+
+    @Test
+    void get_unknown_key() {
+        assertThat(requestQueue.get("a")).isEmpty();
+    }
+
+    @Test
+    void get_after_poll() {
+        requestQueue.add(request("a", STANDARD));
+        requestQueue.poll();
+        assertThat(requestQueue.get("a")).isEmpty();
+    }
+
+    @Test
+    void rejects_second_request_for_same_key() {
+        requestQueue.add(request("a", STANDARD));
+        assertThat(requestQueue.offer(request("a", LOWEST))).isFalse();
+        assertThat(requestQueue).hasSize(1);
+    }
+
+    @Test
+    void replace_upgrades_priority() {
+        PrioritizedRequestWithResult<String, Integer> standard = request("b", STANDARD);
+        PrioritizedRequestWithResult<String, Integer> replacement = request("a", STANDARD);
+        requestQueue.add(request("a", LOWEST));
+        requestQueue.add(standard);
+
+        requestQueue.replace(replacement);
+
+        assertThat(requestQueue).hasSize(2);
+        assertThat(requestQueue.get("a")).containsSame(replacement);
+        assertThat(requestQueue.poll()).isSameAs(replacement);
+        assertThat(requestQueue.poll()).isSameAs(standard);
+    }
+
+    @Test
+    void replace_unknown_key() {
+        assertThatIllegalStateException().isThrownBy(() -> requestQueue.replace(request("a", STANDARD)));
+    }
+
+    @Test
+    void remove() {
+        PrioritizedRequestWithResult<String, Integer> request = request("a", STANDARD);
+        requestQueue.add(request);
+        assertThat(requestQueue.remove(request)).isTrue();
+        assertThat(requestQueue).isEmpty();
+        assertThat(requestQueue.get("a")).isEmpty();
+    }
+
+    @Test
+    void remove_other_request_with_same_key() {
+        requestQueue.add(request("a", STANDARD));
+        assertThat(requestQueue.remove(request("a", STANDARD))).isFalse();
+        assertThat(requestQueue).hasSize(1);
+    }
+
+    @Test
+    void remove_unrelated_object() {
+        assertThat(requestQueue.remove("a")).isFalse();
+    }
+
+    @Test
+    void removeIf() {
+        requestQueue.add(request("a", LOWEST));
+        requestQueue.add(request("b", STANDARD));
+        requestQueue.add(request("c", LOWEST));
+
+        requestQueue.removeIf(request -> request.getPriority() == LOWEST);
+
+        assertThat(requestQueue).hasSize(1);
+        assertThat(requestQueue.get("a")).isEmpty();
+        assertThat(requestQueue.get("b")).isPresent();
+        assertThat(requestQueue.get("c")).isEmpty();
+    }
+
+    @Test
+    void clear() {
+        requestQueue.add(request("a", LOWEST));
+        requestQueue.clear();
+        assertThat(requestQueue).isEmpty();
+        assertThat(requestQueue.get("a")).isEmpty();
+    }
+
+    @Test
+    void can_add_key_again_after_removal() {
+        requestQueue.add(request("a", LOWEST));
+        requestQueue.clear();
+        assertThat(requestQueue.offer(request("a", LOWEST))).isTrue();
+    }
+
+    private PrioritizedRequestWithResult<String, Integer> request(String key, RequestPriority priority) {
+        return new PrioritizedRequestWithResult<>(key, priority);
+    }
+}
@@ -3,9 +3,12 @@ package de.cotto.bitbook.backend.request;
 import com.github.valfirst.slf4jtest.TestLogger;
 import com.github.valfirst.slf4jtest.TestLoggerFactory;
 import de.cotto.bitbook.backend.model.ProviderException;
+import de.cotto.bitbook.backend.model.TestableBatchProvider;
 import de.cotto.bitbook.backend.model.TestableProvider;
 import feign.FeignException;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,15 +17,28 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.github.valfirst.slf4jtest.LoggingEvent.debug;
 import static com.github.valfirst.slf4jtest.LoggingEvent.error;
 import static com.github.valfirst.slf4jtest.LoggingEvent.warn;
+import static de.cotto.bitbook.backend.request.RequestPriority.LOWEST;
+import static de.cotto.bitbook.backend.request.RequestPriority.STANDARD;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -33,7 +49,10 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class RequestWorkerTest {
     private static final String KEY = "xxx";
+    private static final String SLOW_KEY = "slow";
+    private static final ProviderLimits PROVIDER_LIMITS = ProviderLimits.ofDefaults();
     private final TestLogger logger = TestLoggerFactory.getTestLogger(RequestWorker.class);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
     private RequestWorker<String, Integer> requestWorker;
 
@@ -45,7 +64,255 @@ class RequestWorkerTest {
         logger.clearAll();
         provider1 = spy(new TestableProvider());
         provider2 = spy(new TestableProvider());
-        requestWorker = new RequestWorker<>(List.of(provider1, provider2));
+        requestWorker = new RequestWorker<>(List.of(provider1, provider2), PROVIDER_LIMITS);
+    }
+
+    @Test
+    void getConcurrencyLimit() {
+        assertThat(requestWorker.getConcurrencyLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void getConcurrencyLimit_without_providers() {
+        assertThat(new RequestWorker<>(List.of(), PROVIDER_LIMITS).getConcurrencyLimit()).isEqualTo(1);
+    }
+
+    @Test
+    void runs_started_callback() throws Exception {
+        AtomicBoolean started = new AtomicBoolean();
+        requestWorker.getNow(KEY, STANDARD, () -> started.set(true));
+        assertThat(started).isTrue();
+    }
+
+    @Test
+    void uses_second_provider_while_first_provider_is_busy() throws Exception {
+        Future<Optional<Integer>> busyRequest = executor.submit(() -> requestWorker.getNow("wait"));
+        await().atMost(1, SECONDS).until(() -> provider1.seenKeys.contains("wait"));
+
+        Optional<Integer> result = requestWorker.getNow(KEY);
+
+        assertThat(result).contains(3);
+        verify(provider1, never()).get(KEY);
+        verify(provider2).get(KEY);
+        assertThat(busyRequest.get(1, SECONDS)).contains(4);
+    }
+
+    @Test
+    void waits_for_busy_provider_if_other_providers_fail() throws Exception {
+        when(provider2.get(KEY)).thenThrow(mock(FeignException.class));
+        Future<Optional<Integer>> busyRequest = executor.submit(() -> requestWorker.getNow("wait"));
+        await().atMost(1, SECONDS).until(() -> provider1.seenKeys.contains("wait"));
+
+        Optional<Integer> result = requestWorker.getNow(KEY);
+
+        assertThat(result).contains(3);
+        verify(provider1).get(KEY);
+        assertThat(busyRequest.get(1, SECONDS)).contains(4);
+    }
+
+    @Test
+    void skips_unavailable_provider() throws Exception {
+        ProviderLimits providerLimits = mockProviderLimits();
+        when(providerLimits.getWaitTime(provider1)).thenReturn(Duration.ofSeconds(10));
+        RequestWorker<String, Integer> worker = new RequestWorker<>(List.of(provider1, provider2), providerLimits);
+
+        Optional<Integer> result = worker.getNow(KEY);
+
+        assertThat(result).contains(3);
+        verifyUsesOnlySecondProvider();
+    }
+
+    @Test
+    void waits_for_unavailable_provider() throws Exception {
+        ProviderLimits providerLimits = mockProviderLimits();
+        when(providerLimits.getWaitTime(provider1)).thenReturn(Duration.ofMillis(100), Duration.ZERO);
+        when(providerLimits.getWaitTime(provider2)).thenReturn(Duration.ofSeconds(10));
+        RequestWorker<String, Integer> worker = new RequestWorker<>(List.of(provider1, provider2), providerLimits);
+
+        Optional<Integer> result = worker.getNow(KEY);
+
+        assertThat(result).contains(3);
+        verifyUsesOnlyFirstProvider();
+    }
+
+    @Test
+    void does_not_wait_too_long_for_unavailable_providers() {
+        ProviderLimits providerLimits = mockProviderLimits();
+        when(providerLimits.getWaitTime(any())).thenReturn(Duration.ofMinutes(5));
+        RequestWorker<String, Integer> worker = new RequestWorker<>(List.of(provider1, provider2), providerLimits);
+
+        assertThatExceptionOfType(AllProvidersFailedException.class).isThrownBy(() -> worker.getNow(KEY));
+        assertThat(provider1.seenKeys).isEmpty();
+        assertThat(provider2.seenKeys).isEmpty();
+    }
+
+    @Test
+    void getAllNow_skips_unavailable_batch_provider() {
+        ProviderLimits providerLimits = mockProviderLimits();
+        TestableBatchProvider batchProvider = new TestableBatchProvider();
+        when(providerLimits.getWaitTime(batchProvider)).thenReturn(Duration.ofSeconds(10));
+        RequestWorker<String, Integer> worker = new RequestWorker<>(List.of(batchProvider), providerLimits);
+
+        Map<String, Integer> result = worker.getAllNow(Set.of("a", "b"), () -> {
+        });
+
+        assertThat(result).isEmpty();
+        assertThat(batchProvider.seenBatches).isEmpty();
+    }
+
+    @Test
+    void getMaximumBatchSize_without_batch_provider() {
+        assertThat(requestWorker.getMaximumBatchSize()).isEqualTo(1);
+    }
+
+    @Test
+    void getMaximumBatchSize() {
+        assertThat(createBatchWorker().getMaximumBatchSize()).isEqualTo(3);
+    }
+
+    @Test
+    void isBatchSupported_without_batch_provider() {
+        assertThat(requestWorker.isBatchSupported(KEY)).isFalse();
+    }
+
+    @Test
+    void isBatchSupported() {
+        assertThat(createBatchWorker().isBatchSupported(KEY)).isTrue();
+    }
+
+    @Test
+    void isBatchSupported_unsupported_key() {
+        assertThat(createBatchWorker().isBatchSupported("unsupported")).isFalse();
+    }
+
+    @Test
+    void getAllNow() {
+        TestableBatchProvider batchProvider = new TestableBatchProvider();
+        RequestWorker<String, Integer> batchWorker = new RequestWorker<>(List.of(batchProvider), PROVIDER_LIMITS);
+
+        Map<String, Integer> result = batchWorker.getAllNow(Set.of("a", "bb", ""), () -> {
+        });
+
+        assertThat(result).containsOnly(Map.entry("a", 1), Map.entry("bb", 2));
+        assertThat(batchProvider.seenBatches).containsExactly(Set.of("a", "bb", ""));
+    }
+
+    @Test
+    void getAllNow_runs_started_callback() {
+        AtomicBoolean started = new AtomicBoolean();
+        createBatchWorker().getAllNow(Set.of("a"), () -> started.set(true));
+        assertThat(started).isTrue();
+    }
+
+    @Test
+    void getAllNow_without_batch_provider() {
+        Map<String, Integer> result = requestWorker.getAllNow(Set.of("a", "b"), () -> {
+        });
+        assertThat(result).isEmpty();
+        assertThat(provider1.seenKeys).isEmpty();
+    }
+
+    @Test
+    void getAllNow_too_many_keys() {
+        Map<String, Integer> result = createBatchWorker().getAllNow(Set.of("a", "b", "c", "d"), () -> {
+        });
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void getAllNow_batch_provider_fails() throws Exception {
+        TestableBatchProvider batchProvider = spy(new TestableBatchProvider());
+        doThrow(ProviderException.class).when(batchProvider).getAll(any());
+        RequestWorker<String, Integer> batchWorker = new RequestWorker<>(List.of(batchProvider), PROVIDER_LIMITS);
+
+        Map<String, Integer> result = batchWorker.getAllNow(Set.of("a", "b"), () -> {
+        });
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void hedges_slow_request() throws Exception {
+        RequestWorker<String, Integer> hedgingWorker = createHedgingWorker();
+        collectLatencySamples(hedgingWorker);
+        makeFirstProviderSlow(1_000);
+
+        Optional<Integer> result = hedgingWorker.getNow(SLOW_KEY, STANDARD, () -> {
+        });
+
+        assertThat(result).contains(4);
+        verify(provider2).get(SLOW_KEY);
+    }
+
+    @Test
+    void hedging_uses_slow_result_if_other_provider_fails() throws Exception {
+        RequestWorker<String, Integer> hedgingWorker = createHedgingWorker();
+        collectLatencySamples(hedgingWorker);
+        makeFirstProviderSlow(300);
+        doThrow(ProviderException.class).when(provider2).get(SLOW_KEY);
+
+        Optional<Integer> result = hedgingWorker.getNow(SLOW_KEY, STANDARD, () -> {
+        });
+
+        assertThat(result).contains(1);
+    }
+
+    @Test
+    void close_interrupts_hedged_request() throws Exception {
+        RequestWorker<String, Integer> hedgingWorker = createHedgingWorker();
+        collectLatencySamples(hedgingWorker);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        doAnswer(invocation -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException exception) {
+                interrupted.set(true);
+            }
+            return Optional.of(1);
+        }).when(provider1).get(SLOW_KEY);
+        hedgingWorker.getNow(SLOW_KEY, STANDARD, () -> {
+        });
+
+        hedgingWorker.close();
+
+        await().atMost(1, SECONDS).untilTrue(interrupted);
+    }
+
+    @Test
+    void does_not_hedge_lowest_priority_request() throws Exception {
+        RequestWorker<String, Integer> hedgingWorker = createHedgingWorker();
+        collectLatencySamples(hedgingWorker);
+        makeFirstProviderSlow(300);
+
+        Optional<Integer> result = hedgingWorker.getNow(SLOW_KEY, LOWEST, () -> {
+        });
+
+        assertThat(result).contains(1);
+        verify(provider2, never()).get(any());
+    }
+
+    @Test
+    void does_not_hedge_without_latency_samples() throws Exception {
+        RequestWorker<String, Integer> hedgingWorker = createHedgingWorker();
+        makeFirstProviderSlow(300);
+
+        Optional<Integer> result = hedgingWorker.getNow(SLOW_KEY, STANDARD, () -> {
+        });
+
+        assertThat(result).contains(1);
+        verify(provider2, never()).get(any());
+    }
+
+    @Test
+    void does_not_hedge_if_disabled() throws Exception {
+        collectLatencySamples(requestWorker);
+        makeFirstProviderSlow(300);
+
+        Optional<Integer> result = requestWorker.getNow(SLOW_KEY, STANDARD, () -> {
+        });
+
+        assertThat(result).contains(1);
+        verify(provider2, never()).get(any());
     }
 
     @Test
@@ -260,13 +527,13 @@ class RequestWorkerTest {
     }
 
     @Test
-    void only_consider_last_five_requests() throws Exception {
+    void resetScores() throws Exception {
         when(provider1.get(any())).thenThrow(mock(FeignException.class));
-        when(provider2.get(any())).thenCallRealMethod().thenThrow(mock(FeignException.class));
-        request(7);
+        get();
+        requestWorker.resetScores();
+        request(1);
 
-        verify(provider1).get(KEY);
-        verify(provider2, never()).get(any());
+        verifyUsesOnlyFirstProvider();
     }
 
     private void assertWarnAndDebugLogs(
@@ -319,4 +586,39 @@ class RequestWorkerTest {
         verify(provider2).get(KEY);
         verify(provider1, never()).get(any());
     }
+
+    private ProviderLimits mockProviderLimits() {
+        ProviderLimits providerLimits = mock(ProviderLimits.class);
+        when(providerLimits.getConcurrencyLimit(any())).thenReturn(1);
+        lenient().when(providerLimits.getWaitTime(any())).thenReturn(Duration.ZERO);
+        return providerLimits;
+    }
+
+    private RequestWorker<String, Integer> createBatchWorker() {
+        return new RequestWorker<>(List.of(provider1, new TestableBatchProvider()), PROVIDER_LIMITS);
+    }
+
+    private RequestWorker<String, Integer> createHedgingWorker() {
+        ProviderLimits providerLimits = new ProviderLimits(
+                RateLimiterRegistry.ofDefaults(),
+                CircuitBreakerRegistry.ofDefaults(),
+                true,
+                Duration.ofMinutes(1)
+        );
+        return new RequestWorker<>(List.of(provider1, provider2), providerLimits);
+    }
+
+    private void collectLatencySamples(RequestWorker<String, Integer> worker) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            worker.getNow(KEY, STANDARD, () -> {
+            });
+        }
+    }
+
+    private void makeFirstProviderSlow(long milliseconds) throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(milliseconds);
+            return Optional.of(1);
+        }).when(provider1).get(SLOW_KEY);
+    }
 }
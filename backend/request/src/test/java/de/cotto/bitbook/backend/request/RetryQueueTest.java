@@ -0,0 +1,105 @@
+package de.cotto.bitbook.backend.request;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static de.cotto.bitbook.backend.request.RequestPriority.LOWEST;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryQueueTest {
+    private static final Duration MAXIMUM_BACKOFF = Duration.ofSeconds(10);
+
+    private final RetryQueue<String, Integer> dueRetryQueue = new RetryQueue<>(Duration.ZERO, Duration.ZERO);
+    private final RetryQueue<String, Integer> retryQueue = new RetryQueue<>(Duration.ofHours(1), Duration.ofHours(1));
+
+    @Test
+    void empty() {
+        assertThat(retryQueue.size()).isZero();
+        assertThat(retryQueue.pollDueRequests()).isEmpty();
+    }
+
+    @Test
+    void add() {
+        assertThat(retryQueue.add(request("a"))).isTrue();
+        assertThat(retryQueue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void pollDueRequests_request_not_due() {
+        retryQueue.add(request("a"));
+        assertThat(retryQueue.pollDueRequests()).isEmpty();
+        assertThat(retryQueue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void pollDueRequests() {
+        PrioritizedRequestWithResult<String, Integer> request = request("a");
+        dueRetryQueue.add(request);
+        assertThat(dueRetryQueue.pollDueRequests()).containsExactly(request);
+        assertThat(dueRetryQueue.size()).isZero();
+    }
+
+    @Test
+    void add_gives_up_after_ten_failed_attempts() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(dueRetryQueue.add(request("a"))).isTrue();
+        }
+        assertThat(dueRetryQueue.add(request("a"))).isFalse();
+    }
+
+    @Test
+    void add_counts_again_after_giving_up() {
+        for (int i = 0; i < 11; i++) {
+            dueRetryQueue.add(request("a"));
+        }
+        assertThat(dueRetryQueue.add(request("a"))).isTrue();
+    }
+
+    @Test
+    void add_counts_attempts_per_key() {
+        for (int i = 0; i < 10; i++) {
+            dueRetryQueue.add(request("a"));
+        }
+        assertThat(dueRetryQueue.add(request("b"))).isTrue();
+    }
+
+    @Test
+    void resetAttempts() {
+        for (int i = 0; i < 10; i++) {
+            dueRetryQueue.add(request("a"));
+        }
+        dueRetryQueue.resetAttempts("a");
+        assertThat(dueRetryQueue.add(request("a"))).isTrue();
+    }
+
+    @Test
+    void getBackoff_grows_exponentially() {
+        RetryQueue<String, Integer> queue = new RetryQueue<>(Duration.ofSeconds(1), MAXIMUM_BACKOFF);
+        assertThat(queue.getBackoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(queue.getBackoff(2)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(queue.getBackoff(3)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(queue.getBackoff(4)).isEqualTo(Duration.ofSeconds(8));
+    }
+
+    @Test
+    void getBackoff_is_capped() {
+        RetryQueue<String, Integer> queue = new RetryQueue<>(Duration.ofSeconds(1), MAXIMUM_BACKOFF);
+        assertThat(queue.getBackoff(5)).isEqualTo(MAXIMUM_BACKOFF);
+        assertThat(queue.getBackoff(1_000)).isEqualTo(MAXIMUM_BACKOFF);
+    }
+
+    @Test
+    void clear() {
+        for (int i = 0; i < 10; i++) {
+            retryQueue.add(request("a"));
+        }
+        retryQueue.clear();
+        assertThat(retryQueue.size()).isZero();
+        assertThat(retryQueue.add(request("a"))).isTrue();
+    }
+
+    private PrioritizedRequestWithResult<String, Integer> request(String key) {
+        return new PrioritizedRequestWithResult<>(key, LOWEST);
+    }
+}
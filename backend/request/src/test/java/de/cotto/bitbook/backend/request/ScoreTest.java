@@ -1,63 +1,165 @@
 package de.cotto.bitbook.backend.request;
 
-import nl.jqno.equalsverifier.EqualsVerifier;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 class ScoreTest {
+    private final Score score = new Score();
+
     @Test
-    void add() {
-        Score scoreOne = new Score(100).add(new ScoreUpdate(200));
-        Score scoreTwo = new Score(100).add(new ScoreUpdate(200));
-        assertThat(scoreOne).isEqualTo(scoreTwo);
+    void initial_values() {
+        assertThat(score.getCost()).isEqualTo(0.0);
+        assertThat(score.getLatency()).isEqualTo(0.0);
+        assertThat(score.getSuccessRate()).isEqualTo(1.0);
+        assertThat(score.getFailureRate()).isEqualTo(0.0);
     }
 
     @Test
-    void add_same_sum_different_list() {
-        Score scoreOne = new Score(100).add(new ScoreUpdate(200));
-        Score scoreTwo = new Score(200).add(new ScoreUpdate(100));
-        assertThat(scoreOne).isNotEqualTo(scoreTwo);
+    void addSuccess() {
+        score.addSuccess(100);
+        assertThat(score.getCost()).isEqualTo(30.0, within(0.001));
+        assertThat(score.getLatency()).isEqualTo(30.0, within(0.001));
+        assertThat(score.getSuccessRate()).isEqualTo(1.0);
     }
 
     @Test
-    void add_four_values() {
-        Score fiveAdditions = new Score(100)
-                .add(new ScoreUpdate(1))
-                .add(new ScoreUpdate(1))
-                .add(new ScoreUpdate(1))
-                .add(new ScoreUpdate(1));
-        assertThat(fiveAdditions.compareTo(new Score(104))).isEqualTo(0);
+    void addFailure() {
+        score.addFailure(ScoreUpdate.RATE_LIMITED);
+        assertThat(score.getCost()).isEqualTo(450.0, within(0.001));
+        assertThat(score.getLatency()).isEqualTo(0.0);
+        assertThat(score.getSuccessRate()).isEqualTo(0.7, within(0.001));
+        assertThat(score.getFailureRate()).isEqualTo(0.3, within(0.001));
     }
 
     @Test
-    void add_five_values_drops_first() {
-        Score fiveAdditions = new Score(100)
-                .add(new ScoreUpdate(1))
-                .add(new ScoreUpdate(1))
-                .add(new ScoreUpdate(1))
-                .add(new ScoreUpdate(1))
-                .add(new ScoreUpdate(1));
-        assertThat(fiveAdditions.compareTo(new Score(5))).isEqualTo(0);
+    void converges_to_repeated_value() {
+        for (int i = 0; i < 50; i++) {
+            score.addSuccess(200);
+        }
+        assertThat(score.getCost()).isEqualTo(200.0, within(0.01));
+        assertThat(score.getLatency()).isEqualTo(200.0, within(0.01));
     }
 
     @Test
-    void compare_lower_is_better() {
-        assertThat(new Score(100).compareTo(new Score(200))).isLessThan(0);
+    void old_failures_decay() {
+        score.addFailure(ScoreUpdate.UNKNOWN_EXCEPTION);
+        for (int i = 0; i < 10; i++) {
+            score.addSuccess(100);
+        }
+        assertThat(score.getCost()).isLessThan(150.0);
+        assertThat(score.getSuccessRate()).isGreaterThan(0.95);
     }
 
     @Test
-    void compare_order_does_not_matter() {
-        assertThat(new Score(100).compareTo(new Score(40).add(new ScoreUpdate(60)))).isEqualTo(0);
+    void recent_values_have_more_weight() {
+        Score other = new Score();
+        score.addSuccess(100);
+        score.addSuccess(200);
+        other.addSuccess(200);
+        other.addSuccess(100);
+        assertThat(score.getCost()).isGreaterThan(other.getCost());
     }
 
     @Test
-    void testToString() {
-        assertThat(new Score(100)).hasToString("Score{list=[100]}");
+    void fast_success_is_better_than_slow_success() {
+        Score slow = new Score();
+        score.addSuccess(100);
+        slow.addSuccess(1_000);
+        assertThat(score.getCost()).isLessThan(slow.getCost());
+    }
+
+    @Test
+    void slow_success_is_better_than_rate_limited() {
+        Score rateLimited = new Score();
+        score.addSuccess(1_000);
+        rateLimited.addFailure(ScoreUpdate.RATE_LIMITED);
+        assertThat(score.getCost()).isLessThan(rateLimited.getCost());
+    }
+
+    @Test
+    void latencyPercentile90_requires_some_samples() {
+        for (int i = 0; i < 4; i++) {
+            score.addSuccess(100);
+        }
+        assertThat(score.getLatencyPercentile90()).isEmpty();
+    }
+
+    @Test
+    void latencyPercentile90_for_constant_latency() {
+        for (int i = 0; i < 50; i++) {
+            score.addSuccess(200);
+        }
+        assertThat(score.getLatencyPercentile90().orElseThrow()).isEqualTo(200.0, within(0.1));
+    }
+
+    @Test
+    void latencyPercentile90_for_varying_latency() {
+        for (int i = 0; i < 50; i++) {
+            score.addSuccess(100);
+            score.addSuccess(300);
+        }
+        assertThat(score.getLatencyPercentile90().orElseThrow()).isGreaterThan(score.getLatency() + 50);
+    }
+
+    @Test
+    void latencyPercentile90_ignores_failures() {
+        for (int i = 0; i < 5; i++) {
+            score.addFailure(ScoreUpdate.RATE_LIMITED);
+        }
+        assertThat(score.getLatencyPercentile90()).isEmpty();
+    }
+
+    @Test
+    void material_change() {
+        assertThat(score.addSuccess(100)).isTrue();
+    }
+
+    @Test
+    void no_material_change() {
+        score.addSuccess(100);
+        score.snapshotCost();
+        assertThat(score.addSuccess(31)).isFalse();
+    }
+
+    @Test
+    void small_changes_add_up_to_material_change() {
+        score.addSuccess(100);
+        score.snapshotCost();
+        assertThat(score.addSuccess(35)).isFalse();
+        assertThat(score.addSuccess(35)).isFalse();
+        assertThat(score.addSuccess(35)).isTrue();
+    }
+
+    @Test
+    void snapshotCost() {
+        score.addSuccess(100);
+        assertThat(score.snapshotCost()).isEqualTo(score.getCost());
+    }
+
+    @Test
+    void reset() {
+        score.addFailure(ScoreUpdate.UNKNOWN_EXCEPTION);
+        score.snapshotCost();
+        score.reset();
+        assertThat(score.getCost()).isEqualTo(0.0);
+        assertThat(score.getSuccessRate()).isEqualTo(1.0);
+        assertThat(score.addSuccess(10)).isTrue();
     }
 
     @Test
-    void testEquals() {
-        EqualsVerifier.forClass(Score.class).usingGetClass().verify();
+    void reset_removes_latency_samples() {
+        for (int i = 0; i < 5; i++) {
+            score.addSuccess(100);
+        }
+        score.reset();
+        assertThat(score.getLatencyPercentile90()).isEmpty();
+    }
+
+    @Test
+    void testToString() {
+        score.addSuccess(10);
+        assertThat(score).hasToString("Score{cost=3.0, latency=3.0, successRate=1.0}");
     }
-}
\ No newline at end of file
+}
@@ -27,14 +27,4 @@ class ScoreUpdateTest {
         assertThat(ScoreUpdate.forHttpStatus(0).getValue())
                 .isLessThan(ScoreUpdate.forHttpStatus(HttpStatus.TOO_MANY_REQUESTS.value()).getValue());
     }
-
-    @Test
-    void fast_success_smallerThan_slow_success() {
-        assertThat(ScoreUpdate.forSuccess(100).getValue()).isLessThan(ScoreUpdate.forSuccess(1_000).getValue());
-    }
-
-    @Test
-    void slow_success_smallerThan_rate_limited() {
-        assertThat(ScoreUpdate.forSuccess(1_000).getValue()).isLessThan(ScoreUpdate.RATE_LIMITED.getValue());
-    }
 }
\ No newline at end of file
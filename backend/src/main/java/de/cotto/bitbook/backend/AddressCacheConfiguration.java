@@ -0,0 +1,16 @@
+package de.cotto.bitbook.backend;
+
+import de.cotto.bitbook.backend.model.NormalizedAddresses;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AddressCacheConfiguration {
+    public AddressCacheConfiguration(@Value("${bitbook.addresses.cache.maximum-size:0}") long maximumSize) {
+        if (maximumSize > 0) {
+            NormalizedAddresses.enableCache(maximumSize);
+        } else {
+            NormalizedAddresses.disableCache();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package de.cotto.bitbook.backend;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Defines the executors for background requests. Background requests for transactions wait for the providers, which
+ * may take a long time. Background price requests run on a separate executor, so that they are not stuck behind these
+ * requests.
+ */
+@Configuration
+public class AsyncConfiguration {
+    public static final String BACKGROUND_TASK_EXECUTOR = "backgroundTaskExecutor";
+    public static final String PRICE_TASK_EXECUTOR = "priceTaskExecutor";
+
+    private final int threads;
+    private final int priceThreads;
+    private final int queueCapacity;
+
+    public AsyncConfiguration(
+            @Value("${bitbook.background.threads:8}") int threads,
+            @Value("${bitbook.background.price-threads:2}") int priceThreads,
+            @Value("${bitbook.background.queue-capacity:10000}") int queueCapacity
+    ) {
+        this.threads = threads;
+        this.priceThreads = priceThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Bean(BACKGROUND_TASK_EXECUTOR)
+    public BackgroundTaskExecutor backgroundTaskExecutor() {
+        return new BackgroundTaskExecutor("BackgroundTask", threads, queueCapacity);
+    }
+
+    @Bean(PRICE_TASK_EXECUTOR)
+    public BackgroundTaskExecutor priceTaskExecutor() {
+        return new BackgroundTaskExecutor("PriceTask", priceThreads, queueCapacity);
+    }
+}
@@ -0,0 +1,126 @@
+package de.cotto.bitbook.backend;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Bounded executor for background work. Background work is optional, so that tasks which do not fit into the queue are
+ * dropped (and logged) instead of blocking the caller.
+ */
+public class BackgroundTaskExecutor implements Executor {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final Set<Object> queuedKeys;
+    private final AtomicLong rejectedTasks;
+    private final AtomicLong coalescedTasks;
+
+    public BackgroundTaskExecutor(String name, int threads, int queueCapacity) {
+        this.name = name;
+        queuedKeys = ConcurrentHashMap.newKeySet();
+        rejectedTasks = new AtomicLong();
+        coalescedTasks = new AtomicLong();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(name + "-");
+        threadFactory.setDaemon(true);
+        executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                KEEP_ALIVE_SECONDS,
+                SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                threadFactory,
+                (task, rejectingExecutor) -> onRejected(task)
+        );
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Adds the task unless a task with the same key is still waiting in the queue. A task with the same key added
+     * after the queued task was started is executed again.
+     */
+    public void executeUnique(Object key, Runnable task) {
+        if (!queuedKeys.add(key)) {
+            coalescedTasks.incrementAndGet();
+            return;
+        }
+        executor.execute(new UniqueTask(key, task));
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getRejectedCount() {
+        return rejectedTasks.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedTasks.get();
+    }
+
+    @Scheduled(fixedRate = 5_000)
+    public void logStatus() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("{}: {} queued, {} running, {} coalesced, {} dropped",
+                    name, getQueueSize(), getActiveCount(), getCoalescedCount(), getRejectedCount());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void onRejected(Runnable task) {
+        rejectedTasks.incrementAndGet();
+        if (task instanceof UniqueTask uniqueTask) {
+            queuedKeys.remove(uniqueTask.key);
+            logger.warn("{}: the queue is full, dropping task for {}", name, uniqueTask.key);
+            return;
+        }
+        logger.warn("{}: the queue is full, dropping task", name);
+    }
+
+    private class UniqueTask implements Runnable {
+        private final Object key;
+        private final Runnable task;
+
+        public UniqueTask(Object key, Runnable task) {
+            this.key = key;
+            this.task = task;
+        }
+
+        @Override
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        public void run() {
+            queuedKeys.remove(key);
+            try {
+                task.run();
+            } catch (RuntimeException exception) {
+                logger.error("Unexpected exception in background task for {}: ", key, exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package de.cotto.bitbook.backend;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.NormalizedAddresses;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AddressCacheConfigurationTest {
+    private static final String ADDRESS = "1BpEi6DfDAUFd7GtittLSdBeYJvcoaVggu";
+
+    @AfterEach
+    void tearDown() {
+        NormalizedAddresses.disableCache();
+    }
+
+    @Test
+    void enables_cache() {
+        new AddressCacheConfiguration(10);
+        assertThat(new Address(copy()).address()).isSameAs(new Address(copy()).address());
+    }
+
+    @Test
+    void cache_disabled_for_zero() {
+        new AddressCacheConfiguration(0);
+        assertThat(new Address(copy()).address()).isNotSameAs(new Address(copy()).address());
+    }
+
+    private String copy() {
+        return new String(ADDRESS.toCharArray());
+    }
+}
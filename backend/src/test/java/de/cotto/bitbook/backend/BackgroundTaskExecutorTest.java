@@ -0,0 +1,130 @@
+package de.cotto.bitbook.backend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BackgroundTaskExecutorTest {
+    private final BackgroundTaskExecutor executor = new BackgroundTaskExecutor("Test", 1, 2);
+    private final CountDownLatch blocker = new CountDownLatch(1);
+    private final AtomicInteger executedTasks = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        blocker.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void executes_task() {
+        executor.execute(executedTasks::incrementAndGet);
+        await().atMost(1, SECONDS).until(() -> executedTasks.get() == 1);
+    }
+
+    @Test
+    void queues_tasks_while_busy() {
+        blockWorker();
+        executor.execute(executedTasks::incrementAndGet);
+        executor.execute(executedTasks::incrementAndGet);
+
+        assertThat(executor.getQueueSize()).isEqualTo(2);
+        assertThat(executor.getActiveCount()).isEqualTo(1);
+        blocker.countDown();
+        await().atMost(1, SECONDS).until(() -> executedTasks.get() == 2);
+    }
+
+    @Test
+    void drops_tasks_if_queue_is_full() {
+        blockWorker();
+        executor.execute(executedTasks::incrementAndGet);
+        executor.execute(executedTasks::incrementAndGet);
+        executor.execute(executedTasks::incrementAndGet);
+
+        assertThat(executor.getQueueSize()).isEqualTo(2);
+        assertThat(executor.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void executeUnique_coalesces_queued_tasks_with_same_key() {
+        blockWorker();
+        executor.executeUnique("a", executedTasks::incrementAndGet);
+        executor.executeUnique("a", executedTasks::incrementAndGet);
+
+        assertThat(executor.getQueueSize()).isEqualTo(1);
+        assertThat(executor.getCoalescedCount()).isEqualTo(1);
+        blocker.countDown();
+        await().atMost(1, SECONDS).until(() -> executedTasks.get() == 1);
+    }
+
+    @Test
+    void executeUnique_different_keys() {
+        blockWorker();
+        executor.executeUnique("a", executedTasks::incrementAndGet);
+        executor.executeUnique("b", executedTasks::incrementAndGet);
+
+        assertThat(executor.getQueueSize()).isEqualTo(2);
+        assertThat(executor.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    void executeUnique_executes_again_after_task_was_started() {
+        executor.executeUnique("a", executedTasks::incrementAndGet);
+        await().atMost(1, SECONDS).until(() -> executedTasks.get() == 1);
+
+        executor.executeUnique("a", executedTasks::incrementAndGet);
+        await().atMost(1, SECONDS).until(() -> executedTasks.get() == 2);
+    }
+
+    @Test
+    void executeUnique_accepts_key_again_after_task_was_dropped() {
+        blockWorker();
+        executor.execute(executedTasks::incrementAndGet);
+        executor.execute(executedTasks::incrementAndGet);
+        executor.executeUnique("a", executedTasks::incrementAndGet);
+        assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+        blocker.countDown();
+        await().atMost(1, SECONDS).until(() -> executor.getQueueSize() == 0);
+        executor.executeUnique("a", executedTasks::incrementAndGet);
+        assertThat(executor.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    void executeUnique_continues_after_exception() {
+        executor.executeUnique("a", () -> {
+            throw new IllegalStateException();
+        });
+        executor.executeUnique("b", executedTasks::incrementAndGet);
+        await().atMost(1, SECONDS).until(() -> executedTasks.get() == 1);
+    }
+
+    @Test
+    void logStatus() {
+        blockWorker();
+        executor.execute(executedTasks::incrementAndGet);
+        executor.execute(executedTasks::incrementAndGet);
+        executor.execute(executedTasks::incrementAndGet);
+        executor.logStatus();
+        executor.logStatus();
+        assertThat(executor.getRejectedCount()).isEqualTo(1);
+    }
+
+    private void blockWorker() {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        await().atMost(1, SECONDS).until(() -> started.getCount() == 0);
+    }
+}
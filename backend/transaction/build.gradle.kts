@@ -1,5 +1,6 @@
 plugins {
     id("bitbook.java-library-conventions")
+    id("me.champeau.jmh") version "0.7.1"
 }
 
 dependencies {
@@ -0,0 +1,85 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Base58Address;
+import de.cotto.bitbook.backend.model.Chain;
+import de.cotto.bitbook.backend.model.Coins;
+import de.cotto.bitbook.backend.model.HexString;
+import de.cotto.bitbook.backend.model.Input;
+import de.cotto.bitbook.backend.model.NormalizedAddresses;
+import de.cotto.bitbook.backend.model.Output;
+import de.cotto.bitbook.backend.model.Transaction;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionJpaDtoBenchmark {
+    private static final int NUMBER_OF_OUTPUTS = 1_000;
+    private static final Coins OUTPUT_VALUE = Coins.ofSatoshis(1_000);
+    private static final Coins FEES = Coins.ofSatoshis(500);
+
+    @Param({"0", "100000"})
+    public long addressCacheSize;
+
+    private TransactionJpaDto transactionJpaDto;
+
+    public TransactionJpaDtoBenchmark() {
+        // default constructor
+    }
+
+    @Setup
+    public void setUp() {
+        if (addressCacheSize > 0) {
+            NormalizedAddresses.enableCache(addressCacheSize);
+        } else {
+            NormalizedAddresses.disableCache();
+        }
+        List<Output> outputs = IntStream.range(0, NUMBER_OF_OUTPUTS)
+                .mapToObj(i -> new HexString(String.format("%040x", i)))
+                .map(hash -> new Output(OUTPUT_VALUE, new Address(Base58Address.createP2Pkh(hash))))
+                .toList();
+        Coins inputValue = Coins.ofSatoshis(NUMBER_OF_OUTPUTS * OUTPUT_VALUE.satoshis()).add(FEES);
+        Input input = new Input(inputValue, new Address("bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdq"));
+        Transaction transaction = new Transaction(
+                new TransactionHash(String.format("%064x", 1)),
+                700_000,
+                LocalDateTime.of(2021, 9, 1, 12, 0),
+                FEES,
+                List.of(input),
+                outputs,
+                Chain.BTC
+        );
+        transactionJpaDto = TransactionJpaDto.fromModel(transaction);
+    }
+
+    @TearDown
+    public void tearDown() {
+        NormalizedAddresses.disableCache();
+    }
+
+    @Benchmark
+    public Transaction toModel() {
+        return transactionJpaDto.toModel();
+    }
+}
@@ -1,13 +1,18 @@
 package de.cotto.bitbook.backend.transaction;
 
+import de.cotto.bitbook.backend.AsyncConfiguration;
+import de.cotto.bitbook.backend.BackgroundTaskExecutor;
 import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.model.AddressTransactions;
 import de.cotto.bitbook.backend.model.Chain;
 import de.cotto.bitbook.backend.request.RequestPriority;
 import de.cotto.bitbook.backend.request.ResultFuture;
-import org.springframework.scheduling.annotation.Async;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
@@ -16,32 +21,72 @@ import static java.util.stream.Collectors.toSet;
 
 @Component
 public class AddressTransactionsService {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
     private final PrioritizingAddressTransactionsProvider addressTransactionsProvider;
     private final TransactionService transactionService;
     private final AddressTransactionsDao addressTransactionsDao;
     private final BlockHeightService blockHeightService;
     private final TransactionUpdateHeuristics transactionUpdateHeuristics;
+    private final BackgroundRequestDao backgroundRequestDao;
+    private final AddressUpdateTracker addressUpdateTracker;
+    private final List<AddressSubscriber> addressSubscribers;
+    private final BackgroundTaskExecutor backgroundTaskExecutor;
 
     public AddressTransactionsService(
             PrioritizingAddressTransactionsProvider addressTransactionsProvider,
             TransactionService transactionService,
             AddressTransactionsDao addressTransactionsDao,
             BlockHeightService blockHeightService,
-            TransactionUpdateHeuristics transactionUpdateHeuristics
+            TransactionUpdateHeuristics transactionUpdateHeuristics,
+            BackgroundRequestDao backgroundRequestDao,
+            AddressUpdateTracker addressUpdateTracker,
+            List<AddressSubscriber> addressSubscribers,
+            @Qualifier(AsyncConfiguration.BACKGROUND_TASK_EXECUTOR) BackgroundTaskExecutor backgroundTaskExecutor
     ) {
         this.addressTransactionsProvider = addressTransactionsProvider;
         this.transactionService = transactionService;
         this.addressTransactionsDao = addressTransactionsDao;
         this.blockHeightService = blockHeightService;
         this.transactionUpdateHeuristics = transactionUpdateHeuristics;
+        this.backgroundRequestDao = backgroundRequestDao;
+        this.addressUpdateTracker = addressUpdateTracker;
+        this.addressSubscribers = addressSubscribers;
+        this.backgroundTaskExecutor = backgroundTaskExecutor;
     }
 
-    @Async
+    /**
+     * Subscribes to changes of the addresses (if supported for the chain), so that the transactions of these addresses
+     * only need to be updated after a change was reported.
+     */
+    public void subscribeToChanges(Set<Address> addresses, Chain chain) {
+        addressSubscribers.forEach(addressSubscriber -> addressSubscriber.subscribe(addresses, chain));
+    }
+
+    /**
+     * The request is journaled before it is handed to the background executor and until transactions for the address
+     * are known, so that it can be replayed after a restart. Failing to journal the request does not prevent it.
+     */
     public void requestTransactionsInBackground(Address address, Chain chain) {
-        ResultFuture.getOrElse(
-                getTransactions(address, chain, RequestPriority.LOWEST),
-                AddressTransactions.unknown(chain)
-        );
+        try {
+            backgroundRequestDao.saveAddressTransactionsRequest(address, chain);
+        } catch (RuntimeException exception) {
+            logger.warn("Unable to journal background request for {} address {}", chain, address, exception);
+        }
+        backgroundTaskExecutor.execute(() -> getTransactionsAndUpdateJournal(address, chain));
+    }
+
+    private void getTransactionsAndUpdateJournal(Address address, Chain chain) {
+        AddressTransactions addressTransactions = AddressTransactions.unknown(chain);
+        try {
+            addressTransactions = ResultFuture.getOrElse(
+                    getTransactions(address, chain, RequestPriority.LOWEST),
+                    AddressTransactions.unknown(chain)
+            );
+        } finally {
+            if (addressTransactions.isValid()) {
+                backgroundRequestDao.removeAddressTransactionsRequest(address, chain);
+            }
+        }
     }
 
     public Set<AddressTransactions> getTransactionsForAddresses(Set<Address> addresses, Chain chain) {
@@ -97,9 +142,14 @@ public class AddressTransactionsService {
     }
 
     private CompletableFuture<AddressTransactions> getResultFuture(AddressTransactionsRequest request) {
+        TransactionsRequestKey key = request.getKey();
+        addressUpdateTracker.updateStarted(key.address(), key.chain());
         return addressTransactionsProvider.getAddressTransactions(request).getFuture()
                 .thenApply(transactions -> {
                     requestTransactionDetailsAndPersist(transactions);
+                    if (transactions.isValid() && transactions.lastCheckedAtBlockHeight() >= key.blockHeight()) {
+                        addressUpdateTracker.updateFinished(key.address(), key.chain());
+                    }
                     return transactions;
                 });
     }
@@ -0,0 +1,26 @@
+package de.cotto.bitbook.backend.transaction;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Chain;
+import de.cotto.bitbook.backend.model.TransactionHash;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface BackgroundRequestDao {
+    void saveTransactionRequests(Set<TransactionHash> transactionHashes, Chain chain);
+
+    void removeTransactionRequests(Set<TransactionHash> transactionHashes, Chain chain);
+
+    Map<Chain, Set<TransactionHash>> getTransactionRequests();
+
+    void saveAddressTransactionsRequest(Address address, Chain chain);
+
+    void removeAddressTransactionsRequest(Address address, Chain chain);
+
+    Map<Chain, Set<Address>> getAddressTransactionsRequests();
+
+    int removeRequestsReplayedAtLeast(int replayAttempts);
+
+    void incrementReplayAttempts();
+}
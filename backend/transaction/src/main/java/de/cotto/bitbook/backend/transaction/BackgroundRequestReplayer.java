@@ -0,0 +1,50 @@
+package de.cotto.bitbook.backend.transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background requests are journaled while they are pending, so that requests that were not finished before the
+ * application was closed are started again. Requests that were replayed several times without a result (for example
+ * for unknown transactions) are dropped.
+ */
+@Component
+public class BackgroundRequestReplayer {
+    private static final int MAXIMUM_REPLAY_ATTEMPTS = 3;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final BackgroundRequestDao backgroundRequestDao;
+    private final TransactionService transactionService;
+    private final AddressTransactionsService addressTransactionsService;
+
+    public BackgroundRequestReplayer(
+            BackgroundRequestDao backgroundRequestDao,
+            TransactionService transactionService,
+            AddressTransactionsService addressTransactionsService
+    ) {
+        this.backgroundRequestDao = backgroundRequestDao;
+        this.transactionService = transactionService;
+        this.addressTransactionsService = addressTransactionsService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        int droppedRequests = backgroundRequestDao.removeRequestsReplayedAtLeast(MAXIMUM_REPLAY_ATTEMPTS);
+        if (droppedRequests > 0) {
+            logger.warn("Dropping {} background requests without result after {} replays",
+                    droppedRequests, MAXIMUM_REPLAY_ATTEMPTS);
+        }
+        backgroundRequestDao.incrementReplayAttempts();
+        backgroundRequestDao.getTransactionRequests().forEach((chain, transactionHashes) -> {
+            logger.info("Replaying background requests for {} {} transactions", transactionHashes.size(), chain);
+            transactionService.requestInBackground(transactionHashes, chain);
+        });
+        backgroundRequestDao.getAddressTransactionsRequests().forEach((chain, addresses) -> {
+            logger.info("Replaying background requests for {} {} addresses", addresses.size(), chain);
+            addresses.forEach(address -> addressTransactionsService.requestTransactionsInBackground(address, chain));
+        });
+    }
+}
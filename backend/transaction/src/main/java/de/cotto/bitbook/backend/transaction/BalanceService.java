@@ -27,7 +27,7 @@ public class BalanceService {
         Set<TransactionHash> transactionHashes = transactions.transactionHashes();
         return transactionService.getTransactionDetails(transactionHashes, chain).stream()
                 .map(transactionDetails -> transactionDetails.getDifferenceForAddress(address))
-                .reduce(Coins.NONE, Coins::add);
+                .collect(Coins.sum());
     }
 
 }
@@ -3,6 +3,7 @@ package de.cotto.bitbook.backend.transaction;
 import de.cotto.bitbook.backend.model.AddressTransactions;
 import de.cotto.bitbook.backend.model.Provider;
 import de.cotto.bitbook.backend.request.PrioritizingProvider;
+import de.cotto.bitbook.backend.request.ProviderLimits;
 import de.cotto.bitbook.backend.request.ResultFuture;
 import org.springframework.stereotype.Component;
 
@@ -13,9 +14,10 @@ public class PrioritizingAddressTransactionsProvider
         extends PrioritizingProvider<TransactionsRequestKey, AddressTransactions> {
 
     public PrioritizingAddressTransactionsProvider(
-            List<Provider<TransactionsRequestKey, AddressTransactions>> providers
+            List<Provider<TransactionsRequestKey, AddressTransactions>> providers,
+            ProviderLimits providerLimits
     ) {
-        super(providers, "Transactions for address");
+        super(providers, providerLimits, "Transactions for address");
     }
 
     public ResultFuture<AddressTransactions> getAddressTransactions(AddressTransactionsRequest request) {
@@ -2,6 +2,7 @@ package de.cotto.bitbook.backend.transaction;
 
 import de.cotto.bitbook.backend.model.Chain;
 import de.cotto.bitbook.backend.request.PrioritizingProvider;
+import de.cotto.bitbook.backend.request.ProviderLimits;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -10,8 +11,8 @@ import java.util.List;
 public class PrioritizingBlockHeightProvider extends PrioritizingProvider<Chain, Integer> {
     protected static final int INVALID = -1;
 
-    public PrioritizingBlockHeightProvider(List<BlockHeightProvider> providers) {
-        super(providers, "Block height");
+    public PrioritizingBlockHeightProvider(List<BlockHeightProvider> providers, ProviderLimits providerLimits) {
+        super(providers, providerLimits, "Block height");
     }
 
     public int getBlockHeight(Chain chain) {
@@ -4,8 +4,15 @@ import de.cotto.bitbook.backend.model.Chain;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
 
+import java.util.Set;
+
 public interface TransactionDao {
     Transaction getTransaction(TransactionHash transactionHash, Chain chain);
 
+    /**
+     * @return the persisted transactions, transactions that are not persisted are omitted
+     */
+    Set<Transaction> getTransactions(Set<TransactionHash> transactionHashes, Chain chain);
+
     void saveTransaction(Transaction transaction);
 }
@@ -1,14 +1,19 @@
 package de.cotto.bitbook.backend.transaction;
 
+import de.cotto.bitbook.backend.AsyncConfiguration;
+import de.cotto.bitbook.backend.BackgroundTaskExecutor;
 import de.cotto.bitbook.backend.model.Chain;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
 import de.cotto.bitbook.backend.price.PriceService;
 import de.cotto.bitbook.backend.request.RequestPriority;
 import de.cotto.bitbook.backend.request.ResultFuture;
-import org.springframework.scheduling.annotation.Async;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
@@ -25,19 +30,27 @@ public class TransactionService {
      */
     private static final int CONFIRMATION_LIMIT = 6;
 
+    private final Logger logger = LoggerFactory.getLogger(getClass());
     private final PrioritizingTransactionProvider prioritizingTransactionProvider;
     private final TransactionDao transactionDao;
     private final PriceService priceService;
     private final BlockHeightService blockHeightService;
+    private final BackgroundRequestDao backgroundRequestDao;
+    private final BackgroundTaskExecutor backgroundTaskExecutor;
 
     public TransactionService(
             PrioritizingTransactionProvider prioritizingTransactionProvider,
             TransactionDao transactionDao,
-            PriceService priceService, BlockHeightService blockHeightService) {
+            PriceService priceService, BlockHeightService blockHeightService,
+            BackgroundRequestDao backgroundRequestDao,
+            @Qualifier(AsyncConfiguration.BACKGROUND_TASK_EXECUTOR) BackgroundTaskExecutor backgroundTaskExecutor
+    ) {
         this.prioritizingTransactionProvider = prioritizingTransactionProvider;
         this.transactionDao = transactionDao;
         this.priceService = priceService;
         this.blockHeightService = blockHeightService;
+        this.backgroundRequestDao = backgroundRequestDao;
+        this.backgroundTaskExecutor = backgroundTaskExecutor;
     }
 
     public Set<Transaction> getTransactionDetails(Set<TransactionHash> transactionHashes, Chain chain) {
@@ -56,22 +69,55 @@ public class TransactionService {
         return getFromPersistenceOrDownload(transactionHash, chain, requestPriority);
     }
 
+    /**
+     * Persisted transactions are loaded in bulk, only the remaining transactions are downloaded.
+     */
     private Set<Transaction> getTransactionDetails(
             Set<TransactionHash> transactionHashes,
             Chain chain,
             RequestPriority requestPriority
     ) {
+        Set<Transaction> persistedTransactions = transactionDao.getTransactions(transactionHashes, chain);
+        persistedTransactions.forEach(this::triggerPriceRequest);
+        Set<TransactionHash> persistedHashes = persistedTransactions.stream()
+                .map(Transaction::getHash)
+                .collect(toSet());
         Set<Future<Transaction>> futures = transactionHashes.stream()
-                .map(transactionHash -> getTransactionDetails(transactionHash, chain, requestPriority))
+                .filter(transactionHash -> !persistedHashes.contains(transactionHash))
+                .map(transactionHash -> downloadAndPersist(transactionHash, chain, requestPriority))
                 .collect(toSet());
-        return futures.stream()
+        Set<Transaction> transactions = new LinkedHashSet<>(persistedTransactions);
+        futures.stream()
                 .map(future -> getFromFuture(future, chain))
-                .collect(toSet());
+                .forEach(transactions::add);
+        return transactions;
     }
 
-    @Async
+    /**
+     * The request is journaled before it is handed to the background executor, so that it is replayed after a restart
+     * even if the executor dropped it. Only transactions that are persisted or were downloaded are removed from the
+     * journal, the others are requested again after a restart. Failing to journal the request does not prevent it.
+     */
     public void requestInBackground(Set<TransactionHash> transactionHashes, Chain chain) {
-        getTransactionDetails(transactionHashes, chain, LOWEST);
+        try {
+            backgroundRequestDao.saveTransactionRequests(transactionHashes, chain);
+        } catch (RuntimeException exception) {
+            logger.warn("Unable to journal background requests for {} {} transactions", transactionHashes.size(), chain,
+                    exception);
+        }
+        backgroundTaskExecutor.execute(() -> getTransactionDetailsAndUpdateJournal(transactionHashes, chain));
+    }
+
+    private void getTransactionDetailsAndUpdateJournal(Set<TransactionHash> transactionHashes, Chain chain) {
+        Set<TransactionHash> resolvedHashes = new LinkedHashSet<>();
+        try {
+            getTransactionDetails(transactionHashes, chain, LOWEST).stream()
+                    .filter(Transaction::isValid)
+                    .map(Transaction::getHash)
+                    .forEach(resolvedHashes::add);
+        } finally {
+            backgroundRequestDao.removeTransactionRequests(resolvedHashes, chain);
+        }
     }
 
     private Future<Transaction> getFromPersistenceOrDownload(
@@ -9,6 +9,7 @@ import de.cotto.bitbook.backend.model.Coins;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
 import de.cotto.bitbook.backend.request.RequestPriority;
+import de.cotto.bitbook.backend.transaction.AddressUpdateTracker.State;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -37,22 +38,36 @@ public class TransactionUpdateHeuristics {
     private final TransactionDao transactionDao;
     private final AddressDescriptionService addressDescriptionService;
     private final TransactionDescriptionService transactionDescriptionService;
+    private final AddressUpdateTracker addressUpdateTracker;
 
     public TransactionUpdateHeuristics(
             BlockHeightService blockHeightService,
             TransactionService transactionService,
             TransactionDao transactionDao,
             AddressDescriptionService addressDescriptionService,
-            TransactionDescriptionService transactionDescriptionService
+            TransactionDescriptionService transactionDescriptionService,
+            AddressUpdateTracker addressUpdateTracker
     ) {
         this.blockHeightService = blockHeightService;
         this.transactionService = transactionService;
         this.transactionDao = transactionDao;
         this.addressDescriptionService = addressDescriptionService;
         this.transactionDescriptionService = transactionDescriptionService;
+        this.addressUpdateTracker = addressUpdateTracker;
     }
 
+    /**
+     * For addresses with a subscription (see {@link AddressUpdateTracker}) the reported changes are used, the
+     * heuristics based on the age of the last update are only used for all other addresses.
+     */
     public boolean isRecentEnough(AddressTransactions addressTransactions) {
+        State state = addressUpdateTracker.getState(addressTransactions.address(), addressTransactions.chain());
+        if (state == State.UP_TO_DATE) {
+            return true;
+        }
+        if (state == State.CHANGED) {
+            return false;
+        }
         int currentBlockHeight = blockHeightService.getBlockHeight(addressTransactions.chain());
         int age = currentBlockHeight - addressTransactions.lastCheckedAtBlockHeight();
         if (age <= MANY_TRANSACTIONS_AGE_LIMIT) {
@@ -1,6 +1,5 @@
 package de.cotto.bitbook.backend.transaction.persistence;
 
-import com.google.common.collect.Sets;
 import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.transaction.AddressCompletionDao;
 import de.cotto.bitbook.backend.transaction.AddressTransactionsDao;
@@ -15,17 +14,14 @@ import static java.util.stream.Collectors.toSet;
 @Transactional
 public class AddressCompletionDaoImpl implements AddressCompletionDao {
     private final AddressTransactionsDao addressTransactionsDao;
-    private final InputRepository inputRepository;
-    private final OutputRepository outputRepository;
+    private final TransactionRepository transactionRepository;
 
     public AddressCompletionDaoImpl(
             AddressTransactionsDao addressTransactionsDao,
-            InputRepository inputRepository,
-            OutputRepository outputRepository
+            TransactionRepository transactionRepository
     ) {
         this.addressTransactionsDao = addressTransactionsDao;
-        this.inputRepository = inputRepository;
-        this.outputRepository = outputRepository;
+        this.transactionRepository = transactionRepository;
     }
 
     @Override
@@ -35,10 +31,9 @@ public class AddressCompletionDaoImpl implements AddressCompletionDao {
 
     @Override
     public Set<Address> completeFromInputsAndOutputs(String prefix) {
-        return Sets.union(
-                inputRepository.findBySourceAddressStartingWith(prefix),
-                outputRepository.findByTargetAddressStartingWith(prefix)
-        ).stream().map(InputOutputJpaDto::getAddress).map(Address::new).collect(toSet());
+        return transactionRepository.findAddressesStartingWith(prefix).stream()
+                .map(Address::new)
+                .collect(toSet());
     }
 
 }
@@ -0,0 +1,102 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import com.google.common.collect.Lists;
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Chain;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.transaction.BackgroundRequestDao;
+import org.springframework.stereotype.Component;
+
+import javax.transaction.Transactional;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static de.cotto.bitbook.backend.transaction.persistence.BackgroundRequestJpaDto.ADDRESS_TRANSACTIONS;
+import static de.cotto.bitbook.backend.transaction.persistence.BackgroundRequestJpaDto.TRANSACTION;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
+
+@Component
+@Transactional
+public class BackgroundRequestDaoImpl implements BackgroundRequestDao {
+    private static final int MAXIMUM_KEYS_PER_QUERY = 500;
+
+    private final BackgroundRequestRepository backgroundRequestRepository;
+
+    public BackgroundRequestDaoImpl(BackgroundRequestRepository backgroundRequestRepository) {
+        this.backgroundRequestRepository = backgroundRequestRepository;
+    }
+
+    @Override
+    public void saveTransactionRequests(Set<TransactionHash> transactionHashes, Chain chain) {
+        Set<String> requestKeys = transactionHashes.stream().map(TransactionHash::toString).collect(toSet());
+        saveRequests(TRANSACTION, chain, requestKeys);
+    }
+
+    @Override
+    public void removeTransactionRequests(Set<TransactionHash> transactionHashes, Chain chain) {
+        if (transactionHashes.isEmpty()) {
+            return;
+        }
+        Set<String> requestKeys = transactionHashes.stream().map(TransactionHash::toString).collect(toSet());
+        backgroundRequestRepository.deleteRequests(TRANSACTION, chain.toString(), requestKeys);
+    }
+
+    @Override
+    public Map<Chain, Set<TransactionHash>> getTransactionRequests() {
+        return getRequests(TRANSACTION, TransactionHash::new);
+    }
+
+    @Override
+    public void saveAddressTransactionsRequest(Address address, Chain chain) {
+        saveRequests(ADDRESS_TRANSACTIONS, chain, Set.of(address.toString()));
+    }
+
+    @Override
+    public void removeAddressTransactionsRequest(Address address, Chain chain) {
+        backgroundRequestRepository.deleteRequests(ADDRESS_TRANSACTIONS, chain.toString(), Set.of(address.toString()));
+    }
+
+    @Override
+    public Map<Chain, Set<Address>> getAddressTransactionsRequests() {
+        return getRequests(ADDRESS_TRANSACTIONS, Address::new);
+    }
+
+    /**
+     * Requests that are already journaled are skipped. The remaining requests are merged, as the same request may be
+     * saved concurrently (for example for a transaction shared by several addresses).
+     */
+    @Override
+    public int removeRequestsReplayedAtLeast(int replayAttempts) {
+        return backgroundRequestRepository.deleteByReplayAttemptsAtLeast(replayAttempts);
+    }
+
+    @Override
+    public void incrementReplayAttempts() {
+        backgroundRequestRepository.incrementReplayAttempts();
+    }
+
+    private void saveRequests(String requestType, Chain chain, Set<String> requestKeys) {
+        Set<String> newRequestKeys = new LinkedHashSet<>(requestKeys);
+        for (List<String> keysForQuery : Lists.partition(List.copyOf(requestKeys), MAXIMUM_KEYS_PER_QUERY)) {
+            newRequestKeys.removeAll(
+                    backgroundRequestRepository.findExistingRequestKeys(requestType, chain.toString(), keysForQuery)
+            );
+        }
+        newRequestKeys.forEach(requestKey ->
+                backgroundRequestRepository.mergeRequest(requestType, requestKey, chain.toString())
+        );
+    }
+
+    private <T> Map<Chain, Set<T>> getRequests(String requestType, Function<String, T> keyParser) {
+        return backgroundRequestRepository.findByRequestType(requestType).stream()
+                .collect(groupingBy(
+                        dto -> Chain.valueOf(dto.getChain()),
+                        mapping(dto -> keyParser.apply(dto.getRequestKey()), toSet())
+                ));
+    }
+}
@@ -0,0 +1,58 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import static java.util.Objects.requireNonNull;
+
+@Entity
+@IdClass(BackgroundRequestJpaDtoId.class)
+@Table(name = "background_requests")
+public class BackgroundRequestJpaDto {
+    public static final String TRANSACTION = "TRANSACTION";
+    public static final String ADDRESS_TRANSACTIONS = "ADDRESS_TRANSACTIONS";
+
+    @Id
+    @Nullable
+    private String requestType;
+
+    @Id
+    @Nullable
+    private String requestKey;
+
+    @Id
+    @Nullable
+    private String chain;
+
+    private int replayAttempts;
+
+    public BackgroundRequestJpaDto() {
+        // for JPA
+    }
+
+    public BackgroundRequestJpaDto(@Nonnull String requestType, @Nonnull String requestKey, @Nonnull String chain) {
+        this.requestType = requestType;
+        this.requestKey = requestKey;
+        this.chain = chain;
+    }
+
+    public String getRequestType() {
+        return requireNonNull(requestType);
+    }
+
+    public String getRequestKey() {
+        return requireNonNull(requestKey);
+    }
+
+    public String getChain() {
+        return requireNonNull(chain);
+    }
+
+    public int getReplayAttempts() {
+        return replayAttempts;
+    }
+}
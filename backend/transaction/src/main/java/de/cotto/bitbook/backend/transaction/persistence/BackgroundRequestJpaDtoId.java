@@ -0,0 +1,40 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Objects;
+
+public class BackgroundRequestJpaDtoId implements Serializable {
+    @Nullable
+    private String requestType;
+
+    @Nullable
+    private String requestKey;
+
+    @Nullable
+    private String chain;
+
+    @SuppressWarnings("unused")
+    public BackgroundRequestJpaDtoId() {
+        // for JPA
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        BackgroundRequestJpaDtoId that = (BackgroundRequestJpaDtoId) other;
+        return Objects.equals(requestType, that.requestType)
+               && Objects.equals(requestKey, that.requestKey)
+               && Objects.equals(chain, that.chain);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(requestType, requestKey, chain);
+    }
+}
@@ -0,0 +1,41 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface BackgroundRequestRepository
+        extends JpaRepository<BackgroundRequestJpaDto, BackgroundRequestJpaDtoId> {
+    List<BackgroundRequestJpaDto> findByRequestType(String requestType);
+
+    @Query("SELECT request.requestKey FROM BackgroundRequestJpaDto request WHERE request.requestType = :requestType " +
+           "AND request.chain = :chain AND request.requestKey IN :requestKeys")
+    Set<String> findExistingRequestKeys(String requestType, String chain, Collection<String> requestKeys);
+
+    /**
+     * Inserts the request unless it is journaled already. Unlike a check followed by an insert, this cannot fail if
+     * the same request is saved concurrently.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO background_requests (request_type, request_key, chain) " +
+                   "KEY (request_type, request_key, chain) VALUES (:requestType, :requestKey, :chain)",
+            nativeQuery = true)
+    void mergeRequest(String requestType, String requestKey, String chain);
+
+    @Modifying
+    @Query("DELETE FROM BackgroundRequestJpaDto request WHERE request.requestType = :requestType " +
+           "AND request.chain = :chain AND request.requestKey IN :requestKeys")
+    void deleteRequests(String requestType, String chain, Collection<String> requestKeys);
+
+    @Modifying
+    @Query("DELETE FROM BackgroundRequestJpaDto request WHERE request.replayAttempts >= :replayAttempts")
+    int deleteByReplayAttemptsAtLeast(int replayAttempts);
+
+    @Modifying
+    @Query("UPDATE BackgroundRequestJpaDto request SET request.replayAttempts = request.replayAttempts + 1")
+    void incrementReplayAttempts();
+}
@@ -1,5 +0,0 @@
-package de.cotto.bitbook.backend.transaction.persistence;
-
-public interface InputOutputJpaDto {
-    String getAddress();
-}
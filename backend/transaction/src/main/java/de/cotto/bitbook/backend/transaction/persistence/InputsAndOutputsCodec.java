@@ -0,0 +1,124 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Coins;
+import de.cotto.bitbook.backend.model.Input;
+import de.cotto.bitbook.backend.model.InputOutput;
+import de.cotto.bitbook.backend.model.Output;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Encodes the inputs and outputs of a transaction into a single binary value:
+ * <pre>
+ * version (1 byte)
+ * number of distinct addresses (varint), then for each address: length (varint), UTF-8 bytes
+ * number of inputs (varint), then for each input: value in satoshis (varint), address index (varint)
+ * number of outputs (varint), then for each output: value in satoshis (varint), address index (varint)
+ * </pre>
+ * Each address is stored once per transaction, even if it is used in several inputs/outputs.
+ */
+public final class InputsAndOutputsCodec {
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_BITS_PER_BYTE = 7;
+    private static final int PAYLOAD_MASK = 0x7F;
+    private static final int CONTINUATION_BIT = 0x80;
+
+    private InputsAndOutputsCodec() {
+        // utility class
+    }
+
+    public static byte[] encode(List<Input> inputs, List<Output> outputs) {
+        Map<Address, Integer> addressIndexes = new LinkedHashMap<>();
+        inputs.forEach(input -> addressIndexes.putIfAbsent(input.getAddress(), addressIndexes.size()));
+        outputs.forEach(output -> addressIndexes.putIfAbsent(output.getAddress(), addressIndexes.size()));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(VERSION);
+        writeVarint(stream, addressIndexes.size());
+        for (Address address : addressIndexes.keySet()) {
+            byte[] bytes = address.toString().getBytes(StandardCharsets.UTF_8);
+            writeVarint(stream, bytes.length);
+            stream.writeBytes(bytes);
+        }
+        writeInputsOrOutputs(stream, inputs, addressIndexes);
+        writeInputsOrOutputs(stream, outputs, addressIndexes);
+        return stream.toByteArray();
+    }
+
+    public static InputsAndOutputs decode(byte[] encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unsupported encoding version " + version);
+        }
+        int numberOfAddresses = (int) readVarint(buffer);
+        List<Address> addresses = new ArrayList<>(numberOfAddresses);
+        for (int i = 0; i < numberOfAddresses; i++) {
+            byte[] bytes = new byte[(int) readVarint(buffer)];
+            buffer.get(bytes);
+            addresses.add(new Address(new String(bytes, StandardCharsets.UTF_8)));
+        }
+        List<Input> inputs = readInputsOrOutputs(buffer, addresses, Input::new);
+        List<Output> outputs = readInputsOrOutputs(buffer, addresses, Output::new);
+        return new InputsAndOutputs(inputs, outputs);
+    }
+
+    private static void writeInputsOrOutputs(
+            ByteArrayOutputStream stream,
+            List<? extends InputOutput> inputsOrOutputs,
+            Map<Address, Integer> addressIndexes
+    ) {
+        writeVarint(stream, inputsOrOutputs.size());
+        for (InputOutput inputOutput : inputsOrOutputs) {
+            writeVarint(stream, inputOutput.getValue().satoshis());
+            writeVarint(stream, addressIndexes.get(inputOutput.getAddress()));
+        }
+    }
+
+    private static <T> List<T> readInputsOrOutputs(
+            ByteBuffer buffer,
+            List<Address> addresses,
+            BiFunction<Coins, Address, T> constructor
+    ) {
+        int count = (int) readVarint(buffer);
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Coins value = Coins.ofSatoshis(readVarint(buffer));
+            Address address = addresses.get((int) readVarint(buffer));
+            result.add(constructor.apply(value, address));
+        }
+        return result;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream stream, long value) {
+        long remaining = value;
+        while ((remaining & ~PAYLOAD_MASK) != 0) {
+            stream.write((int) (remaining & PAYLOAD_MASK) | CONTINUATION_BIT);
+            remaining >>>= PAYLOAD_BITS_PER_BYTE;
+        }
+        stream.write((int) remaining);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            result |= (long) (current & PAYLOAD_MASK) << shift;
+            shift += PAYLOAD_BITS_PER_BYTE;
+        } while ((current & CONTINUATION_BIT) != 0);
+        return result;
+    }
+
+    public record InputsAndOutputs(List<Input> inputs, List<Output> outputs) {
+    }
+}
@@ -1,31 +1,215 @@
 package de.cotto.bitbook.backend.transaction.persistence;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
 import de.cotto.bitbook.backend.model.Chain;
+import de.cotto.bitbook.backend.model.HashAndChain;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
 import de.cotto.bitbook.backend.transaction.TransactionDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.transaction.Transactional;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Persisted transactions do not change, so that loaded and saved transactions are cached. The cache is bounded by the
+ * number of inputs and outputs of the cached transactions. Cache hits do not touch the database.
+ * Saved transactions are written behind: they are buffered and persisted in groups, periodically and by a background
+ * thread once the buffer is full. Only if the buffer keeps growing, for example because the database is slow, the
+ * saving thread persists the buffered transactions itself. Database access happens in {@link TransactionJpaDao}, so
+ * that this class does not need to start a transaction.
+ */
 @Component
-@Transactional
+@Transactional(Transactional.TxType.SUPPORTS)
 public class TransactionDaoImpl implements TransactionDao {
-    private final TransactionRepository transactionRepository;
+    private static final int TRANSACTIONS_PER_DATABASE_TRANSACTION = 500;
+    private static final int MAXIMUM_FLUSH_ATTEMPTS = 3;
+    private static final int BLOCKING_BUFFER_CAPACITY_FACTOR = 2;
 
-    public TransactionDaoImpl(TransactionRepository transactionRepository) {
-        this.transactionRepository = transactionRepository;
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final TransactionJpaDao transactionJpaDao;
+    private final Cache<HashAndChain, Transaction> cache;
+    private final Map<HashAndChain, Transaction> pendingTransactions;
+    private final Map<HashAndChain, Integer> failedFlushAttempts;
+    private final int writeBufferCapacity;
+    private final Object flushLock = new Object();
+    private final ExecutorService flusher;
+    private final AtomicBoolean flushRequested;
+
+    public TransactionDaoImpl(
+            TransactionJpaDao transactionJpaDao,
+            @Value("${bitbook.transactions.cache.maximum-weight:1000000}") long maximumWeight,
+            @Value("${bitbook.transactions.write-buffer.capacity:1000}") int writeBufferCapacity
+    ) {
+        this.transactionJpaDao = transactionJpaDao;
+        this.writeBufferCapacity = writeBufferCapacity;
+        pendingTransactions = new ConcurrentHashMap<>();
+        failedFlushAttempts = new ConcurrentHashMap<>();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(getClass().getSimpleName() + "-");
+        threadFactory.setDaemon(true);
+        flusher = Executors.newSingleThreadExecutor(threadFactory);
+        flushRequested = new AtomicBoolean(false);
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher(TransactionDaoImpl::getWeight)
+                .recordStats()
+                .build();
     }
 
     @Override
     public Transaction getTransaction(TransactionHash transactionHash, Chain chain) {
-        return transactionRepository.findById(new TransactionJpaDtoId(transactionHash.toString(), chain.toString()))
-                .map(TransactionJpaDto::toModel)
-                .orElse(Transaction.unknown(chain));
+        Transaction cachedTransaction = getCachedOrPending(new HashAndChain(transactionHash, chain));
+        if (cachedTransaction != null) {
+            return cachedTransaction;
+        }
+        Transaction transaction = transactionJpaDao.getTransaction(transactionHash, chain);
+        addToCache(transaction);
+        return transaction;
+    }
+
+    @Override
+    public Set<Transaction> getTransactions(Set<TransactionHash> transactionHashes, Chain chain) {
+        Set<Transaction> transactions = new LinkedHashSet<>();
+        Set<TransactionHash> missingHashes = new LinkedHashSet<>();
+        for (TransactionHash transactionHash : transactionHashes) {
+            Transaction cachedTransaction = getCachedOrPending(new HashAndChain(transactionHash, chain));
+            if (cachedTransaction == null) {
+                missingHashes.add(transactionHash);
+            } else {
+                transactions.add(cachedTransaction);
+            }
+        }
+        if (!missingHashes.isEmpty()) {
+            Set<Transaction> loadedTransactions = transactionJpaDao.getTransactions(missingHashes, chain);
+            loadedTransactions.forEach(this::addToCache);
+            transactions.addAll(loadedTransactions);
+        }
+        return transactions;
     }
 
     @Override
     public void saveTransaction(Transaction transaction) {
-        transactionRepository.save(TransactionJpaDto.fromModel(transaction));
+        addToCache(transaction);
+        pendingTransactions.put(getKey(transaction), transaction);
+        int pending = pendingTransactions.size();
+        if (pending >= BLOCKING_BUFFER_CAPACITY_FACTOR * writeBufferCapacity) {
+            flush();
+        } else if (pending >= writeBufferCapacity) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Transactions stay visible in the buffer until they are persisted. Transactions that cannot be persisted are
+     * kept for the next attempts. After {@value #MAXIMUM_FLUSH_ATTEMPTS} failed attempts they are dropped and removed
+     * from the cache, so that they are downloaded again when needed.
+     */
+    @Scheduled(fixedDelay = 1_000)
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public void flush() {
+        synchronized (flushLock) {
+            List<Transaction> transactions = List.copyOf(pendingTransactions.values());
+            for (List<Transaction> group : Lists.partition(transactions, TRANSACTIONS_PER_DATABASE_TRANSACTION)) {
+                try {
+                    transactionJpaDao.saveTransactions(group);
+                } catch (RuntimeException exception) {
+                    logger.error("Unable to persist {} transactions: ", group.size(), exception);
+                    group.forEach(this::onFailedFlush);
+                    continue;
+                }
+                group.forEach(this::removePending);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flusher.shutdown();
+        flush();
+    }
+
+    @VisibleForTesting
+    protected CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    @Scheduled(fixedRate = 60_000)
+    public void logCacheStats() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Transaction cache: {} entries, {}", cache.size(), cache.stats());
+        }
+    }
+
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException exception) {
+            flushRequested.set(false);
+            flush();
+        }
+    }
+
+    private void onFailedFlush(Transaction transaction) {
+        HashAndChain key = getKey(transaction);
+        if (failedFlushAttempts.merge(key, 1, Integer::sum) < MAXIMUM_FLUSH_ATTEMPTS) {
+            return;
+        }
+        logger.warn("Dropping transaction {} after {} failed attempts to persist it", key, MAXIMUM_FLUSH_ATTEMPTS);
+        removePending(transaction);
+        cache.invalidate(key);
+    }
+
+    private void removePending(Transaction transaction) {
+        HashAndChain key = getKey(transaction);
+        pendingTransactions.remove(key, transaction);
+        failedFlushAttempts.remove(key);
+    }
+
+    @Nullable
+    private Transaction getCachedOrPending(HashAndChain hashAndChain) {
+        Transaction cachedTransaction = cache.getIfPresent(hashAndChain);
+        if (cachedTransaction != null) {
+            return cachedTransaction;
+        }
+        return pendingTransactions.get(hashAndChain);
+    }
+
+    private void addToCache(Transaction transaction) {
+        if (transaction.isValid()) {
+            cache.put(getKey(transaction), transaction);
+        }
+    }
+
+    private static HashAndChain getKey(Transaction transaction) {
+        return new HashAndChain(transaction.getHash(), transaction.getChain());
+    }
+
+    private static int getWeight(HashAndChain hashAndChain, Transaction transaction) {
+        return 1 + transaction.getInputs().size() + transaction.getOutputs().size();
     }
 }
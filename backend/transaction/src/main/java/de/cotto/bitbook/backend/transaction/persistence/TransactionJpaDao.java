@@ -0,0 +1,81 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import com.google.common.collect.Lists;
+import de.cotto.bitbook.backend.model.Chain;
+import de.cotto.bitbook.backend.model.Transaction;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+@Component
+@Transactional
+class TransactionJpaDao {
+    private static final int MAXIMUM_HASHES_PER_QUERY = 500;
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+
+    public TransactionJpaDao(TransactionRepository transactionRepository, EntityManager entityManager) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+    }
+
+    public Transaction getTransaction(TransactionHash transactionHash, Chain chain) {
+        return transactionRepository.findById(new TransactionJpaDtoId(transactionHash.toString(), chain.toString()))
+                .map(TransactionJpaDto::toModel)
+                .orElse(Transaction.unknown(chain));
+    }
+
+    public Set<Transaction> getTransactions(Set<TransactionHash> transactionHashes, Chain chain) {
+        List<String> hashes = transactionHashes.stream().map(TransactionHash::toString).toList();
+        Set<Transaction> transactions = new LinkedHashSet<>();
+        for (List<String> hashesForQuery : Lists.partition(hashes, MAXIMUM_HASHES_PER_QUERY)) {
+            transactionRepository.findByChainAndHashIn(chain.toString(), hashesForQuery).stream()
+                    .map(TransactionJpaDto::toModel)
+                    .forEach(transactions::add);
+        }
+        return transactions;
+    }
+
+    /**
+     * Saves the transactions in a single database transaction. Transactions that are already persisted are skipped, so
+     * that the remaining transactions can be inserted (in JDBC batches) without merging them first.
+     */
+    public void saveTransactions(Collection<Transaction> transactions) {
+        Map<Chain, List<Transaction>> transactionsByChain = transactions.stream().collect(groupingBy(
+                Transaction::getChain,
+                LinkedHashMap::new,
+                toList()
+        ));
+        transactionsByChain.forEach(this::saveTransactions);
+    }
+
+    private void saveTransactions(Chain chain, List<Transaction> transactions) {
+        Map<String, Transaction> transactionsByHash = transactions.stream().collect(toMap(
+                transaction -> transaction.getHash().toString(),
+                transaction -> transaction,
+                (first, second) -> first,
+                LinkedHashMap::new
+        ));
+        List<String> hashes = List.copyOf(transactionsByHash.keySet());
+        for (List<String> hashesForQuery : Lists.partition(hashes, MAXIMUM_HASHES_PER_QUERY)) {
+            transactionRepository.findExistingHashes(chain.toString(), hashesForQuery)
+                    .forEach(transactionsByHash::remove);
+        }
+        transactionsByHash.values().stream()
+                .map(TransactionJpaDto::fromModel)
+                .forEach(entityManager::persist);
+    }
+}
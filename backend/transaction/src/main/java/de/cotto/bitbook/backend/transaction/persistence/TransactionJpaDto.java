@@ -1,27 +1,31 @@
 package de.cotto.bitbook.backend.transaction.persistence;
 
 import com.google.common.annotations.VisibleForTesting;
+import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.model.Chain;
 import de.cotto.bitbook.backend.model.Coins;
-import de.cotto.bitbook.backend.model.Input;
-import de.cotto.bitbook.backend.model.Output;
+import de.cotto.bitbook.backend.model.InputOutput;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.transaction.persistence.InputsAndOutputsCodec.InputsAndOutputs;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.persistence.CascadeType;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.IdClass;
-import javax.persistence.OneToMany;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 @Entity
 @IdClass(TransactionJpaDtoId.class)
@@ -42,12 +46,17 @@ class TransactionJpaDto {
     private long fees;
 
     @Nullable
-    @OneToMany(orphanRemoval = true, cascade = CascadeType.ALL)
-    private List<OutputJpaDto> outputs;
+    @Column(columnDefinition = "varbinary")
+    private byte[] inputsAndOutputs;
 
     @Nullable
-    @OneToMany(orphanRemoval = true, cascade = CascadeType.ALL)
-    private List<InputJpaDto> inputs;
+    @ElementCollection
+    @CollectionTable(
+            name = "transaction_addresses",
+            indexes = @Index(name = "transaction_addresses_address", columnList = "address")
+    )
+    @Column(name = "address")
+    private Set<String> addresses;
 
     TransactionJpaDto() {
         // for JPA
@@ -59,26 +68,25 @@ class TransactionJpaDto {
         dto.setBlockHeight(transaction.getBlockHeight());
         dto.setTime(transaction.getTime().toEpochSecond(ZoneOffset.UTC));
         dto.setFees(transaction.getFees().satoshis());
-        dto.setInputs(transaction.getInputs().stream().map(InputJpaDto::fromModel).collect(toList()));
-        dto.setOutputs(transaction.getOutputs().stream().map(OutputJpaDto::fromModel).collect(toList()));
+        dto.setInputsAndOutputs(InputsAndOutputsCodec.encode(transaction.getInputs(), transaction.getOutputs()));
+        dto.setAddresses(Stream.concat(transaction.getInputs().stream(), transaction.getOutputs().stream())
+                .map(InputOutput::getAddress)
+                .filter(Address::isValid)
+                .map(Address::toString)
+                .collect(toSet()));
         dto.setChain(transaction.getChain().toString());
         return dto;
     }
 
     protected Transaction toModel() {
-        List<Input> inputModels = requireNonNull(inputs).stream()
-                .map(InputJpaDto::toModel)
-                .collect(toList());
-        List<Output> outputModels = requireNonNull(outputs).stream()
-                .map(OutputJpaDto::toModel)
-                .collect(toList());
+        InputsAndOutputs decoded = InputsAndOutputsCodec.decode(requireNonNull(inputsAndOutputs));
         return new Transaction(
                 new TransactionHash(requireNonNull(hash)),
                 blockHeight,
                 LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC),
                 Coins.ofSatoshis(fees),
-                inputModels,
-                outputModels,
+                decoded.inputs(),
+                decoded.outputs(),
                 Chain.valueOf(requireNonNull(chain))
         );
     }
@@ -119,13 +127,18 @@ class TransactionJpaDto {
     }
 
     @VisibleForTesting
-    protected void setInputs(@Nonnull List<InputJpaDto> inputs) {
-        this.inputs = inputs;
+    protected void setInputsAndOutputs(@Nonnull byte[] inputsAndOutputs) {
+        this.inputsAndOutputs = inputsAndOutputs;
     }
 
     @VisibleForTesting
-    protected void setOutputs(@Nonnull List<OutputJpaDto> outputs) {
-        this.outputs = outputs;
+    protected Set<String> getAddresses() {
+        return requireNonNull(addresses);
+    }
+
+    @VisibleForTesting
+    protected void setAddresses(@Nonnull Set<String> addresses) {
+        this.addresses = addresses;
     }
 
     @VisibleForTesting
@@ -1,9 +1,23 @@
 package de.cotto.bitbook.backend.transaction.persistence;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 public interface TransactionRepository extends JpaRepository<TransactionJpaDto, TransactionJpaDtoId> {
     Set<TransactionHashView> findByHashStartingWith(String hashPrefix);
+
+    List<TransactionJpaDto> findByChainAndHashIn(String chain, Collection<String> hashes);
+
+    @Query("SELECT DISTINCT address FROM TransactionJpaDto transactionDto " +
+           "JOIN transactionDto.addresses address " +
+           "WHERE address LIKE CONCAT(:prefix, '%')")
+    Set<String> findAddressesStartingWith(String prefix);
+
+    @Query("SELECT transactionDto.hash FROM TransactionJpaDto transactionDto " +
+           "WHERE transactionDto.chain = :chain AND transactionDto.hash IN :hashes")
+    Set<String> findExistingHashes(String chain, Collection<String> hashes);
 }
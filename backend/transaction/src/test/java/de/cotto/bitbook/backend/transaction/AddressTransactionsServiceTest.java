@@ -1,5 +1,6 @@
 package de.cotto.bitbook.backend.transaction;
 
+import de.cotto.bitbook.backend.BackgroundTaskExecutor;
 import de.cotto.bitbook.backend.model.AddressTransactions;
 import de.cotto.bitbook.backend.request.PrioritizedRequestWithResult;
 import de.cotto.bitbook.backend.request.RequestPriority;
@@ -7,11 +8,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -34,6 +37,8 @@ import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -64,9 +69,25 @@ class AddressTransactionsServiceTest {
     @Mock
     private TransactionUpdateHeuristics transactionUpdateHeuristics;
 
+    @Mock
+    private BackgroundRequestDao backgroundRequestDao;
+
+    @Mock
+    private AddressUpdateTracker addressUpdateTracker;
+
+    @Mock
+    private AddressSubscriber addressSubscriber;
+
+    @Mock
+    private BackgroundTaskExecutor backgroundTaskExecutor;
+
     @BeforeEach
     void setUp() {
         lenient().when(transactionUpdateHeuristics.getRequestWithTweakedPriority(any())).then(returnsFirstArg());
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(backgroundTaskExecutor).execute(any());
     }
 
     @Test
@@ -93,6 +114,23 @@ class AddressTransactionsServiceTest {
                 .containsExactly(ADDRESS_TRANSACTIONS_BCH);
     }
 
+    @Test
+    void subscribeToChanges() {
+        AddressTransactionsService service = new AddressTransactionsService(
+                addressTransactionsProvider,
+                transactionService,
+                addressTransactionsDao,
+                blockHeightService,
+                transactionUpdateHeuristics,
+                backgroundRequestDao,
+                addressUpdateTracker,
+                List.of(addressSubscriber),
+                backgroundTaskExecutor
+        );
+        service.subscribeToChanges(Set.of(ADDRESS, ADDRESS_2), BTC);
+        verify(addressSubscriber).subscribe(Set.of(ADDRESS, ADDRESS_2), BTC);
+    }
+
     private void mockAddressTransactionsFromProvider(
             TransactionsRequestKey requestKey,
             RequestPriority priority,
@@ -149,6 +187,45 @@ class AddressTransactionsServiceTest {
             verify(transactionService).requestInBackground(ADDRESS_TRANSACTIONS.transactionHashes(), BTC);
         }
 
+        @Test
+        void requestTransactionsInBackground_journals_request_until_finished() {
+            when(blockHeightService.getBlockHeight(BTC)).thenReturn(LAST_CHECKED_AT_BLOCK_HEIGHT);
+            mockAddressTransactionsFromProvider(requestKey, LOWEST, ADDRESS_TRANSACTIONS);
+            addressTransactionsService.requestTransactionsInBackground(ADDRESS, BTC);
+            InOrder inOrder = inOrder(backgroundRequestDao, addressTransactionsProvider);
+            inOrder.verify(backgroundRequestDao).saveAddressTransactionsRequest(ADDRESS, BTC);
+            inOrder.verify(addressTransactionsProvider).getAddressTransactions(any());
+            inOrder.verify(backgroundRequestDao).removeAddressTransactionsRequest(ADDRESS, BTC);
+        }
+
+        @Test
+        void requestTransactionsInBackground_journals_request_before_it_is_executed() {
+            lenient().doNothing().when(backgroundTaskExecutor).execute(any());
+            addressTransactionsService.requestTransactionsInBackground(ADDRESS, BTC);
+            InOrder inOrder = inOrder(backgroundRequestDao, backgroundTaskExecutor);
+            inOrder.verify(backgroundRequestDao).saveAddressTransactionsRequest(ADDRESS, BTC);
+            inOrder.verify(backgroundTaskExecutor).execute(any());
+            verifyNoInteractions(addressTransactionsProvider);
+        }
+
+        @Test
+        void requestTransactionsInBackground_is_executed_if_journal_fails() {
+            when(blockHeightService.getBlockHeight(BTC)).thenReturn(LAST_CHECKED_AT_BLOCK_HEIGHT);
+            mockAddressTransactionsFromProvider(requestKey, LOWEST, ADDRESS_TRANSACTIONS);
+            doThrow(IllegalStateException.class)
+                    .when(backgroundRequestDao).saveAddressTransactionsRequest(any(), any());
+            addressTransactionsService.requestTransactionsInBackground(ADDRESS, BTC);
+            verify(addressTransactionsDao).saveAddressTransactions(ADDRESS_TRANSACTIONS);
+        }
+
+        @Test
+        void requestTransactionsInBackground_keeps_journaled_request_without_result() {
+            when(blockHeightService.getBlockHeight(BTC)).thenReturn(LAST_CHECKED_AT_BLOCK_HEIGHT);
+            mockAddressTransactionsFromProvider(requestKey, LOWEST, UNKNOWN_BTC);
+            addressTransactionsService.requestTransactionsInBackground(ADDRESS, BTC);
+            verify(backgroundRequestDao, never()).removeAddressTransactionsRequest(any(), any());
+        }
+
         @Test
         void does_not_persist_unknown_transaction_addresses() {
             when(blockHeightService.getBlockHeight(BTC)).thenReturn(LAST_CHECKED_AT_BLOCK_HEIGHT);
@@ -262,6 +339,37 @@ class AddressTransactionsServiceTest {
             );
         }
 
+        @Test
+        void tracks_update() {
+            mockAddressTransactionsFromProvider(requestKey, STANDARD, ADDRESS_TRANSACTIONS_UPDATED);
+            addressTransactionsService.getTransactions(ADDRESS, BTC);
+            InOrder inOrder = inOrder(addressUpdateTracker, addressTransactionsProvider);
+            inOrder.verify(addressUpdateTracker).updateStarted(ADDRESS, BTC);
+            inOrder.verify(addressTransactionsProvider).getAddressTransactions(any());
+            inOrder.verify(addressUpdateTracker).updateFinished(ADDRESS, BTC);
+        }
+
+        @Test
+        void does_not_track_update_as_finished_if_update_fails() {
+            when(addressTransactionsProvider.getAddressTransactions(argIsRequest(requestKey, STANDARD)))
+                    .then(invocation -> {
+                        AddressTransactionsRequest request = invocation.getArgument(0);
+                        PrioritizedRequestWithResult<TransactionsRequestKey, AddressTransactions> resultFuture =
+                                request.getWithResultFuture();
+                        resultFuture.stopWithoutResult();
+                        return resultFuture;
+                    });
+            addressTransactionsService.getTransactions(ADDRESS, BTC);
+            verify(addressUpdateTracker, never()).updateFinished(any(), any());
+        }
+
+        @Test
+        void does_not_track_update_as_finished_if_only_known_transactions_are_returned() {
+            mockAddressTransactionsFromProvider(requestKey, STANDARD, ADDRESS_TRANSACTIONS);
+            addressTransactionsService.getTransactions(ADDRESS, BTC);
+            verify(addressUpdateTracker, never()).updateFinished(any(), any());
+        }
+
         @Test
         void persists_transaction_addresses() {
             mockAddressTransactionsFromProvider(
@@ -0,0 +1,78 @@
+package de.cotto.bitbook.backend.transaction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Set;
+
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_2;
+import static de.cotto.bitbook.backend.model.Chain.BCH;
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BackgroundRequestReplayerTest {
+    @InjectMocks
+    private BackgroundRequestReplayer backgroundRequestReplayer;
+
+    @Mock
+    private BackgroundRequestDao backgroundRequestDao;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private AddressTransactionsService addressTransactionsService;
+
+    @Test
+    void nothing_to_replay() {
+        backgroundRequestReplayer.replay();
+        verifyNoInteractions(transactionService);
+        verifyNoInteractions(addressTransactionsService);
+    }
+
+    @Test
+    void drops_requests_replayed_three_times() {
+        backgroundRequestReplayer.replay();
+        verify(backgroundRequestDao).removeRequestsReplayedAtLeast(3);
+    }
+
+    @Test
+    void counts_replay_before_requests_are_replayed() {
+        when(backgroundRequestDao.getTransactionRequests()).thenReturn(Map.of(BTC, Set.of(TRANSACTION_HASH)));
+        backgroundRequestReplayer.replay();
+        InOrder inOrder = inOrder(backgroundRequestDao, transactionService);
+        inOrder.verify(backgroundRequestDao).removeRequestsReplayedAtLeast(3);
+        inOrder.verify(backgroundRequestDao).incrementReplayAttempts();
+        inOrder.verify(transactionService).requestInBackground(Set.of(TRANSACTION_HASH), BTC);
+    }
+
+    @Test
+    void replays_transaction_requests() {
+        when(backgroundRequestDao.getTransactionRequests())
+                .thenReturn(Map.of(BTC, Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BCH, Set.of(TRANSACTION_HASH)));
+        backgroundRequestReplayer.replay();
+        verify(transactionService).requestInBackground(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC);
+        verify(transactionService).requestInBackground(Set.of(TRANSACTION_HASH), BCH);
+    }
+
+    @Test
+    void replays_address_transactions_requests() {
+        when(backgroundRequestDao.getAddressTransactionsRequests())
+                .thenReturn(Map.of(BTC, Set.of(ADDRESS, ADDRESS_2)));
+        backgroundRequestReplayer.replay();
+        verify(addressTransactionsService).requestTransactionsInBackground(ADDRESS, BTC);
+        verify(addressTransactionsService).requestTransactionsInBackground(ADDRESS_2, BTC);
+    }
+}
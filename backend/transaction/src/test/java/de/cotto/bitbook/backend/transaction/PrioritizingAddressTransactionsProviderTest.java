@@ -2,6 +2,7 @@ package de.cotto.bitbook.backend.transaction;
 
 import de.cotto.bitbook.backend.model.AddressTransactions;
 import de.cotto.bitbook.backend.model.ProviderException;
+import de.cotto.bitbook.backend.request.ProviderLimits;
 import de.cotto.bitbook.backend.request.ResultFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +22,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class PrioritizingAddressTransactionsProviderTest {
+    private static final ProviderLimits PROVIDER_LIMITS = ProviderLimits.ofDefaults();
     private final ExecutorService executor = Executors.newFixedThreadPool(5);
 
     private AddressTransactionsProvider addressTransactionsProvider;
@@ -30,7 +32,8 @@ class PrioritizingAddressTransactionsProviderTest {
     void setUp() {
         addressTransactionsProvider = mock(AddressTransactionsProvider.class);
         lenient().when(addressTransactionsProvider.isSupported(any())).thenReturn(true);
-        prioritizingPriceProvider = new PrioritizingAddressTransactionsProvider(List.of(addressTransactionsProvider));
+        prioritizingPriceProvider =
+                new PrioritizingAddressTransactionsProvider(List.of(addressTransactionsProvider), PROVIDER_LIMITS);
     }
 
     @Test
@@ -1,6 +1,7 @@
 package de.cotto.bitbook.backend.transaction;
 
 import de.cotto.bitbook.backend.model.ProviderException;
+import de.cotto.bitbook.backend.request.ProviderLimits;
 import feign.FeignException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class PrioritizingBlockchainInfoBlockHeightProviderTest {
+    private static final ProviderLimits PROVIDER_LIMITS = ProviderLimits.ofDefaults();
     private final ExecutorService executor = Executors.newFixedThreadPool(5);
 
     private PrioritizingBlockHeightProvider prioritizingBlockHeightProvider;
@@ -37,8 +39,8 @@ class PrioritizingBlockchainInfoBlockHeightProviderTest {
 
     @BeforeEach
     void setUp() {
-        prioritizingBlockHeightProvider =
-                new PrioritizingBlockHeightProvider(List.of(blockHeightProvider1, blockHeightProvider2));
+        List<BlockHeightProvider> providers = List.of(blockHeightProvider1, blockHeightProvider2);
+        prioritizingBlockHeightProvider = new PrioritizingBlockHeightProvider(providers, PROVIDER_LIMITS);
         lenient().when(blockHeightProvider1.isSupported(BTC)).thenReturn(true);
         lenient().when(blockHeightProvider2.isSupported(BTC)).thenReturn(true);
     }
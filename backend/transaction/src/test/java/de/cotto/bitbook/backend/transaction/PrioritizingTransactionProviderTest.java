@@ -4,6 +4,7 @@ import de.cotto.bitbook.backend.model.HashAndChain;
 import de.cotto.bitbook.backend.model.ProviderException;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.request.ProviderLimits;
 import de.cotto.bitbook.backend.request.ResultFuture;
 import feign.FeignException;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
@@ -31,6 +32,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class PrioritizingTransactionProviderTest {
+    private static final ProviderLimits PROVIDER_LIMITS = ProviderLimits.ofDefaults();
     private static final TransactionHash OTHER_HASH = new TransactionHash("xxx");
 
     private final ExecutorService executor = Executors.newFixedThreadPool(5);
@@ -45,8 +47,8 @@ class PrioritizingTransactionProviderTest {
         transactionProvider2 = mock(TransactionProvider.class);
         lenient().when(transactionProvider1.isSupported(any())).thenReturn(true);
         lenient().when(transactionProvider2.isSupported(any())).thenReturn(true);
-        prioritizingTransactionProvider =
-                new PrioritizingTransactionProvider(List.of(transactionProvider1, transactionProvider2));
+        List<Provider<HashAndChain, Transaction>> providers = List.of(transactionProvider1, transactionProvider2);
+        prioritizingTransactionProvider = new PrioritizingTransactionProvider(providers, PROVIDER_LIMITS);
     }
 
     @Test
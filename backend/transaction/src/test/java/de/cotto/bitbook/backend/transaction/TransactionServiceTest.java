@@ -1,5 +1,6 @@
 package de.cotto.bitbook.backend.transaction;
 
+import de.cotto.bitbook.backend.BackgroundTaskExecutor;
 import de.cotto.bitbook.backend.model.HashAndChain;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
@@ -8,6 +9,7 @@ import de.cotto.bitbook.backend.request.ResultFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -26,10 +28,13 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -53,10 +58,20 @@ class TransactionServiceTest {
     @Mock
     private BlockHeightService blockHeightService;
 
+    @Mock
+    private BackgroundRequestDao backgroundRequestDao;
+
+    @Mock
+    private BackgroundTaskExecutor backgroundTaskExecutor;
+
     @BeforeEach
     void setUp() {
-        when(transactionDao.getTransaction(any(), eq(BTC))).thenReturn(Transaction.unknown(BTC));
+        lenient().when(transactionDao.getTransaction(any(), eq(BTC))).thenReturn(Transaction.unknown(BTC));
         lenient().when(blockHeightService.getBlockHeight(BTC)).thenReturn(BLOCK_COUNT_IN_CHAIN);
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(backgroundTaskExecutor).execute(any());
     }
 
     @Test
@@ -203,6 +218,39 @@ class TransactionServiceTest {
         assertThat(transaction).isEqualTo(TRANSACTION);
     }
 
+    @Test
+    void uses_persisted_downloads_by_hashes() {
+        when(transactionDao.getTransactions(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC))
+                .thenReturn(Set.of(TRANSACTION, TRANSACTION_2));
+
+        Set<Transaction> transactions =
+                transactionService.getTransactionDetails(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC);
+
+        assertThat(transactions).containsExactlyInAnyOrder(TRANSACTION, TRANSACTION_2);
+        verifyNoInteractions(prioritizingTransactionProvider);
+        verify(transactionDao, never()).getTransaction(any(), any());
+    }
+
+    @Test
+    void downloads_only_transactions_that_are_not_persisted_by_hashes() {
+        when(transactionDao.getTransactions(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC))
+                .thenReturn(Set.of(TRANSACTION));
+        mockResult(TRANSACTION_HASH_2, TRANSACTION_2);
+
+        Set<Transaction> transactions =
+                transactionService.getTransactionDetails(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC);
+
+        assertThat(transactions).containsExactlyInAnyOrder(TRANSACTION, TRANSACTION_2);
+        verify(prioritizingTransactionProvider, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void requests_price_when_transaction_was_persisted_by_hashes() {
+        when(transactionDao.getTransactions(Set.of(TRANSACTION_HASH), BTC)).thenReturn(Set.of(TRANSACTION));
+        transactionService.getTransactionDetails(Set.of(TRANSACTION_HASH), BTC);
+        verify(priceService).requestPriceInBackground(TRANSACTION.getTime(), BTC);
+    }
+
     @Test
     void requests_price_when_transaction_was_persisted() {
         when(transactionDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(TRANSACTION);
@@ -220,6 +268,59 @@ class TransactionServiceTest {
                 .getTransaction(argThat(request -> request.getPriority() == LOWEST));
     }
 
+    @Test
+    void request_in_background_journals_request_until_finished() {
+        mockResult(TRANSACTION_HASH, TRANSACTION);
+        transactionService.requestInBackground(Set.of(TRANSACTION_HASH), BTC);
+        InOrder inOrder = inOrder(backgroundRequestDao, prioritizingTransactionProvider);
+        inOrder.verify(backgroundRequestDao).saveTransactionRequests(Set.of(TRANSACTION_HASH), BTC);
+        inOrder.verify(prioritizingTransactionProvider).getTransaction(any());
+        inOrder.verify(backgroundRequestDao).removeTransactionRequests(Set.of(TRANSACTION_HASH), BTC);
+    }
+
+    @Test
+    void request_in_background_journals_request_before_it_is_executed() {
+        lenient().doNothing().when(backgroundTaskExecutor).execute(any());
+        transactionService.requestInBackground(Set.of(TRANSACTION_HASH), BTC);
+        InOrder inOrder = inOrder(backgroundRequestDao, backgroundTaskExecutor);
+        inOrder.verify(backgroundRequestDao).saveTransactionRequests(Set.of(TRANSACTION_HASH), BTC);
+        inOrder.verify(backgroundTaskExecutor).execute(any());
+        verifyNoInteractions(prioritizingTransactionProvider);
+    }
+
+    @Test
+    void request_in_background_is_executed_if_journal_fails() {
+        mockResult(TRANSACTION_HASH, TRANSACTION);
+        doThrow(IllegalStateException.class).when(backgroundRequestDao).saveTransactionRequests(any(), any());
+        transactionService.requestInBackground(Set.of(TRANSACTION_HASH), BTC);
+        verify(transactionDao).saveTransaction(TRANSACTION);
+    }
+
+    @Test
+    void request_in_background_keeps_journaled_request_without_result() {
+        TransactionHash anotherHash = new TransactionHash("xxx");
+        mockResult(TRANSACTION_HASH, TRANSACTION);
+        ResultFuture<Transaction> resultFuture = new ResultFuture<>();
+        resultFuture.stopWithoutResult();
+        when(prioritizingTransactionProvider.getTransaction(requestFor(anotherHash))).thenReturn(resultFuture);
+        transactionService.requestInBackground(Set.of(TRANSACTION_HASH, anotherHash), BTC);
+        verify(backgroundRequestDao).removeTransactionRequests(Set.of(TRANSACTION_HASH), BTC);
+    }
+
+    @Test
+    void request_in_background_removes_persisted_transaction_from_journal() {
+        when(transactionDao.getTransactions(Set.of(TRANSACTION_HASH), BTC)).thenReturn(Set.of(TRANSACTION));
+        transactionService.requestInBackground(Set.of(TRANSACTION_HASH), BTC);
+        verify(backgroundRequestDao).removeTransactionRequests(Set.of(TRANSACTION_HASH), BTC);
+    }
+
+    @Test
+    void getTransactionDetails_is_not_journaled() {
+        mockResult(TRANSACTION_HASH, TRANSACTION);
+        transactionService.getTransactionDetails(TRANSACTION_HASH, BTC);
+        verifyNoInteractions(backgroundRequestDao);
+    }
+
     private void mockResult(TransactionHash transactionHash, Transaction transaction) {
         ResultFuture<Transaction> resultFuture = new ResultFuture<>();
         resultFuture.provideResult(transaction);
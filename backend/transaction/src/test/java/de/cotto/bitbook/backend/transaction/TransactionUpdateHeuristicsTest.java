@@ -10,6 +10,7 @@ import de.cotto.bitbook.backend.model.Input;
 import de.cotto.bitbook.backend.model.Output;
 import de.cotto.bitbook.backend.model.Transaction;
 import de.cotto.bitbook.backend.model.TransactionHash;
+import de.cotto.bitbook.backend.transaction.AddressUpdateTracker.State;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -100,6 +101,9 @@ class TransactionUpdateHeuristicsTest {
     @Mock
     private TransactionDescriptionService transactionDescriptionService;
 
+    @Mock
+    private AddressUpdateTracker addressUpdateTracker;
+
     @BeforeEach
     void setUp() {
         lenient().when(transactionDao.getTransaction(any(), eq(BTC))).thenReturn(Transaction.unknown(BTC));
@@ -139,6 +143,25 @@ class TransactionUpdateHeuristicsTest {
         assertThat(sortedList).isEqualTo(expectedOrder);
     }
 
+    @Test
+    void up_to_date_according_to_subscription() {
+        when(addressUpdateTracker.getState(ADDRESS, BTC)).thenReturn(State.UP_TO_DATE);
+        assertThat(transactionUpdateHeuristics.isRecentEnough(ADDRESS_TRANSACTIONS)).isTrue();
+    }
+
+    @Test
+    void changed_according_to_subscription() {
+        when(addressUpdateTracker.getState(ADDRESS, BTC)).thenReturn(State.CHANGED);
+        assertThat(transactionUpdateHeuristics.isRecentEnough(ADDRESS_TRANSACTIONS)).isFalse();
+    }
+
+    @Test
+    void unknown_state_of_subscription_uses_age() {
+        when(addressUpdateTracker.getState(ADDRESS, BTC)).thenReturn(State.UNKNOWN);
+        mockAge(MANY_TRANSACTIONS_AGE_LIMIT);
+        assertThat(transactionUpdateHeuristics.isRecentEnough(ADDRESS_TRANSACTIONS)).isTrue();
+    }
+
     @Test
     void recent_enough() {
         mockAge(WITH_BALANCE_AGE_LIMIT);
@@ -1,6 +1,5 @@
 package de.cotto.bitbook.backend.transaction.persistence;
 
-import de.cotto.bitbook.backend.model.Address;
 import de.cotto.bitbook.backend.transaction.AddressTransactionsDao;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,8 +11,8 @@ import java.util.Set;
 
 import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
 import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_2;
-import static de.cotto.bitbook.backend.transaction.persistence.InputJpaDtoFixtures.INPUT_JPA_DTO_1;
-import static de.cotto.bitbook.backend.transaction.persistence.OutputJpaDtoFixtures.OUTPUT_JPA_DTO_1;
+import static de.cotto.bitbook.backend.model.InputFixtures.INPUT_ADDRESS_1;
+import static de.cotto.bitbook.backend.model.OutputFixtures.OUTPUT_ADDRESS_1;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
@@ -28,10 +27,7 @@ class AddressCompletionDaoImplTest {
     private AddressTransactionsDao addressTransactionsDao;
 
     @Mock
-    private InputRepository inputRepository;
-
-    @Mock
-    private OutputRepository outputRepository;
+    private TransactionRepository transactionRepository;
 
     @Test
     void completeFromAddressTransactions() {
@@ -42,11 +38,9 @@ class AddressCompletionDaoImplTest {
 
     @Test
     void completeFromInputsAndOutputs() {
-        when(inputRepository.findBySourceAddressStartingWith(PREFIX)).thenReturn(Set.of(INPUT_JPA_DTO_1));
-        when(outputRepository.findByTargetAddressStartingWith(PREFIX)).thenReturn(Set.of(OUTPUT_JPA_DTO_1));
-        assertThat(addressCompletionDao.completeFromInputsAndOutputs(PREFIX)).containsExactlyInAnyOrder(
-                        new Address(INPUT_JPA_DTO_1.getAddress()),
-                        new Address(OUTPUT_JPA_DTO_1.getAddress())
-        );
+        when(transactionRepository.findAddressesStartingWith(PREFIX))
+                .thenReturn(Set.of(INPUT_ADDRESS_1.toString(), OUTPUT_ADDRESS_1.toString()));
+        assertThat(addressCompletionDao.completeFromInputsAndOutputs(PREFIX))
+                .containsExactlyInAnyOrder(INPUT_ADDRESS_1, OUTPUT_ADDRESS_1);
     }
 }
\ No newline at end of file
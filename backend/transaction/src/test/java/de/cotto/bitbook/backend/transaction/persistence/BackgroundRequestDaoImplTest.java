@@ -0,0 +1,125 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS;
+import static de.cotto.bitbook.backend.model.AddressFixtures.ADDRESS_2;
+import static de.cotto.bitbook.backend.model.Chain.BCH;
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
+import static de.cotto.bitbook.backend.transaction.persistence.BackgroundRequestJpaDto.ADDRESS_TRANSACTIONS;
+import static de.cotto.bitbook.backend.transaction.persistence.BackgroundRequestJpaDto.TRANSACTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BackgroundRequestDaoImplTest {
+    @InjectMocks
+    private BackgroundRequestDaoImpl backgroundRequestDao;
+
+    @Mock
+    private BackgroundRequestRepository repository;
+
+    @Test
+    void saveTransactionRequests() {
+        backgroundRequestDao.saveTransactionRequests(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC);
+        verify(repository).mergeRequest(TRANSACTION, TRANSACTION_HASH.toString(), "BTC");
+        verify(repository).mergeRequest(TRANSACTION, TRANSACTION_HASH_2.toString(), "BTC");
+    }
+
+    @Test
+    void saveTransactionRequests_skips_journaled_requests() {
+        when(repository.findExistingRequestKeys(eq(TRANSACTION), eq("BTC"), any()))
+                .thenReturn(Set.of(TRANSACTION_HASH.toString()));
+        backgroundRequestDao.saveTransactionRequests(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC);
+        verify(repository, times(1)).mergeRequest(any(), any(), any());
+        verify(repository).mergeRequest(TRANSACTION, TRANSACTION_HASH_2.toString(), "BTC");
+    }
+
+    @Test
+    void removeTransactionRequests() {
+        backgroundRequestDao.removeTransactionRequests(Set.of(TRANSACTION_HASH), BTC);
+        verify(repository).deleteRequests(TRANSACTION, "BTC", Set.of(TRANSACTION_HASH.toString()));
+    }
+
+    @Test
+    void removeTransactionRequests_empty() {
+        backgroundRequestDao.removeTransactionRequests(Set.of(), BTC);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void getTransactionRequests_empty() {
+        assertThat(backgroundRequestDao.getTransactionRequests()).isEmpty();
+    }
+
+    @Test
+    void getTransactionRequests() {
+        when(repository.findByRequestType(TRANSACTION)).thenReturn(List.of(
+                new BackgroundRequestJpaDto(TRANSACTION, TRANSACTION_HASH.toString(), "BTC"),
+                new BackgroundRequestJpaDto(TRANSACTION, TRANSACTION_HASH_2.toString(), "BTC"),
+                new BackgroundRequestJpaDto(TRANSACTION, TRANSACTION_HASH.toString(), "BCH")
+        ));
+        assertThat(backgroundRequestDao.getTransactionRequests()).isEqualTo(Map.of(
+                BTC, Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2),
+                BCH, Set.of(TRANSACTION_HASH)
+        ));
+    }
+
+    @Test
+    void saveAddressTransactionsRequest() {
+        backgroundRequestDao.saveAddressTransactionsRequest(ADDRESS, BTC);
+        verify(repository).mergeRequest(ADDRESS_TRANSACTIONS, ADDRESS.toString(), "BTC");
+    }
+
+    @Test
+    void saveAddressTransactionsRequest_already_journaled() {
+        when(repository.findExistingRequestKeys(ADDRESS_TRANSACTIONS, "BTC", List.of(ADDRESS.toString())))
+                .thenReturn(Set.of(ADDRESS.toString()));
+        backgroundRequestDao.saveAddressTransactionsRequest(ADDRESS, BTC);
+        verify(repository, never()).mergeRequest(any(), any(), any());
+    }
+
+    @Test
+    void removeAddressTransactionsRequest() {
+        backgroundRequestDao.removeAddressTransactionsRequest(ADDRESS, BTC);
+        verify(repository).deleteRequests(ADDRESS_TRANSACTIONS, "BTC", Set.of(ADDRESS.toString()));
+    }
+
+    @Test
+    void removeRequestsReplayedAtLeast() {
+        when(repository.deleteByReplayAttemptsAtLeast(3)).thenReturn(2);
+        assertThat(backgroundRequestDao.removeRequestsReplayedAtLeast(3)).isEqualTo(2);
+    }
+
+    @Test
+    void incrementReplayAttempts() {
+        backgroundRequestDao.incrementReplayAttempts();
+        verify(repository).incrementReplayAttempts();
+    }
+
+    @Test
+    void getAddressTransactionsRequests() {
+        when(repository.findByRequestType(ADDRESS_TRANSACTIONS)).thenReturn(List.of(
+                new BackgroundRequestJpaDto(ADDRESS_TRANSACTIONS, ADDRESS.toString(), "BTC"),
+                new BackgroundRequestJpaDto(ADDRESS_TRANSACTIONS, ADDRESS_2.toString(), "BTC")
+        ));
+        assertThat(backgroundRequestDao.getAddressTransactionsRequests())
+                .isEqualTo(Map.of(BTC, Set.of(ADDRESS, ADDRESS_2)));
+    }
+}
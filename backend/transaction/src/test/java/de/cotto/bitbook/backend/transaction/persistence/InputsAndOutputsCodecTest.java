@@ -0,0 +1,72 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Coins;
+import de.cotto.bitbook.backend.model.Input;
+import de.cotto.bitbook.backend.model.Output;
+import de.cotto.bitbook.backend.transaction.persistence.InputsAndOutputsCodec.InputsAndOutputs;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static de.cotto.bitbook.backend.model.InputFixtures.INPUT_1;
+import static de.cotto.bitbook.backend.model.InputFixtures.INPUT_2;
+import static de.cotto.bitbook.backend.model.OutputFixtures.OUTPUT_1;
+import static de.cotto.bitbook.backend.model.OutputFixtures.OUTPUT_2;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class InputsAndOutputsCodecTest {
+    @Test
+    void round_trip() {
+        byte[] encoded = InputsAndOutputsCodec.encode(List.of(INPUT_1, INPUT_2), List.of(OUTPUT_1, OUTPUT_2));
+        assertThat(InputsAndOutputsCodec.decode(encoded))
+                .isEqualTo(new InputsAndOutputs(List.of(INPUT_1, INPUT_2), List.of(OUTPUT_1, OUTPUT_2)));
+    }
+
+    @Test
+    void round_trip_without_inputs() {
+        byte[] encoded = InputsAndOutputsCodec.encode(List.of(), List.of(OUTPUT_1));
+        assertThat(InputsAndOutputsCodec.decode(encoded)).isEqualTo(new InputsAndOutputs(List.of(), List.of(OUTPUT_1)));
+    }
+
+    @Test
+    void round_trip_keeps_order_and_invalid_address() {
+        List<Output> outputs = List.of(new Output(Coins.NONE, Address.NONE), OUTPUT_2, OUTPUT_1);
+        byte[] encoded = InputsAndOutputsCodec.encode(List.of(INPUT_2), outputs);
+        assertThat(InputsAndOutputsCodec.decode(encoded)).isEqualTo(new InputsAndOutputs(List.of(INPUT_2), outputs));
+    }
+
+    @Test
+    void encodes_small_values_in_single_bytes() {
+        Address address = new Address("a");
+        byte[] encoded = InputsAndOutputsCodec.encode(
+                List.of(new Input(Coins.ofSatoshis(1), address)),
+                List.of(new Output(Coins.ofSatoshis(127), address))
+        );
+        assertThat(encoded).containsExactly(1, 1, 1, 'a', 1, 1, 0, 1, 127, 0);
+    }
+
+    @Test
+    void encodes_larger_values_with_continuation_bytes() {
+        Address address = new Address("a");
+        byte[] encoded = InputsAndOutputsCodec.encode(
+                List.of(new Input(Coins.ofSatoshis(300), address)),
+                List.of()
+        );
+        assertThat(encoded).containsExactly(1, 1, 1, 'a', 1, 0xAC, 0x02, 0, 0);
+    }
+
+    @Test
+    void stores_address_used_several_times_only_once() {
+        Address address = new Address(INPUT_1.getAddress().toString());
+        byte[] once = InputsAndOutputsCodec.encode(List.of(INPUT_1), List.of());
+        byte[] twice = InputsAndOutputsCodec.encode(List.of(INPUT_1), List.of(new Output(Coins.NONE, address)));
+        assertThat(twice).hasSize(once.length + 2);
+    }
+
+    @Test
+    void decode_unsupported_version() {
+        assertThatIllegalArgumentException().isThrownBy(() -> InputsAndOutputsCodec.decode(new byte[]{2, 0, 0, 0}));
+    }
+}
@@ -1,56 +1,242 @@
 package de.cotto.bitbook.backend.transaction.persistence;
 
 import de.cotto.bitbook.backend.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.ZoneOffset;
-import java.util.Optional;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static de.cotto.bitbook.backend.model.Chain.BCH;
 import static de.cotto.bitbook.backend.model.Chain.BTC;
-import static de.cotto.bitbook.backend.model.TransactionFixtures.BLOCK_HEIGHT;
-import static de.cotto.bitbook.backend.model.TransactionFixtures.DATE_TIME;
 import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION;
+import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION_2;
 import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
-import static de.cotto.bitbook.backend.transaction.persistence.TransactionJpaDtoFixtures.TRANSACTION_JPA_DTO;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionDaoImplTest {
+    private static final long MAXIMUM_WEIGHT = 1_000;
+    private static final int WRITE_BUFFER_CAPACITY = 2;
 
-    @InjectMocks
     private TransactionDaoImpl transactionDao;
 
     @Mock
-    private TransactionRepository transactionRepository;
+    private TransactionJpaDao transactionJpaDao;
+
+    @BeforeEach
+    void setUp() {
+        transactionDao = new TransactionDaoImpl(transactionJpaDao, MAXIMUM_WEIGHT, WRITE_BUFFER_CAPACITY);
+    }
+
+    @Test
+    void getTransaction() {
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(TRANSACTION);
+        assertThat(transactionDao.getTransaction(TRANSACTION_HASH, BTC)).isEqualTo(TRANSACTION);
+    }
 
     @Test
     void getTransaction_unknown() {
-        Transaction transaction = transactionDao.getTransaction(TRANSACTION_HASH, BTC);
-        assertThat(transaction).isEqualTo(Transaction.unknown(BTC));
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(Transaction.unknown(BTC));
+        assertThat(transactionDao.getTransaction(TRANSACTION_HASH, BTC)).isEqualTo(Transaction.unknown(BTC));
     }
 
     @Test
-    void getTransaction() {
-        when(transactionRepository.findById(new TransactionJpaDtoId(TRANSACTION_HASH.toString(), BTC.toString())))
-                .thenReturn(Optional.of(TRANSACTION_JPA_DTO));
+    void getTransaction_loads_from_database_only_once() {
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(TRANSACTION);
+        transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+        assertThat(transactionDao.getTransaction(TRANSACTION_HASH, BTC)).isEqualTo(TRANSACTION);
+        verify(transactionJpaDao, times(1)).getTransaction(TRANSACTION_HASH, BTC);
+    }
+
+    @Test
+    void getTransaction_does_not_cache_unknown_transaction() {
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(Transaction.unknown(BTC));
+        transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+        transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+        verify(transactionJpaDao, times(2)).getTransaction(TRANSACTION_HASH, BTC);
+    }
+
+    @Test
+    void getTransaction_cache_distinguishes_chains() {
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(TRANSACTION);
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BCH)).thenReturn(Transaction.unknown(BCH));
+        transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+        assertThat(transactionDao.getTransaction(TRANSACTION_HASH, BCH)).isEqualTo(Transaction.unknown(BCH));
+    }
+
+    @Test
+    void getTransactions() {
+        when(transactionJpaDao.getTransactions(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC))
+                .thenReturn(Set.of(TRANSACTION));
+        assertThat(transactionDao.getTransactions(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC))
+                .containsExactly(TRANSACTION);
+    }
+
+    @Test
+    void getTransactions_loads_only_missing_transactions() {
+        transactionDao.saveTransaction(TRANSACTION);
+        when(transactionJpaDao.getTransactions(Set.of(TRANSACTION_HASH_2), BTC)).thenReturn(Set.of(TRANSACTION_2));
 
-        Transaction transaction = transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+        Set<Transaction> transactions =
+                transactionDao.getTransactions(Set.of(TRANSACTION_HASH, TRANSACTION_HASH_2), BTC);
 
-        assertThat(transaction).isEqualTo(TRANSACTION);
+        assertThat(transactions).containsExactlyInAnyOrder(TRANSACTION, TRANSACTION_2);
     }
 
     @Test
-    void saveTransaction() {
+    void getTransactions_all_cached() {
         transactionDao.saveTransaction(TRANSACTION);
-        verify(transactionRepository).save(argThat(dto -> TRANSACTION_HASH.toString().equals(dto.getHash())));
-        verify(transactionRepository).save(argThat(dto -> BLOCK_HEIGHT == dto.getBlockHeight()));
-        verify(transactionRepository).save(argThat(dto -> DATE_TIME.toEpochSecond(ZoneOffset.UTC) == dto.getTime()));
+        assertThat(transactionDao.getTransactions(Set.of(TRANSACTION_HASH), BTC)).containsExactly(TRANSACTION);
+        verify(transactionJpaDao, never()).getTransactions(any(), any());
+    }
+
+    @Test
+    void getTransactions_adds_to_cache() {
+        when(transactionJpaDao.getTransactions(Set.of(TRANSACTION_HASH), BTC)).thenReturn(Set.of(TRANSACTION));
+        transactionDao.getTransactions(Set.of(TRANSACTION_HASH), BTC);
+        assertThat(transactionDao.getTransaction(TRANSACTION_HASH, BTC)).isEqualTo(TRANSACTION);
+        verify(transactionJpaDao, never()).getTransaction(any(), any());
+    }
+
+    @Test
+    void saveTransaction_is_written_behind() {
+        transactionDao.saveTransaction(TRANSACTION);
+        verify(transactionJpaDao, never()).saveTransactions(any());
+    }
+
+    @Test
+    void saveTransaction_adds_to_cache() {
+        transactionDao.saveTransaction(TRANSACTION);
+        assertThat(transactionDao.getTransaction(TRANSACTION_HASH, BTC)).isEqualTo(TRANSACTION);
+        verify(transactionJpaDao, times(0)).getTransaction(TRANSACTION_HASH, BTC);
+    }
+
+    @Test
+    void saveTransaction_pending_transaction_is_visible_without_cache() {
+        TransactionDaoImpl uncachedDao = new TransactionDaoImpl(transactionJpaDao, 0, WRITE_BUFFER_CAPACITY);
+        uncachedDao.saveTransaction(TRANSACTION);
+        assertThat(uncachedDao.getTransaction(TRANSACTION_HASH, BTC)).isEqualTo(TRANSACTION);
+        verify(transactionJpaDao, never()).getTransaction(any(), any());
+    }
+
+    @Test
+    void saveTransaction_flushes_in_background_if_buffer_is_full() {
+        transactionDao.saveTransaction(TRANSACTION);
+        transactionDao.saveTransaction(TRANSACTION_2);
+        verify(transactionJpaDao, timeout(1_000)).saveTransactions(argThat(
+                transactions -> transactions.containsAll(List.of(TRANSACTION, TRANSACTION_2))
+        ));
+    }
+
+    @Test
+    void saveTransaction_flushes_synchronously_if_buffer_keeps_growing() {
+        TransactionDaoImpl smallBufferDao = new TransactionDaoImpl(transactionJpaDao, MAXIMUM_WEIGHT, 1);
+        Set<Thread> flushingThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            flushingThreads.add(Thread.currentThread());
+            throw new IllegalStateException();
+        }).when(transactionJpaDao).saveTransactions(any());
+        smallBufferDao.saveTransaction(TRANSACTION);
+        smallBufferDao.saveTransaction(TRANSACTION_2);
+        assertThat(flushingThreads).contains(Thread.currentThread());
+    }
+
+    @Test
+    void flush() {
+        transactionDao.saveTransaction(TRANSACTION);
+        transactionDao.flush();
+        verify(transactionJpaDao).saveTransactions(List.of(TRANSACTION));
+    }
+
+    @Test
+    void flush_nothing_pending() {
+        transactionDao.flush();
+        verify(transactionJpaDao, never()).saveTransactions(any());
+    }
+
+    @Test
+    void flush_persists_transaction_only_once() {
+        transactionDao.saveTransaction(TRANSACTION);
+        transactionDao.flush();
+        transactionDao.flush();
+        verify(transactionJpaDao, times(1)).saveTransactions(any());
+    }
+
+    @Test
+    void flush_retries_transactions_that_cannot_be_persisted() {
+        doThrow(IllegalStateException.class).doNothing().when(transactionJpaDao).saveTransactions(any());
+        transactionDao.saveTransaction(TRANSACTION);
+        transactionDao.flush();
+        transactionDao.flush();
+        transactionDao.flush();
+        verify(transactionJpaDao, times(2)).saveTransactions(List.of(TRANSACTION));
+    }
+
+    @Test
+    void flush_drops_transactions_after_failed_attempts() {
+        doThrow(IllegalStateException.class).when(transactionJpaDao).saveTransactions(any());
+        transactionDao.saveTransaction(TRANSACTION);
+        for (int i = 0; i < 4; i++) {
+            transactionDao.flush();
+        }
+        verify(transactionJpaDao, times(3)).saveTransactions(any());
+    }
+
+    @Test
+    void flush_removes_dropped_transactions_from_cache() {
+        doThrow(IllegalStateException.class).when(transactionJpaDao).saveTransactions(any());
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(Transaction.unknown(BTC));
+        transactionDao.saveTransaction(TRANSACTION);
+        for (int i = 0; i < 3; i++) {
+            transactionDao.flush();
+        }
+        assertThat(transactionDao.getTransaction(TRANSACTION_HASH, BTC)).isEqualTo(Transaction.unknown(BTC));
+    }
+
+    @Test
+    void flushOnShutdown() {
+        transactionDao.saveTransaction(TRANSACTION);
+        transactionDao.flushOnShutdown();
+        verify(transactionJpaDao).saveTransactions(List.of(TRANSACTION));
+    }
+
+    @Test
+    void cache_is_bounded() {
+        TransactionDaoImpl uncachedDao = new TransactionDaoImpl(transactionJpaDao, 0, WRITE_BUFFER_CAPACITY);
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(TRANSACTION);
+        uncachedDao.getTransaction(TRANSACTION_HASH, BTC);
+        uncachedDao.getTransaction(TRANSACTION_HASH, BTC);
+        verify(transactionJpaDao, times(2)).getTransaction(TRANSACTION_HASH, BTC);
+    }
+
+    @Test
+    void getCacheStats() {
+        when(transactionJpaDao.getTransaction(TRANSACTION_HASH, BTC)).thenReturn(TRANSACTION);
+        transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+        transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+        assertThat(transactionDao.getCacheStats().hitCount()).isEqualTo(1);
+        assertThat(transactionDao.getCacheStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void logCacheStats() {
+        transactionDao.logCacheStats();
+        verifyNoInteractions(transactionJpaDao);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package de.cotto.bitbook.backend.transaction.persistence;
+
+import de.cotto.bitbook.backend.model.Transaction;
+import de.cotto.bitbook.backend.model.TransactionHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.TransactionFixtures.BLOCK_HEIGHT;
+import static de.cotto.bitbook.backend.model.TransactionFixtures.DATE_TIME;
+import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION;
+import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION_2;
+import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION_BCH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
+import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH_2;
+import static de.cotto.bitbook.backend.transaction.persistence.TransactionJpaDtoFixtures.TRANSACTION_JPA_DTO;
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionJpaDaoTest {
+
+    @InjectMocks
+    private TransactionJpaDao transactionDao;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Test
+    void getTransaction_unknown() {
+        Transaction transaction = transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+        assertThat(transaction).isEqualTo(Transaction.unknown(BTC));
+    }
+
+    @Test
+    void getTransaction() {
+        when(transactionRepository.findById(new TransactionJpaDtoId(TRANSACTION_HASH.toString(), BTC.toString())))
+                .thenReturn(Optional.of(TRANSACTION_JPA_DTO));
+
+        Transaction transaction = transactionDao.getTransaction(TRANSACTION_HASH, BTC);
+
+        assertThat(transaction).isEqualTo(TRANSACTION);
+    }
+
+    @Test
+    void saveTransactions() {
+        transactionDao.saveTransactions(List.of(TRANSACTION));
+        verify(entityManager).persist(argThat((TransactionJpaDto dto) ->
+                TRANSACTION_HASH.toString().equals(dto.getHash())
+                && BLOCK_HEIGHT == dto.getBlockHeight()
+                && DATE_TIME.toEpochSecond(ZoneOffset.UTC) == dto.getTime()
+        ));
+    }
+
+    @Test
+    void saveTransactions_skips_persisted_transactions() {
+        List<String> hashes = List.of(TRANSACTION_HASH.toString(), TRANSACTION_HASH_2.toString());
+        when(transactionRepository.findExistingHashes("BTC", hashes))
+                .thenReturn(Set.of(TRANSACTION_HASH.toString()));
+        transactionDao.saveTransactions(List.of(TRANSACTION, TRANSACTION_2));
+        verify(entityManager, times(1)).persist(any());
+        verify(entityManager).persist(argThat((TransactionJpaDto dto) ->
+                TRANSACTION_HASH_2.toString().equals(dto.getHash())
+        ));
+    }
+
+    @Test
+    void saveTransactions_skips_duplicates() {
+        transactionDao.saveTransactions(List.of(TRANSACTION, TRANSACTION));
+        verify(entityManager, times(1)).persist(any());
+    }
+
+    @Test
+    void saveTransactions_checks_each_chain() {
+        transactionDao.saveTransactions(List.of(TRANSACTION, TRANSACTION_BCH));
+        verify(transactionRepository).findExistingHashes("BTC", List.of(TRANSACTION_HASH.toString()));
+        verify(transactionRepository).findExistingHashes("BCH", List.of(TRANSACTION_HASH.toString()));
+        verify(entityManager, times(2)).persist(any());
+    }
+
+    @Test
+    void getTransactions_none_persisted() {
+        assertThat(transactionDao.getTransactions(Set.of(TRANSACTION_HASH), BTC)).isEmpty();
+    }
+
+    @Test
+    void getTransactions() {
+        List<String> hashes = List.of(TRANSACTION_HASH.toString());
+        when(transactionRepository.findByChainAndHashIn("BTC", hashes)).thenReturn(List.of(TRANSACTION_JPA_DTO));
+
+        Set<Transaction> transactions = transactionDao.getTransactions(Set.of(TRANSACTION_HASH), BTC);
+
+        assertThat(transactions).containsExactly(TRANSACTION);
+    }
+
+    @Test
+    void getTransactions_uses_several_queries_for_many_hashes() {
+        Set<TransactionHash> hashes = IntStream.range(0, 1_001)
+                .mapToObj(i -> new TransactionHash(String.format("%064x", i)))
+                .collect(toSet());
+
+        transactionDao.getTransactions(hashes, BTC);
+
+        verify(transactionRepository, times(3)).findByChainAndHashIn(eq("BTC"), any());
+    }
+}
@@ -17,7 +17,7 @@ import static de.cotto.bitbook.backend.model.TransactionFixtures.FEES;
 import static de.cotto.bitbook.backend.model.TransactionFixtures.TRANSACTION;
 import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
 import static de.cotto.bitbook.backend.transaction.persistence.TransactionJpaDtoFixtures.TRANSACTION_JPA_DTO;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
 
 class TransactionJpaDtoTest {
     @Test
@@ -44,4 +44,18 @@ class TransactionJpaDtoTest {
         );
         assertThat(TransactionJpaDto.fromModel(coinbaseTransaction).toModel()).isEqualTo(coinbaseTransaction);
     }
+
+    @Test
+    void fromModel_addresses_skips_invalid_address() {
+        Transaction transaction = Transaction.forCoinbase(
+                TRANSACTION_HASH,
+                BLOCK_HEIGHT,
+                DATE_TIME,
+                FEES,
+                List.of(OUTPUT_1, new Output(Coins.NONE, Address.NONE)),
+                BCD
+        );
+        assertThat(TransactionJpaDto.fromModel(transaction).getAddresses())
+                .containsExactlyInAnyOrder("coinbase", OUTPUT_1.getAddress().toString());
+    }
 }
\ No newline at end of file
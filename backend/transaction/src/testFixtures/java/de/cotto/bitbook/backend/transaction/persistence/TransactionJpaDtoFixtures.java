@@ -2,16 +2,17 @@ package de.cotto.bitbook.backend.transaction.persistence;
 
 import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Set;
 
 import static de.cotto.bitbook.backend.model.Chain.BTC;
+import static de.cotto.bitbook.backend.model.InputFixtures.INPUT_1;
+import static de.cotto.bitbook.backend.model.InputFixtures.INPUT_2;
+import static de.cotto.bitbook.backend.model.OutputFixtures.OUTPUT_1;
+import static de.cotto.bitbook.backend.model.OutputFixtures.OUTPUT_2;
 import static de.cotto.bitbook.backend.model.TransactionFixtures.BLOCK_HEIGHT;
 import static de.cotto.bitbook.backend.model.TransactionFixtures.DATE_TIME;
 import static de.cotto.bitbook.backend.model.TransactionFixtures.FEES;
 import static de.cotto.bitbook.backend.model.TransactionHashFixtures.TRANSACTION_HASH;
-import static de.cotto.bitbook.backend.transaction.persistence.InputJpaDtoFixtures.INPUT_JPA_DTO_1;
-import static de.cotto.bitbook.backend.transaction.persistence.InputJpaDtoFixtures.INPUT_JPA_DTO_2;
-import static de.cotto.bitbook.backend.transaction.persistence.OutputJpaDtoFixtures.OUTPUT_JPA_DTO_1;
-import static de.cotto.bitbook.backend.transaction.persistence.OutputJpaDtoFixtures.OUTPUT_JPA_DTO_2;
 
 public class TransactionJpaDtoFixtures {
     public static final TransactionJpaDto TRANSACTION_JPA_DTO;
@@ -22,8 +23,15 @@ public class TransactionJpaDtoFixtures {
         TRANSACTION_JPA_DTO.setBlockHeight(BLOCK_HEIGHT);
         TRANSACTION_JPA_DTO.setTime(DATE_TIME.toEpochSecond(ZoneOffset.UTC));
         TRANSACTION_JPA_DTO.setFees(FEES.satoshis());
-        TRANSACTION_JPA_DTO.setInputs(List.of(INPUT_JPA_DTO_1, INPUT_JPA_DTO_2));
-        TRANSACTION_JPA_DTO.setOutputs(List.of(OUTPUT_JPA_DTO_1, OUTPUT_JPA_DTO_2));
+        TRANSACTION_JPA_DTO.setInputsAndOutputs(
+                InputsAndOutputsCodec.encode(List.of(INPUT_1, INPUT_2), List.of(OUTPUT_1, OUTPUT_2))
+        );
+        TRANSACTION_JPA_DTO.setAddresses(Set.of(
+                INPUT_1.getAddress().toString(),
+                INPUT_2.getAddress().toString(),
+                OUTPUT_1.getAddress().toString(),
+                OUTPUT_2.getAddress().toString()
+        ));
         TRANSACTION_JPA_DTO.setChain(BTC.toString());
     }
 }
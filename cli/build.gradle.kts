@@ -11,7 +11,7 @@ dependencies {
     runtimeOnly(project(":backend:provider:all"))
     runtimeOnly(project(":cli:lnd"))
     runtimeOnly(project(":cli:ownership"))
-    runtimeOnly("org.flywaydb:flyway-core")
+    implementation("org.flywaydb:flyway-core")
     integrationTestImplementation(project(":cli:ownership"))
     testImplementation(testFixtures(project(":backend:models")))
     integrationTestImplementation("org.springframework.boot:spring-boot-starter-data-jpa")
@@ -0,0 +1,328 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Moves the inputs and outputs of each transaction from the inputs/outputs tables into the binary column of the
+ * transactions table, and the addresses into the transaction_addresses table.
+ * The migration must not change once it has been released. Therefore, it contains its own copy of version 1 of the
+ * encoding (see InputsAndOutputsCodec) and of the address normalization (CashAddr addresses are stored as legacy
+ * addresses), instead of using the current application code.
+ */
+@SuppressWarnings({"PMD.ClassNamingConventions", "PMD.GodClass", "PMD.TooManyMethods"})
+public class V1_0_5__CompactInputsAndOutputs extends BaseJavaMigration {
+    private static final int TRANSACTIONS_PER_BATCH = 500;
+
+    private static final byte ENCODING_VERSION = 1;
+    private static final int PAYLOAD_BITS_PER_BYTE = 7;
+    private static final int PAYLOAD_MASK = 0x7F;
+    private static final int CONTINUATION_BIT = 0x80;
+
+    private static final String BITCOIN_CASH_PREFIX = "bitcoincash:";
+    private static final byte[] BITCOIN_CASH_PREFIX_VALUES = {2, 9, 20, 3, 15, 9, 14, 3, 1, 19, 8, 0};
+    private static final String BECH32_CHARSET = "qpzry9x8gf2tvdw0s3jn54khce6mua7l";
+    private static final Pattern CASH_ADDR_PATTERN = Pattern.compile("bitcoincash:[" + BECH32_CHARSET + "]{6,}");
+    private static final int CASH_ADDR_CHECKSUM_VALUES = 8;
+    private static final int MINIMUM_LENGTH_WITH_LEGACY_ADDRESS = 42;
+    private static final int MAXIMUM_LENGTH_WITH_LEGACY_ADDRESS = 43;
+    private static final String FIRST_CHARACTERS_WITH_LEGACY_ADDRESS = "qps3QPS";
+    private static final int CASH_ADDR_VERSION_MASK = 120;
+    private static final int P2PKH_VERSION = 0;
+    private static final int P2SH_VERSION = 8;
+    private static final byte P2PKH_PREFIX = 0x00;
+    private static final byte P2SH_PREFIX = 0x05;
+    private static final int HASH160_BYTES = 20;
+    private static final int BASE58_CHECKSUM_BYTES = 4;
+    private static final String BASE58_ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+    private static final BigInteger FIFTY_EIGHT = BigInteger.valueOf(58);
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE transactions ADD COLUMN inputs_and_outputs VARBINARY");
+            statement.execute("CREATE TABLE transaction_addresses (" +
+                              "transaction_jpa_dto_chain VARCHAR(255) NOT NULL, " +
+                              "transaction_jpa_dto_hash VARCHAR(255) NOT NULL, " +
+                              "address VARCHAR(255) NOT NULL, " +
+                              "PRIMARY KEY (transaction_jpa_dto_chain, transaction_jpa_dto_hash, address), " +
+                              "FOREIGN KEY (transaction_jpa_dto_chain, transaction_jpa_dto_hash) " +
+                              "REFERENCES transactions (chain, hash))");
+            statement.execute("CREATE INDEX transaction_addresses_address ON transaction_addresses (address)");
+        }
+        migrateTransactions(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE transactions_inputs");
+            statement.execute("DROP TABLE transactions_outputs");
+            statement.execute("DROP TABLE inputs");
+            statement.execute("DROP TABLE outputs");
+        }
+    }
+
+    private void migrateTransactions(Connection connection) throws SQLException {
+        try (
+                PreparedStatement selectTransactions = connection.prepareStatement(
+                        "SELECT chain, hash FROM transactions " +
+                        "WHERE chain > ? OR (chain = ? AND hash > ?) ORDER BY chain, hash LIMIT " +
+                        TRANSACTIONS_PER_BATCH
+                );
+                PreparedStatement selectInputs = connection.prepareStatement(
+                        "SELECT value, source_address FROM inputs " +
+                        "JOIN transactions_inputs ON transactions_inputs.inputs_id = inputs.id " +
+                        "WHERE transaction_jpa_dto_chain = ? AND transaction_jpa_dto_hash = ? ORDER BY inputs.id"
+                );
+                PreparedStatement selectOutputs = connection.prepareStatement(
+                        "SELECT value, target_address FROM outputs " +
+                        "JOIN transactions_outputs ON transactions_outputs.outputs_id = outputs.id " +
+                        "WHERE transaction_jpa_dto_chain = ? AND transaction_jpa_dto_hash = ? ORDER BY outputs.id"
+                );
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE transactions SET inputs_and_outputs = ? WHERE chain = ? AND hash = ?"
+                );
+                PreparedStatement insertAddress = connection.prepareStatement(
+                        "INSERT INTO transaction_addresses " +
+                        "(transaction_jpa_dto_chain, transaction_jpa_dto_hash, address) VALUES (?, ?, ?)"
+                )
+        ) {
+            String lastChain = "";
+            String lastHash = "";
+            boolean moreTransactions = true;
+            while (moreTransactions) {
+                selectTransactions.setString(1, lastChain);
+                selectTransactions.setString(2, lastChain);
+                selectTransactions.setString(3, lastHash);
+                int transactionsInBatch = 0;
+                try (ResultSet transactions = selectTransactions.executeQuery()) {
+                    while (transactions.next()) {
+                        lastChain = transactions.getString(1);
+                        lastHash = transactions.getString(2);
+                        List<InputOrOutput> inputs = read(selectInputs, lastChain, lastHash);
+                        List<InputOrOutput> outputs = read(selectOutputs, lastChain, lastHash);
+                        update.setBytes(1, encode(inputs, outputs));
+                        update.setString(2, lastChain);
+                        update.setString(3, lastHash);
+                        update.addBatch();
+                        for (String address : getValidAddresses(inputs, outputs)) {
+                            insertAddress.setString(1, lastChain);
+                            insertAddress.setString(2, lastHash);
+                            insertAddress.setString(3, address);
+                            insertAddress.addBatch();
+                        }
+                        transactionsInBatch++;
+                    }
+                }
+                update.executeBatch();
+                insertAddress.executeBatch();
+                moreTransactions = transactionsInBatch == TRANSACTIONS_PER_BATCH;
+            }
+        }
+    }
+
+    private List<InputOrOutput> read(PreparedStatement statement, String chain, String hash) throws SQLException {
+        statement.setString(1, chain);
+        statement.setString(2, hash);
+        List<InputOrOutput> result = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                String address = Objects.requireNonNullElse(resultSet.getString(2), "");
+                result.add(new InputOrOutput(resultSet.getLong(1), toLegacyAddress(address)));
+            }
+        }
+        return result;
+    }
+
+    private Set<String> getValidAddresses(List<InputOrOutput> inputs, List<InputOrOutput> outputs) {
+        Set<String> addresses = new LinkedHashSet<>();
+        Stream.concat(inputs.stream(), outputs.stream())
+                .map(InputOrOutput::address)
+                .filter(address -> !address.isEmpty())
+                .forEach(addresses::add);
+        return addresses;
+    }
+
+    private static byte[] encode(List<InputOrOutput> inputs, List<InputOrOutput> outputs) {
+        Map<String, Integer> addressIndexes = new LinkedHashMap<>();
+        Stream.concat(inputs.stream(), outputs.stream())
+                .forEach(inputOrOutput -> addressIndexes.putIfAbsent(inputOrOutput.address(), addressIndexes.size()));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(ENCODING_VERSION);
+        writeVarint(stream, addressIndexes.size());
+        for (String address : addressIndexes.keySet()) {
+            byte[] bytes = address.getBytes(StandardCharsets.UTF_8);
+            writeVarint(stream, bytes.length);
+            stream.writeBytes(bytes);
+        }
+        writeInputsOrOutputs(stream, inputs, addressIndexes);
+        writeInputsOrOutputs(stream, outputs, addressIndexes);
+        return stream.toByteArray();
+    }
+
+    private static void writeInputsOrOutputs(
+            ByteArrayOutputStream stream,
+            List<InputOrOutput> inputsOrOutputs,
+            Map<String, Integer> addressIndexes
+    ) {
+        writeVarint(stream, inputsOrOutputs.size());
+        for (InputOrOutput inputOrOutput : inputsOrOutputs) {
+            writeVarint(stream, inputOrOutput.satoshis());
+            writeVarint(stream, addressIndexes.get(inputOrOutput.address()));
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream stream, long value) {
+        long remaining = value;
+        while ((remaining & ~PAYLOAD_MASK) != 0) {
+            stream.write((int) (remaining & PAYLOAD_MASK) | CONTINUATION_BIT);
+            remaining >>>= PAYLOAD_BITS_PER_BYTE;
+        }
+        stream.write((int) remaining);
+    }
+
+    private static String toLegacyAddress(String address) {
+        if (!mightHaveLegacyAddress(address)) {
+            return address;
+        }
+        String lowerCase = address.toLowerCase(Locale.US);
+        String lowerCaseWithPrefix =
+                lowerCase.startsWith(BITCOIN_CASH_PREFIX) ? lowerCase : BITCOIN_CASH_PREFIX + lowerCase;
+        String lowerCaseWithoutPrefix = lowerCaseWithPrefix.substring(BITCOIN_CASH_PREFIX.length());
+        String withoutPrefix = address.substring(address.length() - lowerCaseWithoutPrefix.length());
+        boolean mixedCase = !withoutPrefix.equals(lowerCaseWithoutPrefix)
+                && !withoutPrefix.equals(lowerCaseWithoutPrefix.toUpperCase(Locale.US));
+        if (mixedCase || !CASH_ADDR_PATTERN.matcher(lowerCaseWithPrefix).matches()) {
+            return address;
+        }
+        byte[] values = new byte[lowerCaseWithPrefix.length()];
+        System.arraycopy(BITCOIN_CASH_PREFIX_VALUES, 0, values, 0, BITCOIN_CASH_PREFIX_VALUES.length);
+        for (int position = BITCOIN_CASH_PREFIX.length(); position < values.length; position++) {
+            values[position] = (byte) BECH32_CHARSET.indexOf(lowerCaseWithPrefix.charAt(position));
+        }
+        if (polymod(values) != 0) {
+            return address;
+        }
+        byte[] data = Arrays.copyOfRange(
+                values,
+                BITCOIN_CASH_PREFIX_VALUES.length,
+                values.length - CASH_ADDR_CHECKSUM_VALUES
+        );
+        byte[] converted = convertBits(data);
+        int version = converted[0] & CASH_ADDR_VERSION_MASK;
+        byte[] hash = Arrays.copyOfRange(converted, 1, converted.length);
+        if (hash.length != HASH160_BYTES) {
+            return address;
+        }
+        if (version == P2PKH_VERSION) {
+            return toBase58Address(P2PKH_PREFIX, hash);
+        }
+        if (version == P2SH_VERSION) {
+            return toBase58Address(P2SH_PREFIX, hash);
+        }
+        return address;
+    }
+
+    private static boolean mightHaveLegacyAddress(String address) {
+        int prefixLength = BITCOIN_CASH_PREFIX.length();
+        boolean hasPrefix = address.regionMatches(true, 0, BITCOIN_CASH_PREFIX, 0, prefixLength);
+        int start = hasPrefix ? prefixLength : 0;
+        int length = address.length() - start;
+        if (length < MINIMUM_LENGTH_WITH_LEGACY_ADDRESS || length > MAXIMUM_LENGTH_WITH_LEGACY_ADDRESS) {
+            return false;
+        }
+        return FIRST_CHARACTERS_WITH_LEGACY_ADDRESS.indexOf(address.charAt(start)) >= 0;
+    }
+
+    @SuppressWarnings("PMD.CognitiveComplexity")
+    private static long polymod(byte[] values) {
+        long checksum = 1;
+        for (long value : values) {
+            long top = checksum >> 35;
+            checksum = (checksum & 0x07ffffffffL) << 5 ^ value;
+            if ((top & 0x01) != 0) {
+                checksum ^= 0x98f2bc8e61L;
+            }
+            if ((top & 0x02) != 0) {
+                checksum ^= 0x79b76d99e2L;
+            }
+            if ((top & 0x04) != 0) {
+                checksum ^= 0xf33e5fb3c4L;
+            }
+            if ((top & 0x08) != 0) {
+                checksum ^= 0xae2eabe2a8L;
+            }
+            if ((top & 0x10) != 0) {
+                checksum ^= 0x1e4f43e470L;
+            }
+        }
+        return checksum ^ 1;
+    }
+
+    private static byte[] convertBits(byte[] values) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        int accumulator = 0;
+        int bits = 0;
+        for (byte value : values) {
+            accumulator = ((accumulator & 0xff) << 5) | (value & 0xff);
+            bits += 5;
+            while (bits >= 8) {
+                bits -= 8;
+                result.write((accumulator >> bits) & 0xff);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    private static String toBase58Address(byte prefix, byte[] hash) {
+        byte[] data = new byte[1 + hash.length + BASE58_CHECKSUM_BYTES];
+        data[0] = prefix;
+        System.arraycopy(hash, 0, data, 1, hash.length);
+        byte[] checksum = sha256(sha256(Arrays.copyOf(data, 1 + hash.length)));
+        System.arraycopy(checksum, 0, data, 1 + hash.length, BASE58_CHECKSUM_BYTES);
+
+        StringBuilder result = new StringBuilder();
+        BigInteger remaining = new BigInteger(1, data);
+        while (remaining.signum() > 0) {
+            BigInteger[] quotientAndRemainder = remaining.divideAndRemainder(FIFTY_EIGHT);
+            result.append(BASE58_ALPHABET.charAt(quotientAndRemainder[1].intValue()));
+            remaining = quotientAndRemainder[0];
+        }
+        for (int i = 0; i < data.length && data[i] == 0; i++) {
+            result.append(BASE58_ALPHABET.charAt(0));
+        }
+        return result.reverse().toString();
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record InputOrOutput(long satoshis, String address) {
+    }
+}
@@ -0,0 +1,7 @@
+create table background_requests
+(
+    request_type varchar(255) not null,
+    request_key  varchar(255) not null,
+    chain        varchar(255) not null,
+    primary key (request_type, request_key, chain)
+);
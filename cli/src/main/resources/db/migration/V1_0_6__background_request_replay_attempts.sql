@@ -0,0 +1,2 @@
+alter table background_requests
+    add column replay_attempts integer default 0 not null;
@@ -0,0 +1,133 @@
+package db.migration;
+
+import de.cotto.bitbook.backend.model.Address;
+import de.cotto.bitbook.backend.model.Coins;
+import de.cotto.bitbook.backend.model.Input;
+import de.cotto.bitbook.backend.model.Output;
+import de.cotto.bitbook.backend.transaction.persistence.InputsAndOutputsCodec;
+import de.cotto.bitbook.backend.transaction.persistence.InputsAndOutputsCodec.InputsAndOutputs;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@SuppressWarnings("PMD.ClassNamingConventions")
+class V1_0_5__CompactInputsAndOutputsTest {
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+    private static final String HASH = "abc";
+    private static final String HASH_2 = "def";
+    private static final String CASH_ADDR = "bitcoincash:qpm2qsznhks23z7629mms6s4cwef74vcwvy22gdx6a";
+    private static final String LEGACY_ADDRESS = "1BpEi6DfDAUFd7GtittLSdBeYJvcoaVggu";
+    private static final String BECH32_ADDRESS = "bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdq";
+
+    private String url;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        migrate("1.0.4");
+        try (
+                Connection connection = DriverManager.getConnection(url, USER, PASSWORD);
+                Statement statement = connection.createStatement()
+        ) {
+            statement.execute("INSERT INTO transactions (chain, hash, block_height, fees, time) " +
+                              "VALUES ('BTC', '" + HASH + "', 123, 30, 456), ('BTC', '" + HASH_2 + "', 124, 0, 457)");
+            statement.execute("INSERT INTO inputs (id, source_address, value) " +
+                              "VALUES (1, '" + CASH_ADDR + "', 100), (2, NULL, 5000000000)");
+            statement.execute("INSERT INTO outputs (id, target_address, value) " +
+                              "VALUES (3, '" + BECH32_ADDRESS + "', 70), (4, '" + LEGACY_ADDRESS + "', 5000000000)");
+            statement.execute("INSERT INTO transactions_inputs " +
+                              "(transaction_jpa_dto_chain, transaction_jpa_dto_hash, inputs_id) " +
+                              "VALUES ('BTC', '" + HASH + "', 1), ('BTC', '" + HASH_2 + "', 2)");
+            statement.execute("INSERT INTO transactions_outputs " +
+                              "(transaction_jpa_dto_chain, transaction_jpa_dto_hash, outputs_id) " +
+                              "VALUES ('BTC', '" + HASH + "', 3), ('BTC', '" + HASH_2 + "', 4)");
+        }
+        migrate("1.0.5");
+    }
+
+    @Test
+    void encodes_inputs_and_outputs_with_normalized_addresses() throws SQLException {
+        assertThat(getInputsAndOutputs(HASH)).isEqualTo(new InputsAndOutputs(
+                List.of(new Input(Coins.ofSatoshis(100), new Address(LEGACY_ADDRESS))),
+                List.of(new Output(Coins.ofSatoshis(70), new Address(BECH32_ADDRESS)))
+        ));
+    }
+
+    @Test
+    void encodes_input_without_address() throws SQLException {
+        assertThat(getInputsAndOutputs(HASH_2)).isEqualTo(new InputsAndOutputs(
+                List.of(new Input(Coins.ofSatoshis(5_000_000_000L), Address.NONE)),
+                List.of(new Output(Coins.ofSatoshis(5_000_000_000L), new Address(LEGACY_ADDRESS)))
+        ));
+    }
+
+    @Test
+    void stores_valid_addresses() throws SQLException {
+        assertThat(getAddresses(HASH)).containsExactlyInAnyOrder(LEGACY_ADDRESS, BECH32_ADDRESS);
+        assertThat(getAddresses(HASH_2)).containsExactly(LEGACY_ADDRESS);
+    }
+
+    @Test
+    void drops_inputs_and_outputs_tables() throws SQLException {
+        try (
+                Connection connection = DriverManager.getConnection(url, USER, PASSWORD);
+                Statement statement = connection.createStatement()
+        ) {
+            assertThatExceptionOfType(SQLException.class)
+                    .isThrownBy(() -> statement.executeQuery("SELECT * FROM inputs"));
+            assertThatExceptionOfType(SQLException.class)
+                    .isThrownBy(() -> statement.executeQuery("SELECT * FROM outputs"));
+        }
+    }
+
+    private void migrate(String targetVersion) {
+        Flyway.configure()
+                .dataSource(url, USER, PASSWORD)
+                .target(targetVersion)
+                .load()
+                .migrate();
+    }
+
+    private InputsAndOutputs getInputsAndOutputs(String hash) throws SQLException {
+        try (
+                Connection connection = DriverManager.getConnection(url, USER, PASSWORD);
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(
+                        "SELECT inputs_and_outputs FROM transactions WHERE chain = 'BTC' AND hash = '" + hash + "'"
+                )
+        ) {
+            assertThat(resultSet.next()).isTrue();
+            return InputsAndOutputsCodec.decode(resultSet.getBytes(1));
+        }
+    }
+
+    private List<String> getAddresses(String hash) throws SQLException {
+        List<String> addresses = new ArrayList<>();
+        try (
+                Connection connection = DriverManager.getConnection(url, USER, PASSWORD);
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(
+                        "SELECT address FROM transaction_addresses " +
+                        "WHERE transaction_jpa_dto_chain = 'BTC' AND transaction_jpa_dto_hash = '" + hash + "'"
+                )
+        ) {
+            while (resultSet.next()) {
+                addresses.add(resultSet.getString(1));
+            }
+        }
+        return addresses;
+    }
+}
@@ -94,7 +94,7 @@ public class AddressOwnershipService {
 
     public Coins getBalance(Chain chain) {
         Set<Address> ownedAddresses = getOwnedAddresses();
-        addressTransactionsService.getTransactionsForAddresses(ownedAddresses, chain);
+        getTransactionsForOwnedAddresses(ownedAddresses, chain);
         return ownedAddresses.parallelStream()
                 .map(address -> balanceService.getBalance(address, chain))
                 .reduce(Coins.NONE, Coins::add);
@@ -109,14 +109,18 @@ public class AddressOwnershipService {
     }
 
     private Set<Transaction> getMyTransactions(Chain chain) {
-        Set<TransactionHash> hashes =
-                addressTransactionsService.getTransactionsForAddresses(getOwnedAddresses(), chain).stream()
-                        .map(AddressTransactions::transactionHashes)
-                        .flatMap(Set::stream)
-                        .collect(toSet());
+        Set<TransactionHash> hashes = getTransactionsForOwnedAddresses(getOwnedAddresses(), chain).stream()
+                .map(AddressTransactions::transactionHashes)
+                .flatMap(Set::stream)
+                .collect(toSet());
         return transactionService.getTransactionDetails(hashes, chain);
     }
 
+    private Set<AddressTransactions> getTransactionsForOwnedAddresses(Set<Address> ownedAddresses, Chain chain) {
+        addressTransactionsService.subscribeToChanges(ownedAddresses, chain);
+        return addressTransactionsService.getTransactionsForAddresses(ownedAddresses, chain);
+    }
+
     private Map<Transaction, Coins> getDifferences(
             Set<Transaction> transactions,
             Set<Address> addresses
@@ -359,6 +359,19 @@ class AddressOwnershipServiceTest {
         inOrder.verify(balanceService, atLeastOnce()).getBalance(any(), eq(BTC));
     }
 
+    @Test
+    void getBalance_subscribes_to_changes_of_owned_addresses() {
+        Set<Address> addresses = Set.of(ADDRESS, ADDRESS_2);
+        when(ownedAddressesDao.getOwnedAddresses()).thenReturn(addresses);
+        when(balanceService.getBalance(any(), eq(BTC))).thenReturn(Coins.ofSatoshis(1));
+
+        addressOwnershipService.getBalance(BTC);
+
+        InOrder inOrder = inOrder(addressTransactionsService);
+        inOrder.verify(addressTransactionsService).subscribeToChanges(addresses, BTC);
+        inOrder.verify(addressTransactionsService).getTransactionsForAddresses(addresses, BTC);
+    }
+
     @Test
     void getOwnershipStatus_owned() {
         when(ownedAddressesDao.getOwnershipStatus(ADDRESS)).thenReturn(OWNED);